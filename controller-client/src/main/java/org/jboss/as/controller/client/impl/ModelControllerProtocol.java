@@ -61,5 +61,7 @@ public interface ModelControllerProtocol {
     // The propagated identity params
     byte PARAM_IDENTITY_LENGTH = 0x50;
     byte PARAM_IN_VM_CALL = 0x51;
+    // The operation, using the compact model encoding
+    byte PARAM_OPERATION_COMPACT = 0x52;
 
 }
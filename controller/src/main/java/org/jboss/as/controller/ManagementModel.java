@@ -48,6 +48,22 @@ public interface ManagementModel {
      */
     Resource getRootResource();
 
+    /**
+     * Gets the root resource of the model that is currently published. Unlike the resource returned by
+     * {@link #getRootResource()}, which delegates to whichever model is current each time it is used, the
+     * returned resource is not affected by models published later, so callers can compare it by identity to
+     * tell whether the model has changed.
+     * <p>
+     * Models that do not track publication return {@code null}, in which case callers must not cache anything
+     * derived from the model, as they cannot tell when it changes.
+     * </p>
+     *
+     * @return the resource, or {@code null} if the model does not track publication
+     */
+    default Resource getPublishedRootResource() {
+        return null;
+    }
+
     /**
      * Gets the registry of capabilities and their requirements.
      *
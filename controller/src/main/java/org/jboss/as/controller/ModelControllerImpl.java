@@ -39,6 +39,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUT
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROCESS_STATE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESPONSE_HEADERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVICE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SNAPSHOT_READ_COUNT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.USER;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.UUID;
 import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
@@ -63,6 +64,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import org.jboss.as.controller.access.Authorizer;
@@ -122,6 +124,8 @@ class ModelControllerImpl implements ModelController {
     private final ProcessType processType;
     private final RunningModeControl runningModeControl;
     private final AtomicBoolean bootingFlag = new AtomicBoolean(true);
+    /** Number of read-only operations executed against a snapshot of the published model */
+    private final LongAdder snapshotReadCount = new LongAdder();
     private final OperationStepHandler prepareStep;
     private final ControlledProcessState processState;
     private final ExecutorService executorService;
@@ -400,7 +404,7 @@ class ModelControllerImpl implements ModelController {
             final Integer operationID = random.nextInt();
             final OperationContextImpl context = new OperationContextImpl(operationID, operation.get(OP).asString(),
                     operation.get(OP_ADDR), this, processType, runningModeControl.getRunningMode(),
-                    headers, handler, attachments, managementModel.get(), originalResultTxControl, processState, auditLogger,
+                    headers, handler, attachments, getManagementModel(operation, attemptLock), originalResultTxControl, processState, auditLogger,
                     bootingFlag.get(), hostServerGroupTracker, accessContext, notificationSupport,
                     false, extraValidationStepHandler, partialModel, securityIdentitySupplier);
             // Try again if the operation-id is already taken
@@ -460,6 +464,35 @@ class ModelControllerImpl implements ModelController {
         }
     }
 
+    /**
+     * Gets the model an operation should execute against. Operations registered as
+     * {@link OperationEntry.Flag#READ_ONLY read-only} are given a snapshot of the currently published model, so
+     * all of their steps see the same model regardless of any writes published while they execute.
+     *
+     * @param operation the operation
+     * @param attemptLock {@code true} if the caller is going to obtain the controller lock for the operation
+     * @return the model. Will not be {@code null}
+     */
+    private ManagementModelImpl getManagementModel(final ModelNode operation, final boolean attemptLock) {
+        final ManagementModelImpl current = managementModel.get();
+        if (!attemptLock && !bootingFlag.get() && isReadOnlyOperation(current, operation)) {
+            snapshotReadCount.increment();
+            return current.snapshot();
+        }
+        return current;
+    }
+
+    private static boolean isReadOnlyOperation(final ManagementModelImpl model, final ModelNode operation) {
+        final OperationEntry entry;
+        try {
+            entry = model.getRootResourceRegistration().getOperationEntry(PathAddress.pathAddress(operation.get(OP_ADDR)), operation.get(OP).asString());
+        } catch (RuntimeException e) {
+            // Invalid address or operation name; leave it to normal execution to report the problem
+            return false;
+        }
+        return entry != null && entry.getFlags().contains(OperationEntry.Flag.READ_ONLY);
+    }
+
     private static OperationResponse handleExternalRequestDuringBoot() {
         ModelNode result = new ModelNode();
         result.get(OUTCOME).set(FAILED);
@@ -694,6 +727,8 @@ class ModelControllerImpl implements ModelController {
                                                           final boolean resourceRegistrationModified) throws ConfigurationPersistenceException {
         final ConfigurationPersister.PersistenceResource delegate;
         if (resourceTreeModified) {
+            // All steps are complete, so the tree won't be modified any more. Stop copying shared children on access
+            Resource.Tools.seal(model.rootResource);
             // Don't do an expensive Resource.Tools.readModel if the persister isn't going to use the result
             if (persister.isPersisting()) {
                 ControllerLogger.MGMT_OP_LOGGER.tracef("persisting %s from %s", model.rootResource, model);
@@ -1000,6 +1035,18 @@ class ModelControllerImpl implements ModelController {
             super(SERVICE, MANAGEMENT_OPERATIONS);
         }
 
+        @Override
+        public ModelNode getModel() {
+            final ModelNode model = new ModelNode();
+            model.get(SNAPSHOT_READ_COUNT).set(snapshotReadCount.sum());
+            return model;
+        }
+
+        @Override
+        public boolean isModelDefined() {
+            return true;
+        }
+
         @Override
         public boolean hasChild(PathElement element) {
             try {
@@ -1086,13 +1133,27 @@ class ModelControllerImpl implements ModelController {
         // The capability registry
         private final CapabilityRegistry capabilityRegistry;
 
+        // Whether we are a snapshot of a published model, which always exposes that model's root Resource
+        private final boolean snapshot;
+
         private volatile boolean published;
 
         ManagementModelImpl(final ManagementResourceRegistration resourceRegistration,
                             final Resource rootResource,
                             final CapabilityRegistry capabilityRegistry) {
+            this(resourceRegistration, rootResource, capabilityRegistry, false);
+        }
+
+        private ManagementModelImpl(final ManagementResourceRegistration resourceRegistration,
+                            final Resource rootResource,
+                            final CapabilityRegistry capabilityRegistry,
+                            final boolean snapshot) {
             this.resourceRegistration = resourceRegistration;
             this.rootResource = rootResource;
+            this.snapshot = snapshot;
+            // A snapshot behaves as published in all respects other than the root Resource it exposes, so
+            // any attempt to modify the model will be based on whatever is current at that time
+            this.published = snapshot;
             assert capabilityRegistry != null;
             this.capabilityRegistry = capabilityRegistry;
             // What we expose depends on the state of our 'published' field. If 'true' we've been published
@@ -1118,7 +1179,7 @@ class ModelControllerImpl implements ModelController {
                 @Override
                 public Resource getDelegateResource() {
                     Resource result;
-                    if (published) {
+                    if (published && !snapshot) {
                         result = ModelControllerImpl.this.managementModel.get().rootResource;
                     } else {
                         result = rootResource;
@@ -1138,6 +1199,11 @@ class ModelControllerImpl implements ModelController {
             return delegatingResource;
         }
 
+        @Override
+        public Resource getPublishedRootResource() {
+            return published && !snapshot ? ModelControllerImpl.this.managementModel.get().rootResource : rootResource;
+        }
+
         @Override
         public RuntimeCapabilityRegistry getCapabilityRegistry() {
             return capabilityRegistry;
@@ -1175,6 +1241,19 @@ class ModelControllerImpl implements ModelController {
         }
         */
 
+        /**
+         * Creates a new {@code ManagementModelImpl} that exposes this one's root {@link Resource} for as long
+         * as it is used, even after some other model has been published. The root {@code Resource} of a
+         * published model is never modified, so the snapshot can be read without taking the controller lock.
+         * Modifying the snapshot is handled the same way as for a published model.
+         *
+         * @return the snapshot. Will not return {@code null}
+         */
+        ManagementModelImpl snapshot() {
+            assert published;
+            return new ManagementModelImpl(resourceRegistration, rootResource, capabilityRegistry, true);
+        }
+
         /**
          * Creates a new {@code ManagementModelImpl} that uses a clone of this one's root {@link Resource}.
          * The caller can safely modify that {@code Resource} without changes being exposed
@@ -1201,7 +1280,9 @@ class ModelControllerImpl implements ModelController {
                 currentResource = rootResource;
                 currentCaps = capabilityRegistry;
             }
-            Resource clone = currentResource.clone();
+            // The published tree is never modified, so the clone can share whatever parts of it the caller
+            // doesn't touch. An unpublished tree may still be modified by its owner, so take a full copy of it
+            Resource clone = published ? Resource.Tools.cloneForUpdate(currentResource) : currentResource.clone();
             ManagementModelImpl result = new ManagementModelImpl(mrr, clone, currentCaps);
             ControllerLogger.MGMT_OP_LOGGER.tracef("cloned to %s to create %s and %s", currentResource, clone, result);
             return result;
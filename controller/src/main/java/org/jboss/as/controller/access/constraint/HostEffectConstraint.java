@@ -34,6 +34,7 @@ import org.jboss.as.controller.access.JmxAction;
 import org.jboss.as.controller.access.JmxTarget;
 import org.jboss.as.controller.access.TargetAttribute;
 import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.rbac.AuthorizationDecisionCache;
 import org.jboss.as.controller.access.rbac.StandardRole;
 
 /**
@@ -99,6 +100,7 @@ public class HostEffectConstraint extends AbstractConstraint implements Constrai
         assert !global : "constraint is global";
         assert readOnlyConstraint != null : "invalid cast";
         this.hostsHolder.specific = new LinkedHashSet<String>(allowed);
+        AuthorizationDecisionCache.configurationChanged();
     }
 
     @Override
@@ -58,6 +58,26 @@ public class SensitiveVaultExpressionConstraint extends AllowAllowNotConstraint
         super(allowsSensitive, allowsNonSensitive);
     }
 
+    /**
+     * Gets whether a value is a vault expression, which makes reading or writing it a sensitive action.
+     *
+     * @param value the value. Cannot be {@code null}
+     * @return {@code true} if the value is a vault expression
+     */
+    public static boolean isVaultExpression(ModelNode value) {
+        if (value.getType() == ModelType.EXPRESSION
+                || value.getType() == ModelType.STRING) {
+            String valueString = value.asString();
+            if (ExpressionResolver.EXPRESSION_PATTERN.matcher(valueString).matches()) {
+                int start = valueString.indexOf("${") + 2;
+                int end = valueString.indexOf("}", start);
+                valueString = valueString.substring(start, end);
+                return VaultReader.STANDARD_VAULT_PATTERN.matcher(valueString).matches();
+            }
+        }
+        return false;
+    }
+
     private static class Factory extends AbstractConstraintFactory {
 
         @Override
@@ -120,17 +140,7 @@ public class SensitiveVaultExpressionConstraint extends AllowAllowNotConstraint
         }
 
         private boolean isSensitiveValue(ModelNode value) {
-            if (value.getType() == ModelType.EXPRESSION
-                    || value.getType() == ModelType.STRING) {
-                String valueString = value.asString();
-                if (ExpressionResolver.EXPRESSION_PATTERN.matcher(valueString).matches()) {
-                    int start = valueString.indexOf("${") + 2;
-                    int end = valueString.indexOf("}", start);
-                    valueString = valueString.substring(start, end);
-                    return VaultReader.STANDARD_VAULT_PATTERN.matcher(valueString).matches();
-                }
-            }
-            return false;
+            return isVaultExpression(value);
         }
 
         @Override
@@ -109,6 +109,26 @@ public final class DelegatingConfigurableAuthorizer implements JmxAuthorizer {
         writableAuthorizerConfiguration.setNonFacadeMBeansSensitive(sensitive);
     }
 
+    /**
+     * Gets the number of authorization decisions the current delegate answered from its decision cache.
+     *
+     * @return the number of cache hits, or {@code 0} if the delegate does not cache decisions
+     */
+    public long getDecisionCacheHitCount() {
+        Authorizer current = delegate;
+        return current instanceof StandardRBACAuthorizer ? ((StandardRBACAuthorizer) current).getDecisionCacheHitCount() : 0;
+    }
+
+    /**
+     * Gets the number of cacheable authorization decisions the current delegate had to compute.
+     *
+     * @return the number of cache misses, or {@code 0} if the delegate does not cache decisions
+     */
+    public long getDecisionCacheMissCount() {
+        Authorizer current = delegate;
+        return current instanceof StandardRBACAuthorizer ? ((StandardRBACAuthorizer) current).getDecisionCacheMissCount() : 0;
+    }
+
     public void shutdown() {
         if (delegate instanceof CustomAuthorizer) {
             ((CustomAuthorizer) delegate).shutdown();
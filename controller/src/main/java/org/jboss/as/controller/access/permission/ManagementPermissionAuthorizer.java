@@ -96,13 +96,13 @@ public class ManagementPermissionAuthorizer implements Authorizer {
         return authorize(userPerms, requiredPerms);
     }
 
-    private static boolean assertSameAddress(Action action, TargetResource target) {
+    protected static boolean assertSameAddress(Action action, TargetResource target) {
         ModelNode operation = action.getOperation();
         // operation can be null in some unit tests; to be lazy ignore those cases
         return operation == null || target.getResourceAddress().equals(PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR)));
     }
 
-    private AuthorizationResult authorize(PermissionCollection userPermissions, PermissionCollection requiredPermissions) {
+    protected static AuthorizationResult authorize(PermissionCollection userPermissions, PermissionCollection requiredPermissions) {
 
         final Enumeration<Permission> enumeration = requiredPermissions.elements();
         while (enumeration.hasMoreElements()){
@@ -131,7 +131,7 @@ public class ManagementPermissionAuthorizer implements Authorizer {
         return null;
     }
 
-    private boolean isServerBooting(Environment callEnvironment) {
+    protected static boolean isServerBooting(Environment callEnvironment) {
         return callEnvironment != null && callEnvironment.getProcessState() == ControlledProcessState.State.STARTING;
     }
 }
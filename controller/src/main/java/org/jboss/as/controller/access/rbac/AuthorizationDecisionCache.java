@@ -0,0 +1,251 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.access.rbac;
+
+import static org.jboss.as.controller.logging.ControllerLogger.ROOT_LOGGER;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.AuthorizationResult;
+import org.jboss.as.controller.access.HostEffect;
+import org.jboss.as.controller.access.ServerGroupEffect;
+import org.jboss.as.controller.access.constraint.SensitiveVaultExpressionConstraint;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Cache of the {@link AuthorizationResult}s computed by a {@link StandardRBACAuthorizer}.
+ * <p>
+ * Decisions are keyed by the caller's mapped role set together with everything the standard constraints
+ * read from the action and target: the operation name and action effects, the target address, the
+ * attribute name, whether the attribute's current value is a vault expression, and the host and server group scope.
+ * Only decisions for read-only action effects are cached, as the constraints applied to writes can depend on the
+ * values in the operation. The attribute's current value is part of the key as the vault expression constraint
+ * applies to reads of vault expressions, and writes of the value do not invalidate the cache.
+ * <p>
+ * Once the maximum size is reached, the least recently used decision is discarded, so a read of more resources
+ * than fit in the cache still gets hits for the decisions it repeats, such as those for the resource itself.
+ * <p>
+ * Changes to role mappings need no invalidation, as they only affect which role set a caller maps to. Any other change
+ * to the access control configuration must call {@link #configurationChanged()}, which discards the cached decisions
+ * of every instance.
+ */
+public final class AuthorizationDecisionCache {
+
+    private static final String MAX_SIZE_PROPERTY = "jboss.as.management.authorization-decision-cache.max-size";
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    /**
+     * Discards the decisions cached by all authorizers. Must be called after any change to the access
+     * control configuration other than to role mappings has been applied.
+     */
+    public static void configurationChanged() {
+        GENERATION.incrementAndGet();
+    }
+
+    private final int maxSize;
+    // Guarded by this
+    private final Map<DecisionKey, AuthorizationResult> decisions;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Guarded by this
+    private long generation = GENERATION.get();
+
+    AuthorizationDecisionCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.decisions = new LinkedHashMap<DecisionKey, AuthorizationResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DecisionKey, AuthorizationResult> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    static AuthorizationDecisionCache create() {
+        int maxSize = DEFAULT_MAX_SIZE;
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MAX_SIZE_PROPERTY, null);
+        if (value != null) {
+            try {
+                maxSize = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                ROOT_LOGGER.debugf("Ignoring invalid value %s for %s", value, MAX_SIZE_PROPERTY);
+            }
+        }
+        return new AuthorizationDecisionCache(maxSize);
+    }
+
+    /**
+     * Creates the key for a decision, or returns {@code null} if the decision must not be cached.
+     *
+     * @param attribute the name of the target attribute, or {@code null} for a resource decision
+     * @param attributeValue the current value of the target attribute, or {@code null} for a resource decision
+     */
+    DecisionKey createKey(Set<String> roles, Action action, PathAddress address, String attribute, ModelNode attributeValue,
+                          HostEffect hostEffect, ServerGroupEffect serverGroupEffect) {
+        if (maxSize <= 0 || roles == null) {
+            return null;
+        }
+        ModelNode operation = action.getOperation();
+        if (operation == null || !operation.hasDefined(ModelDescriptionConstants.OP)) {
+            return null;
+        }
+        Set<Action.ActionEffect> effects = action.getActionEffects();
+        for (Action.ActionEffect effect : effects) {
+            if (effect == Action.ActionEffect.WRITE_CONFIG || effect == Action.ActionEffect.WRITE_RUNTIME) {
+                return null;
+            }
+        }
+        boolean vaultExpression = attributeValue != null && SensitiveVaultExpressionConstraint.isVaultExpression(attributeValue);
+        return new DecisionKey(roles, operation.get(ModelDescriptionConstants.OP).asString(), effects, address, attribute,
+                vaultExpression, hostEffect, serverGroupEffect);
+    }
+
+    /**
+     * Gets the current configuration generation, which must be read before computing a decision
+     * to be {@link #put(long, DecisionKey, AuthorizationResult) stored}.
+     */
+    long getGeneration() {
+        return GENERATION.get();
+    }
+
+    AuthorizationResult get(DecisionKey key) {
+        long current = GENERATION.get();
+        AuthorizationResult result;
+        synchronized (this) {
+            if (current != generation) {
+                decisions.clear();
+                generation = current;
+            }
+            result = decisions.get(key);
+        }
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return result;
+    }
+
+    synchronized void put(long computedGeneration, DecisionKey key, AuthorizationResult result) {
+        // A configuration change during the computation means the result may already be stale
+        if (computedGeneration == GENERATION.get() && computedGeneration == generation) {
+            decisions.put(key, result);
+        }
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    static final class DecisionKey {
+        private final Set<String> roles;
+        private final String operationName;
+        private final Set<Action.ActionEffect> effects;
+        private final PathAddress address;
+        private final String attribute;
+        private final boolean vaultExpression;
+        private final boolean hostGlobal;
+        private final boolean serverEffect;
+        private final Set<String> hosts;
+        private final boolean serverGroupGlobal;
+        private final boolean serverGroupUnassigned;
+        private final boolean serverGroupAdd;
+        private final boolean serverGroupRemove;
+        private final Set<String> serverGroups;
+        private final int hash;
+
+        private DecisionKey(Set<String> roles, String operationName, Set<Action.ActionEffect> effects, PathAddress address,
+                            String attribute, boolean vaultExpression, HostEffect hostEffect, ServerGroupEffect serverGroupEffect) {
+            this.roles = roles;
+            this.operationName = operationName;
+            this.effects = effects;
+            this.address = address;
+            this.attribute = attribute;
+            this.vaultExpression = vaultExpression;
+            this.hostGlobal = hostEffect == null || hostEffect.isHostEffectGlobal();
+            this.serverEffect = !hostGlobal && hostEffect.isServerEffect();
+            this.hosts = hostGlobal ? Collections.<String>emptySet() : hostEffect.getAffectedHosts();
+            this.serverGroupGlobal = serverGroupEffect == null || serverGroupEffect.isServerGroupEffectGlobal();
+            this.serverGroupUnassigned = !serverGroupGlobal && serverGroupEffect.isServerGroupEffectUnassigned();
+            this.serverGroupAdd = !serverGroupGlobal && serverGroupEffect.isServerGroupAdd();
+            this.serverGroupRemove = !serverGroupGlobal && serverGroupEffect.isServerGroupRemove();
+            this.serverGroups = serverGroupGlobal || serverGroupUnassigned
+                    ? Collections.<String>emptySet() : serverGroupEffect.getAffectedServerGroups();
+
+            int result = roles.hashCode();
+            result = 31 * result + operationName.hashCode();
+            result = 31 * result + effects.hashCode();
+            result = 31 * result + address.hashCode();
+            result = 31 * result + (attribute != null ? attribute.hashCode() : 0);
+            result = 31 * result + (vaultExpression ? 1 : 0);
+            result = 31 * result + hosts.hashCode();
+            result = 31 * result + serverGroups.hashCode();
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey that = (DecisionKey) o;
+            return hash == that.hash
+                    && vaultExpression == that.vaultExpression
+                    && hostGlobal == that.hostGlobal
+                    && serverEffect == that.serverEffect
+                    && serverGroupGlobal == that.serverGroupGlobal
+                    && serverGroupUnassigned == that.serverGroupUnassigned
+                    && serverGroupAdd == that.serverGroupAdd
+                    && serverGroupRemove == that.serverGroupRemove
+                    && operationName.equals(that.operationName)
+                    && address.equals(that.address)
+                    && (attribute != null ? attribute.equals(that.attribute) : that.attribute == null)
+                    && effects.equals(that.effects)
+                    && roles.equals(that.roles)
+                    && hosts.equals(that.hosts)
+                    && serverGroups.equals(that.serverGroups);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -114,7 +114,7 @@ public class DefaultPermissionFactory implements PermissionFactory, AuthorizerCo
         return getUserPermissions(roleMapper.mapRoles(caller, callEnvironment, action, target));
     }
 
-    private PermissionCollection getUserPermissions(Set<String> roles) {
+    PermissionCollection getUserPermissions(Set<String> roles) {
         PermissionCollection result = checkAllPermissions(roles);
         if (result != null) {
             return result;
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.access.rbac;
 
+import java.security.PermissionCollection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,9 +31,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.AuthorizationResult;
 import org.jboss.as.controller.access.AuthorizerConfiguration;
 import org.jboss.as.controller.access.Caller;
 import org.jboss.as.controller.access.Environment;
+import org.jboss.as.controller.access.TargetAttribute;
+import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.permission.AllPermissionsCollection;
 import org.jboss.as.controller.access.permission.ManagementPermissionAuthorizer;
 
 /**
@@ -46,6 +52,7 @@ import org.jboss.as.controller.access.permission.ManagementPermissionAuthorizer;
  * So, by adding the {@code roles} operation-header to the request the client can only reduce its privileges,
  * not increase them.
  * </p>
+ * <p>Decisions for read-only actions are cached per mapped role set; see {@link AuthorizationDecisionCache}.</p>
  *
  *
  * @author Brian Stansberry (c) 2013 Red Hat Inc.
@@ -85,6 +92,7 @@ public final class StandardRBACAuthorizer extends ManagementPermissionAuthorizer
     private final DefaultPermissionFactory permissionFactory;
     private final RoleMapper roleMapper;
     private final Map<String, String> mappedToOfficialForm = Collections.synchronizedMap(new HashMap<String, String>());
+    private final AuthorizationDecisionCache decisionCache = AuthorizationDecisionCache.create();
 
     private StandardRBACAuthorizer(final AuthorizerConfiguration configuration,
                                    final DefaultPermissionFactory permissionFactory, final RoleMapper roleMapper) {
@@ -98,6 +106,68 @@ public final class StandardRBACAuthorizer extends ManagementPermissionAuthorizer
         }
     }
 
+    @Override
+    public AuthorizationResult authorize(Caller caller, Environment callEnvironment, Action action, TargetAttribute target) {
+        assert assertSameAddress(action, target.getTargetResource());
+        if (isServerBooting(callEnvironment)) {
+            return AuthorizationResult.PERMITTED;
+        }
+        Set<String> roles = roleMapper.mapRoles(caller, callEnvironment, action, target);
+        AuthorizationDecisionCache.DecisionKey key = decisionCache.createKey(roles, action,
+                target.getTargetResource().getResourceAddress(), target.getAttributeName(), target.getCurrentValue(),
+                target.getHostEffect(), target.getServerGroupEffect());
+        AuthorizationResult result = key == null ? null : decisionCache.get(key);
+        if (result == null) {
+            long generation = decisionCache.getGeneration();
+            result = authorize(permissionFactory.getUserPermissions(roles), permissionFactory.getRequiredPermissions(action, target));
+            if (key != null) {
+                decisionCache.put(generation, key, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Caller caller, Environment callEnvironment, Action action, TargetResource target) {
+        assert assertSameAddress(action, target);
+        if (isServerBooting(callEnvironment)) {
+            return AuthorizationResult.PERMITTED;
+        }
+        Set<String> roles = roleMapper.mapRoles(caller, callEnvironment, action, target);
+        AuthorizationDecisionCache.DecisionKey key = decisionCache.createKey(roles, action,
+                target.getResourceAddress(), null, null, target.getHostEffect(), target.getServerGroupEffect());
+        AuthorizationResult result = key == null ? null : decisionCache.get(key);
+        if (result == null) {
+            long generation = decisionCache.getGeneration();
+            PermissionCollection userPerms = permissionFactory.getUserPermissions(roles);
+            result = userPerms == AllPermissionsCollection.INSTANCE
+                    ? AuthorizationResult.PERMITTED
+                    : authorize(userPerms, permissionFactory.getRequiredPermissions(action, target));
+            if (key != null) {
+                decisionCache.put(generation, key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of authorization decisions that were answered from the decision cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getDecisionCacheHitCount() {
+        return decisionCache.getHitCount();
+    }
+
+    /**
+     * Gets the number of cacheable authorization decisions that had to be computed.
+     *
+     * @return the number of cache misses
+     */
+    public long getDecisionCacheMissCount() {
+        return decisionCache.getMissCount();
+    }
+
     @Override
     public Set<String> getCallerRoles(Caller caller, Environment callEnvironment, Set<String> runAsRoles) {
         Set<String> mapped = roleMapper.mapRoles(caller, callEnvironment, runAsRoles);
@@ -33,7 +33,11 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
 
 /**
  *  All methods on this class should be called with {@link org.jboss.as.controller.audit.ManagedAuditLoggerImpl}'s lock taken.
@@ -91,15 +95,65 @@ public abstract class AbstractFileAuditLogHandler extends AuditLogHandler {
 
     @Override
     void writeLogItem(String formattedItem) throws IOException {
+        writeToFile(Collections.singletonList(formattedItem), true);
+    }
+
+    @Override
+    void writeLogItems(List<String> formattedItems, boolean sync) {
+        if (!isActive()) {
+            recordDropped(formattedItems.size());
+            return;
+        }
+        // Group commit: the whole batch is written with a single open, flush and sync of the file
+        FailureCountHandler fch = getFailureCountHandler();
+        try {
+            initialize();
+            writeToFile(formattedItems, sync);
+            fch.success();
+        } catch (Throwable t) {
+            fch.failure(t);
+        }
+    }
+
+    @Override
+    File getLogFile() {
+        return file;
+    }
+
+    /**
+     * Forces the content of a file to the underlying storage. This works for data written through any stream of the
+     * file, so it does not need the audit lock that was held while writing it.
+     *
+     * @param file the file
+     * @throws IOException if the file could not be synced
+     */
+    static void syncFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Appends formatted items to the log file.
+     *
+     * @param formattedItems the formatted items
+     * @param sync whether to force the file to sync once the items are written
+     * @throws IOException if the items could not be written
+     */
+    protected void writeToFile(List<String> formattedItems, boolean sync) throws IOException {
         final FileOutputStream fos = new FileOutputStream(file, true);
         final BufferedOutputStream output = new BufferedOutputStream(fos);
         try {
-            output.write(formattedItem.getBytes(StandardCharsets.UTF_8));
-            output.write(LINE_TERMINATOR);
+            for (String formattedItem : formattedItems) {
+                output.write(formattedItem.getBytes(StandardCharsets.UTF_8));
+                output.write(LINE_TERMINATOR);
+            }
 
             //Flush and force the file to sync
             output.flush();
-            fos.getFD().sync();
+            if (sync) {
+                fos.getFD().sync();
+            }
         } finally {
             IoUtils.safeClose(output);
         }
@@ -160,6 +214,8 @@ public abstract class AbstractFileAuditLogHandler extends AuditLogHandler {
     }
 
     protected void rename(File file, File to) throws IOException {
+        // The last batch written may not have been synced yet, as the writer syncs after releasing the lock
+        syncFile(file);
         if (!file.renameTo(to) && file.exists()) {
             copyFile(file, to);
             file.delete();
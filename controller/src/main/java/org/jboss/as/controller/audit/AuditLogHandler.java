@@ -21,6 +21,7 @@
  */
 package org.jboss.as.controller.audit;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
@@ -50,6 +51,15 @@ abstract class AuditLogHandler {
     private final Set<PathAddress> references = new HashSet<PathAddress>();
     private AuditLogItemFormatter formatter;
 
+    /** The number of records queued for the {@link AuditLogWriter} and not yet written */
+    private int queuedCount;
+
+    /** The number of records dropped because the {@link AuditLogWriter}'s queue was full */
+    private long droppedCount;
+
+    /** The number of records which had to wait for the {@link AuditLogWriter}'s queue to be written */
+    private long blockedCount;
+
     AuditLogHandler(String name, String formatterName, int maxFailureCount){
         this.name = name;
         this.formatterName = formatterName;
@@ -88,6 +98,91 @@ abstract class AuditLogHandler {
         }
     }
 
+    /**
+     * Formats an item so it can be written later by {@link #writeLogItems(List, boolean)}. This must happen
+     * when the item is logged, since the formatter caches the formatted item until it is cleared.
+     *
+     * @param item the item
+     * @return the formatted item, or {@code null} if it could not be formatted
+     */
+    String formatLogItem(AuditLogItem item) {
+        try {
+            return item.format(formatter);
+        } catch (Throwable t) {
+            getFailureCountHandler().failure(t);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a batch of formatted items queued by the {@link AuditLogWriter}.
+     *
+     * @param formattedItems the formatted items, in the order they were logged
+     * @param sync whether the items must be synced to the underlying storage before returning
+     */
+    void writeLogItems(List<String> formattedItems, boolean sync) {
+        for (String formattedItem : formattedItems) {
+            if (!isActive()) {
+                recordDropped(1);
+                continue;
+            }
+            FailureCountHandler fch = getFailureCountHandler();
+            try {
+                initialize();
+                writeLogItem(formattedItem);
+                fch.success();
+            } catch (Throwable t) {
+                fch.failure(t);
+            }
+        }
+    }
+
+    /**
+     * Gets the file written by {@link #writeLogItems(List, boolean)}, so the {@link AuditLogWriter} can sync it after
+     * releasing the audit lock.
+     *
+     * @return the file, or {@code null} if the handler does not write to a file or has not opened it
+     */
+    File getLogFile() {
+        return null;
+    }
+
+    /**
+     * Whether records for this handler can be written by the {@link AuditLogWriter}. Handlers which keep their
+     * records in memory rather than writing them anywhere have nothing to gain from it.
+     */
+    boolean isDeferrable() {
+        return true;
+    }
+
+    void recordQueued() {
+        queuedCount++;
+    }
+
+    void recordsDequeued(int count) {
+        queuedCount -= count;
+    }
+
+    void recordDropped(int count) {
+        droppedCount += count;
+    }
+
+    void recordBlocked() {
+        blockedCount++;
+    }
+
+    int getQueuedCount() {
+        return queuedCount;
+    }
+
+    long getDroppedCount() {
+        return droppedCount;
+    }
+
+    long getBlockedCount() {
+        return blockedCount;
+    }
+
     void recycle() {
         this.failureCount = 0;
         stop();
@@ -0,0 +1,287 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.audit;
+
+import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Writes formatted audit log records to their handlers from a dedicated thread, so a management operation does not
+ * wait for the file or syslog write when it commits. Records are held in a bounded queue; each time the writer
+ * thread runs it takes everything queued, groups it by handler and writes each group in one go, so a file handler
+ * opens, flushes and syncs its file once per batch rather than once per record.
+ * <p>
+ * The writer is only used when the {@value #DURABILITY_PROPERTY} system property selects one of the group
+ * {@link Durability durability modes}; by default records are written before the operation completes. The size
+ * of the queue is set with {@value #QUEUE_SIZE_PROPERTY}. When the queue is full the logging thread writes the
+ * queued records itself, unless {@value #DROP_WHEN_FULL_PROPERTY} is {@code true}, in which case the record is
+ * dropped. Both are counted per handler.
+ * </p>
+ * <p>
+ * Records are queued and written with the audit lock held, so handlers keep seeing all their methods called with
+ * the lock taken, and records reach each handler in the order they were logged. In {@link Durability#GROUP_SYNC}
+ * mode the writer thread syncs the files written only after releasing the lock, so operations logging in the
+ * meantime do not wait for the disk.
+ * </p>
+ */
+final class AuditLogWriter {
+
+    static final String DURABILITY_PROPERTY = "jboss.audit-log.durability";
+    static final String QUEUE_SIZE_PROPERTY = "jboss.audit-log.queue-size";
+    static final String DROP_WHEN_FULL_PROPERTY = "jboss.audit-log.drop-when-full";
+
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+
+    enum Durability {
+        /** Each record is written, and synced for file handlers, before the logging operation completes */
+        SYNC,
+        /** Records are written by the writer thread, and file handlers sync their file once per batch */
+        GROUP_SYNC,
+        /** Records are written by the writer thread, and file handlers flush but do not sync their file */
+        GROUP_FLUSH
+    }
+
+    private final Durability durability;
+    private final boolean dropWhenFull;
+    private final BlockingQueue<Record> queue;
+    private final Lock lock;
+    private final Predicate<AuditLogHandler> inUse;
+    // Guarded by lock
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * @param durability the durability mode, other than {@link Durability#SYNC}
+     * @param queueSize the maximum number of records waiting to be written
+     * @param dropWhenFull whether to drop records rather than write them on the logging thread when the queue is full
+     * @param lock the audit lock
+     * @param inUse tests whether a handler is still configured and referenced, rather than stopped by an update
+     */
+    AuditLogWriter(Durability durability, int queueSize, boolean dropWhenFull, Lock lock, Predicate<AuditLogHandler> inUse) {
+        assert durability != Durability.SYNC;
+        this.durability = durability;
+        this.dropWhenFull = dropWhenFull;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.lock = lock;
+        this.inUse = inUse;
+    }
+
+    /**
+     * Creates the writer configured by the system properties.
+     *
+     * @param lock the audit lock
+     * @param inUse tests whether a handler is still configured and referenced
+     * @return the writer, or {@code null} if records should be written when they are logged
+     */
+    static AuditLogWriter create(Lock lock, Predicate<AuditLogHandler> inUse) {
+        final String value = WildFlySecurityManager.getPropertyPrivileged(DURABILITY_PROPERTY, null);
+        Durability durability = Durability.SYNC;
+        if (value != null) {
+            try {
+                durability = Durability.valueOf(value.trim().toUpperCase(Locale.ENGLISH).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                MGMT_OP_LOGGER.debugf("Ignoring invalid value %s for %s", value, DURABILITY_PROPERTY);
+            }
+        }
+        if (durability == Durability.SYNC) {
+            return null;
+        }
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        final String size = WildFlySecurityManager.getPropertyPrivileged(QUEUE_SIZE_PROPERTY, null);
+        if (size != null) {
+            try {
+                queueSize = Math.max(1, Integer.parseInt(size.trim()));
+            } catch (NumberFormatException e) {
+                MGMT_OP_LOGGER.debugf("Ignoring invalid value %s for %s", size, QUEUE_SIZE_PROPERTY);
+            }
+        }
+        final boolean dropWhenFull = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(DROP_WHEN_FULL_PROPERTY, "false"));
+        return new AuditLogWriter(durability, queueSize, dropWhenFull, lock, inUse);
+    }
+
+    Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Queues a record to be written by the writer thread. Call with the audit lock taken.
+     *
+     * @param handler the handler to write the record to
+     * @param formattedItem the record, formatted by the handler's formatter
+     */
+    void enqueue(AuditLogHandler handler, String formattedItem) {
+        if (closed) {
+            // Shutting down, so there is no writer thread to hand the record to
+            write(handler, Collections.singletonList(formattedItem), durability == Durability.GROUP_SYNC);
+            return;
+        }
+        final Record record = new Record(handler, formattedItem);
+        if (!queue.offer(record)) {
+            if (dropWhenFull) {
+                handler.recordDropped(1);
+                return;
+            }
+            // The writer thread can only make room once it has the audit lock held by this thread, so write the
+            // queued records here instead of waiting for it
+            handler.recordBlocked();
+            writeQueued(true);
+            queue.add(record);
+        }
+        handler.recordQueued();
+        if (thread == null) {
+            thread = new Thread(this::run, "Management audit log writer");
+            thread.setDaemon(true);
+            thread.start();
+            // Don't lose the last records on a normal shutdown
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "Management audit log writer shutdown"));
+        } else {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Stops the writer thread once it has written everything queued. Records logged afterwards are written on the
+     * logging thread.
+     */
+    void close() {
+        final Thread thread;
+        lock.lock();
+        try {
+            closed = true;
+            thread = this.thread;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        for (;;) {
+            while (queue.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+            }
+            Map<File, String> unsynced = Collections.emptyMap();
+            lock.lock();
+            try {
+                unsynced = writeQueued(false);
+            } catch (RuntimeException e) {
+                MGMT_OP_LOGGER.failedToUpdateAuditLog(e);
+            } finally {
+                lock.unlock();
+            }
+            sync(unsynced);
+        }
+    }
+
+    /**
+     * Writes everything queued. Call with the audit lock taken.
+     *
+     * @param syncNow whether files are synced before returning, rather than by the caller once it has released the lock
+     * @return the files left to sync, mapped to the name of the handler which wrote them
+     */
+    private Map<File, String> writeQueued(boolean syncNow) {
+        final List<Record> batch = new ArrayList<>(queue.size());
+        queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // Handlers don't override equals(), so a replaced handler gets its own group ahead of its replacement
+        final Map<AuditLogHandler, List<String>> byHandler = new LinkedHashMap<>();
+        for (Record record : batch) {
+            byHandler.computeIfAbsent(record.handler, h -> new ArrayList<>()).add(record.formattedItem);
+        }
+        final boolean sync = durability == Durability.GROUP_SYNC;
+        final Map<File, String> unsynced = sync && !syncNow ? new LinkedHashMap<>() : Collections.emptyMap();
+        for (Map.Entry<AuditLogHandler, List<String>> entry : byHandler.entrySet()) {
+            final AuditLogHandler handler = entry.getKey();
+            handler.recordsDequeued(entry.getValue().size());
+            final File file = write(handler, entry.getValue(), sync && syncNow);
+            if (file != null && sync && !syncNow) {
+                unsynced.put(file, handler.getName());
+            }
+        }
+        return unsynced;
+    }
+
+    /**
+     * Call with the audit lock taken.
+     *
+     * @return the file the handler wrote to, if any
+     */
+    private File write(AuditLogHandler handler, List<String> formattedItems, boolean sync) {
+        handler.writeLogItems(formattedItems, sync);
+        final File file = handler.getLogFile();
+        if (!inUse.test(handler)) {
+            // The handler was removed or replaced after these records were queued, and stopped by that update.
+            // Writing them will have initialized it again, so release whatever it opened.
+            handler.stop();
+        }
+        return file;
+    }
+
+    /** Call without the audit lock */
+    private static void sync(Map<File, String> files) {
+        for (Map.Entry<File, String> entry : files.entrySet()) {
+            try {
+                AbstractFileAuditLogHandler.syncFile(entry.getKey());
+            } catch (IOException e) {
+                MGMT_OP_LOGGER.logHandlerWriteFailed(e, entry.getValue());
+            }
+        }
+    }
+
+    private static final class Record {
+        private final AuditLogHandler handler;
+        private final String formattedItem;
+
+        Record(AuditLogHandler handler, String formattedItem) {
+            this.handler = handler;
+            this.formattedItem = formattedItem;
+        }
+    }
+}
@@ -118,6 +118,11 @@ public final class InMemoryAuditLogHander extends AuditLogHandler {
     void writeLogItem(String formattedItem) throws IOException {
     }
 
+    @Override
+    boolean isDeferrable() {
+        return false;
+    }
+
     private class InMemoryFormatter extends AuditLogItemFormatter {
 
         public static final String BOOTING = "booting";
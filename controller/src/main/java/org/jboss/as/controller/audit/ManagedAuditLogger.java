@@ -182,6 +182,40 @@ public interface ManagedAuditLogger extends AuditLogger {
      */
     boolean getHandlerDisabledDueToFailure(String name);
 
+    /**
+     * Get the number of records queued for a handler which have not been written yet. Records are only queued
+     * when audit log records are written in the background.
+     *
+     * @param name the name of the handler
+     * @return the number of queued records
+     */
+    default int getHandlerQueuedRecords(String name) {
+        return 0;
+    }
+
+    /**
+     * Get the number of records for a handler which were dropped rather than written, because the queue of records
+     * to write in the background was full or the handler had been disabled due to failures by the time they were
+     * written.
+     *
+     * @param name the name of the handler
+     * @return the number of dropped records
+     */
+    default long getHandlerDroppedRecords(String name) {
+        return 0;
+    }
+
+    /**
+     * Get the number of records for a handler whose logging had to wait for the queued records to be written,
+     * because the queue of records to write in the background was full.
+     *
+     * @param name the name of the handler
+     * @return the number of blocked records
+     */
+    default long getHandlerBlockedRecords(String name) {
+        return 0;
+    }
+
     /**
      * Gets a formatter by its name
      *
@@ -260,10 +260,18 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
     /** protected by config's audit lock */
     private void writeLogItem(AuditLogItem item) throws IOException{
         Set<String> formatterNames = new HashSet<String>();
+        final AuditLogWriter writer = config.getWriter();
         try {
             for (AuditLogHandler handler : config.getHandlersForLogging()) {
                 formatterNames.add(handler.getFormatterName());
-                handler.writeLogItem(item);
+                if (writer != null && handler.isDeferrable()) {
+                    String formattedItem = handler.formatLogItem(item);
+                    if (formattedItem != null) {
+                        writer.enqueue(handler, formattedItem);
+                    }
+                } else {
+                    handler.writeLogItem(item);
+                }
             }
         } finally {
             for (String formatterName : formatterNames) {
@@ -451,6 +459,39 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         }
     }
 
+    @Override
+    public int getHandlerQueuedRecords(String name) {
+        config.lock();
+        try {
+            AuditLogHandler handler = config.getConfiguredHandler(name);
+            return handler.getQueuedCount();
+        } finally {
+            config.unlock();
+        }
+    }
+
+    @Override
+    public long getHandlerDroppedRecords(String name) {
+        config.lock();
+        try {
+            AuditLogHandler handler = config.getConfiguredHandler(name);
+            return handler.getDroppedCount();
+        } finally {
+            config.unlock();
+        }
+    }
+
+    @Override
+    public long getHandlerBlockedRecords(String name) {
+        config.lock();
+        try {
+            AuditLogHandler handler = config.getConfiguredHandler(name);
+            return handler.getBlockedCount();
+        } finally {
+            config.unlock();
+        }
+    }
+
     @Override
     public void updateSyslogHandlerFacility(String name, Facility facility) {
         config.lock();
@@ -601,6 +642,11 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             return sharedConfiguration.getFormatter(name);
         }
 
+        /** The writer for deferred records, or {@code null} if records are written when they are logged */
+        AuditLogWriter getWriter() {
+            return sharedConfiguration.getWriter();
+        }
+
         /** Call with lock taken */
         AuditLogHandler getConfiguredHandler(String name) {
             return sharedConfiguration.getConfiguredHandler(name);
@@ -751,10 +797,15 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         /** Guarded by auditLock - whether we are boothing or not */
         private boolean booting = true;
 
+        /** Writes the records of all configurations when a group durability mode is configured */
+        private final AuditLogWriter writer;
+
 
         SharedConfiguration(String asVersion, boolean server) {
             this.asVersion = asVersion;
             this.server = server;
+            this.writer = AuditLogWriter.create(auditLock,
+                    handler -> configuredHandlers.get(handler.getName()) == handler && !handler.getReferences().isEmpty());
         }
 
         public void recycleHandler(String name) {
@@ -782,6 +833,10 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             return configuredHandlers;
         }
 
+        AuditLogWriter getWriter() {
+            return writer;
+        }
+
         AuditLogItemFormatter getFormatter(String name) {
             return formatters.get(name);
         }
@@ -27,6 +27,7 @@ import org.jboss.as.controller.services.path.PathManagerService;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  *  All methods on this class should be called with {@link org.jboss.as.controller.audit.ManagedAuditLoggerImpl}'s lock taken.
@@ -84,10 +85,12 @@ public class SizeRotatingFileAuditLogHandler extends AbstractFileAuditLogHandler
     }
 
     @Override
-    void writeLogItem(String formattedItem) throws IOException {
-        super.writeLogItem(formattedItem);
-        currentSize += formattedItem.getBytes(StandardCharsets.UTF_8).length;
-        currentSize += LINE_TERMINATOR.length;
+    protected void writeToFile(List<String> formattedItems, boolean sync) throws IOException {
+        super.writeToFile(formattedItems, sync);
+        for (String formattedItem : formattedItems) {
+            currentSize += formattedItem.getBytes(StandardCharsets.UTF_8).length;
+            currentSize += LINE_TERMINATOR.length;
+        }
     }
 
     @Override
@@ -83,6 +83,7 @@ public class ModelDescriptionConstants {
     public static final String AUTO_START = "auto-start";
     public static final String BASE_DN = "base-dn";
     public static final String BASE_ROLE = "base-role";
+    public static final String BLOCKED_RECORDS = "blocked-records";
     public static final String BLOCKING = "blocking";
     public static final String BLOCKING_TIMEOUT = "blocking-timeout";
     public static final String BOOT_TIME = "boot-time";
@@ -126,6 +127,8 @@ public class ModelDescriptionConstants {
     public static final String CUSTOM_DISCOVERY = "custom-discovery";
     public static final String DATE_FORMAT = "date-format";
     public static final String DATE_SEPARATOR = "date-separator";
+    public static final String DECISION_CACHE_HITS = "decision-cache-hits";
+    public static final String DECISION_CACHE_MISSES = "decision-cache-misses";
     public static final String DEFAULT = "default";
     public static final String DEFAULT_APPLICATION = "default-application";
     public static final String DEFAULT_INTERFACE = "default-interface";
@@ -166,6 +169,7 @@ public class ModelDescriptionConstants {
     public static final String DOMAIN_UUID = "domain-uuid";
     public static final String DYNAMIC = "dynamic";
     public static final String DYNAMIC_ELEMENTS = "dynamic-elements";
+    public static final String DROPPED_RECORDS = "dropped-records";
     public static final String DUMP_SERVICES = "dump-services";
     public static final String EMPTY = "empty";
     public static final String ENABLE = "enable";
@@ -390,6 +394,7 @@ public class ModelDescriptionConstants {
     public static final String PROVIDES = "provides";
     public static final String PROXIES = "proxies";
     public static final String QUERY = "query";
+    public static final String QUEUED_RECORDS = "queued-records";
     public static final String READ = "read";
     public static final String READ_ATTRIBUTE_OPERATION = "read-attribute";
     public static final String READ_ATTRIBUTE_GROUP_OPERATION = "read-attribute-group";
@@ -455,6 +460,7 @@ public class ModelDescriptionConstants {
     public static final String ROLLING_TO_SERVERS = "rolling-to-servers";
     public static final String ROLLOUT_PLAN = "rollout-plan";
     public static final String ROLLOUT_PLANS = "rollout-plans";
+    public static final String ROLLOUT_TIMING = "rollout-timing";
     public static final String ROLES_FILTER = "roles-filter";
     public static final String ROTATE_AT_STARTUP = "rotate-at-startup";
     public static final String ROTATE_SIZE = "rotate-size";
@@ -512,6 +518,7 @@ public class ModelDescriptionConstants {
     public static final String SERVER_NAME = "server-name";
     public static final String SHUTDOWN = "shutdown";
     public static final String SKIP_MISSING_GROUPS = "skip-missing-groups";
+    public static final String SNAPSHOT_READ_COUNT = "snapshot-read-count";
     public static final String SOCKET_BINDING = "socket-binding";
     public static final String SOCKET_BINDING_DEFAULT_INTERFACE = "socket-binding-default-interface";
     public static final String SOCKET_BINDING_GROUP = "socket-binding-group";
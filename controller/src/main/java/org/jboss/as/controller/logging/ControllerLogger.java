@@ -3551,4 +3551,8 @@ public interface ControllerLogger extends BasicLogger {
 
     @Message(id = 455, value = "Can't take snapshot %s because it already exists")
     ConfigurationPersistenceException snapshotAlreadyExistError(String name);
+
+    @LogMessage(level = INFO)
+    @Message(id = 456, value = "Loaded %d boot operations for %s from the boot operation cache in %d ms, saving %d ms of configuration parsing")
+    void loadedCachedBootOperations(int operations, String name, long loadTime, long savedTime);
 }
@@ -27,11 +27,13 @@ import static org.jboss.as.controller.logging.ControllerLogger.ROOT_LOGGER;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -47,6 +49,7 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
     private final XMLElementWriter<ModelMarshallingContext> rootDeparser;
     private final ConcurrentHashMap<String, XMLElementWriter<SubsystemMarshallingContext>> subsystemWriters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Supplier<XMLElementWriter<SubsystemMarshallingContext>>> subsystemWriterSuppliers = new ConcurrentHashMap<>();
+    private final SubsystemXmlFragmentCache fragmentCache = new SubsystemXmlFragmentCache();
 
     /**
      * Construct a new instance.
@@ -71,12 +74,29 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
     public void unregisterSubsystemWriter(String name) {
         subsystemWriters.remove(name);
         subsystemWriterSuppliers.remove(name);
+        fragmentCache.invalidate(name);
     }
 
     /** {@inheritDoc} */
     @Override
     public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        marshallAsXml(model, null, output);
+    }
+
+    /**
+     * Marshals the given model to XML. The output of subsystems whose model is unchanged since it was last marshalled
+     * is reused rather than regenerated by their writers.
+     *
+     * @param model the model to marshal
+     * @param affectedAddresses the addresses of the resources modified since the model was last marshalled, or
+     *                          {@code null} if not known. Subsystems not under any of these are checked for reuse;
+     *                          the others are always regenerated
+     * @param output the output stream
+     * @throws ConfigurationPersistenceException if a marshalling error occurs
+     */
+    protected void marshallAsXml(final ModelNode model, final Set<PathAddress> affectedAddresses, final OutputStream output) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
+        final long pass = fragmentCache.startPass();
         final Map<String, XMLElementWriter<SubsystemMarshallingContext>> localSubsystemWriters = new HashMap<>(subsystemWriters);
         try {
             XMLStreamWriter streamWriter = null;
@@ -100,11 +120,12 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
                                 localSubsystemWriters.put(extensionName, result);
                             }
                         }
-                        return result;
+                        return result == null ? null : fragmentCache.getSubsystemWriter(extensionName, result, affectedAddresses, pass);
                     }
                 };
                 mapper.deparseDocument(rootDeparser, extensibleModel, streamWriter);
                 streamWriter.close();
+                fragmentCache.endPass(pass);
             } finally {
                 safeClose(streamWriter);
             }
@@ -26,7 +26,9 @@ import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.xnio.IoUtils;
@@ -37,13 +39,39 @@ import org.xnio.IoUtils;
  */
 public abstract class AbstractFilePersistenceResource implements ConfigurationPersister.PersistenceResource {
     private volatile ExposedByteArrayOutputStream marshalled;
+    private final ConfigurationWriteCoalescer coalescer;
 
     protected AbstractFilePersistenceResource(final ModelNode model, final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+        this(model, null, persister);
+    }
+
+    /**
+     * Creates a resource that marshals the given model, limiting the work done to what may have been affected
+     * by changes to the given addresses.
+     *
+     * @param model the model to persist
+     * @param affectedAddresses the addresses of the resources modified since the model was last persisted, or
+     *                          {@code null} if not known
+     * @param persister the persister
+     * @throws ConfigurationPersistenceException if the model cannot be marshalled
+     */
+    protected AbstractFilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses,
+                                              final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+        this(model, affectedAddresses, persister, null);
+    }
+
+    AbstractFilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses,
+                                    final AbstractConfigurationPersister persister, final ConfigurationWriteCoalescer coalescer) throws ConfigurationPersistenceException {
+        this.coalescer = coalescer;
         marshalled = new ExposedByteArrayOutputStream(1024 * 8);
         try {
             try {
                 BufferedOutputStream output = new BufferedOutputStream(marshalled);
-                persister.marshallAsXml(model, output);
+                if (affectedAddresses == null) {
+                    persister.marshallAsXml(model, output);
+                } else {
+                    persister.marshallAsXml(model, affectedAddresses, output);
+                }
                 output.close();
                 marshalled.close();
             } finally {
@@ -59,7 +87,16 @@ public abstract class AbstractFilePersistenceResource implements ConfigurationPe
         if (marshalled == null) {
             throw ControllerLogger.ROOT_LOGGER.rollbackAlreadyInvoked();
         }
-        try(InputStream in = getMarshalledInputStream()) {
+        if (coalescer == null) {
+            write(getMarshalledInputStream());
+        } else {
+            final ExposedByteArrayOutputStream toWrite = marshalled;
+            coalescer.write(() -> write(toWrite.getInputStream()));
+        }
+    }
+
+    private void write(InputStream marshalled) {
+        try(InputStream in = marshalled) {
             doCommit(in);
         } catch (IOException ioex) {
             MGMT_OP_LOGGER.errorf(ioex, ioex.getMessage());
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.persistence;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,6 +43,7 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
 
     private ConfigurationFile configurationFile;
     private final AtomicBoolean successfulBoot = new AtomicBoolean();
+    private volatile boolean cacheBootOperations;
 
     /**
      * Construct a new instance.
@@ -89,6 +91,22 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
         super.registerAdditionalRootElement(anotherRoot, parser);
     }
 
+    /**
+     * Sets whether the operations parsed from the configuration file should be cached, so the next boot with the same
+     * configuration does not need to parse it. Only enable this if the operations the parser produces depend on
+     * nothing but the configuration file and the installed modules.
+     *
+     * @param cacheBootOperations {@code true} to cache the boot operations
+     */
+    public void setCacheBootOperations(boolean cacheBootOperations) {
+        this.cacheBootOperations = cacheBootOperations;
+    }
+
+    @Override
+    protected File getBootOperationCacheFile() {
+        return cacheBootOperations ? configurationFile.getBootOperationCacheFile() : null;
+    }
+
     @Override
     public void successfulBoot() throws ConfigurationPersistenceException {
         if(successfulBoot.compareAndSet(false, true)) {
@@ -117,11 +135,12 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
                 }
             };
         }
-        return new ConfigurationFilePersistenceResource(model, configurationFile, this);
+        return new ConfigurationFilePersistenceResource(model, affectedAddresses, configurationFile, this, getWriteCoalescer());
     }
 
     @Override
     public String snapshot(String name, String comment) throws ConfigurationPersistenceException {
+        flushPendingWrites();
         return configurationFile.snapshot(name, comment);
     }
 
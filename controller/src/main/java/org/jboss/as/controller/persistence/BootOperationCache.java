@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.logging.ControllerLogger;
+import org.jboss.as.version.Version;
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Cache of the boot operations parsed from a configuration file, kept in DMR binary form so a later boot with the
+ * same configuration can skip parsing it.
+ * <p>
+ * The cache is keyed by a hash of the configuration file content, the parser, the product version and the files on
+ * the module path. A change to any of them, such as an edited configuration or an updated extension module, makes
+ * the cache miss and the configuration is parsed again. Set the {@value #ENABLED_PROPERTY} system property to
+ * {@code false} to always parse the configuration.
+ * </p>
+ */
+final class BootOperationCache {
+
+    private static final String ENABLED_PROPERTY = "jboss.config.boot-operation-cache";
+    private static final int MAGIC = 0x424f4f54;
+    private static final int FORMAT_VERSION = 1;
+
+    private final File cacheFile;
+    private final File configurationFile;
+    private final String parser;
+
+    BootOperationCache(final File cacheFile, final File configurationFile, final String parser) {
+        this.cacheFile = cacheFile;
+        this.configurationFile = configurationFile;
+        this.parser = parser;
+    }
+
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Computes the key the boot operations parsed from some configuration are cached under.
+     *
+     * @param configuration the content of the configuration file
+     * @return the key
+     */
+    byte[] computeKey(final byte[] configuration) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update((byte) FORMAT_VERSION);
+        digest.update(String.valueOf(Version.AS_VERSION).getBytes(StandardCharsets.UTF_8));
+        digest.update(parser.getBytes(StandardCharsets.UTF_8));
+        digest.update(configuration);
+        final String modulePath = WildFlySecurityManager.getPropertyPrivileged("module.path", null);
+        if (modulePath != null) {
+            for (String root : modulePath.split(File.pathSeparator)) {
+                if (!root.isEmpty()) {
+                    updateModuleDigest(digest, new File(root).toPath());
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Reads the cached boot operations.
+     *
+     * @param key the key of the configuration being booted
+     * @return the operations, or {@code null} if nothing was cached for {@code key}
+     */
+    List<ModelNode> load(final byte[] key) {
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath()), 64 * 1024))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final byte[] cachedKey = new byte[input.readUnsignedByte()];
+            input.readFully(cachedKey);
+            if (!Arrays.equals(key, cachedKey)) {
+                ControllerLogger.ROOT_LOGGER.debugf("Configuration %s has changed since its boot operations were cached", configurationFile);
+                return null;
+            }
+            final long parseTime = input.readLong();
+            final int size = input.readInt();
+            final List<ModelNode> operations = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final ModelNode operation = new ModelNode();
+                operation.readExternal(input);
+                operations.add(operation);
+            }
+            final long loadTime = System.nanoTime() - start;
+            ControllerLogger.ROOT_LOGGER.loadedCachedBootOperations(operations.size(), configurationFile.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(loadTime), TimeUnit.NANOSECONDS.toMillis(Math.max(0L, parseTime - loadTime)));
+            return operations;
+        } catch (IOException | RuntimeException e) {
+            ControllerLogger.ROOT_LOGGER.debugf(e, "Failed to read the cached boot operations from %s", cacheFile);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the boot operations parsed from the configuration. Failures are logged and otherwise ignored, since the
+     * configuration can always be parsed again.
+     *
+     * @param key the key of the parsed configuration
+     * @param operations the operations parsed from it
+     * @param parseTime how long reading and parsing the configuration took, in nanoseconds
+     */
+    void store(final byte[] key, final List<ModelNode> operations, final long parseTime) {
+        Path tmp = null;
+        try {
+            final Path target = cacheFile.toPath();
+            Files.createDirectories(target.getParent());
+            tmp = Files.createTempFile(target.getParent(), cacheFile.getName(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeByte(key.length);
+                output.write(key);
+                output.writeLong(parseTime);
+                output.writeInt(operations.size());
+                for (ModelNode operation : operations) {
+                    operation.writeExternal(output);
+                }
+            }
+            try {
+                Files.move(tmp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            ControllerLogger.ROOT_LOGGER.debugf(e, "Failed to cache the boot operations in %s", cacheFile);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the name, size and modification time of every file under a module root to a digest, so updating or
+     * patching any module, including the extension modules whose parsers produced the cached operations, changes
+     * the key.
+     */
+    private static void updateModuleDigest(final MessageDigest digest, final Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        final List<String> entries = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                entries.add(root.relativize(file) + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // Walk order is file system dependent
+        entries.sort(null);
+        for (String entry : entries) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -478,6 +478,11 @@ public class ConfigurationFile {
         return configurationDir;
     }
 
+    /** Gets the file in which the operations parsed from the boot file are cached */
+    File getBootOperationCacheFile() {
+        return new File(historyRoot, "boot-operations.dmr");
+    }
+
 
     /** Notification that boot has completed successfully and the configuration history should be updated */
     void successfulBoot() throws ConfigurationPersistenceException {
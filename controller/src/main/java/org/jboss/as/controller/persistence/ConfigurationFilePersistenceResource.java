@@ -26,7 +26,9 @@ import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -48,6 +50,14 @@ public class ConfigurationFilePersistenceResource extends AbstractFilePersistenc
         this.fileName = configurationFile.getMainFile();
     }
 
+    ConfigurationFilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses,
+                                         final ConfigurationFile configurationFile, final AbstractConfigurationPersister persister,
+                                         final ConfigurationWriteCoalescer coalescer) throws ConfigurationPersistenceException {
+        super(model, affectedAddresses, persister, coalescer);
+        this.configurationFile = configurationFile;
+        this.fileName = configurationFile.getMainFile();
+    }
+
     @Override
     protected void doCommit(InputStream in) {
         final File tempFileName;
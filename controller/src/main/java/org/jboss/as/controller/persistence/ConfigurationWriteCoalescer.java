@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Performs the writes of a configuration file, optionally coalescing writes that occur in quick succession so
+ * the file is written at most once per interval. When coalescing, only the most recent write requested during
+ * an interval is performed; the others are superseded by it.
+ * <p>
+ * Coalescing is enabled by setting the {@value #INTERVAL_PROPERTY} system property to the interval in
+ * milliseconds. It trades durability for throughput: a configuration change reported as committed may not
+ * reach the file if the process is killed before the interval elapses.
+ * </p>
+ */
+final class ConfigurationWriteCoalescer {
+
+    static final String INTERVAL_PROPERTY = "jboss.config.persist.coalesce.interval";
+
+    /** Coalescers with a write waiting for the end of the interval, which are flushed on a normal shutdown */
+    private static final Set<ConfigurationWriteCoalescer> PENDING = ConcurrentHashMap.newKeySet();
+
+    private final long interval;
+    /** Runs the writes at the end of the intervals; {@code null} for the thread shared by all coalescers */
+    private final ScheduledExecutorService executor;
+    private final Object writeLock = new Object();
+    // Guarded by this
+    private Runnable pending;
+
+    ConfigurationWriteCoalescer(long interval) {
+        this(interval, null);
+    }
+
+    ConfigurationWriteCoalescer(long interval, ScheduledExecutorService executor) {
+        this.interval = interval;
+        this.executor = executor;
+    }
+
+    static ConfigurationWriteCoalescer create() {
+        long interval = 0;
+        final String value = WildFlySecurityManager.getPropertyPrivileged(INTERVAL_PROPERTY, null);
+        if (value != null) {
+            try {
+                interval = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                MGMT_OP_LOGGER.debugf("Ignoring invalid value %s for %s", value, INTERVAL_PROPERTY);
+            }
+        }
+        return new ConfigurationWriteCoalescer(interval);
+    }
+
+    /**
+     * Performs a write, or schedules it to be performed at the end of the current interval if coalescing is enabled.
+     *
+     * @param write the write
+     */
+    void write(Runnable write) {
+        if (interval <= 0) {
+            synchronized (writeLock) {
+                write.run();
+            }
+        } else {
+            synchronized (this) {
+                final boolean scheduled = pending != null;
+                pending = write;
+                if (!scheduled) {
+                    PENDING.add(this);
+                    (executor != null ? executor : Scheduler.EXECUTOR).schedule(this::flush, interval, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs any write that is waiting for the end of the current interval.
+     */
+    void flush() {
+        // Take the pending write while holding the write lock so writes always reach the file in order
+        synchronized (writeLock) {
+            final Runnable write;
+            synchronized (this) {
+                write = pending;
+                pending = null;
+                PENDING.remove(this);
+            }
+            if (write != null) {
+                write.run();
+            }
+        }
+    }
+
+    /**
+     * Performs the writes waiting in all coalescers. Run on shutdown so the last change is not lost.
+     */
+    static void flushAll() {
+        for (ConfigurationWriteCoalescer coalescer : PENDING) {
+            coalescer.flush();
+        }
+    }
+
+    /**
+     * Holds the thread shared by all coalescers, so it and the shutdown hook are only created once, on first use.
+     */
+    private static final class Scheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Configuration persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            // Don't lose the last change on a normal shutdown
+            Runtime.getRuntime().addShutdownHook(new Thread(ConfigurationWriteCoalescer::flushAll, "Configuration persister shutdown"));
+        }
+    }
+}
@@ -26,7 +26,9 @@ import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -41,6 +43,12 @@ public class FilePersistenceResource extends AbstractFilePersistenceResource {
     FilePersistenceResource(final ModelNode model, final File fileName, final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
         super(model, persister);
         this.fileName = fileName;
+    }
+
+    FilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses, final File fileName,
+                            final AbstractConfigurationPersister persister, final ConfigurationWriteCoalescer coalescer) throws ConfigurationPersistenceException {
+        super(model, affectedAddresses, persister, coalescer);
+        this.fileName = fileName;
 
     }
 
@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+
+/**
+ * Cache of the XML written for each subsystem by a {@link AbstractConfigurationPersister}, allowing the output of a
+ * subsystem whose model has not changed since it was last marshalled to be replayed into the document rather than
+ * regenerated by the subsystem's {@link XMLElementWriter}.
+ * <p>
+ * What is cached is the sequence of calls the subsystem writer made against the {@link XMLExtendedStreamWriter}, so
+ * replayed output goes through the same stream writer as everything else and is formatted and namespaced consistently
+ * with the rest of the document.
+ * </p>
+ */
+final class SubsystemXmlFragmentCache {
+
+    /** Fragments, keyed by subsystem name. There can be more than one per subsystem in a domain with several profiles. */
+    private final Map<String, List<Fragment>> fragments = new HashMap<>();
+    private long pass;
+
+    /**
+     * Starts marshalling a configuration document.
+     *
+     * @return an identifier for the marshalling pass, to pass to {@link #getSubsystemWriter} and {@link #endPass(long)}
+     */
+    synchronized long startPass() {
+        return ++pass;
+    }
+
+    /**
+     * Completes a marshalling pass, discarding any fragments that were not used in it or the previous pass.
+     *
+     * @param completed the identifier of the completed pass
+     */
+    synchronized void endPass(long completed) {
+        for (Iterator<List<Fragment>> it = fragments.values().iterator(); it.hasNext();) {
+            List<Fragment> list = it.next();
+            list.removeIf(fragment -> fragment.lastUsed < completed - 1);
+            if (list.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards any cached fragments for a subsystem, e.g. because its writer has changed.
+     *
+     * @param subsystemName the name of the subsystem
+     */
+    synchronized void invalidate(String subsystemName) {
+        fragments.remove(subsystemName);
+    }
+
+    /**
+     * Wraps a subsystem writer so it reuses cached output when possible and caches its output otherwise.
+     *
+     * @param subsystemName the name of the subsystem
+     * @param writer the subsystem's writer
+     * @param affectedAddresses the addresses of the resources modified since the configuration was last stored, or
+     *                          {@code null} if not known
+     * @param pass the identifier of the current marshalling pass
+     * @return the wrapped writer
+     */
+    XMLElementWriter<SubsystemMarshallingContext> getSubsystemWriter(final String subsystemName,
+                                                                     final XMLElementWriter<SubsystemMarshallingContext> writer,
+                                                                     final Set<PathAddress> affectedAddresses,
+                                                                     final long pass) {
+        // If the subsystem was modified there's no point comparing its model to what's cached
+        final boolean modified = affectedAddresses != null && isAffected(subsystemName, affectedAddresses);
+        return new XMLElementWriter<SubsystemMarshallingContext>() {
+            @Override
+            public void writeContent(XMLExtendedStreamWriter streamWriter, SubsystemMarshallingContext context) throws XMLStreamException {
+                final ModelNode model = context.getModelNode();
+                final Fragment cached = modified ? null : getFragment(subsystemName, model, pass);
+                if (cached != null) {
+                    cached.replay(streamWriter);
+                } else {
+                    final Recorder recorder = new Recorder(streamWriter);
+                    final XMLExtendedStreamWriter recording = (XMLExtendedStreamWriter) Proxy.newProxyInstance(
+                            XMLExtendedStreamWriter.class.getClassLoader(), new Class<?>[] {XMLExtendedStreamWriter.class}, recorder);
+                    writer.writeContent(recording, new SubsystemMarshallingContext(model, recording));
+                    putFragment(subsystemName, new Fragment(model.clone(), recorder.calls, pass));
+                }
+            }
+        };
+    }
+
+    private synchronized Fragment getFragment(String subsystemName, ModelNode model, long pass) {
+        final List<Fragment> list = fragments.get(subsystemName);
+        if (list != null) {
+            for (Fragment fragment : list) {
+                if (fragment.model.equals(model)) {
+                    fragment.lastUsed = pass;
+                    return fragment;
+                }
+            }
+        }
+        return null;
+    }
+
+    private synchronized void putFragment(String subsystemName, Fragment fragment) {
+        fragments.computeIfAbsent(subsystemName, name -> new ArrayList<>()).add(fragment);
+    }
+
+    /**
+     * Gets whether any of the given addresses is that of the subsystem or of a resource within it. Changes made
+     * through an ancestor of the subsystem, e.g. a profile, are not assumed to affect it; they are caught by comparing
+     * the subsystem's model with the cached one.
+     */
+    private static boolean isAffected(String subsystemName, Set<PathAddress> affectedAddresses) {
+        for (PathAddress address : affectedAddresses) {
+            for (PathElement element : address) {
+                if (SUBSYSTEM.equals(element.getKey())) {
+                    if (subsystemName.equals(element.getValue())) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Fragment {
+        private final ModelNode model;
+        private final List<Call> calls;
+        private long lastUsed;
+
+        private Fragment(ModelNode model, List<Call> calls, long lastUsed) {
+            this.model = model;
+            this.calls = calls;
+            this.lastUsed = lastUsed;
+        }
+
+        private void replay(XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
+            for (Call call : calls) {
+                call.invoke(streamWriter);
+            }
+        }
+    }
+
+    private static final class Call {
+        private final Method method;
+        private final Object[] args;
+
+        private Call(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        private Object invoke(XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
+            try {
+                return method.invoke(streamWriter, args);
+            } catch (InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof XMLStreamException) {
+                    throw (XMLStreamException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new XMLStreamException(cause);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Passes calls through to the real stream writer, recording those that produce output. Calls that only
+     * query the state of the writer are not recorded.
+     */
+    private static final class Recorder implements java.lang.reflect.InvocationHandler {
+        private final XMLExtendedStreamWriter delegate;
+        private final List<Call> calls = new ArrayList<>();
+
+        private Recorder(XMLExtendedStreamWriter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            final Call call = new Call(method, copy(args));
+            if (method.getReturnType() == void.class) {
+                calls.add(call);
+            }
+            return call.invoke(delegate);
+        }
+
+        private static Object[] copy(Object[] args) {
+            if (args == null) {
+                return null;
+            }
+            final Object[] result = args.clone();
+            for (int i = 0; i < result.length; i++) {
+                // Arrays may be buffers the marshaller reuses once the call returns
+                if (result[i] instanceof String[]) {
+                    result[i] = ((String[]) result[i]).clone();
+                } else if (result[i] instanceof char[]) {
+                    result[i] = ((char[]) result[i]).clone();
+                }
+            }
+            return result;
+        }
+    }
+}
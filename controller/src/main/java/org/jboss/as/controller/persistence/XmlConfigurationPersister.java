@@ -25,9 +25,14 @@ package org.jboss.as.controller.persistence;
 import static org.jboss.as.controller.logging.ControllerLogger.ROOT_LOGGER;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -60,6 +65,7 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     private final XMLElementReader<List<ModelNode>> rootParser;
     private final Map<QName, XMLElementReader<List<ModelNode>>> additionalParsers;
     private final boolean suppressLoad;
+    private final ConfigurationWriteCoalescer coalescer = ConfigurationWriteCoalescer.create();
 
     /**
      * Construct a new instance.
@@ -100,7 +106,18 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     /** {@inheritDoc} */
     @Override
     public PersistenceResource store(final ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
-        return new FilePersistenceResource(model, fileName, this);
+        return new FilePersistenceResource(model, affectedAddresses, fileName, this, coalescer);
+    }
+
+    /**
+     * Writes to the configuration file any change whose write has been deferred to coalesce it with later changes.
+     */
+    protected void flushPendingWrites() {
+        coalescer.flush();
+    }
+
+    ConfigurationWriteCoalescer getWriteCoalescer() {
+        return coalescer;
     }
 
     /** {@inheritDoc} */
@@ -109,7 +126,48 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         if (suppressLoad) {
             return new ArrayList<>();
         }
+        // A reload must see every change that has been committed, including those whose write is being coalesced
+        flushPendingWrites();
+
+        final File cacheFile = BootOperationCache.isEnabled() ? getBootOperationCacheFile() : null;
+        if (cacheFile == null) {
+            try {
+                return parse(new FileInputStream(fileName));
+            } catch (FileNotFoundException e) {
+                throw ControllerLogger.ROOT_LOGGER.failedToParseConfiguration(e);
+            }
+        }
+
+        final long start = System.nanoTime();
+        final BootOperationCache cache = new BootOperationCache(cacheFile, fileName, rootParser.getClass().getName());
+        final byte[] configuration;
+        final byte[] key;
+        try {
+            configuration = Files.readAllBytes(fileName.toPath());
+            key = cache.computeKey(configuration);
+        } catch (IOException e) {
+            throw ControllerLogger.ROOT_LOGGER.failedToParseConfiguration(e);
+        }
+        final List<ModelNode> cached = cache.load(key);
+        if (cached != null) {
+            return cached;
+        }
+        final List<ModelNode> updates = parse(new ByteArrayInputStream(configuration));
+        cache.store(key, updates, System.nanoTime() - start);
+        return updates;
+    }
+
+    /**
+     * Gets the file the operations parsed from the configuration are cached in, so the next boot with the same
+     * configuration does not need to parse it.
+     *
+     * @return the file, or {@code null} if boot operations should not be cached
+     */
+    protected File getBootOperationCacheFile() {
+        return null;
+    }
 
+    private List<ModelNode> parse(final InputStream in) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         mapper.registerRootElement(rootElement, rootParser);
         synchronized (additionalParsers) {
@@ -119,16 +177,15 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         }
         final List<ModelNode> updates = new ArrayList<ModelNode>();
         try {
-            final FileInputStream fis = new FileInputStream(fileName);
             try {
-                BufferedInputStream input = new BufferedInputStream(fis);
+                BufferedInputStream input = new BufferedInputStream(in);
                 XMLStreamReader streamReader = XMLInputFactory.newInstance().createXMLStreamReader(input);
                 mapper.parseDocument(updates, streamReader);
                 streamReader.close();
                 input.close();
-                fis.close();
+                in.close();
             } finally {
-                safeClose(fis);
+                safeClose(in);
             }
         } catch (XMLStreamException e) {
             final boolean reported = reportValidationError(e);
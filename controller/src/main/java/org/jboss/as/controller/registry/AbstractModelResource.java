@@ -259,11 +259,58 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
         }
     }
 
+    void cloneProvidersForUpdate(AbstractModelResource clone, Generation generation) {
+        synchronized (children) {
+            for (final Map.Entry<String, ResourceProvider> entry : children.entrySet()) {
+                final ResourceProvider provider = entry.getValue();
+                if (provider instanceof DefaultResourceProvider) {
+                    clone.registerResourceProvider(entry.getKey(), ((DefaultResourceProvider) provider).cloneForUpdate(generation));
+                } else {
+                    clone.registerResourceProvider(entry.getKey(), provider.clone());
+                }
+            }
+        }
+    }
+
+    static Resource cloneChildForUpdate(Resource resource, Generation generation) {
+        if (resource.getClass() == BasicResource.class) {
+            return ((BasicResource) resource).cloneForUpdate(generation);
+        }
+        return resource.clone();
+    }
+
+    /**
+     * Tracks whether a resource tree created by {@link Resource.Tools#cloneForUpdate(Resource)} may still be modified.
+     * While it may, children shared with the source tree are copied the first time they are accessed. Once
+     * sealed, the tree is treated as read-only and shared children are returned as is.
+     */
+    static final class Generation {
+
+        private volatile boolean sealed;
+
+        boolean isSealed() {
+            return sealed;
+        }
+
+        void seal() {
+            sealed = true;
+        }
+    }
+
     private static class DefaultResourceProvider implements ResourceProvider {
 
         private final Map<String, Resource> children = new LinkedHashMap<String, Resource>();
+        /** Names of the children that are still shared with the tree this provider was copied from. */
+        private final Set<String> shared;
+        private final Generation generation;
 
         protected DefaultResourceProvider() {
+            this(null);
+        }
+
+        private DefaultResourceProvider(Generation generation) {
+            this.generation = generation;
+            this.shared = generation == null ? Collections.<String>emptySet() : new HashSet<String>();
         }
 
         @Override
@@ -283,7 +330,13 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
         @Override
         public Resource get(String name) {
             synchronized (children) {
-                return children.get(name);
+                Resource resource = children.get(name);
+                if (resource != null && generation != null && !generation.isSealed() && shared.remove(name)) {
+                    // First access through this tree; take a private copy before anyone can modify it
+                    resource = cloneChildForUpdate(resource, generation);
+                    children.put(name, resource);
+                }
+                return resource;
             }
         }
 
@@ -336,7 +389,12 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
         @Override
         public Resource remove(String name) {
             synchronized (children) {
-                return children.remove(name);
+                final Resource removed = children.remove(name);
+                if (removed != null && generation != null && shared.remove(name)) {
+                    // Don't hand out a resource that is still part of another tree
+                    return cloneChildForUpdate(removed, generation);
+                }
+                return removed;
             }
         }
 
@@ -350,6 +408,15 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
             }
             return provider;
         }
+
+        DefaultResourceProvider cloneForUpdate(Generation generation) {
+            final DefaultResourceProvider provider = new DefaultResourceProvider(generation);
+            synchronized (children) {
+                provider.children.putAll(children);
+                provider.shared.addAll(children.keySet());
+            }
+            return provider;
+        }
     }
 
     abstract static class DelegateResource implements ResourceEntry {
@@ -39,6 +39,8 @@ class BasicResource extends AbstractModelResource implements Resource {
 
     /** The local model. */
     private final ModelNode model = new ModelNode();
+    /** The copy-on-write generation this resource belongs to, or {@code null} if it is not part of one. */
+    private final Generation generation;
 
     protected BasicResource() {
         this(false);
@@ -46,18 +48,26 @@ class BasicResource extends AbstractModelResource implements Resource {
 
     protected BasicResource(boolean runtimeOnly) {
         super(runtimeOnly);
+        this.generation = null;
     }
 
     protected BasicResource(boolean runtimeOnly, String...orderedChildTypes) {
         super(runtimeOnly, orderedChildTypes);
+        this.generation = null;
     }
 
     protected BasicResource(boolean runtimeOnly, Set<String> orderedChildTypes) {
         super(runtimeOnly, orderedChildTypes);
+        this.generation = null;
     }
 
     private BasicResource(boolean runtimeOnly, Set<String> orderedChildTypes, boolean safe) {
+        this(runtimeOnly, orderedChildTypes, safe, null);
+    }
+
+    private BasicResource(boolean runtimeOnly, Set<String> orderedChildTypes, boolean safe, Generation generation) {
         super(runtimeOnly, orderedChildTypes, safe);
+        this.generation = generation;
     }
 
     @Override
@@ -78,16 +88,43 @@ class BasicResource extends AbstractModelResource implements Resource {
     @Override
     public Resource clone() {
         final BasicResource clone = new BasicResource(isRuntime(), getOrderedChildTypes(), true);
+        copyModel(clone);
+        cloneProviders(clone);
+        return clone;
+    }
+
+    /**
+     * Creates a copy of this resource that shares its children with this resource until they are first accessed
+     * through the copy. See {@link Resource.Tools#cloneForUpdate(Resource)}.
+     *
+     * @param generation the generation the copy belongs to. Cannot be {@code null}
+     * @return the copy. Will not return {@code null}
+     */
+    BasicResource cloneForUpdate(Generation generation) {
+        final BasicResource copy = new BasicResource(isRuntime(), getOrderedChildTypes(), true, generation);
+        copyModel(copy);
+        cloneProvidersForUpdate(copy, generation);
+        return copy;
+    }
+
+    private void copyModel(BasicResource target) {
         for (;;) {
             try {
-                clone.writeModel(model);
+                target.writeModel(model);
                 break;
             } catch (ConcurrentModificationException ignore) {
                 // TODO horrible hack :(
             }
         }
-        cloneProviders(clone);
-        return clone;
+    }
+
+    /**
+     * Marks the copy-on-write generation this resource belongs to as complete.
+     */
+    void seal() {
+        if (generation != null) {
+            generation.seal();
+        }
     }
 
 }
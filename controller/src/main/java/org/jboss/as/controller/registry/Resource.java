@@ -384,6 +384,37 @@ public interface Resource extends Cloneable {
             return result;
         }
 
+        /**
+         * Creates a copy of {@code resource} that can be modified without affecting the source. Unlike
+         * {@link Resource#clone()} the copy is not deep; descendants are shared with the source and are only
+         * copied when first accessed through the copy, so the cost of the copy is proportional to the part of the
+         * tree that is actually read or modified rather than to the size of the tree.
+         * <p>
+         * The source tree must not be modified once this method has been called. Once modification of the copy is
+         * complete, {@link #seal(Resource)} should be called on it so that further reads no longer copy shared
+         * descendants. Resources that are not standard {@link Resource.Factory} resources are deep cloned.
+         * </p>
+         *
+         * @param resource the resource to copy. Cannot be {@code null}
+         * @return the copy. Will not return {@code null}
+         */
+        public static Resource cloneForUpdate(final Resource resource) {
+            return AbstractModelResource.cloneChildForUpdate(resource, new AbstractModelResource.Generation());
+        }
+
+        /**
+         * Marks a resource tree created by {@link #cloneForUpdate(Resource)} as complete. After this call the
+         * tree is treated as read-only and can itself be used as the source of further copies. Calling this
+         * on any other resource has no effect.
+         *
+         * @param resource the root of the tree. Cannot be {@code null}
+         */
+        public static void seal(final Resource resource) {
+            if (resource instanceof BasicResource) {
+                ((BasicResource) resource).seal();
+            }
+        }
+
         /**
          * Navigate from a parent {@code resource} to the descendant resource at the given relative {@code address}.
          * <p>
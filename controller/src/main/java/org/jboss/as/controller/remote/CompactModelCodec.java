@@ -0,0 +1,464 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.remote;
+
+import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.jboss.dmr.ValueExpression;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Compact encoding of a {@link ModelNode} used by the transactional protocol when both sides have negotiated
+ * {@link TransactionalProtocolClient#COMPACT_MODEL}, and by the host controller registration protocols once the peer
+ * has announced that it can read it.
+ * <p>
+ * Unlike {@link ModelNode#writeExternal(DataOutput)}, every string (object keys, property names and string,
+ * expression and type values) is written only once per node; later occurrences refer to the first one by its index
+ * in a string table that the reader rebuilds as it goes. Integral values are written as variable length integers.
+ * Encodings larger than the compression threshold are additionally deflated.
+ */
+public final class CompactModelCodec {
+
+    private static final String ENABLED_PROPERTY = "jboss.as.management.compact-model";
+    private static final String COMPRESSION_THRESHOLD_PROPERTY = "jboss.as.management.compact-model.compression-threshold";
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 8192;
+
+    /** Whether the compact encoding is used when the remote side supports it. */
+    static final boolean ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(ENABLED_PROPERTY, "true"));
+    private static final int COMPRESSION_THRESHOLD = getCompressionThreshold();
+
+    private static final byte FRAME_PLAIN = 0;
+    private static final byte FRAME_DEFLATED = 1;
+
+    private static final byte UNDEFINED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BIG_DECIMAL = 6;
+    private static final byte BIG_INTEGER = 7;
+    private static final byte BYTES = 8;
+    private static final byte STRING = 9;
+    private static final byte EXPRESSION = 10;
+    private static final byte TYPE = 11;
+    private static final byte LIST = 12;
+    private static final byte OBJECT = 13;
+    private static final byte PROPERTY = 14;
+
+    private CompactModelCodec() {
+    }
+
+    /**
+     * Whether the compact encoding should be used on the given channel.
+     *
+     * @param compactModel the value of the {@link TransactionalProtocolClient#COMPACT_MODEL} attachment, may be {@code null}
+     * @return {@code true} if the model should be written using {@link #write(DataOutput, ModelNode)}
+     */
+    static boolean isSupported(final Boolean compactModel) {
+        return ENABLED && compactModel != null && compactModel;
+    }
+
+    /**
+     * Whether this process offers and accepts the compact encoding. Disabled by setting
+     * {@code jboss.as.management.compact-model} to {@code false}, in which case peers fall back to
+     * {@link ModelNode#writeExternal(DataOutput)}.
+     *
+     * @return {@code true} if the compact encoding may be negotiated
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Writes the model in the compact encoding.
+     *
+     * @param output the output
+     * @param model the model
+     * @throws IOException for any error
+     */
+    public static void write(final DataOutput output, final ModelNode model) throws IOException {
+        write(output, model, COMPRESSION_THRESHOLD);
+    }
+
+    static void write(final DataOutput output, final ModelNode model, final int compressionThreshold) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream data = new DataOutputStream(bytes);
+        new Encoder(data).writeNode(model);
+        data.flush();
+        final byte[] encoded = bytes.toByteArray();
+        if (compressionThreshold >= 0 && encoded.length > compressionThreshold) {
+            final byte[] deflated = deflate(encoded);
+            if (deflated.length < encoded.length) {
+                output.writeByte(FRAME_DEFLATED);
+                output.writeInt(encoded.length);
+                output.writeInt(deflated.length);
+                output.write(deflated);
+                MGMT_OP_LOGGER.tracef("wrote compact model of %d bytes deflated to %d bytes", encoded.length, deflated.length);
+                return;
+            }
+        }
+        output.writeByte(FRAME_PLAIN);
+        output.writeInt(encoded.length);
+        output.write(encoded);
+    }
+
+    /**
+     * Reads a model written by {@link #write(DataOutput, ModelNode)}.
+     *
+     * @param input the input
+     * @return the model
+     * @throws IOException for any error
+     */
+    public static ModelNode read(final DataInput input) throws IOException {
+        final byte frame = input.readByte();
+        final int length = input.readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Invalid length " + length);
+        }
+        final byte[] encoded = new byte[length];
+        if (frame == FRAME_DEFLATED) {
+            final int compressedLength = input.readInt();
+            if (compressedLength < 0) {
+                throw new StreamCorruptedException("Invalid length " + compressedLength);
+            }
+            final byte[] deflated = new byte[compressedLength];
+            input.readFully(deflated);
+            inflate(deflated, encoded);
+        } else if (frame == FRAME_PLAIN) {
+            input.readFully(encoded);
+        } else {
+            throw new StreamCorruptedException("Unexpected frame type " + frame);
+        }
+        final ModelNode model = new ModelNode();
+        new Decoder(new DataInputStream(new ByteArrayInputStream(encoded))).readNode(model);
+        return model;
+    }
+
+    private static byte[] deflate(final byte[] encoded) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(encoded);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length / 4);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                final int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(final byte[] deflated, final byte[] target) throws IOException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            int offset = 0;
+            while (offset < target.length) {
+                final int count = inflater.inflate(target, offset, target.length - offset);
+                if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != target.length) {
+                throw new StreamCorruptedException("Expected " + target.length + " bytes but inflated " + offset);
+            }
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int getCompressionThreshold() {
+        final String value = WildFlySecurityManager.getPropertyPrivileged(COMPRESSION_THRESHOLD_PROPERTY, null);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                MGMT_OP_LOGGER.debugf("Ignoring invalid value %s for %s", value, COMPRESSION_THRESHOLD_PROPERTY);
+            }
+        }
+        return DEFAULT_COMPRESSION_THRESHOLD;
+    }
+
+    private static final class Encoder {
+
+        private final DataOutputStream output;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Encoder(final DataOutputStream output) {
+            this.output = output;
+        }
+
+        private void writeNode(final ModelNode node) throws IOException {
+            final ModelType type = node.getType();
+            switch (type) {
+                case UNDEFINED:
+                    output.writeByte(UNDEFINED);
+                    break;
+                case BOOLEAN:
+                    output.writeByte(node.asBoolean() ? TRUE : FALSE);
+                    break;
+                case INT:
+                    output.writeByte(INT);
+                    writeVarLong(zigZag(node.asInt()));
+                    break;
+                case LONG:
+                    output.writeByte(LONG);
+                    writeVarLong(zigZag(node.asLong()));
+                    break;
+                case DOUBLE:
+                    output.writeByte(DOUBLE);
+                    output.writeDouble(node.asDouble());
+                    break;
+                case BIG_DECIMAL:
+                    output.writeByte(BIG_DECIMAL);
+                    writeString(node.asBigDecimal().toString());
+                    break;
+                case BIG_INTEGER:
+                    output.writeByte(BIG_INTEGER);
+                    writeBytes(node.asBigInteger().toByteArray());
+                    break;
+                case BYTES:
+                    output.writeByte(BYTES);
+                    writeBytes(node.asBytes());
+                    break;
+                case STRING:
+                    output.writeByte(STRING);
+                    writeString(node.asString());
+                    break;
+                case EXPRESSION:
+                    output.writeByte(EXPRESSION);
+                    writeString(node.asExpression().getExpressionString());
+                    break;
+                case TYPE:
+                    output.writeByte(TYPE);
+                    writeString(node.asType().name());
+                    break;
+                case LIST: {
+                    final List<ModelNode> elements = node.asList();
+                    output.writeByte(LIST);
+                    writeVarLong(elements.size());
+                    for (ModelNode element : elements) {
+                        writeNode(element);
+                    }
+                    break;
+                }
+                case OBJECT: {
+                    output.writeByte(OBJECT);
+                    writeVarLong(node.keys().size());
+                    for (String key : node.keys()) {
+                        writeString(key);
+                        writeNode(node.get(key));
+                    }
+                    break;
+                }
+                case PROPERTY: {
+                    final Property property = node.asProperty();
+                    output.writeByte(PROPERTY);
+                    writeString(property.getName());
+                    writeNode(property.getValue());
+                    break;
+                }
+                default:
+                    throw new IllegalStateException(type.toString());
+            }
+        }
+
+        private void writeString(final String value) throws IOException {
+            final Integer index = strings.get(value);
+            if (index != null) {
+                writeVarLong(index + 1);
+            } else {
+                // zero marks a new string table entry
+                writeVarLong(0);
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                strings.put(value, strings.size());
+            }
+        }
+
+        private void writeBytes(final byte[] bytes) throws IOException {
+            writeVarLong(bytes.length);
+            output.write(bytes);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                output.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.writeByte((int) value);
+        }
+
+        private static long zigZag(final long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Decoder {
+
+        private final DataInputStream input;
+        private final List<String> strings = new ArrayList<>();
+
+        private Decoder(final DataInputStream input) {
+            this.input = input;
+        }
+
+        private void readNode(final ModelNode node) throws IOException {
+            final byte type = input.readByte();
+            switch (type) {
+                case UNDEFINED:
+                    break;
+                case TRUE:
+                    node.set(true);
+                    break;
+                case FALSE:
+                    node.set(false);
+                    break;
+                case INT:
+                    node.set((int) unZigZag(readVarLong()));
+                    break;
+                case LONG:
+                    node.set(unZigZag(readVarLong()));
+                    break;
+                case DOUBLE:
+                    node.set(input.readDouble());
+                    break;
+                case BIG_DECIMAL:
+                    node.set(new BigDecimal(readString()));
+                    break;
+                case BIG_INTEGER:
+                    node.set(new BigInteger(readBytes()));
+                    break;
+                case BYTES:
+                    node.set(readBytes());
+                    break;
+                case STRING:
+                    node.set(readString());
+                    break;
+                case EXPRESSION:
+                    node.set(new ValueExpression(readString()));
+                    break;
+                case TYPE:
+                    node.set(ModelType.valueOf(readString()));
+                    break;
+                case LIST: {
+                    final int size = readSize();
+                    node.setEmptyList();
+                    for (int i = 0; i < size; i++) {
+                        readNode(node.add());
+                    }
+                    break;
+                }
+                case OBJECT: {
+                    final int size = readSize();
+                    node.setEmptyObject();
+                    for (int i = 0; i < size; i++) {
+                        final String key = readString();
+                        readNode(node.get(key));
+                    }
+                    break;
+                }
+                case PROPERTY: {
+                    final String name = readString();
+                    final ModelNode value = new ModelNode();
+                    readNode(value);
+                    node.set(name, value);
+                    break;
+                }
+                default:
+                    throw new StreamCorruptedException("Unexpected model type " + type);
+            }
+        }
+
+        private String readString() throws IOException {
+            final int index = readSize();
+            if (index == 0) {
+                final String value = new String(readBytes(), StandardCharsets.UTF_8);
+                strings.add(value);
+                return value;
+            }
+            if (index > strings.size()) {
+                throw new StreamCorruptedException("Unknown string reference " + index);
+            }
+            return strings.get(index - 1);
+        }
+
+        private byte[] readBytes() throws IOException {
+            final byte[] bytes = new byte[readSize()];
+            input.readFully(bytes);
+            return bytes;
+        }
+
+        private int readSize() throws IOException {
+            final long size = readVarLong();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Invalid size " + size);
+            }
+            return (int) size;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = input.readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable length integer");
+        }
+
+        private static long unZigZag(final long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -54,6 +54,19 @@ public interface TransactionalProtocolClient {
      */
     Attachments.Key<Boolean> SEND_IN_VM = new Attachments.Key<>(Boolean.class);
 
+    /**
+     * Attachment whether the remote side can read operations and responses using the compact model encoding.
+     * Responses only use the compact encoding if the request did. Only attached once the remote side announced
+     * support while registering, so older peers keep receiving the standard encoding.
+     * <p>
+     * HC > server: ServerToHostProtocolHandler, if the server registered with the compact model parameter
+     * <p>
+     * DC > slave: HostControllerRegistrationHandler, if the slave host info requests the compact model
+     * <p>
+     * slave > DC: RemoteDomainConnection, if the DC sent the domain model in the compact encoding
+     */
+    Attachments.Key<Boolean> COMPACT_MODEL = new Attachments.Key<>(Boolean.class);
+
     /**
      * Execute an operation. This returns a future for the final result, which will only available after the prepared
      * operation is committed.
@@ -190,8 +190,15 @@ class TransactionalProtocolClientImpl implements ManagementRequestHandlerFactory
             if (streams != null) {
                 inputStreamLength = streams.size();
             }
-            output.write(ModelControllerProtocol.PARAM_OPERATION);
-            operation.writeExternal(output);
+            final boolean compactModel = CompactModelCodec.isSupported(channelAssociation.getAttachments().getAttachment(COMPACT_MODEL));
+            executionContext.compactModel = compactModel;
+            if (compactModel) {
+                output.write(ModelControllerProtocol.PARAM_OPERATION_COMPACT);
+                CompactModelCodec.write(output, operation);
+            } else {
+                output.write(ModelControllerProtocol.PARAM_OPERATION);
+                operation.writeExternal(output);
+            }
             output.write(ModelControllerProtocol.PARAM_INPUTSTREAMS_LENGTH);
             output.writeInt(inputStreamLength);
 
@@ -213,8 +220,7 @@ class TransactionalProtocolClientImpl implements ManagementRequestHandlerFactory
         public void handleRequest(final DataInput input, final ActiveOperation.ResultHandler<OperationResponse> resultHandler, final ManagementRequestContext<ExecuteRequestContext> context) throws IOException {
             ControllerLogger.MGMT_OP_LOGGER.tracef("received response to ExecuteRequest for %d", context.getOperationId());
             final byte responseType = input.readByte();
-            final ModelNode response = new ModelNode();
-            response.readExternal(input);
+            final ModelNode response = readResponse(input, context.getAttachment());
             // If not prepared the operation failed
             final boolean prepared = responseType == ModelControllerProtocol.PARAM_OPERATION_PREPARED;
             final ExecuteRequestContext executeRequestContext = context.getAttachment();
@@ -298,8 +304,7 @@ class TransactionalProtocolClientImpl implements ManagementRequestHandlerFactory
             ControllerLogger.MGMT_OP_LOGGER.tracef("received response to CompleteTxRequest (%s) for %d", status != ModelControllerProtocol.PARAM_ROLLBACK, context.getOperationId());
             // We only accept operationCompleted responses
             expectHeader(input, ModelControllerProtocol.PARAM_OPERATION_COMPLETED);
-            final ModelNode responseNode = new ModelNode();
-            responseNode.readExternal(input);
+            final ModelNode responseNode = readResponse(input, context.getAttachment());
             // Complete the operation
             resultHandler.done(createOperationResponse(responseNode, channelAssociation, context.getOperationId()));
         }
@@ -407,6 +412,8 @@ class TransactionalProtocolClientImpl implements ManagementRequestHandlerFactory
         final InetAddress remoteAddress;
         final File tempDir;
         final boolean inVmCall;
+        /** Whether the request, and thus the responses, used the compact model encoding */
+        volatile boolean compactModel;
 
         ExecuteRequestContext(OperationWrapper<?> operationWrapper, SecurityIdentity securityIdentity, InetAddress remoteAddress, File tempDir, boolean inVmCall) {
             this.wrapper = operationWrapper;
@@ -520,6 +527,15 @@ class TransactionalProtocolClientImpl implements ManagementRequestHandlerFactory
 
 
 
+    private static ModelNode readResponse(final DataInput input, final ExecuteRequestContext context) throws IOException {
+        if (context.compactModel) {
+            return CompactModelCodec.read(input);
+        }
+        final ModelNode response = new ModelNode();
+        response.readExternal(input);
+        return response;
+    }
+
     private static OperationResponse createOperationResponse(ModelNode simpleResponse, ManagementChannelAssociation channelAssociation, int operationId) {
         final ModelNode streamHeader =  simpleResponse.hasDefined(RESPONSE_HEADERS) && simpleResponse.get(RESPONSE_HEADERS).hasDefined(ATTACHED_STREAMS)
                 ? simpleResponse.get(RESPONSE_HEADERS, ATTACHED_STREAMS)
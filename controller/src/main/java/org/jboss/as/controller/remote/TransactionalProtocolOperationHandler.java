@@ -152,6 +152,7 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
 
             // Set the response information and execute the operation
             final ExecuteRequestContext executeRequestContext = context.getAttachment();
+            executeRequestContext.compactModel = executableRequest.compactModel;
             executeRequestContext.initialize(context);
 
             @SuppressWarnings("deprecation")
@@ -226,18 +227,27 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
         private final int attachmentsLength;
         private final PropagatedIdentity propagatedIdentity;
         private final boolean inVmCall;
+        private final boolean compactModel;
 
-        private ExecutableRequest(ModelNode operation, int attachmentsLength, PropagatedIdentity propagatedIdentity, boolean inVmCall) {
+        private ExecutableRequest(ModelNode operation, int attachmentsLength, PropagatedIdentity propagatedIdentity, boolean inVmCall, boolean compactModel) {
             this.operation = operation;
             this.attachmentsLength = attachmentsLength;
             this.propagatedIdentity = propagatedIdentity;
             this.inVmCall = inVmCall;
+            this.compactModel = compactModel;
         }
 
         static ExecutableRequest parse(DataInput input, ManagementChannelAssociation channelAssociation) throws IOException {
-            final ModelNode operation = new ModelNode();
-            ProtocolUtils.expectHeader(input, ModelControllerProtocol.PARAM_OPERATION);
-            operation.readExternal(input);
+            final ModelNode operation;
+            final byte operationHeader = input.readByte();
+            final boolean compactModel = operationHeader == ModelControllerProtocol.PARAM_OPERATION_COMPACT;
+            if (compactModel) {
+                operation = CompactModelCodec.read(input);
+            } else {
+                ProtocolUtils.expectHeader(operationHeader, ModelControllerProtocol.PARAM_OPERATION);
+                operation = new ModelNode();
+                operation.readExternal(input);
+            }
             ProtocolUtils.expectHeader(input, ModelControllerProtocol.PARAM_INPUTSTREAMS_LENGTH);
             final int attachmentsLength = input.readInt();
 
@@ -252,7 +262,7 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
                 inVmCall = input.readBoolean();
             }
 
-            return new ExecutableRequest(operation, attachmentsLength, propagatedIdentity, inVmCall);
+            return new ExecutableRequest(operation, attachmentsLength, propagatedIdentity, inVmCall, compactModel);
         }
     }
 
@@ -302,7 +312,8 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
             if (forExecuteTxRequest) {
                 try {
                     // Read and discard the input
-                    ExecutableRequest.parse(input, channelAssociation);
+                    final ExecutableRequest executableRequest = ExecutableRequest.parse(input, channelAssociation);
+                    context.getAttachment().compactModel = executableRequest.compactModel;
                 } finally {
                     ControllerLogger.MGMT_OP_LOGGER.tracef("aborting (cancel received before request) for %d", context.getOperationId());
                     ModelNode response = new ModelNode();
@@ -398,6 +409,9 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
          */
         private OperationResponse postPrepareRaceResponse;
 
+        /** Whether the request used the compact model encoding, in which case the responses use it as well */
+        private volatile boolean compactModel;
+
         /** Support object for managing any streams associated with the response */
         final ResponseAttachmentInputStreamSupport streamSupport;
 
@@ -633,7 +647,11 @@ public class TransactionalProtocolOperationHandler implements ManagementRequestH
                     // response type
                     output.writeByte(responseType);
                     // operation result
-                    response.writeExternal(output);
+                    if (context.getAttachment().compactModel) {
+                        CompactModelCodec.write(output, response);
+                    } else {
+                        response.writeExternal(output);
+                    }
                     // response end
                     output.writeByte(ManagementProtocol.RESPONSE_END);
                     output.close();
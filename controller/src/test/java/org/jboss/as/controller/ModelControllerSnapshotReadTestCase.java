@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SNAPSHOT_READ_COUNT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that {@link ModelControllerImpl} runs read-only operations against a snapshot of the published model.
+ */
+public class ModelControllerSnapshotReadTestCase {
+
+    private static final PathAddress CHILD = PathAddress.pathAddress(PathElement.pathElement("child", "one"));
+
+    private ServiceContainer container;
+    private ModelControllerImpl controller;
+    private volatile CountDownLatch firstRead;
+    private volatile CountDownLatch proceed;
+
+    @Before
+    public void setupController() throws InterruptedException {
+        container = ServiceContainer.Factory.create("test");
+        ModelControllerService svc = new ModelControllerService();
+        container.subTarget().addService(ServiceName.of("ModelController"), svc).install();
+        svc.awaitStartup(30, TimeUnit.SECONDS);
+        controller = (ModelControllerImpl) svc.getValue();
+        assertEquals(SUCCESS, controller.execute(Util.createEmptyOperation("setup", PathAddress.EMPTY_ADDRESS), null, null, null).get(OUTCOME).asString());
+    }
+
+    @After
+    public void shutdownServiceContainer() throws InterruptedException {
+        if (container != null) {
+            container.shutdown();
+            container.awaitTermination(5, TimeUnit.SECONDS);
+            container = null;
+        }
+    }
+
+    @Test
+    public void testConcurrentWriteNotSeen() throws Exception {
+        firstRead = new CountDownLatch(1);
+        proceed = new CountDownLatch(1);
+        long count = getSnapshotReadCount();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ModelNode> read = executor.submit(() -> controller.execute(Util.createEmptyOperation("read-twice", PathAddress.EMPTY_ADDRESS), null, null, null));
+            assertTrue(firstRead.await(10, TimeUnit.SECONDS));
+
+            // The read holds no lock, so the write completes and is published between the two steps of the read
+            ModelNode write = Util.createEmptyOperation("write-value", PathAddress.EMPTY_ADDRESS);
+            write.get(VALUE).set(2);
+            assertEquals(SUCCESS, controller.execute(write, null, null, null).get(OUTCOME).asString());
+            proceed.countDown();
+
+            ModelNode response = read.get(10, TimeUnit.SECONDS);
+            assertEquals(response.toString(), SUCCESS, response.get(OUTCOME).asString());
+            assertEquals(1, response.get(RESULT, 0).asInt());
+            assertEquals(1, response.get(RESULT, 1).asInt());
+        } finally {
+            proceed.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(count + 1, getSnapshotReadCount());
+
+        // A later read gets a snapshot of the model the write published
+        ModelNode response = controller.execute(Util.createEmptyOperation("read-twice", PathAddress.EMPTY_ADDRESS), null, null, null);
+        assertEquals(2, response.get(RESULT, 0).asInt());
+        assertEquals(2, response.get(RESULT, 1).asInt());
+        assertEquals(count + 2, getSnapshotReadCount());
+    }
+
+    @Test
+    public void testWriteNotCounted() throws Exception {
+        long count = getSnapshotReadCount();
+        ModelNode write = Util.createEmptyOperation("write-value", PathAddress.EMPTY_ADDRESS);
+        write.get(VALUE).set(3);
+        assertEquals(SUCCESS, controller.execute(write, null, null, null).get(OUTCOME).asString());
+        assertEquals(count, getSnapshotReadCount());
+        assertEquals(3, controller.getManagementModel().getRootResource().navigate(CHILD).getModel().get(VALUE).asInt());
+    }
+
+    private long getSnapshotReadCount() {
+        return controller.getModelControllerResource().getModel().get(SNAPSHOT_READ_COUNT).asLong();
+    }
+
+    private class ModelControllerService extends TestModelControllerService {
+
+        @Override
+        protected void initModel(ManagementModel managementModel, Resource modelControllerResource) {
+            ManagementResourceRegistration rootRegistration = managementModel.getRootResourceRegistration();
+            rootRegistration.registerOperationHandler(getOD("setup"), (context, operation) ->
+                    context.createResource(CHILD).getModel().get(VALUE).set(1), true);
+            rootRegistration.registerOperationHandler(getOD("write-value"), (context, operation) ->
+                    context.readResourceForUpdate(CHILD).getModel().get(VALUE).set(operation.get(VALUE)), true);
+            rootRegistration.registerOperationHandler(getODBuilder("read-twice").setReadOnly().build(), new ReadTwiceHandler(), true);
+            rootRegistration.registerSubModel(new SimpleResourceDefinition(PathElement.pathElement("child"), new NonResolvingResourceDescriptionResolver()));
+        }
+    }
+
+    /**
+     * Reads the value of the child in two steps, waiting between them if the test asks it to.
+     */
+    private class ReadTwiceHandler implements OperationStepHandler {
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.getResult().add(context.readResourceFromRoot(CHILD).getModel().get(VALUE));
+            final CountDownLatch firstRead = ModelControllerSnapshotReadTestCase.this.firstRead;
+            if (firstRead != null) {
+                firstRead.countDown();
+                try {
+                    proceed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationFailedException(e.toString());
+                }
+                ModelControllerSnapshotReadTestCase.this.firstRead = null;
+            }
+            context.addStep((ctx, op) -> ctx.getResult().add(ctx.readResourceFromRoot(CHILD).getModel().get(VALUE)),
+                    OperationContext.Stage.MODEL);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.access.rbac;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.ControlledProcessState;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.Caller;
+import org.jboss.as.controller.access.Environment;
+import org.jboss.as.controller.access.JmxAction;
+import org.jboss.as.controller.access.JmxTarget;
+import org.jboss.as.controller.access.TargetAttribute;
+import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.management.AccessConstraintDefinition;
+import org.jboss.as.controller.access.management.WritableAuthorizerConfiguration;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the authorization work of a recursive {@code read-resource} by a caller mapped to a non-superuser role:
+ * one resource decision and one decision per attribute for every resource in the tree.
+ * <p>
+ * With {@code cacheSize} set to {@code 0} the decision cache is disabled and every decision is computed from the
+ * role permissions and constraints, which is how every decision was made before the cache was introduced.
+ * <p>
+ * This is not run as part of the test suite; run {@link #main(String[])} against the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationDecisionCacheBenchmark {
+
+    private static final ManagementResourceRegistration ROOT_RR = ManagementResourceRegistration.Factory.forProcessType(ProcessType.EMBEDDED_SERVER).createRegistration(new SimpleResourceDefinition(null, new NonResolvingResourceDescriptionResolver()) {
+        @Override
+        public List<AccessConstraintDefinition> getAccessConstraints() {
+            return Collections.emptyList();
+        }
+    });
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    @Param({"500"})
+    public int resources;
+
+    @Param({"10"})
+    public int attributes;
+
+    private StandardRBACAuthorizer authorizer;
+    private Caller caller;
+    private Environment environment;
+    private Action[] actions;
+    private TargetResource[] targets;
+    private TargetAttribute[][] attributeTargets;
+
+    @Setup
+    public void setup() {
+        System.setProperty("jboss.as.management.authorization-decision-cache.max-size", Integer.toString(cacheSize));
+        try {
+            WritableAuthorizerConfiguration configuration = new WritableAuthorizerConfiguration(StandardRBACAuthorizer.AUTHORIZER_DESCRIPTION);
+            authorizer = StandardRBACAuthorizer.create(configuration, new MonitorRoleMapper());
+        } finally {
+            System.clearProperty("jboss.as.management.authorization-decision-cache.max-size");
+        }
+        caller = Caller.createCaller(null);
+        ControlledProcessState processState = new ControlledProcessState(false);
+        processState.setRunning();
+        environment = new Environment(processState, ProcessType.EMBEDDED_SERVER);
+
+        actions = new Action[resources];
+        targets = new TargetResource[resources];
+        attributeTargets = new TargetAttribute[resources][attributes];
+        for (int i = 0; i < resources; i++) {
+            PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "s" + (i % 20)),
+                    PathElement.pathElement("child", "c" + i));
+            ModelNode operation = new ModelNode();
+            operation.get(OP).set(READ_RESOURCE_OPERATION);
+            operation.get(OP_ADDR).set(address.toModelNode());
+            actions[i] = new Action(operation, null, EnumSet.of(Action.ActionEffect.ADDRESS, Action.ActionEffect.READ_CONFIG));
+            targets[i] = TargetResource.forStandalone(address, ROOT_RR, null);
+            for (int j = 0; j < attributes; j++) {
+                attributeTargets[i][j] = new TargetAttribute("attribute-" + j, null, new ModelNode(), targets[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void recursiveRead(Blackhole blackhole) {
+        for (int i = 0; i < resources; i++) {
+            blackhole.consume(authorizer.authorize(caller, environment, actions[i], targets[i]));
+            for (int j = 0; j < attributes; j++) {
+                blackhole.consume(authorizer.authorize(caller, environment, actions[i], attributeTargets[i][j]));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthorizationDecisionCacheBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private static final class MonitorRoleMapper implements RoleMapper {
+        private static final Set<String> ROLES = Collections.singleton(StandardRole.MONITOR.name());
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Action action, TargetAttribute attribute) {
+            return ROLES;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Action action, TargetResource resource) {
+            return ROLES;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, JmxAction action, JmxTarget target) {
+            return ROLES;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Set<String> operationHeaderRoles) {
+            return ROLES;
+        }
+
+        @Override
+        public boolean canRunAs(Set<String> mappedRoles, String runAsRole) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.access.rbac;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.as.controller.ControlledProcessState;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.AuthorizationResult;
+import org.jboss.as.controller.access.Caller;
+import org.jboss.as.controller.access.CombinationPolicy;
+import org.jboss.as.controller.access.Environment;
+import org.jboss.as.controller.access.JmxAction;
+import org.jboss.as.controller.access.JmxTarget;
+import org.jboss.as.controller.access.TargetAttribute;
+import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.management.AccessConstraintDefinition;
+import org.jboss.as.controller.access.management.WritableAuthorizerConfiguration;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the decision cache used by {@link StandardRBACAuthorizer}.
+ */
+public class AuthorizationDecisionCacheTestCase {
+
+    private static final ManagementResourceRegistration ROOT_RR = ManagementResourceRegistration.Factory.forProcessType(ProcessType.EMBEDDED_SERVER).createRegistration(new SimpleResourceDefinition(null, new NonResolvingResourceDescriptionResolver()) {
+        @Override
+        public List<AccessConstraintDefinition> getAccessConstraints() {
+            return Collections.emptyList();
+        }
+    });
+
+    private static final PathAddress ADDRESS_A = PathAddress.pathAddress(PathElement.pathElement("subsystem", "a"));
+    private static final PathAddress ADDRESS_B = PathAddress.pathAddress(PathElement.pathElement("subsystem", "b"));
+
+    private Caller caller;
+    private Environment environment;
+    private WritableAuthorizerConfiguration authorizerConfiguration;
+
+    @Before
+    public void setUp() {
+        caller = Caller.createCaller(null);
+        ControlledProcessState processState = new ControlledProcessState(false);
+        processState.setRunning();
+        environment = new Environment(processState, ProcessType.EMBEDDED_SERVER);
+        authorizerConfiguration = new WritableAuthorizerConfiguration(StandardRBACAuthorizer.AUTHORIZER_DESCRIPTION);
+    }
+
+    @Test
+    public void testReadDecisionsAreCached() {
+        StandardRBACAuthorizer authorizer = StandardRBACAuthorizer.create(authorizerConfiguration, new TestRoleMapper(StandardRole.MONITOR));
+
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        assertCounts(authorizer, 0, 1);
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        assertCounts(authorizer, 1, 1);
+
+        // Different address and attribute targets are separate decisions
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_B), resource(ADDRESS_B)));
+        assertCounts(authorizer, 1, 2);
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x")));
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "y")));
+        assertCounts(authorizer, 1, 4);
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x")));
+        assertCounts(authorizer, 2, 4);
+    }
+
+    @Test
+    public void testWriteDecisionsAreNotCached() {
+        StandardRBACAuthorizer authorizer = StandardRBACAuthorizer.create(authorizerConfiguration, new TestRoleMapper(StandardRole.MONITOR));
+
+        assertDenied(authorizer.authorize(caller, environment, writeAction(ADDRESS_A), attribute(ADDRESS_A, "x")));
+        assertDenied(authorizer.authorize(caller, environment, writeAction(ADDRESS_A), attribute(ADDRESS_A, "x")));
+        assertCounts(authorizer, 0, 0);
+    }
+
+    @Test
+    public void testRoleSetsAreSeparate() {
+        TestRoleMapper roleMapper = new TestRoleMapper(StandardRole.MONITOR);
+        StandardRBACAuthorizer authorizer = StandardRBACAuthorizer.create(authorizerConfiguration, roleMapper);
+
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        roleMapper.setRoles(StandardRole.OPERATOR);
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        assertCounts(authorizer, 0, 2);
+    }
+
+    @Test
+    public void testConfigurationChangeInvalidates() {
+        StandardRBACAuthorizer authorizer = StandardRBACAuthorizer.create(authorizerConfiguration,
+                new TestRoleMapper(StandardRole.MONITOR, StandardRole.OPERATOR));
+
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A)));
+        assertCounts(authorizer, 1, 1);
+
+        // Multiple roles are rejected once the policy changes, so a stale cached decision would be visible
+        authorizerConfiguration.setPermissionCombinationPolicy(CombinationPolicy.REJECTING);
+        try {
+            authorizer.authorize(caller, environment, readAction(ADDRESS_A), resource(ADDRESS_A));
+            fail("multiple roles were not rejected");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+        assertCounts(authorizer, 1, 2);
+    }
+
+    @Test
+    public void testVaultExpressionValuesAreSeparate() {
+        StandardRBACAuthorizer authorizer = StandardRBACAuthorizer.create(authorizerConfiguration, new TestRoleMapper(StandardRole.MONITOR));
+
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x", new ModelNode("plain"))));
+        assertCounts(authorizer, 0, 1);
+        // The value was changed to a vault expression, which a monitor may not read, without a configuration change
+        assertDenied(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x", new ModelNode("${VAULT::a::b::c}"))));
+        assertCounts(authorizer, 0, 2);
+        assertDenied(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x", new ModelNode("${VAULT::a::b::c}"))));
+        assertCounts(authorizer, 1, 2);
+        // And back again
+        assertPermitted(authorizer.authorize(caller, environment, readAction(ADDRESS_A), attribute(ADDRESS_A, "x", new ModelNode("other"))));
+        assertCounts(authorizer, 2, 2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDecisionIsDiscarded() {
+        AuthorizationDecisionCache cache = new AuthorizationDecisionCache(2);
+        Set<String> roles = Collections.singleton(StandardRole.MONITOR.name());
+        AuthorizationDecisionCache.DecisionKey keyA = cache.createKey(roles, readAction(ADDRESS_A), ADDRESS_A, null, null, null, null);
+        AuthorizationDecisionCache.DecisionKey keyB = cache.createKey(roles, readAction(ADDRESS_B), ADDRESS_B, null, null, null, null);
+        AuthorizationDecisionCache.DecisionKey keyX = cache.createKey(roles, readAction(ADDRESS_A), ADDRESS_A, "x", new ModelNode(), null, null);
+
+        cache.put(cache.getGeneration(), keyA, AuthorizationResult.PERMITTED);
+        cache.put(cache.getGeneration(), keyB, AuthorizationResult.PERMITTED);
+        assertEquals(AuthorizationResult.PERMITTED, cache.get(keyA));
+        // B is now the least recently used, so adding another decision discards only B
+        cache.put(cache.getGeneration(), keyX, AuthorizationResult.PERMITTED);
+        assertEquals(AuthorizationResult.PERMITTED, cache.get(keyA));
+        assertEquals(AuthorizationResult.PERMITTED, cache.get(keyX));
+        assertNull(cache.get(keyB));
+    }
+
+    private static Action readAction(PathAddress address) {
+        return new Action(operation(READ_RESOURCE_OPERATION, address), null,
+                EnumSet.of(Action.ActionEffect.ADDRESS, Action.ActionEffect.READ_CONFIG));
+    }
+
+    private static Action writeAction(PathAddress address) {
+        return new Action(operation(WRITE_ATTRIBUTE_OPERATION, address), null,
+                EnumSet.of(Action.ActionEffect.ADDRESS, Action.ActionEffect.WRITE_CONFIG));
+    }
+
+    private static ModelNode operation(String name, PathAddress address) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(name);
+        operation.get(OP_ADDR).set(address.toModelNode());
+        return operation;
+    }
+
+    private static TargetResource resource(PathAddress address) {
+        return TargetResource.forStandalone(address, ROOT_RR, null);
+    }
+
+    private static TargetAttribute attribute(PathAddress address, String name) {
+        return attribute(address, name, new ModelNode());
+    }
+
+    private static TargetAttribute attribute(PathAddress address, String name, ModelNode value) {
+        return new TargetAttribute(name, null, value, resource(address));
+    }
+
+    private static void assertPermitted(AuthorizationResult result) {
+        assertEquals(AuthorizationResult.Decision.PERMIT, result.getDecision());
+    }
+
+    private static void assertDenied(AuthorizationResult result) {
+        assertEquals(AuthorizationResult.Decision.DENY, result.getDecision());
+    }
+
+    private static void assertCounts(StandardRBACAuthorizer authorizer, long hits, long misses) {
+        assertEquals(hits, authorizer.getDecisionCacheHitCount());
+        assertEquals(misses, authorizer.getDecisionCacheMissCount());
+    }
+
+    private static final class TestRoleMapper implements RoleMapper {
+        private volatile Set<String> roles;
+
+        private TestRoleMapper(StandardRole... roles) {
+            setRoles(roles);
+        }
+
+        private void setRoles(StandardRole... roles) {
+            Set<String> stringRoles = new HashSet<>();
+            for (StandardRole role : roles) {
+                stringRoles.add(role.name());
+            }
+            this.roles = Collections.unmodifiableSet(stringRoles);
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Action action, TargetAttribute attribute) {
+            return roles;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Action action, TargetResource resource) {
+            return roles;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, JmxAction action, JmxTarget target) {
+            return roles;
+        }
+
+        @Override
+        public Set<String> mapRoles(Caller caller, Environment callEnvironment, Set<String> operationHeaderRoles) {
+            return roles;
+        }
+
+        @Override
+        public boolean canRunAs(Set<String> mappedRoles, String runAsRole) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.audit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jboss.as.controller.services.path.PathManagerService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AuditLogWriter}.
+ */
+public class AuditLogWriterUnitTestCase {
+
+    private final Lock lock = new ReentrantLock(true);
+    private File logFile;
+    private FileAuditLogHandler handler;
+
+    @Before
+    public void setup() throws IOException {
+        logFile = File.createTempFile("audit-log", ".log");
+        handler = new FileAuditLogHandler("name", "formatter", 0, new PathManagerService() {}, logFile.getPath(), null, false);
+    }
+
+    @After
+    public void cleanup() {
+        logFile.delete();
+    }
+
+    @Test
+    public void testRecordsWrittenInOrder() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(AuditLogWriter.Durability.GROUP_SYNC, 16, false, lock, h -> true);
+        for (int i = 0; i < 10; i++) {
+            enqueue(writer, "record-" + i);
+        }
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList("record-0", "record-1", "record-2", "record-3", "record-4", "record-5",
+                "record-6", "record-7", "record-8", "record-9"), readLog());
+        Assert.assertEquals(0, handler.getQueuedCount());
+        Assert.assertEquals(0, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testFullQueueWrittenByLoggingThread() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(AuditLogWriter.Durability.GROUP_FLUSH, 2, false, lock, h -> true);
+        lock.lock();
+        try {
+            // The writer thread can't take the lock, so every third record finds the queue full
+            for (int i = 0; i < 5; i++) {
+                writer.enqueue(handler, "record-" + i);
+            }
+            Assert.assertEquals(Arrays.asList("record-0", "record-1", "record-2", "record-3"), readLog());
+            Assert.assertEquals(1, handler.getQueuedCount());
+            Assert.assertEquals(2, handler.getBlockedCount());
+        } finally {
+            lock.unlock();
+        }
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList("record-0", "record-1", "record-2", "record-3", "record-4"), readLog());
+        Assert.assertEquals(0, handler.getQueuedCount());
+        Assert.assertEquals(0, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testFullQueueDropsRecords() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(AuditLogWriter.Durability.GROUP_FLUSH, 2, true, lock, h -> true);
+        lock.lock();
+        try {
+            for (int i = 0; i < 5; i++) {
+                writer.enqueue(handler, "record-" + i);
+            }
+        } finally {
+            lock.unlock();
+        }
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList("record-0", "record-1"), readLog());
+        Assert.assertEquals(3, handler.getDroppedCount());
+        Assert.assertEquals(0, handler.getBlockedCount());
+    }
+
+    @Test
+    public void testRecordsAfterCloseWrittenByLoggingThread() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(AuditLogWriter.Durability.GROUP_SYNC, 16, false, lock, h -> true);
+        writer.close();
+        enqueue(writer, "record");
+
+        Assert.assertEquals(Collections.singletonList("record"), readLog());
+    }
+
+    @Test
+    public void testWriterThreadSyncsOutsideLock() throws Exception {
+        final List<Boolean> syncRequested = new CopyOnWriteArrayList<>();
+        handler = new FileAuditLogHandler("name", "formatter", 0, new PathManagerService() {}, logFile.getPath(), null, false) {
+            @Override
+            void writeLogItems(List<String> formattedItems, boolean sync) {
+                syncRequested.add(sync);
+                super.writeLogItems(formattedItems, sync);
+            }
+        };
+        AuditLogWriter writer = new AuditLogWriter(AuditLogWriter.Durability.GROUP_SYNC, 1, false, lock, h -> true);
+        lock.lock();
+        try {
+            writer.enqueue(handler, "record-0");
+            // The queue is full, so the logging thread writes and syncs the queued record itself
+            writer.enqueue(handler, "record-1");
+            Assert.assertEquals(Collections.singletonList(true), syncRequested);
+        } finally {
+            lock.unlock();
+        }
+        writer.close();
+
+        // The writer thread left the sync until it had released the lock
+        Assert.assertEquals(Arrays.asList(true, false), syncRequested);
+        Assert.assertEquals(Arrays.asList("record-0", "record-1"), readLog());
+    }
+
+    private void enqueue(AuditLogWriter writer, String record) {
+        lock.lock();
+        try {
+            writer.enqueue(handler, record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<String> readLog() throws IOException {
+        return Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+    }
+}
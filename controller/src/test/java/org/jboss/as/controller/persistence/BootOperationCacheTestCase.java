@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.parsing.ParseUtils;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.jboss.staxmapper.XMLElementReader;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the caching of parsed boot operations by {@link XmlConfigurationPersister}.
+ */
+public class BootOperationCacheTestCase {
+
+    private static final QName ROOT = new QName("urn:test:boot-operation-cache:1.0", "root");
+
+    private final File dir = new File("target", "boot-operation-cache");
+    private final File configuration = new File(dir, "test.xml");
+    private final File cache = new File(dir, "boot-operations.dmr");
+    private int parses;
+    private XmlConfigurationPersister persister;
+
+    @Before
+    public void setup() {
+        dir.mkdirs();
+        persister = new XmlConfigurationPersister(configuration, ROOT, new CountingParser(), null) {
+            @Override
+            protected File getBootOperationCacheFile() {
+                return cache;
+            }
+        };
+    }
+
+    @After
+    public void cleanup() {
+        configuration.delete();
+        cache.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testUnchangedConfigurationNotParsed() throws Exception {
+        writeConfiguration("${test.value:one}");
+        List<ModelNode> parsed = persister.load();
+        assertEquals(1, parses);
+        List<ModelNode> cached = persister.load();
+        assertEquals(1, parses);
+        assertEquals(parsed, cached);
+        assertEquals(new ValueExpression("${test.value:one}"), cached.get(0).get(VALUE).asExpression());
+    }
+
+    @Test
+    public void testChangedConfigurationParsed() throws Exception {
+        writeConfiguration("one");
+        persister.load();
+        writeConfiguration("two");
+        List<ModelNode> operations = persister.load();
+        assertEquals(2, parses);
+        assertEquals("two", operations.get(0).get(VALUE).asString());
+        persister.load();
+        assertEquals(2, parses);
+    }
+
+    @Test
+    public void testCorruptCacheIgnored() throws Exception {
+        writeConfiguration("one");
+        persister.load();
+        Files.write(cache.toPath(), new byte[] {1, 2, 3});
+        List<ModelNode> operations = persister.load();
+        assertEquals(2, parses);
+        assertEquals("one", operations.get(0).get(VALUE).asString());
+    }
+
+    private void writeConfiguration(String value) throws IOException {
+        String xml = "<?xml version=\"1.0\" ?><root xmlns=\"" + ROOT.getNamespaceURI() + "\" value=\"" + value + "\"/>";
+        Files.write(configuration.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private class CountingParser implements XMLElementReader<List<ModelNode>> {
+        @Override
+        public void readElement(XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+            parses++;
+            ModelNode operation = new ModelNode();
+            operation.get(OP).set("test");
+            operation.get(OP_ADDR).setEmptyList();
+            String value = reader.getAttributeValue(null, VALUE);
+            operation.get(VALUE).set(ParseUtils.parsePossibleExpression(value));
+            operations.add(operation);
+            ParseUtils.requireNoContent(reader);
+        }
+    }
+}
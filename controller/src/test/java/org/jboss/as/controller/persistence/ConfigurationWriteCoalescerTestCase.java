@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link ConfigurationWriteCoalescer}.
+ */
+public class ConfigurationWriteCoalescerTestCase {
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testWritesImmediatelyWhenDisabled() {
+        ConfigurationWriteCoalescer coalescer = new ConfigurationWriteCoalescer(0);
+        coalescer.write(write("one"));
+        coalescer.write(write("two"));
+        assertEquals(Arrays.asList("one", "two"), written);
+    }
+
+    @Test
+    public void testOnlyLatestWriteInIntervalPerformed() throws Exception {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            // Keep the only thread of the executor busy, so the end of the interval cannot be reached before the
+            // test lets it, however slowly the writes below are requested
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ConfigurationWriteCoalescer coalescer = new ConfigurationWriteCoalescer(1, executor);
+            CountDownLatch done = new CountDownLatch(1);
+            coalescer.write(write("one"));
+            coalescer.write(write("two"));
+            coalescer.write(() -> {
+                written.add("three");
+                done.countDown();
+            });
+            assertTrue(written.isEmpty());
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("three"), written);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlushPerformsPendingWrite() {
+        ConfigurationWriteCoalescer coalescer = new ConfigurationWriteCoalescer(TimeUnit.HOURS.toMillis(1));
+        coalescer.write(write("one"));
+        coalescer.write(write("two"));
+        coalescer.flush();
+        assertEquals(Collections.singletonList("two"), written);
+
+        // Nothing is left to write, and a later write starts a new interval
+        coalescer.flush();
+        coalescer.write(write("three"));
+        coalescer.flush();
+        assertEquals(Arrays.asList("two", "three"), written);
+    }
+
+    @Test
+    public void testFlushWaitsForWriteInProgress() throws Exception {
+        ConfigurationWriteCoalescer coalescer = new ConfigurationWriteCoalescer(TimeUnit.HOURS.toMillis(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        coalescer.write(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add("one");
+        });
+        Thread flusher = new Thread(coalescer::flush);
+        flusher.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Queued while the first write is in progress; must not overtake it
+        coalescer.write(write("two"));
+        Thread second = new Thread(coalescer::flush);
+        second.start();
+        release.countDown();
+        flusher.join(5000);
+        second.join(5000);
+        assertEquals(Arrays.asList("one", "two"), written);
+    }
+
+    @Test
+    public void testFlushAllOnShutdown() {
+        ConfigurationWriteCoalescer first = new ConfigurationWriteCoalescer(TimeUnit.HOURS.toMillis(1));
+        ConfigurationWriteCoalescer second = new ConfigurationWriteCoalescer(TimeUnit.HOURS.toMillis(1));
+        first.write(write("one"));
+        second.write(write("two"));
+
+        // What the shutdown hook runs
+        ConfigurationWriteCoalescer.flushAll();
+        assertEquals(2, written.size());
+        assertTrue(written.containsAll(Arrays.asList("one", "two")));
+
+        first.flush();
+        second.flush();
+        assertEquals(2, written.size());
+    }
+
+    private Runnable write(String content) {
+        return () -> written.add(content);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INTERFACE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SOCKET_BINDING;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SOCKET_BINDING_GROUP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the reuse of previously marshalled subsystem XML by {@link AbstractConfigurationPersister}.
+ */
+public class SubsystemXmlFragmentCacheTestCase {
+
+    private final Map<String, Integer> writes = new HashMap<>();
+    private AbstractConfigurationPersister persister;
+
+    @Before
+    public void setup() {
+        persister = new AbstractConfigurationPersister(new RootWriter()) {
+            @Override
+            public PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<ModelNode> load() {
+                return Collections.emptyList();
+            }
+        };
+        persister.registerSubsystemWriter("a", new CountingSubsystemWriter("a"));
+        persister.registerSubsystemWriter("b", new CountingSubsystemWriter("b"));
+    }
+
+    @Test
+    public void testUnchangedSubsystemsReused() throws Exception {
+        ModelNode model = createModel("one", "two");
+        String first = marshal(model, null);
+        assertEquals(1, writes.get("a").intValue());
+        assertEquals(1, writes.get("b").intValue());
+
+        String second = marshal(model.clone(), null);
+        assertEquals(first, second);
+        assertEquals(1, writes.get("a").intValue());
+        assertEquals(1, writes.get("b").intValue());
+    }
+
+    @Test
+    public void testChangedSubsystemRewritten() throws Exception {
+        marshal(createModel("one", "two"), null);
+
+        String changed = marshal(createModel("one", "three"),
+                Collections.singleton(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "b"))));
+        assertEquals(1, writes.get("a").intValue());
+        assertEquals(2, writes.get("b").intValue());
+        assertTrue(changed, changed.contains("three"));
+        assertFalse(changed, changed.contains("two"));
+
+        // A change made through an ancestor address is detected by comparing the models
+        String again = marshal(createModel("four", "three"), Collections.singleton(PathAddress.EMPTY_ADDRESS));
+        assertEquals(2, writes.get("a").intValue());
+        assertEquals(2, writes.get("b").intValue());
+        assertTrue(again, again.contains("four"));
+    }
+
+    @Test
+    public void testOtherChangesKeepFragments() throws Exception {
+        ModelNode model = createModel("one", "two");
+        marshal(model, null);
+
+        Set<PathAddress> affected = new HashSet<>();
+        affected.add(PathAddress.pathAddress(PathElement.pathElement(INTERFACE, "public")));
+        affected.add(PathAddress.pathAddress(PathElement.pathElement(SOCKET_BINDING_GROUP, "standard"),
+                PathElement.pathElement(SOCKET_BINDING, "http")));
+        affected.add(PathAddress.pathAddress(PathElement.pathElement(DEPLOYMENT, "test.war")));
+        marshal(model.clone(), affected);
+        assertEquals(1, writes.get("a").intValue());
+        assertEquals(1, writes.get("b").intValue());
+
+        // A change within one subsystem only rewrites that subsystem
+        affected.add(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "a"), PathElement.pathElement("child", "x")));
+        marshal(model.clone(), affected);
+        assertEquals(2, writes.get("a").intValue());
+        assertEquals(1, writes.get("b").intValue());
+    }
+
+    @Test
+    public void testUnregisteredWriterInvalidates() throws Exception {
+        ModelNode model = createModel("one", "two");
+        marshal(model, null);
+        persister.unregisterSubsystemWriter("a");
+        persister.registerSubsystemWriter("a", new CountingSubsystemWriter("a"));
+        marshal(model, null);
+        assertEquals(2, writes.get("a").intValue());
+        assertEquals(1, writes.get("b").intValue());
+    }
+
+    @Test
+    public void testReusedCharacterBufferReplayed() throws Exception {
+        persister.registerSubsystemWriter("c", new BufferReusingSubsystemWriter());
+        ModelNode model = createModel("one", "two");
+        model.get(SUBSYSTEM, "c", "value").set("three");
+        String first = marshal(model, null);
+        assertTrue(first, first.contains(">three<"));
+
+        // The replayed characters are those written, not what the marshaller left in its buffer afterwards
+        String second = marshal(model.clone(), null);
+        assertEquals(first, second);
+    }
+
+    private String marshal(ModelNode model, Set<PathAddress> affectedAddresses) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        persister.marshallAsXml(model, affectedAddresses, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static ModelNode createModel(String a, String b) {
+        ModelNode model = new ModelNode();
+        model.get(SUBSYSTEM, "a", "value").set(a);
+        model.get(SUBSYSTEM, "b", "value").set(b);
+        return model;
+    }
+
+    private static class RootWriter implements XMLElementWriter<ModelMarshallingContext> {
+        @Override
+        public void writeContent(XMLExtendedStreamWriter writer, ModelMarshallingContext context) throws XMLStreamException {
+            writer.writeStartDocument();
+            writer.writeStartElement("server");
+            writer.writeDefaultNamespace("urn:test:server:1.0");
+            ModelNode subsystems = context.getModelNode().get(SUBSYSTEM);
+            for (String name : subsystems.keys()) {
+                context.getSubsystemWriter(name).writeContent(writer, new SubsystemMarshallingContext(subsystems.get(name), writer));
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        }
+    }
+
+    /**
+     * Writes its text through a buffer that it reuses once the call returns, like a marshaller avoiding allocations.
+     */
+    private static class BufferReusingSubsystemWriter implements XMLElementWriter<SubsystemMarshallingContext> {
+        private final char[] buffer = new char[64];
+
+        @Override
+        public void writeContent(XMLExtendedStreamWriter writer, SubsystemMarshallingContext context) throws XMLStreamException {
+            context.startSubsystemElement("urn:test:c:1.0", false);
+            writer.writeStartElement("text");
+            String value = context.getModelNode().get("value").asString();
+            value.getChars(0, value.length(), buffer, 0);
+            writer.writeCharacters(buffer, 0, value.length());
+            Arrays.fill(buffer, 'x');
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+    }
+
+    private class CountingSubsystemWriter implements XMLElementWriter<SubsystemMarshallingContext> {
+        private final String name;
+
+        private CountingSubsystemWriter(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void writeContent(XMLExtendedStreamWriter writer, SubsystemMarshallingContext context) throws XMLStreamException {
+            writes.merge(name, 1, Integer::sum);
+            context.startSubsystemElement("urn:test:" + name + ":1.0", false);
+            writer.writeStartElement("item");
+            writer.writeAttribute("value", context.getModelNode().get("value").asString());
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link Resource.Tools#cloneForUpdate(Resource)}.
+ */
+public class ResourceCloneForUpdateUnitTestCase {
+
+    private static final PathElement SUBSYSTEM_A = PathElement.pathElement("subsystem", "a");
+    private static final PathElement SUBSYSTEM_B = PathElement.pathElement("subsystem", "b");
+    private static final PathElement CHILD = PathElement.pathElement("child", "one");
+
+    private Resource root;
+
+    @Before
+    public void setup() {
+        root = Resource.Factory.create();
+        Resource a = Resource.Factory.create();
+        a.getModel().get("attr").set("a");
+        Resource child = Resource.Factory.create();
+        child.getModel().get("attr").set("child");
+        a.registerChild(CHILD, child);
+        root.registerChild(SUBSYSTEM_A, a);
+        Resource b = Resource.Factory.create();
+        b.getModel().get("attr").set("b");
+        root.registerChild(SUBSYSTEM_B, b);
+    }
+
+    @Test
+    public void testModificationIsolated() {
+        Resource copy = Resource.Tools.cloneForUpdate(root);
+
+        Resource child = copy.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD));
+        child.getModel().get("attr").set("changed");
+        copy.getChild(SUBSYSTEM_A).registerChild(PathElement.pathElement("child", "two"), Resource.Factory.create());
+        copy.removeChild(SUBSYSTEM_B);
+
+        assertEquals("changed", copy.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD)).getModel().get("attr").asString());
+        assertEquals("child", root.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD)).getModel().get("attr").asString());
+        assertEquals(new HashSet<>(Arrays.asList("one", "two")), copy.getChild(SUBSYSTEM_A).getChildrenNames("child"));
+        assertEquals(new HashSet<>(Arrays.asList("one")), root.getChild(SUBSYSTEM_A).getChildrenNames("child"));
+        assertFalse(copy.hasChild(SUBSYSTEM_B));
+        assertTrue(root.hasChild(SUBSYSTEM_B));
+    }
+
+    @Test
+    public void testUntouchedChildrenShared() {
+        Resource copy = Resource.Tools.cloneForUpdate(root);
+        copy.getChild(SUBSYSTEM_A).getModel().get("attr").set("changed");
+        Resource.Tools.seal(copy);
+
+        // Once sealed, reads no longer copy, so the untouched subsystem is the one from the source tree
+        assertSame(root.getChild(SUBSYSTEM_B), copy.getChild(SUBSYSTEM_B));
+        assertNotSame(root.getChild(SUBSYSTEM_A), copy.getChild(SUBSYSTEM_A));
+        assertSame(copy.getChild(SUBSYSTEM_A), copy.getChild(SUBSYSTEM_A));
+    }
+
+    @Test
+    public void testCopyOfSealedCopy() {
+        Resource first = Resource.Tools.cloneForUpdate(root);
+        ModelNode model = new ModelNode();
+        model.get("attr").set("first");
+        first.getChild(SUBSYSTEM_A).writeModel(model);
+        Resource.Tools.seal(first);
+
+        Resource second = Resource.Tools.cloneForUpdate(first);
+        second.getChild(SUBSYSTEM_A).getModel().get("attr").set("second");
+        second.getChild(SUBSYSTEM_B).getModel().get("attr").set("second");
+
+        assertEquals("a", root.getChild(SUBSYSTEM_A).getModel().get("attr").asString());
+        assertEquals("b", root.getChild(SUBSYSTEM_B).getModel().get("attr").asString());
+        assertEquals("first", first.getChild(SUBSYSTEM_A).getModel().get("attr").asString());
+        assertEquals("b", first.getChild(SUBSYSTEM_B).getModel().get("attr").asString());
+        assertEquals("second", second.getChild(SUBSYSTEM_A).getModel().get("attr").asString());
+        assertEquals("second", second.getChild(SUBSYSTEM_B).getModel().get("attr").asString());
+    }
+
+    @Test
+    public void testCloneOfCopyIsDeep() {
+        Resource copy = Resource.Tools.cloneForUpdate(root);
+        Resource clone = copy.clone();
+        copy.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD)).getModel().get("attr").set("changed");
+
+        assertEquals("child", clone.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD)).getModel().get("attr").asString());
+        assertEquals(Resource.Tools.readModel(root), Resource.Tools.readModel(clone));
+    }
+
+    @Test
+    public void testRemovedChildIsPrivate() {
+        Resource copy = Resource.Tools.cloneForUpdate(root);
+        Resource removed = copy.removeChild(SUBSYSTEM_A);
+        removed.getModel().get("attr").set("changed");
+        removed.removeChild(CHILD);
+
+        assertEquals("a", root.getChild(SUBSYSTEM_A).getModel().get("attr").asString());
+        assertTrue(root.getChild(SUBSYSTEM_A).hasChild(CHILD));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.ValueExpression;
+import org.junit.Test;
+
+/**
+ * Test case for the compact model encoding used by the transactional protocol.
+ */
+public class CompactModelCodecTestCase {
+
+    @Test
+    public void testAllTypes() throws IOException {
+        final ModelNode model = new ModelNode();
+        model.get("undefined");
+        model.get("boolean").set(true);
+        model.get("int").set(Integer.MIN_VALUE);
+        model.get("negative-int").set(-1);
+        model.get("long").set(Long.MAX_VALUE);
+        model.get("double").set(1.5d);
+        model.get("big-decimal").set(new BigDecimal("12345678901234567890.123"));
+        model.get("big-integer").set(new BigInteger("-98765432109876543210"));
+        model.get("bytes").set(new byte[] {0, 1, -1, 127});
+        model.get("string").set("value \u00e9\u4e2d");
+        model.get("expression").set(new ValueExpression("${jboss.bind.address:127.0.0.1}"));
+        model.get("type").set(ModelType.OBJECT);
+        model.get("list").add("a").add(2).add(new ModelNode());
+        model.get("property").set("name", new ModelNode("value"));
+        model.get("empty-list").setEmptyList();
+        model.get("empty-object").setEmptyObject();
+
+        assertEquals(model, roundTrip(model, -1));
+        assertEquals(model, roundTrip(model, 0));
+    }
+
+    @Test
+    public void testRepeatedStrings() throws IOException {
+        final ModelNode model = new ModelNode();
+        for (int i = 0; i < 500; i++) {
+            final ModelNode step = model.get("steps").add();
+            step.get("operation").set("write-attribute");
+            step.get("address").add("subsystem", "logging").add("logger", "org.jboss.as." + (i % 10));
+            step.get("name").set("level");
+            step.get("value").set("DEBUG");
+        }
+
+        final byte[] standard = writeExternal(model);
+        final byte[] compact = write(model, -1);
+        assertTrue(compact.length + " >= " + standard.length, compact.length < standard.length);
+        final byte[] compressed = write(model, 0);
+        assertTrue(compressed.length + " >= " + compact.length, compressed.length < compact.length);
+
+        assertEquals(model, read(compact));
+        assertEquals(model, read(compressed));
+    }
+
+    @Test
+    public void testUndefined() throws IOException {
+        assertEquals(new ModelNode(), roundTrip(new ModelNode(), -1));
+    }
+
+    private static ModelNode roundTrip(final ModelNode model, final int compressionThreshold) throws IOException {
+        return read(write(model, compressionThreshold));
+    }
+
+    private static byte[] write(final ModelNode model, final int compressionThreshold) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            CompactModelCodec.write(output, model, compressionThreshold);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] writeExternal(final ModelNode model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            model.writeExternal(output);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ModelNode read(final byte[] bytes) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return CompactModelCodec.read(input);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.DataInput;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.as.repository.logging.DeploymentRepositoryLogger;
+
+/**
+ * Local store of the content chunks received from a remote repository. Chunks are kept after the content they were
+ * received for has been assembled, so an interrupted transfer only needs the chunks it did not get, and content
+ * sharing chunks with content received earlier only needs the chunks that differ. The least recently used chunks
+ * are removed once the store grows beyond its maximum size.
+ */
+public class ContentChunkStore {
+
+    private final Path root;
+    private final long maxSize;
+
+    /**
+     * @param root the directory holding the chunks
+     * @param maxSize the size in bytes beyond which least recently used chunks are removed
+     */
+    public ContentChunkStore(final File root, final long maxSize) {
+        this.root = root.toPath();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets whether the store has a chunk.
+     *
+     * @param hash the SHA-1 hash of the chunk
+     * @return {@code true} if the chunk is stored
+     */
+    public boolean hasChunk(byte[] hash) {
+        return Files.exists(getChunkPath(hash));
+    }
+
+    /**
+     * Reads a chunk and stores it if its content matches its hash.
+     *
+     * @param hash the SHA-1 hash of the chunk
+     * @param input the input to read the chunk from
+     * @param length the length of the chunk
+     * @throws IOException if the chunk could not be read or stored, or did not match its hash
+     */
+    public void storeChunk(byte[] hash, DataInput input, int length) throws IOException {
+        final Path chunk = getChunkPath(hash);
+        Files.createDirectories(chunk.getParent());
+        final Path tmp = Files.createTempFile(chunk.getParent(), "chunk", ".tmp");
+        try {
+            final MessageDigest digest = ContentChunks.newDigest();
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                final byte[] buffer = new byte[8192];
+                int remaining = length;
+                while (remaining > 0) {
+                    final int len = Math.min(remaining, buffer.length);
+                    input.readFully(buffer, 0, len);
+                    digest.update(buffer, 0, len);
+                    out.write(buffer, 0, len);
+                    remaining -= len;
+                }
+            }
+            if (!Arrays.equals(hash, digest.digest())) {
+                throw DeploymentRepositoryLogger.ROOT_LOGGER.chunkHashMismatch(HashUtil.bytesToHexString(hash));
+            }
+            move(tmp, chunk);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes a file from stored chunks. The file is written to a temporary file first and then moved into place,
+     * so an incomplete file is never visible.
+     *
+     * @param hashes the hashes of the chunks of the file, in order
+     * @param target the file to write
+     * @throws IOException if a chunk is missing or the file could not be written
+     */
+    public void assemble(List<byte[]> hashes, File target) throws IOException {
+        final Path targetPath = target.toPath();
+        Files.createDirectories(targetPath.getParent());
+        final Path tmp = Files.createTempFile(targetPath.getParent(), target.getName(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                for (byte[] hash : hashes) {
+                    final Path chunk = getChunkPath(hash);
+                    Files.copy(chunk, out);
+                    // Track use for the least recently used trimming
+                    chunk.toFile().setLastModified(System.currentTimeMillis());
+                }
+            }
+            move(tmp, targetPath);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Removes the least recently used chunks until the store is no larger than its maximum size.
+     */
+    public void trim() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        final List<Path> chunks;
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            chunks = paths.filter(Files::isRegularFile).collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            DeploymentRepositoryLogger.ROOT_LOGGER.localContentListError(root.toString());
+            return;
+        }
+        long size = 0;
+        for (Path chunk : chunks) {
+            size += chunk.toFile().length();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        chunks.sort(Comparator.comparingLong(chunk -> chunk.toFile().lastModified()));
+        for (Path chunk : chunks) {
+            if (size <= maxSize) {
+                break;
+            }
+            final long length = chunk.toFile().length();
+            try {
+                Files.deleteIfExists(chunk);
+                size -= length;
+            } catch (IOException e) {
+                DeploymentRepositoryLogger.ROOT_LOGGER.cannotDeleteFile(e, chunk);
+            }
+        }
+    }
+
+    private Path getChunkPath(byte[] hash) {
+        final String hex = HashUtil.bytesToHexString(hash);
+        return root.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.jboss.as.repository.logging.DeploymentRepositoryLogger;
+
+/**
+ * Splits files into content-addressed chunks, so content can be transferred by sending only the chunks the
+ * receiver does not have yet.
+ * <p>
+ * Chunk boundaries are content defined: they are placed where a rolling hash of the preceding bytes matches a
+ * pattern, rather than at fixed offsets. Identical content, such as the same library packaged in two archives,
+ * therefore produces mostly identical chunks even when it is preceded by different data. Chunks are between
+ * {@value #MIN_CHUNK_SIZE} and {@value #MAX_CHUNK_SIZE} bytes and are identified by their SHA-1 hash.
+ * </p>
+ */
+public final class ContentChunks {
+
+    static final int MIN_CHUNK_SIZE = 64 * 1024;
+    static final int MAX_CHUNK_SIZE = 1024 * 1024;
+    /** Cuts a chunk on average every 256 KiB past the minimum size */
+    private static final long BOUNDARY_MASK = (1L << 18) - 1;
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // The table only has to be the same each time the sender chunks content, so a fixed seed is enough
+        final Random random = new Random(0x636f6e74656e74L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private ContentChunks() {
+    }
+
+    /**
+     * Gets the chunks of a file.
+     *
+     * @param file the file
+     * @return the chunks of the file, in order. An empty file has no chunks
+     * @throws IOException if the file could not be read
+     */
+    public static List<Chunk> getChunks(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024)) {
+            return Collections.unmodifiableList(chunk(in));
+        }
+    }
+
+    static List<Chunk> chunk(InputStream in) throws IOException {
+        final MessageDigest digest = newDigest();
+        final List<Chunk> chunks = new ArrayList<>();
+        final byte[] buffer = new byte[64 * 1024];
+        long offset = 0;
+        int chunkLength = 0;
+        long hash = 0;
+        int read;
+        while ((read = in.read(buffer)) > -1) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+                chunkLength++;
+                if (chunkLength >= MAX_CHUNK_SIZE || (chunkLength >= MIN_CHUNK_SIZE && (hash & BOUNDARY_MASK) == 0)) {
+                    digest.update(buffer, start, i + 1 - start);
+                    chunks.add(new Chunk(digest.digest(), offset, chunkLength));
+                    offset += chunkLength;
+                    chunkLength = 0;
+                    hash = 0;
+                    start = i + 1;
+                }
+            }
+            digest.update(buffer, start, read - start);
+        }
+        if (chunkLength > 0) {
+            chunks.add(new Chunk(digest.digest(), offset, chunkLength));
+        }
+        return chunks;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw DeploymentRepositoryLogger.ROOT_LOGGER.cannotObtainSha1(e, MessageDigest.class.getSimpleName());
+        }
+    }
+
+    /**
+     * A chunk of a file.
+     */
+    public static final class Chunk {
+        private final byte[] hash;
+        private final long offset;
+        private final int length;
+
+        Chunk(byte[] hash, long offset, int length) {
+            this.hash = hash;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * @return the SHA-1 hash of the chunk. Callers must not modify it
+         */
+        public byte[] getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the offset of the chunk in the file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the length of the chunk
+         */
+        public int getLength() {
+            return length;
+        }
+    }
+}
@@ -162,6 +162,27 @@ public interface ContentRepository {
     default void flush(boolean success) {
     }
 
+    /**
+     * Gets the number of bytes of content added to the repository with {@link #addContent(InputStream)} since it
+     * was created.
+     *
+     * @return the number of bytes
+     */
+    default long getIngestedBytes() {
+        return 0L;
+    }
+
+    /**
+     * Gets the time spent hashing and storing the content counted by {@link #getIngestedBytes()}. Time spent waiting
+     * for the content to be received is not included. Content added concurrently is timed separately, so this can
+     * exceed the elapsed time.
+     *
+     * @return the time in nanoseconds
+     */
+    default long getIngestTime() {
+        return 0L;
+    }
+
     /**
      * Clean content that is not referenced from the repository.
      *
@@ -207,5 +228,9 @@ public interface ContentRepository {
         static ContentRepository create(final File repoRoot, final File tmpRoot, long timeout, long lock) {
             return new ContentRepositoryImpl(repoRoot, tmpRoot, timeout, lock);
         }
+
+        static ContentRepository create(final File repoRoot, final File tmpRoot, long timeout, long lock, boolean pipelinedIngest) {
+            return new ContentRepositoryImpl(repoRoot, tmpRoot, timeout, lock, pipelinedIngest);
+        }
     }
 }
@@ -29,18 +29,23 @@ import static org.jboss.as.repository.PathUtil.deleteSilentlyRecursively;
 import static org.jboss.as.repository.PathUtil.getFileExtension;
 import static org.jboss.as.repository.PathUtil.isArchive;
 import static org.jboss.as.repository.PathUtil.resolveSecurely;
+import static java.lang.System.getSecurityManager;
+import static java.security.AccessController.doPrivileged;
 
-import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.security.DigestOutputStream;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -55,7 +60,12 @@ import static org.jboss.as.repository.PathUtil.unzip;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import org.wildfly.common.Assert;
 
@@ -67,17 +77,35 @@ import org.wildfly.common.Assert;
 public class ContentRepositoryImpl implements ContentRepository {
 
     protected static final String CONTENT = "content";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PIPELINE_BUFFER_SIZE = 1024 * 1024;
+    static final String PIPELINED_INGEST_PROPERTY = "org.wildfly.content-repository.pipelined-ingest";
+    /**
+     * The default for whether {@link #addContent(InputStream)} writes the content to disk on a separate thread while
+     * it reads and hashes it, which helps with multi-gigabyte archives.
+     */
+    private static final boolean PIPELINED_INGEST = Boolean.parseBoolean(getSecurityManager() == null
+            ? System.getProperty(PIPELINED_INGEST_PROPERTY)
+            : doPrivileged((PrivilegedAction<String>) () -> System.getProperty(PIPELINED_INGEST_PROPERTY)));
     private final File repoRoot;
     private final File tmpRoot;
+    /** Not used directly to hash content, each hash uses a copy from {@link #newMessageDigest()} */
     protected final MessageDigest messageDigest;
     private final Map<String, Set<ContentReference>> contentHashReferences = new HashMap<>();
     private final Map<String, ReentrantLock> lockedContents = new HashMap<>();
     private final Map<String, Long> obsoleteContents = new HashMap<>();
+    private final LongAdder ingestedBytes = new LongAdder();
+    private final LongAdder ingestTime = new LongAdder();
     private final long obsolescenceTimeout;
     private final long lockTimeout;
+    private final boolean pipelinedIngest;
     private volatile boolean readWrite = false;
 
     protected ContentRepositoryImpl(final File repoRoot, final File tmpRoot, long obsolescenceTimeout, long lockTimeout) {
+        this(repoRoot, tmpRoot, obsolescenceTimeout, lockTimeout, PIPELINED_INGEST);
+    }
+
+    protected ContentRepositoryImpl(final File repoRoot, final File tmpRoot, long obsolescenceTimeout, long lockTimeout, boolean pipelinedIngest) {
         Assert.checkNotNullParam("repoRoot", repoRoot);
         Assert.checkNotNullParam("tmpRoot", tmpRoot);
         checkDirectory(repoRoot);
@@ -86,6 +114,7 @@ public class ContentRepositoryImpl implements ContentRepository {
         this.tmpRoot = tmpRoot;
         this.obsolescenceTimeout = obsolescenceTimeout;
         this.lockTimeout = lockTimeout;
+        this.pipelinedIngest = pipelinedIngest;
         try {
             this.messageDigest = MessageDigest.getInstance("SHA-1");
         } catch (NoSuchAlgorithmException e) {
@@ -120,27 +149,27 @@ public class ContentRepositoryImpl implements ContentRepository {
         byte[] sha1Bytes;
         Path tmp = File.createTempFile(CONTENT, ".tmp", repoRoot).toPath();
         if (stream != null) {
-            try (OutputStream fos = Files.newOutputStream(tmp)) {
-                synchronized (messageDigest) {
-                    messageDigest.reset();
-                    DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                    BufferedInputStream bis = new BufferedInputStream(stream);
-                    byte[] bytes = new byte[8192];
-                    int read;
-                    while ((read = bis.read(bytes)) > -1) {
-                        dos.write(bytes, 0, read);
-                    }
+            final MessageDigest digest = newMessageDigest();
+            final long size;
+            final FileChannel channel = getFileChannel(stream);
+            if (channel != null) {
+                final long start = System.nanoTime();
+                size = transfer(channel, tmp, digest);
+                ingestTime.add(System.nanoTime() - start);
+            } else {
+                try (OutputStream fos = Files.newOutputStream(tmp)) {
+                    size = pipelinedIngest ? copyPipelined(stream, fos, digest) : copy(stream, fos, digest);
+                    final long start = System.nanoTime();
                     fos.flush();
+                    ingestTime.add(System.nanoTime() - start);
                 }
-                sha1Bytes = messageDigest.digest();
             }
+            sha1Bytes = digest.digest();
+            ingestedBytes.add(size);
         } else {//create a directory instead
             Files.delete(tmp);
             Files.createDirectory(tmp);
-            synchronized (messageDigest) {
-                messageDigest.reset();
-                sha1Bytes = HashUtil.hashPath(messageDigest, tmp);
-            }
+            sha1Bytes = HashUtil.hashPath(newMessageDigest(), tmp);
         }
         final Path realFile = getDeploymentContentFile(sha1Bytes, true);
         if (hasContent(sha1Bytes)) {
@@ -159,6 +188,180 @@ public class ContentRepositoryImpl implements ContentRepository {
         return sha1Bytes;
     }
 
+    /**
+     * Gets a digest for the exclusive use of the caller, so content can be hashed by several threads at once.
+     * Cloning the digest created by the constructor avoids looking up the provider again.
+     */
+    protected MessageDigest newMessageDigest() {
+        try {
+            return (MessageDigest) messageDigest.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance(messageDigest.getAlgorithm());
+            } catch (NoSuchAlgorithmException ex) {
+                throw DeploymentRepositoryLogger.ROOT_LOGGER.cannotObtainSha1(ex, MessageDigest.class.getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Copies and hashes the content of a stream. Only the time spent hashing and writing is added to the ingest time,
+     * not the time spent waiting for the content to arrive, which is up to the client.
+     */
+    private long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        long size = 0;
+        long time = 0;
+        int read;
+        while ((read = in.read(bytes)) > -1) {
+            final long start = System.nanoTime();
+            digest.update(bytes, 0, read);
+            out.write(bytes, 0, read);
+            time += System.nanoTime() - start;
+            size += read;
+        }
+        ingestTime.add(time);
+        return size;
+    }
+
+    /**
+     * Gets the channel of a stream reading a regular file, or {@code null} if the content has to be copied through the
+     * stream, as for sockets and pipes.
+     */
+    private static FileChannel getFileChannel(InputStream stream) {
+        if (stream instanceof FileInputStream) {
+            try {
+                final FileChannel channel = ((FileInputStream) stream).getChannel();
+                return channel.size() > channel.position() ? channel : null;
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies the content of a file, such as an attachment of an in-VM client, with {@link FileChannel#transferTo}
+     * so the bytes do not go through the heap on their way to the repository. The copy is hashed afterwards, while
+     * it is still in the page cache.
+     */
+    private static long transfer(FileChannel in, Path target, MessageDigest digest) throws IOException {
+        long size = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long start = in.position();
+            long transferred;
+            while ((transferred = in.transferTo(start + size, PIPELINE_BUFFER_SIZE * 16L, out)) > 0) {
+                size += transferred;
+            }
+            // Leave the stream where reading it to the end would have
+            in.position(start + size);
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            int read;
+            while ((read = out.read(buffer, position)) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                position += read;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Copies the content like {@link #copy(InputStream, OutputStream, MessageDigest)}, but writes each buffer on an
+     * ingest thread while the next one is read and hashed. SHA-1 has to see the bytes in order, so the hashing itself
+     * can't be split across threads without changing the content hash; overlapping it with the write is what can be
+     * done in parallel. The time spent hashing and waiting for writes is added to the ingest time.
+     */
+    private long copyPipelined(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        final byte[][] buffers = {new byte[PIPELINE_BUFFER_SIZE], new byte[PIPELINE_BUFFER_SIZE]};
+        Future<?> write = null;
+        long size = 0;
+        long time = 0;
+        int current = 0;
+        try {
+            int read;
+            while ((read = readFully(in, buffers[current])) > 0) {
+                final long start = System.nanoTime();
+                final byte[] bytes = buffers[current];
+                final int length = read;
+                // The other buffer is read into next, so its write has to be complete first
+                awaitWrite(write);
+                write = IngestExecutor.INSTANCE.submit(() -> {
+                    out.write(bytes, 0, length);
+                    return null;
+                });
+                digest.update(bytes, 0, length);
+                time += System.nanoTime() - start;
+                size += length;
+                current ^= 1;
+            }
+            final long start = System.nanoTime();
+            awaitWrite(write);
+            write = null;
+            time += System.nanoTime() - start;
+            ingestTime.add(time);
+        } finally {
+            if (write != null) {
+                // Don't let the caller close the stream under a write that is still in progress
+                try {
+                    awaitWrite(write);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return size;
+    }
+
+    private static int readFully(InputStream in, byte[] bytes) throws IOException {
+        int total = 0;
+        while (total < bytes.length) {
+            final int read = in.read(bytes, total, bytes.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void awaitWrite(Future<?> write) throws IOException {
+        if (write == null) {
+            return;
+        }
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    write.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long getIngestedBytes() {
+        return ingestedBytes.sum();
+    }
+
+    @Override
+    public long getIngestTime() {
+        return ingestTime.sum();
+    }
+
     @Override
     public void addContentReference(ContentReference reference) {
         if(!this.readWrite) {
@@ -420,7 +623,7 @@ public class ContentRepositoryImpl implements ContentRepository {
             Path tmp = createTempDirectory(repoRoot.toPath(), CONTENT);
             Path contentDir = Files.createDirectory(tmp.resolve(CONTENT));
             unzip(contentPath, contentDir);
-            byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+            byte[] sha1Bytes = HashUtil.hashPath(newMessageDigest(), contentDir);
             final Path realFile = getDeploymentContentFile(sha1Bytes, true);
             if (hasContent(sha1Bytes)) {
                 // we've already got this content
@@ -463,7 +666,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                     deleteRecursively(targetPath);
                 }
                 unzip(sourcePath, targetPath);
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(newMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -550,10 +753,25 @@ public class ContentRepositoryImpl implements ContentRepository {
                 throw DeploymentRepositoryLogger.ROOT_LOGGER.errorLockingDeployment();
             }
             Path src = resolveSecurely(getDeploymentContentFile(deploymentHash), path);
-            tmpDir = Files.createTempDirectory(tmpRoot.toPath(), HashUtil.bytesToHexString(deploymentHash));
-            Path file = PathUtil.readFile(src, tmpDir);
+            final Path file;
+            if (Files.isRegularFile(src)) {
+                file = src;
+            } else {
+                tmpDir = Files.createTempDirectory(tmpRoot.toPath(), HashUtil.bytesToHexString(deploymentHash));
+                file = PathUtil.readFile(src, tmpDir);
+            }
             Path tmp = Files.createTempFile(tmpRoot.toPath(), CONTENT, getFileExtension(src));
-            Files.copy(file, tmp, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                if (file == src) {
+                    linkOrCopy(src, tmp);
+                } else {
+                    // Extracted for this read only, so it can be handed over as is
+                    Files.move(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(tmp);
+                throw ex;
+            }
             return new TemporaryFileInputStream(tmp);
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
@@ -567,6 +785,21 @@ public class ContentRepositoryImpl implements ContentRepository {
         }
     }
 
+    /**
+     * Makes the content of a file available at another path that stays readable after the file is removed from the
+     * repository. Content files are never modified in place, so a hard link is enough and spares copying what may be
+     * a multi-gigabyte archive; a copy is only made where links are not supported, such as across file stores.
+     */
+    private static void linkOrCopy(Path src, Path target) throws IOException {
+        try {
+            Files.deleteIfExists(target);
+            Files.createLink(target, src);
+        } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+            DeploymentRepositoryLogger.ROOT_LOGGER.debugf(ex, "Cannot link %s to %s, copying it", src, target);
+            Files.copy(src, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     @Override
     public List<ContentRepositoryElement> listContent(byte[] deploymentHash, String path, ContentFilter filter) throws ExplodedContentException {
         Path tmpDir = null;
@@ -629,7 +862,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                         }
                     }
                 }
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(newMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -666,7 +899,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                     Path targetFile = resolveSecurely(contentDir, path);
                     deleteFileWithEmptyAncestorDirectories(targetFile);
                 }
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(newMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -690,4 +923,15 @@ public class ContentRepositoryImpl implements ContentRepository {
             throw DeploymentRepositoryLogger.ROOT_LOGGER.errorUpdatingDeployment(ex);
         }
     }
+
+    /**
+     * Lazily created pool of the threads writing pipelined content, shared by all repositories.
+     */
+    private static final class IngestExecutor {
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "Content repository ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
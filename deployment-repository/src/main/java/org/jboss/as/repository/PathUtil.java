@@ -332,14 +332,39 @@ public class PathUtil {
                     Files.copy(eis, current);
                 }
             }
-            try {
-                Files.getFileAttributeView(current, BasicFileAttributeView.class).setTimes(entry.getLastModifiedTime(), entry.getLastAccessTime(), entry.getCreationTime());
-            } catch (IOException e) {
-                //ignore, if we cannot set it, world will not end
+            setTimes(entry, current);
+        }
+    }
+
+    /**
+     * Extracts from an archive only the entry at the given path, or the nested archive containing that path.
+     */
+    private static void unzipEntry(final Path zip, final Path relativePath, final Path targetDir) throws IOException {
+        try (final ZipFile zipFile = new ZipFile(zip.toFile())) {
+            for (int i = relativePath.getNameCount(); i > 0; i--) {
+                final String name = relativePath.subpath(0, i).toString().replace(File.separatorChar, '/');
+                final ZipEntry entry = zipFile.getEntry(name);
+                if (entry != null && !entry.isDirectory()) {
+                    final Path current = resolveSecurely(targetDir, name);
+                    Files.createDirectories(current.getParent());
+                    try (final InputStream eis = zipFile.getInputStream(entry)) {
+                        Files.copy(eis, current);
+                    }
+                    setTimes(entry, current);
+                    return;
+                }
             }
         }
     }
 
+    private static void setTimes(final ZipEntry entry, final Path path) {
+        try {
+            Files.getFileAttributeView(path, BasicFileAttributeView.class).setTimes(entry.getLastModifiedTime(), entry.getLastAccessTime(), entry.getCreationTime());
+        } catch (IOException e) {
+            //ignore, if we cannot set it, world will not end
+        }
+    }
+
     public static String getFileExtension(Path path) {
         String fileName = path.getFileName().toString();
         int separator = fileName.lastIndexOf('.');
@@ -357,7 +382,7 @@ public class PathUtil {
             if(isArchive(file)) {
                 Path relativePath = file.relativize(src);
                 Path target = createTempDirectory(tempDir, "unarchive");
-                unzip(file, target);
+                unzipEntry(file, relativePath, target);
                 return readFile(target.resolve(relativePath), tempDir);
             } else {
                 throw new FileNotFoundException(src.toString());
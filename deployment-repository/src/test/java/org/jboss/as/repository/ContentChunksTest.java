@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for ContentChunks and ContentChunkStore.
+ */
+public class ContentChunksTest {
+
+    private final Path root = new File("target", "temp").toPath().resolve("chunks");
+
+    @Before
+    public void createRoot() throws IOException {
+        PathUtil.deleteRecursively(root);
+        Files.createDirectories(root);
+    }
+
+    @After
+    public void deleteRoot() throws IOException {
+        PathUtil.deleteRecursively(root);
+    }
+
+    @Test
+    public void testChunksCoverContent() throws Exception {
+        final byte[] content = randomBytes(5 * 1024 * 1024, 1);
+        final List<ContentChunks.Chunk> chunks = ContentChunks.chunk(new ByteArrayInputStream(content));
+        long offset = 0;
+        for (ContentChunks.Chunk chunk : chunks) {
+            Assert.assertEquals(offset, chunk.getOffset());
+            Assert.assertTrue(chunk.getLength() <= ContentChunks.MAX_CHUNK_SIZE);
+            offset += chunk.getLength();
+        }
+        Assert.assertEquals(content.length, offset);
+        Assert.assertTrue(ContentChunks.chunk(new ByteArrayInputStream(new byte[0])).isEmpty());
+    }
+
+    @Test
+    public void testChunksSurviveShiftedContent() throws Exception {
+        final byte[] content = randomBytes(5 * 1024 * 1024, 2);
+        final byte[] prefix = randomBytes(1000, 3);
+        final byte[] shifted = new byte[prefix.length + content.length];
+        System.arraycopy(prefix, 0, shifted, 0, prefix.length);
+        System.arraycopy(content, 0, shifted, prefix.length, content.length);
+
+        final Set<String> hashes = new HashSet<>();
+        final List<ContentChunks.Chunk> chunks = ContentChunks.chunk(new ByteArrayInputStream(content));
+        for (ContentChunks.Chunk chunk : chunks) {
+            hashes.add(HashUtil.bytesToHexString(chunk.getHash()));
+        }
+        int shared = 0;
+        for (ContentChunks.Chunk chunk : ContentChunks.chunk(new ByteArrayInputStream(shifted))) {
+            if (hashes.contains(HashUtil.bytesToHexString(chunk.getHash()))) {
+                shared++;
+            }
+        }
+        // Only the chunks around the inserted bytes should differ
+        Assert.assertTrue(shared + " of " + chunks.size(), shared >= chunks.size() - 2);
+    }
+
+    @Test
+    public void testStoreAndAssemble() throws Exception {
+        final byte[] content = randomBytes(3 * 1024 * 1024, 4);
+        final File file = root.resolve("content").toFile();
+        Files.write(file.toPath(), content);
+        final ContentChunkStore store = new ContentChunkStore(root.resolve("store").toFile(), Long.MAX_VALUE);
+        final List<byte[]> hashes = new ArrayList<>();
+        for (ContentChunks.Chunk chunk : ContentChunks.getChunks(file)) {
+            Assert.assertFalse(store.hasChunk(chunk.getHash()));
+            store.storeChunk(chunk.getHash(), new DataInputStream(new ByteArrayInputStream(content, (int) chunk.getOffset(), chunk.getLength())), chunk.getLength());
+            Assert.assertTrue(store.hasChunk(chunk.getHash()));
+            hashes.add(chunk.getHash());
+        }
+        final File target = root.resolve("assembled").resolve("content").toFile();
+        store.assemble(hashes, target);
+        Assert.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testStoreRejectsCorruptChunk() throws Exception {
+        final byte[] content = randomBytes(100, 5);
+        final byte[] hash = ContentChunks.chunk(new ByteArrayInputStream(content)).get(0).getHash();
+        final byte[] corrupt = Arrays.copyOf(content, content.length);
+        corrupt[50]++;
+        final ContentChunkStore store = new ContentChunkStore(root.resolve("store").toFile(), Long.MAX_VALUE);
+        try {
+            store.storeChunk(hash, new DataInputStream(new ByteArrayInputStream(corrupt)), corrupt.length);
+            Assert.fail("Corrupt chunk was stored");
+        } catch (IOException expected) {
+        }
+        Assert.assertFalse(store.hasChunk(hash));
+    }
+
+    @Test
+    public void testTrimRemovesLeastRecentlyUsed() throws Exception {
+        final ContentChunkStore store = new ContentChunkStore(root.resolve("store").toFile(), 150);
+        final List<byte[]> hashes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final byte[] content = randomBytes(100, 10 + i);
+            final byte[] hash = ContentChunks.chunk(new ByteArrayInputStream(content)).get(0).getHash();
+            store.storeChunk(hash, new DataInputStream(new ByteArrayInputStream(content)), content.length);
+            hashes.add(hash);
+        }
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < hashes.size(); i++) {
+            final String hex = HashUtil.bytesToHexString(hashes.get(i));
+            root.resolve("store").resolve(hex.substring(0, 2)).resolve(hex.substring(2)).toFile().setLastModified(now - (hashes.size() - i) * 10000L);
+        }
+        store.trim();
+        Assert.assertFalse(store.hasChunk(hashes.get(0)));
+        Assert.assertFalse(store.hasChunk(hashes.get(1)));
+        Assert.assertTrue(store.hasChunk(hashes.get(2)));
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
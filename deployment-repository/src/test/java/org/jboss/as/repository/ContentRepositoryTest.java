@@ -40,6 +40,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.security.AccessController;
+import java.security.MessageDigest;
 import java.security.PrivilegedAction;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -48,7 +49,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.hamcrest.CoreMatchers;
@@ -125,6 +133,121 @@ public class ContentRepositoryTest {
         }
     }
 
+    /**
+     * Test of addContent method, of class ContentRepository, with content read from a file.
+     */
+    @Test
+    public void testAddContentFromFile() throws Exception {
+        Path file = tmpRootDir.toPath().resolve("overlay.xhtml");
+        try (InputStream stream = getResourceAsStream("overlay.xhtml")) {
+            Files.copy(stream, file);
+        }
+        try (InputStream stream = new FileInputStream(file.toFile())) {
+            byte[] result = repository.addContent(stream);
+            assertThat(HashUtil.bytesToHexString(result), is("0c40ffacd15b0f66d5081a93407d3ff5e3c65a71"));
+            assertThat(readFileContent(repository.getContent(result).getPhysicalFile().toPath()), is(readFileContent(file)));
+        }
+    }
+
+    /**
+     * Test of readContent method, of class ContentRepository, with content in nested archives.
+     */
+    @Test
+    public void testReadArchivedContent() throws Exception {
+        byte[] archive = createMultiLevelArchive(Collections.singletonList("overlay.xhtml"), "test/archive.zip");
+        try (ByteArrayInputStream stream = new ByteArrayInputStream(archive)) {
+            byte[] hash = repository.addContent(stream);
+            String expectedContentHtml = readFileContent(getResourceAsStream("overlay.xhtml"));
+            try (InputStream in = repository.readContent(hash, "overlay.xhtml")) {
+                assertThat(readFileContent(in), is(expectedContentHtml));
+            }
+            try (InputStream in = repository.readContent(hash, "test/archive.zip/overlay.xhtml")) {
+                assertThat(readFileContent(in), is(expectedContentHtml));
+            }
+            try (InputStream in = repository.readContent(hash, "")) {
+                assertThat(in.available() > 0, is(true));
+            }
+        }
+        try (Stream<Path> files = Files.list(tmpRootDir.toPath())) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    /**
+     * Test of addContent method, of class ContentRepository, with content added from several threads at once.
+     */
+    @Test
+    public void testAddContentConcurrently() throws Exception {
+        final int count = 8;
+        final List<byte[]> contents = new ArrayList<>();
+        final Random random = new Random(42L);
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] content = new byte[256 * 1024 + i];
+            random.nextBytes(content);
+            contents.add(content);
+            size += content.length;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            final List<Future<byte[]>> hashes = new ArrayList<>();
+            for (byte[] content : contents) {
+                hashes.add(executor.submit(() -> repository.addContent(new ByteArrayInputStream(content))));
+            }
+            for (int i = 0; i < count; i++) {
+                byte[] expected = MessageDigest.getInstance("SHA-1").digest(contents.get(i));
+                byte[] hash = hashes.get(i).get();
+                assertThat(HashUtil.bytesToHexString(hash), is(HashUtil.bytesToHexString(expected)));
+                assertTrue(repository.hasContent(hash));
+                assertThat(Files.size(repository.getContent(hash).getPhysicalFile().toPath()), is((long) contents.get(i).length));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(repository.getIngestedBytes(), is(size));
+    }
+
+    /**
+     * Test of addContent method, of class ContentRepository, with the write pipelined with the hashing, over content
+     * which does not fill the last buffer.
+     */
+    @Test
+    public void testAddContentPipelined() throws Exception {
+        final ContentRepository pipelined = ContentRepository.Factory.create(rootDir, tmpRootDir, 0L, ContentRepository.LOCK_TIMEOUT, true);
+        final byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42L).nextBytes(content);
+        final byte[] hash = pipelined.addContent(new ByteArrayInputStream(content));
+        assertThat(HashUtil.bytesToHexString(hash), is(HashUtil.bytesToHexString(MessageDigest.getInstance("SHA-1").digest(content))));
+        assertThat(Files.readAllBytes(pipelined.getContent(hash).getPhysicalFile().toPath()), is(content));
+        assertThat(pipelined.getIngestedBytes(), is((long) content.length));
+    }
+
+    /**
+     * The ingest time counts the time spent hashing and storing content, not the time spent waiting for it.
+     */
+    @Test
+    public void testIngestTimeExcludesClientWait() throws Exception {
+        final long delay = TimeUnit.MILLISECONDS.toNanos(100);
+        for (boolean pipelinedIngest : new boolean[] {false, true}) {
+            final ContentRepository contentRepository = ContentRepository.Factory.create(rootDir, tmpRootDir, 0L, ContentRepository.LOCK_TIMEOUT, pipelinedIngest);
+            final byte[] content = new byte[1024];
+            new Random(pipelinedIngest ? 1L : 2L).nextBytes(content);
+            final InputStream slowStream = new ByteArrayInputStream(content) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    LockSupport.parkNanos(delay);
+                    return super.read(b, off, len);
+                }
+            };
+            final long start = System.nanoTime();
+            contentRepository.addContent(slowStream);
+            final long elapsed = System.nanoTime() - start;
+            assertThat(contentRepository.getIngestedBytes(), is((long) content.length));
+            assertTrue(contentRepository.getIngestTime() > 0);
+            assertTrue(contentRepository.getIngestTime() < elapsed - delay);
+        }
+    }
+
     /**
      * Test of explodeContent method, of class ContentRepository.
      */
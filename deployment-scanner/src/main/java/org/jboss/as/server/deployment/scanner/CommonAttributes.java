@@ -32,6 +32,8 @@ interface CommonAttributes {
     String AUTO_DEPLOY_XML = "auto-deploy-xml";
     String DEPLOYMENT_SCANNER = "deployment-scanner";
     String DEPLOYMENT_TIMEOUT = "deployment-timeout";
+    String LAST_PICKUP_LATENCY = "last-pickup-latency";
+    String LAST_SCAN_STAT_CALLS = "last-scan-stat-calls";
     String NAME = "name";
     String PATH = "path";
     String RELATIVE_TO = "relative-to";
@@ -0,0 +1,245 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.jboss.as.server.deployment.scanner.logging.DeploymentScannerLogger.ROOT_LOGGER;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a deployment directory tree for create, modify and delete events and triggers a scan once a burst
+ * of events has settled. The paths touched since the last scan are tracked so the scanner can restrict the
+ * expensive content timestamp walk to the affected deployments.
+ * <p>
+ * Only the directories visible when {@link #start()} is called, plus any created later, are watched. If the
+ * watch cannot be established the caller is expected to keep relying on periodic scans.
+ */
+class DeploymentDirectoryWatcher implements Runnable {
+
+    private final Path root;
+    private final ScheduledExecutorService scheduledExecutor;
+    private final Runnable scanTask;
+    private final long debounce;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Object lock = new Object();
+
+    private WatchService watchService;
+    private Thread thread;
+    /** Paths touched since the last {@link #drainAffected()}, {@code null} if everything has to be considered changed */
+    private Set<Path> affected = new HashSet<>();
+    /** {@link System#nanoTime()} of the first event not yet picked up by a scan, or {@code -1} */
+    private long firstEventTime = -1;
+    private ScheduledFuture<?> pendingScan;
+
+    DeploymentDirectoryWatcher(final Path root, final ScheduledExecutorService scheduledExecutor, final Runnable scanTask, final long debounce) {
+        this.root = root;
+        this.scheduledExecutor = scheduledExecutor;
+        this.scanTask = scanTask;
+        this.debounce = debounce;
+    }
+
+    /**
+     * Registers the directory tree and starts the thread processing the events.
+     *
+     * @return {@code true} if the tree is being watched, {@code false} if the file system does not support it
+     */
+    synchronized boolean start() {
+        try {
+            watchService = root.getFileSystem().newWatchService();
+            registerTree(root);
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            ROOT_LOGGER.directoryWatchUnavailable(e, root.toString());
+            closeWatchService();
+            return false;
+        }
+        thread = new Thread(this, "DeploymentScanner-watch - " + root);
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    synchronized void stop() {
+        closeWatchService();
+        synchronized (lock) {
+            if (pendingScan != null) {
+                pendingScan.cancel(false);
+                pendingScan = null;
+            }
+        }
+        thread = null;
+    }
+
+    /**
+     * Returns the paths touched since the previous call and resets the tracking.
+     *
+     * @return the affected paths, or {@code null} if events were lost and all content must be treated as changed
+     */
+    Set<Path> drainAffected() {
+        synchronized (lock) {
+            final Set<Path> result = affected;
+            affected = new HashSet<>();
+            return result;
+        }
+    }
+
+    /**
+     * Returns the time elapsed since the oldest event not yet seen by a scan and resets it.
+     *
+     * @return the latency in milliseconds, or {@code -1} if no event is pending
+     */
+    long drainPickupLatency() {
+        synchronized (lock) {
+            if (firstEventTime < 0) {
+                return -1;
+            }
+            final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstEventTime);
+            firstEventTime = -1;
+            return latency;
+        }
+    }
+
+    @Override
+    public void run() {
+        final WatchService watchService;
+        synchronized (this) {
+            watchService = this.watchService;
+        }
+        if (watchService == null) {
+            return;
+        }
+        try {
+            for (;;) {
+                final WatchKey key = watchService.take();
+                final Path dir;
+                synchronized (this) {
+                    dir = keys.get(key);
+                }
+                if (dir != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        handleEvent(dir, event);
+                    }
+                }
+                if (!key.reset()) {
+                    synchronized (this) {
+                        keys.remove(key);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    private void handleEvent(final Path dir, final WatchEvent<?> event) {
+        final Path changed;
+        if (event.kind() == OVERFLOW) {
+            changed = null;
+        } else {
+            changed = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                try {
+                    synchronized (this) {
+                        registerTree(changed);
+                    }
+                } catch (IOException | ClosedWatchServiceException e) {
+                    ROOT_LOGGER.tracef(e, "Cannot watch %s", changed);
+                }
+            }
+        }
+        synchronized (lock) {
+            if (changed == null) {
+                affected = null;
+            } else if (affected != null) {
+                affected.add(changed);
+            }
+            if (firstEventTime < 0) {
+                firstEventTime = System.nanoTime();
+            }
+            // Restart the quiet period so a burst of events results in a single scan
+            if (pendingScan != null) {
+                pendingScan.cancel(false);
+            }
+            try {
+                pendingScan = scheduledExecutor.schedule(scanTask, debounce, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                pendingScan = null;
+            }
+        }
+    }
+
+    /** Invoke with the object monitor held */
+    private void registerTree(final Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                if (file.equals(start)) {
+                    throw exc;
+                }
+                // Content removed while walking; the delete event is already queued for the parent
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /** Invoke with the object monitor held */
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.tracef(e, "Failed closing watch service for %s", root);
+            }
+            watchService = null;
+        }
+        keys.clear();
+    }
+}
@@ -28,6 +28,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.services.path.PathInfoHandler;
@@ -126,6 +127,19 @@ public class DeploymentScannerDefinition extends SimpleResourceDefinition {
                     .setDefaultValue(new ModelNode().set(false))
                     .build();
 
+    static final SimpleAttributeDefinition LAST_SCAN_STAT_CALLS =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.LAST_SCAN_STAT_CALLS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .setUndefinedMetricValue(new ModelNode(0L))
+                    .build();
+
+    static final SimpleAttributeDefinition LAST_PICKUP_LATENCY =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.LAST_PICKUP_LATENCY, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setUndefinedMetricValue(new ModelNode(-1L))
+                    .build();
+
     protected static final SimpleAttributeDefinition[] ALL_ATTRIBUTES = {PATH,RELATIVE_TO,SCAN_ENABLED,SCAN_INTERVAL,AUTO_DEPLOY_EXPLODED,AUTO_DEPLOY_XML,AUTO_DEPLOY_ZIPPED,DEPLOYMENT_TIMEOUT,RUNTIME_FAILURE_CAUSES_ROLLBACK};
 
     @Override
@@ -141,6 +155,8 @@ public class DeploymentScannerDefinition extends SimpleResourceDefinition {
         resourceRegistration.registerReadWriteAttribute(AUTO_DEPLOY_XML, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(DEPLOYMENT_TIMEOUT, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(RUNTIME_FAILURE_CAUSES_ROLLBACK, null, commonHandler);
+        resourceRegistration.registerMetric(LAST_SCAN_STAT_CALLS, DeploymentScannerMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(LAST_PICKUP_LATENCY, DeploymentScannerMetricsHandler.INSTANCE);
     }
 
     @Override
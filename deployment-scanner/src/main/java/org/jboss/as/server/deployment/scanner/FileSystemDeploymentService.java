@@ -60,6 +60,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -92,6 +93,7 @@ import org.jboss.as.server.deployment.scanner.api.DeploymentScanner;
 import org.jboss.as.server.deployment.scanner.logging.DeploymentScannerLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Service that monitors the filesystem for deployment content and if found deploys it.
@@ -124,6 +126,19 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
      */
     static final long DEFAULT_DEPLOYMENT_TIMEOUT = 600;
 
+    /**
+     * Whether deployment directories with a positive scan interval are also watched for file system changes,
+     * triggering a scan as soon as a burst of changes settles rather than at the next scan interval
+     */
+    static final boolean WATCH_ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged("jboss.deployment.scanner.watch", "false"));
+
+    private static final long DEFAULT_WATCH_DEBOUNCE = 500;
+
+    /**
+     * Quiet period, in milliseconds, after the last file system change before a watch triggered scan runs
+     */
+    static final long WATCH_DEBOUNCE = getWatchDebounce();
+
     private File deploymentDir;
     private long scanInterval = 0;
     private volatile boolean scanEnabled = false;
@@ -161,6 +176,15 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
     private final PropertyChangeListener propertyChangeListener;
     private Future<?> undeployScanTask;
 
+    private volatile boolean watchEnabled = WATCH_ENABLED;
+    private volatile DeploymentDirectoryWatcher watcher;
+    /** The watcher whose events the timestamp cache is kept consistent with. Guarded by the scan lock */
+    private DeploymentDirectoryWatcher timestampCacheWatcher;
+    private final Map<File, Long> timestampCache = new HashMap<File, Long>();
+    private long statCount;
+    private volatile long lastScanStatCount;
+    private volatile long lastPickupLatency = -1;
+
     private volatile boolean deploymentDirAccessible = true;
     private volatile boolean lastScanSuccessful = true;
 
@@ -423,6 +447,29 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
         this.deploymentOperationsFactory = factory;
     }
 
+    /**
+     * Hook solely for unit test to control whether the deployment directory is watched for changes
+     */
+    void setWatchEnabled(boolean watchEnabled) {
+        this.watchEnabled = watchEnabled;
+    }
+
+    private static long getWatchDebounce() {
+        final String value = WildFlySecurityManager.getPropertyPrivileged("jboss.deployment.scanner.watch.debounce", null);
+        if (value != null) {
+            try {
+                final long debounce = Long.parseLong(value.trim());
+                if (debounce >= 0) {
+                    return debounce;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            ROOT_LOGGER.debugf("Ignoring invalid value %s for jboss.deployment.scanner.watch.debounce", value);
+        }
+        return DEFAULT_WATCH_DEBOUNCE;
+    }
+
     /**
      * Hook solely for unit test to control how long deployments with no progress can exist without failing
      */
@@ -595,7 +642,10 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                 throw ex;
             }
 
+            refreshTimestampCache();
+            statCount = 0;
             scanDirectory(deploymentDir, relativePath, scanContext);
+            lastScanStatCount = statCount;
 
             // WARN about markers with no associated content. Do this first in case any auto-deploy issue
             // is due to a file that wasn't meant to be auto-deployed, but has a misspelled marker
@@ -854,11 +904,11 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                     removeExtraneousMarker(child, fileName);
                 } else {
                     final File deploymentFile = new File(directory, deploymentName);
-                    if (deploymentFile.exists()) {
+                    if (exists(deploymentFile)) {
                         scanContext.toRemove.remove(deploymentName);
-                        if (deployed.get(deploymentName).lastModified != child.lastModified()) {
-                            scanContext.scannerTasks.add(new RedeployTask(deploymentName, child.lastModified(), directory,
-                                    !child.isDirectory()));
+                        if (deployed.get(deploymentName).lastModified != lastModified(child)) {
+                            scanContext.scannerTasks.add(new RedeployTask(deploymentName, lastModified(child), directory,
+                                    !isDirectory(child)));
                         } else {
                             // AS7-784 check for undeploy or removal of the deployment via another management client
                             Boolean isDeployed = scanContext.registeredDeployments.get(deploymentName);
@@ -901,7 +951,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                 }
 
                 final File deploymentFile = new File(directory, deploymentName);
-                if (!deploymentFile.exists()) {
+                if (!exists(deploymentFile)) {
                     scanContext.ignoredMissingDeployments.add(deploymentName);
                     continue;
                 }
@@ -920,7 +970,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                     removeExtraneousMarker(child, fileName);
                 }
             } else if (isEEArchive(fileName)) {
-                boolean autoDeployable = child.isDirectory() ? autoDeployExploded : autoDeployZip;
+                boolean autoDeployable = isDirectory(child) ? autoDeployExploded : autoDeployZip;
                 if (autoDeployable) {
                     if (!isAutoDeployDisabled(child)) {
                         long timestamp = getDeploymentTimestamp(child);
@@ -942,7 +992,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                                 } else {
                                     //we need to make sure that the file was not deleted while
                                     //the scanner was running
-                                    if (child.exists()) {
+                                    if (exists(child)) {
                                         scanContext.incompleteFiles.put(child, new IncompleteDeploymentStatus(child, timestamp));
                                     }
                                 }
@@ -952,8 +1002,8 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                             }
                         }
                     }
-                } else if (!deployed.containsKey(fileName) && !new File(fileName + DO_DEPLOY).exists()
-                        && !new File(fileName + FAILED_DEPLOY).exists()) {
+                } else if (!deployed.containsKey(fileName) && !exists(new File(fileName + DO_DEPLOY))
+                        && !exists(new File(fileName + FAILED_DEPLOY))) {
                     // Track for possible INFO logging of the need for a marker
                     scanContext.nonDeployable.add(fileName);
                 }
@@ -976,14 +1026,14 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                             } else {
                                 //we need to make sure that the file was not deleted while
                                 //the scanner was running
-                                if (child.exists()) {
+                                if (exists(child)) {
                                     scanContext.incompleteFiles.put(child, new IncompleteDeploymentStatus(child, timestamp));
                                 }
                             }
                         }
                     }
-                } else if (!deployed.containsKey(fileName) && !new File(fileName + DO_DEPLOY).exists()
-                        && !new File(fileName + FAILED_DEPLOY).exists()) {
+                } else if (!deployed.containsKey(fileName) && !exists(new File(fileName + DO_DEPLOY))
+                        && !exists(new File(fileName + FAILED_DEPLOY))) {
                     // Track for possible INFO logging of the need for a marker
                     scanContext.nonDeployable.add(fileName);
                 }
@@ -994,10 +1044,10 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
                 // Do some housekeeping if the referenced deployment is gone
                 final String deploymentName = fileName.substring(0, fileName.length() - PENDING.length());
                 File deployment = new File(child.getParent(), deploymentName);
-                if (!deployment.exists()) {
+                if (!exists(deployment)) {
                     removeExtraneousMarker(child, fileName);
                 }
-            } else if (child.isDirectory()) { // exploded deployments would have been caught by isEEArchive(fileName) above
+            } else if (isDirectory(child)) { // exploded deployments would have been caught by isEEArchive(fileName) above
 
                 if (WEB_INF.equalsIgnoreCase(fileName) || META_INF.equalsIgnoreCase(fileName)) {
                     // Looks like someone unzipped an archive in the scanned dir
@@ -1021,7 +1071,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
 
     private boolean isFailedOrUndeployed(final ScanContext scanContext, final File directory, final String fileName, final long timestamp) {
         final File failedMarker = new File(directory, fileName + FAILED_DEPLOY);
-        if (failedMarker.exists() && timestamp <= failedMarker.lastModified()) {
+        if (exists(failedMarker) && timestamp <= lastModified(failedMarker)) {
             return true;
         }
         final File undeployedMarker = new File(directory, fileName + UNDEPLOYED);
@@ -1079,7 +1129,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
     }
 
     private boolean isMarkedUndeployed(final File undeployedMarker, final long timestamp) {
-        return undeployedMarker.exists() && timestamp <= undeployedMarker.lastModified();
+        return exists(undeployedMarker) && timestamp <= lastModified(undeployedMarker);
     }
 
     private boolean isZipComplete(File file) throws NonScannableZipException {
@@ -1106,23 +1156,116 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
     private boolean isAutoDeployDisabled(File file) {
         final File parent = file.getParentFile();
         final String name = file.getName();
-        return new File(parent, name + SKIP_DEPLOY).exists() || new File(parent, name + DO_DEPLOY).exists();
+        return exists(new File(parent, name + SKIP_DEPLOY)) || exists(new File(parent, name + DO_DEPLOY));
     }
 
     private long getDeploymentTimestamp(File deploymentFile) {
-        if (deploymentFile.isDirectory()) {
+        if (timestampCacheWatcher == null) {
+            return computeDeploymentTimestamp(deploymentFile);
+        }
+        // The watcher invalidates the cached value of any deployment it reports a change under,
+        // so only deployments touched since the last scan need their content walked again
+        Long cached = timestampCache.get(deploymentFile);
+        if (cached == null) {
+            cached = computeDeploymentTimestamp(deploymentFile);
+            if (isDirectory(deploymentFile)) {
+                timestampCache.put(deploymentFile, cached);
+            }
+        }
+        return cached;
+    }
+
+    private long computeDeploymentTimestamp(File deploymentFile) {
+        if (isDirectory(deploymentFile)) {
             // Scan for most recent file
-            long latest = deploymentFile.lastModified();
+            long latest = lastModified(deploymentFile);
             for (File child : listDirectoryChildren(deploymentFile)) {
-                long childTimestamp = getDeploymentTimestamp(child);
+                long childTimestamp = computeDeploymentTimestamp(child);
                 if (childTimestamp > latest) {
                     latest = childTimestamp;
                 }
             }
             return latest;
         } else {
-            return deploymentFile.lastModified();
+            return lastModified(deploymentFile);
+        }
+    }
+
+    /**
+     * Invalidates the cached deployment timestamps affected by the file system events seen since the last scan.
+     * Invoke with the scan lock held.
+     */
+    private void refreshTimestampCache() {
+        final DeploymentDirectoryWatcher watcher = this.watcher;
+        if (watcher != timestampCacheWatcher) {
+            // Events may have been missed while no watcher (or a different one) was active
+            timestampCache.clear();
+            timestampCacheWatcher = watcher;
+        }
+        if (watcher == null) {
+            return;
+        }
+        final long latency = watcher.drainPickupLatency();
+        if (latency >= 0) {
+            lastPickupLatency = latency;
         }
+        invalidateTimestamps(timestampCache, watcher.drainAffected());
+    }
+
+    /**
+     * Removes from a cache of deployment timestamps those of the deployments a change was seen under, or in one
+     * of whose ancestors a change was seen.
+     *
+     * @param timestampCache the cached timestamps, keyed by deployment
+     * @param affected the changed paths, or {@code null} if changes were missed and all timestamps must be discarded
+     */
+    static void invalidateTimestamps(Map<File, Long> timestampCache, Set<Path> affected) {
+        if (affected == null) {
+            timestampCache.clear();
+            return;
+        }
+        if (!affected.isEmpty()) {
+            final Iterator<File> iter = timestampCache.keySet().iterator();
+            while (iter.hasNext()) {
+                final Path cached = iter.next().toPath();
+                for (Path path : affected) {
+                    if (path.startsWith(cached) || cached.startsWith(path)) {
+                        iter.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean exists(File file) {
+        statCount++;
+        return file.exists();
+    }
+
+    private boolean isDirectory(File file) {
+        statCount++;
+        return file.isDirectory();
+    }
+
+    private long lastModified(File file) {
+        statCount++;
+        return file.lastModified();
+    }
+
+    /**
+     * Gets the number of file status checks made by the last directory scan.
+     */
+    long getLastScanStatCount() {
+        return lastScanStatCount;
+    }
+
+    /**
+     * Gets the time in milliseconds between the first file system change of a burst and the start of the scan
+     * that picked it up, or {@code -1} if the deployment directory is not being watched.
+     */
+    long getLastPickupLatency() {
+        return lastPickupLatency;
     }
 
     private boolean isEEArchive(String fileName) {
@@ -1249,6 +1392,14 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
         if (scanEnabled) {
             if (scanInterval > 0) {
                 scanTask = scheduledExecutor.scheduleWithFixedDelay(scanRunnable, 0, scanInterval, TimeUnit.MILLISECONDS);
+                if (watchEnabled && watcher == null) {
+                    // Periodic scans remain as the fallback, e.g. for changes made through management clients
+                    final DeploymentDirectoryWatcher directoryWatcher = new DeploymentDirectoryWatcher(deploymentDir.toPath(),
+                            scheduledExecutor, scanRunnable, WATCH_DEBOUNCE);
+                    if (directoryWatcher.start()) {
+                        watcher = directoryWatcher;
+                    }
+                }
             } else {
                 scanTask = scheduledExecutor.schedule(scanRunnable, scanInterval, TimeUnit.MILLISECONDS);
             }
@@ -1271,6 +1422,10 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
             scanTask.cancel(true);
             scanTask = null;
         }
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
     }
 
     private ModelNode getCompositeUpdate(final List<ModelNode> updates) {
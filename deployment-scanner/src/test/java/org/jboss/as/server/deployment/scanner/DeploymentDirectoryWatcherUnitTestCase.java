@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DeploymentDirectoryWatcher}
+ */
+public class DeploymentDirectoryWatcherUnitTestCase {
+
+    private AutoDeployTestSupport testSupport;
+    private ScheduledExecutorService executor;
+    private DeploymentDirectoryWatcher watcher;
+    private final Semaphore scans = new Semaphore(0);
+
+    @Before
+    public void setup() throws Exception {
+        testSupport = new AutoDeployTestSupport(DeploymentDirectoryWatcherUnitTestCase.class.getSimpleName());
+        executor = Executors.newSingleThreadScheduledExecutor();
+        watcher = new DeploymentDirectoryWatcher(testSupport.getTempDir().toPath(), executor, scans::release, 100);
+        Assert.assertTrue(watcher.start());
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+        executor.shutdownNow();
+        testSupport.cleanupFiles();
+    }
+
+    @Test
+    public void testChangeTriggersScan() throws Exception {
+        Path war = Files.createFile(testSupport.getTempDir().toPath().resolve("test.war"));
+
+        Assert.assertTrue(scans.tryAcquire(10, TimeUnit.SECONDS));
+        Set<Path> affected = watcher.drainAffected();
+        Assert.assertTrue(affected.contains(war));
+        Assert.assertTrue(watcher.drainPickupLatency() >= 0);
+        Assert.assertTrue(watcher.drainAffected().isEmpty());
+        Assert.assertEquals(-1, watcher.drainPickupLatency());
+    }
+
+    @Test
+    public void testNewDirectoryIsWatched() throws Exception {
+        Path exploded = Files.createDirectory(testSupport.getTempDir().toPath().resolve("exploded.war"));
+        Assert.assertTrue(scans.tryAcquire(10, TimeUnit.SECONDS));
+        watcher.drainAffected();
+
+        Path content = Files.createFile(exploded.resolve("index.html"));
+        Assert.assertTrue(scans.tryAcquire(10, TimeUnit.SECONDS));
+        Assert.assertTrue(watcher.drainAffected().contains(content));
+    }
+
+    @Test
+    public void testStoppedWatcherDoesNotScan() throws Exception {
+        watcher.stop();
+        Files.createFile(new File(testSupport.getTempDir(), "test.jar").toPath());
+        Assert.assertFalse(scans.tryAcquire(1, TimeUnit.SECONDS));
+    }
+}
@@ -59,6 +59,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -1949,6 +1950,41 @@ public class FileSystemDeploymentServiceUnitTestCase {
         assertEquals(bytes, ts.controller.deployed.get("external.war"));
     }
 
+    /**
+     * Tests that only the cached timestamps of exploded deployments a watched change was seen under are discarded
+     */
+    @Test
+    public void testTimestampCacheInvalidation() {
+        File a = new File(tmpDir, "a.war");
+        File b = new File(tmpDir, "b.war");
+        Map<File, Long> cache = new HashMap<File, Long>();
+        cache.put(a, 1L);
+        cache.put(b, 2L);
+
+        // No changes
+        FileSystemDeploymentService.invalidateTimestamps(cache, Collections.emptySet());
+        assertEquals(2, cache.size());
+
+        // A change in unrelated content of the deployment directory
+        FileSystemDeploymentService.invalidateTimestamps(cache, Collections.singleton(new File(tmpDir, "c.jar").toPath()));
+        assertEquals(2, cache.size());
+
+        // A change within a deployment
+        FileSystemDeploymentService.invalidateTimestamps(cache, Collections.singleton(new File(a, "WEB-INF/web.xml").toPath()));
+        assertEquals(Collections.singleton(b), cache.keySet());
+
+        // A change to an ancestor of a deployment
+        cache.put(a, 1L);
+        FileSystemDeploymentService.invalidateTimestamps(cache, Collections.singleton(tmpDir.toPath()));
+        assertTrue(cache.isEmpty());
+
+        // Missed events
+        cache.put(a, 1L);
+        cache.put(b, 2L);
+        FileSystemDeploymentService.invalidateTimestamps(cache, null);
+        assertTrue(cache.isEmpty());
+    }
+
     private TesteeSet createTestee(String... existingContent) throws OperationFailedException {
         return createTestee(new MockServerController(existingContent));
     }
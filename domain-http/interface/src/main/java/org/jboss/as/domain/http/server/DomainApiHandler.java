@@ -39,6 +39,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYNC_REMOVED_FOR_READD;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.USER;
 import static org.jboss.as.domain.http.server.DomainUtil.getStreamIndex;
+import static org.jboss.as.domain.http.server.DomainUtil.isStreamResponse;
 import static org.jboss.as.domain.http.server.DomainUtil.writeResponse;
 import static org.jboss.as.domain.http.server.DomainUtil.writeStreamResponse;
 import static org.jboss.as.domain.http.server.logging.HttpServerLogger.ROOT_LOGGER;
@@ -133,10 +134,12 @@ class DomainApiHandler implements HttpHandler {
 
         final HeaderMap requestHeaders = exchange.getRequestHeaders();
         final boolean cachable;
+        final DomainApiPagedRead pagedRead;
         final boolean get = exchange.getRequestMethod().equals(Methods.GET);
         final boolean encode = Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.ACCEPT))
                 || Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.CONTENT_TYPE));
-        final OperationParameter.Builder operationParameterBuilder = new OperationParameter.Builder(get).encode(encode);
+        final OperationParameter.Builder operationParameterBuilder = new OperationParameter.Builder(get).encode(encode)
+                .stream(isStreamResponse(exchange));
         final int streamIndex = getStreamIndex(exchange, requestHeaders);
 
         try {
@@ -156,6 +159,7 @@ class DomainApiHandler implements HttpHandler {
                 pretty = jsonPretty.equals("true") || jsonPretty.equals("1");
             }
             operationParameterBuilder.pretty(pretty);
+            pagedRead = DomainApiPagedRead.create(exchange, dmr);
 
         } catch (Exception e) {
             ROOT_LOGGER.debugf("Unable to construct ModelNode '%s'", e.getMessage());
@@ -209,6 +213,10 @@ class DomainApiHandler implements HttpHandler {
             if (headers.hasDefined(DOMAIN_UUID)) {
                 headers.remove(DOMAIN_UUID);
             }
+            if (pagedRead != null) {
+                pagedRead.execute(exchange, modelController, operationParameterBuilder.build());
+                return;
+            }
             response = modelController.execute(new OperationBuilder(dmr).build(), OperationMessageHandler.logging, control);
             if (cachable && streamIndex > -1) {
                 // Use the MD5 of the model nodes asString() method as ETag
@@ -225,7 +233,12 @@ class DomainApiHandler implements HttpHandler {
             }
         } catch (Throwable t) {
             ROOT_LOGGER.modelRequestError(t);
-            Common.sendError(exchange, encode, t.getLocalizedMessage());
+            if (exchange.isResponseStarted()) {
+                // Part of a paged response has been written; all that can be done is to cut it short
+                IoUtils.safeClose(exchange.getConnection());
+            } else {
+                Common.sendError(exchange, encode, t.getLocalizedMessage());
+            }
             return;
         }
 
@@ -261,6 +274,10 @@ class DomainApiHandler implements HttpHandler {
         ModelNode dmr = new ModelNode();
         for (Entry<String, Deque<String>> entry : queryParameters.entrySet()) {
             String key = entry.getKey();
+            if (key.startsWith(DomainUtil.HTTP_PARAMETER_PREFIX)) {
+                // Parameters of the HTTP response rather than of the operation
+                continue;
+            }
             String value = entry.getValue().getFirst();
             ModelNode valueNode = null;
             if (key.startsWith("operation-header-")) {
@@ -0,0 +1,490 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILD_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_NAMES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_RESOURCES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_TYPES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE_DEPTH;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.as.domain.http.server.logging.HttpServerLogger.ROOT_LOGGER;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Cursor based pagination of {@code read-resource} and {@code read-children-resources} requests, requested with the
+ * {@code org.wildfly.pageSize} and optional {@code org.wildfly.cursor} HTTP headers or query parameters. Each page is
+ * written to the response as it is read, so neither the server nor the client needs to hold more than a page in memory.
+ * <p>
+ * For {@code read-children-resources} a page is a map of up to {@code pageSize} children, in order of their names.
+ * For {@code read-resource} the subtree selected by {@code recursive} and {@code recursive-depth} is walked in depth
+ * first order, and a page is a list of up to {@code pageSize} entries holding the {@code address} and the attributes
+ * ({@code result}) of a resource. If there are further pages the {@code org.wildfly.nextCursor} response header holds
+ * the cursor to request the next one with; the last page has no such header.
+ * <p>
+ * Every page is read afresh, so resources added or removed between requests are reflected in later pages, and a
+ * resource removed while a page is being read is left out of it. If the resource addressed by the request cannot be
+ * read the request fails, as it would without pagination.
+ */
+final class DomainApiPagedRead {
+
+    static final HttpString PAGE_SIZE = new HttpString(DomainUtil.HTTP_PARAMETER_PREFIX + "pageSize");
+    static final HttpString CURSOR = new HttpString(DomainUtil.HTTP_PARAMETER_PREFIX + "cursor");
+    static final HttpString NEXT_CURSOR_HEADER = new HttpString(DomainUtil.HTTP_PARAMETER_PREFIX + "nextCursor");
+
+    /**
+     * Creates the paged read for a request, if pagination has been requested.
+     *
+     * @param exchange - The current HttpExchange
+     * @param operation - The operation converted from the request
+     * @return the paged read, or {@code null} if no page size was requested
+     * @throws IllegalArgumentException if the pagination parameters are invalid or the operation cannot be paged
+     */
+    static DomainApiPagedRead create(final HttpServerExchange exchange, final ModelNode operation) {
+        final String value = DomainUtil.getHttpParameter(exchange, PAGE_SIZE);
+        if (value == null) {
+            return null;
+        }
+        final int pageSize;
+        try {
+            pageSize = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ROOT_LOGGER.invalidPageSize(value);
+        }
+        if (pageSize <= 0) {
+            throw ROOT_LOGGER.invalidPageSize(value);
+        }
+        final String operationName = operation.get(OP).asString();
+        final boolean children = READ_CHILDREN_RESOURCES_OPERATION.equals(operationName);
+        if (!children && !READ_RESOURCE_OPERATION.equals(operationName)) {
+            throw ROOT_LOGGER.paginationNotSupported(operationName);
+        }
+        ModelNode cursor = null;
+        final String cursorValue = DomainUtil.getHttpParameter(exchange, CURSOR);
+        if (cursorValue != null && !cursorValue.isEmpty()) {
+            cursor = decodeCursor(cursorValue, children);
+        }
+        return new DomainApiPagedRead(operation, pageSize, cursor, children);
+    }
+
+    private final ModelNode operation;
+    private final int pageSize;
+    private final ModelNode cursor;
+    private final boolean children;
+    private ModelController modelController;
+
+    private DomainApiPagedRead(final ModelNode operation, final int pageSize, final ModelNode cursor, final boolean children) {
+        this.operation = operation;
+        this.pageSize = pageSize;
+        this.cursor = cursor;
+        this.children = children;
+    }
+
+    /**
+     * Reads the requested page and writes it to the response.
+     */
+    void execute(final HttpServerExchange exchange, final ModelController modelController,
+                 final OperationParameter operationParameter) throws IOException {
+        this.modelController = modelController;
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        if (children) {
+            writeChildrenPage(exchange, address, operationParameter);
+        } else {
+            writeSubtreePage(exchange, address, operationParameter);
+        }
+    }
+
+    private void writeChildrenPage(final HttpServerExchange exchange, final PathAddress address,
+                                   final OperationParameter operationParameter) throws IOException {
+        final ModelNode namesOperation = createOperation(READ_CHILDREN_NAMES_OPERATION, address);
+        if (operation.has(CHILD_TYPE)) {
+            namesOperation.get(CHILD_TYPE).set(operation.get(CHILD_TYPE));
+        }
+        final ModelNode namesResponse = execute(namesOperation);
+        if (!SUCCESS.equals(namesResponse.get(OUTCOME).asString())) {
+            Common.sendError(exchange, operationParameter.isEncode(), namesResponse);
+            return;
+        }
+        final String childType = operation.get(CHILD_TYPE).asString();
+        final List<String> names = new ArrayList<>();
+        for (ModelNode name : namesResponse.get(RESULT).asList()) {
+            names.add(name.asString());
+        }
+        Collections.sort(names);
+
+        int start = 0;
+        if (cursor != null) {
+            final String after = cursor.asString();
+            while (start < names.size() && names.get(start).compareTo(after) <= 0) {
+                start++;
+            }
+        }
+        final int end = Math.min(start + pageSize, names.size());
+        final ModelNode nextCursor = end < names.size() ? new ModelNode(names.get(end - 1)) : null;
+
+        final PageWriter writer = new PageWriter(exchange, operationParameter, false);
+        writer.begin(nextCursor);
+        try {
+            for (String name : names.subList(start, end)) {
+                final ModelNode read = operation.clone();
+                read.get(OP).set(READ_RESOURCE_OPERATION);
+                read.get(OP_ADDR).set(address.append(childType, name).toModelNode());
+                read.remove(CHILD_TYPE);
+                final ModelNode response = execute(read);
+                if (SUCCESS.equals(response.get(OUTCOME).asString())) {
+                    writer.write(name, response.get(RESULT));
+                }
+            }
+        } finally {
+            writer.end();
+        }
+    }
+
+    private void writeSubtreePage(final HttpServerExchange exchange, final PathAddress address,
+                                  final OperationParameter operationParameter) throws IOException {
+        final boolean recursive = operation.hasDefined(RECURSIVE) && operation.get(RECURSIVE).asBoolean();
+        final int maxDepth = operation.hasDefined(RECURSIVE_DEPTH)
+                ? operation.get(RECURSIVE_DEPTH).asInt()
+                : recursive ? Integer.MAX_VALUE : 0;
+        // A base address that cannot be read, for example because it does not exist or is not accessible to the
+        // caller, is reported as an error rather than as an empty page
+        final ModelNode baseResponse = execute(createEntryRead(address));
+        if (!SUCCESS.equals(baseResponse.get(OUTCOME).asString())) {
+            Common.sendError(exchange, operationParameter.isEncode(), baseResponse);
+            return;
+        }
+        final SubtreeWalk walk = new SubtreeWalk(this::getChildren, address, cursor, maxDepth, pageSize + 1);
+        final List<PathAddress> page = walk.collect();
+        final boolean more = page.size() > pageSize;
+        final int size = more ? pageSize : page.size();
+        final ModelNode nextCursor = more ? walk.getCursor(page.get(size - 1)) : null;
+
+        final PageWriter writer = new PageWriter(exchange, operationParameter, true);
+        writer.begin(nextCursor);
+        try {
+            for (PathAddress resourceAddress : page.subList(0, size)) {
+                final ModelNode response = resourceAddress.equals(address) ? baseResponse : execute(createEntryRead(resourceAddress));
+                if (SUCCESS.equals(response.get(OUTCOME).asString())) {
+                    final ModelNode entry = new ModelNode();
+                    entry.get(OP_ADDR).set(resourceAddress.toModelNode());
+                    entry.get(RESULT).set(response.get(RESULT));
+                    writer.write(null, entry);
+                }
+            }
+        } finally {
+            writer.end();
+        }
+    }
+
+    /**
+     * Creates the read of the attributes of a single resource of a subtree page.
+     */
+    private ModelNode createEntryRead(final PathAddress address) {
+        final ModelNode read = operation.clone();
+        read.get(OP_ADDR).set(address.toModelNode());
+        read.get(RECURSIVE).set(false);
+        read.remove(RECURSIVE_DEPTH);
+        read.get(ATTRIBUTES_ONLY).set(true);
+        return read;
+    }
+
+    /**
+     * Lists the children of a resource ordered by type and then by name. A resource that cannot be read, for example
+     * because it has been removed, is treated as having no children.
+     */
+    private List<PathElement> getChildren(final PathAddress address) {
+        final ModelNode typesResponse = execute(createOperation(READ_CHILDREN_TYPES_OPERATION, address));
+        if (!SUCCESS.equals(typesResponse.get(OUTCOME).asString())) {
+            return Collections.emptyList();
+        }
+        final List<String> types = new ArrayList<>();
+        for (ModelNode type : typesResponse.get(RESULT).asList()) {
+            types.add(type.asString());
+        }
+        Collections.sort(types);
+        final List<PathElement> result = new ArrayList<>();
+        for (String type : types) {
+            final ModelNode namesOperation = createOperation(READ_CHILDREN_NAMES_OPERATION, address);
+            namesOperation.get(CHILD_TYPE).set(type);
+            final ModelNode namesResponse = execute(namesOperation);
+            if (SUCCESS.equals(namesResponse.get(OUTCOME).asString())) {
+                final List<String> names = new ArrayList<>();
+                for (ModelNode name : namesResponse.get(RESULT).asList()) {
+                    names.add(name.asString());
+                }
+                Collections.sort(names);
+                for (String name : names) {
+                    result.add(PathElement.pathElement(type, name));
+                }
+            }
+        }
+        return result;
+    }
+
+    private ModelNode createOperation(final String operationName, final PathAddress address) {
+        final ModelNode result = new ModelNode();
+        result.get(OP).set(operationName);
+        result.get(OP_ADDR).set(address.toModelNode());
+        if (operation.hasDefined(OPERATION_HEADERS)) {
+            result.get(OPERATION_HEADERS).set(operation.get(OPERATION_HEADERS));
+        }
+        return result;
+    }
+
+    private ModelNode execute(final ModelNode operation) {
+        final OperationResponse response = modelController.execute(new OperationBuilder(operation).build(),
+                OperationMessageHandler.logging, ModelController.OperationTransactionControl.COMMIT);
+        try {
+            return response.getResponseNode();
+        } finally {
+            StreamUtils.safeClose(response);
+        }
+    }
+
+    static ModelNode decodeCursor(final String value, final boolean children) {
+        try {
+            final ModelNode result = ModelNode.fromJSONString(new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8));
+            if (children) {
+                if (result.getType() != ModelType.STRING) {
+                    throw ROOT_LOGGER.invalidCursor(value);
+                }
+            } else {
+                // Validates the relative address
+                PathAddress.pathAddress(result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw ROOT_LOGGER.invalidCursor(value);
+        }
+    }
+
+    static String encodeCursor(final ModelNode cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.toJSONString(true).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int compare(final PathElement first, final PathElement second) {
+        final int result = first.getKey().compareTo(second.getKey());
+        return result != 0 ? result : first.getValue().compareTo(second.getValue());
+    }
+
+    /**
+     * Collects the addresses of a page, plus one to tell whether there is a further page, in depth first order.
+     * Resuming from a cursor continues with the children of the cursor's resource, then with its following siblings,
+     * then with the following siblings of each of its ancestors, without revisiting the part of the tree already paged.
+     */
+    static final class SubtreeWalk {
+        private final Function<PathAddress, List<PathElement>> children;
+        private final PathAddress base;
+        private final ModelNode cursor;
+        private final int maxDepth;
+        private final int limit;
+        private final List<PathAddress> page = new ArrayList<>();
+
+        /**
+         * @param children - Lists the children of a resource, ordered by type and then by name
+         * @param base - The address of the root of the subtree
+         * @param cursor - The address relative to {@code base} of the last resource of the previous page, or {@code null}
+         *               for the first page
+         * @param maxDepth - The depth below {@code base} to walk to
+         * @param limit - The maximum number of addresses to collect
+         */
+        SubtreeWalk(final Function<PathAddress, List<PathElement>> children, final PathAddress base, final ModelNode cursor,
+                    final int maxDepth, final int limit) {
+            this.children = children;
+            this.base = base;
+            this.cursor = cursor;
+            this.maxDepth = maxDepth;
+            this.limit = limit;
+        }
+
+        /**
+         * Gets the cursor to resume the walk after a resource with.
+         */
+        ModelNode getCursor(final PathAddress address) {
+            return address.subAddress(base.size()).toModelNode();
+        }
+
+        List<PathAddress> collect() {
+            if (cursor == null) {
+                addSubtree(base, 0);
+            } else {
+                PathAddress current = base.append(PathAddress.pathAddress(cursor));
+                int depth = current.size() - base.size();
+                if (depth >= maxDepth || addChildren(current, depth, null)) {
+                    while (current.size() > base.size()) {
+                        final PathAddress parent = current.getParent();
+                        if (!addChildren(parent, parent.size() - base.size(), current.getLastElement())) {
+                            break;
+                        }
+                        current = parent;
+                    }
+                }
+            }
+            return page;
+        }
+
+        private boolean addSubtree(final PathAddress address, final int depth) {
+            page.add(address);
+            if (page.size() >= limit) {
+                return false;
+            }
+            return depth >= maxDepth || addChildren(address, depth, null);
+        }
+
+        private boolean addChildren(final PathAddress address, final int depth, final PathElement after) {
+            for (PathElement child : children.apply(address)) {
+                if (after == null || compare(child, after) > 0) {
+                    if (!addSubtree(address.append(child), depth + 1)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes the entries of a page as they are read. JSON is written directly to the response; the DMR encoding has no
+     * incremental form so an encoded page is assembled before it is written.
+     */
+    private static final class PageWriter {
+        private final HttpServerExchange exchange;
+        private final OperationParameter operationParameter;
+        private final boolean list;
+        private OutputStream out;
+        private PrintWriter writer;
+        private ModelNode encoded;
+        private boolean first = true;
+
+        private PageWriter(final HttpServerExchange exchange, final OperationParameter operationParameter, final boolean list) {
+            this.exchange = exchange;
+            this.operationParameter = operationParameter;
+            this.list = list;
+        }
+
+        void begin(final ModelNode nextCursor) {
+            exchange.setStatusCode(200);
+            final HeaderMap responseHeaders = exchange.getResponseHeaders();
+            final String contentType = operationParameter.isEncode() ? Common.APPLICATION_DMR_ENCODED : Common.APPLICATION_JSON;
+            responseHeaders.put(Headers.CONTENT_TYPE, contentType + "; charset=" + Common.UTF_8);
+            DomainUtil.writeCacheHeaders(exchange, 200, operationParameter);
+            if (nextCursor != null) {
+                responseHeaders.put(NEXT_CURSOR_HEADER, encodeCursor(nextCursor));
+            }
+            exchange.startBlocking();
+            out = new BufferedOutputStream(exchange.getOutputStream());
+            if (operationParameter.isEncode()) {
+                encoded = new ModelNode();
+                if (list) {
+                    encoded.setEmptyList();
+                } else {
+                    encoded.setEmptyObject();
+                }
+            } else {
+                writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (!operationParameter.isGet()) {
+                    // For POST requests the page is wrapped in the usual response structure
+                    writer.print("{\"" + OUTCOME + "\" : \"" + SUCCESS + "\", \"" + RESULT + "\" : ");
+                }
+                writer.print(list ? '[' : '{');
+            }
+        }
+
+        void write(final String name, final ModelNode value) {
+            if (encoded != null) {
+                if (list) {
+                    encoded.add(value);
+                } else {
+                    encoded.get(name).set(value);
+                }
+            } else {
+                if (!first) {
+                    writer.print(", ");
+                }
+                first = false;
+                if (name != null) {
+                    new ModelNode(name).writeJSONString(writer, true);
+                    writer.print(" : ");
+                }
+                value.writeJSONString(writer, !operationParameter.isPretty());
+                // Hand each entry to the connection rather than letting the page accumulate in the buffers
+                writer.flush();
+            }
+        }
+
+        void end() throws IOException {
+            try {
+                if (encoded != null) {
+                    ModelNode response = encoded;
+                    if (!operationParameter.isGet()) {
+                        response = new ModelNode();
+                        response.get(OUTCOME).set(SUCCESS);
+                        response.get(RESULT).set(encoded);
+                    }
+                    response.writeBase64(out);
+                } else {
+                    writer.print(list ? ']' : '}');
+                    if (!operationParameter.isGet()) {
+                        writer.print('}');
+                    }
+                    writer.flush();
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
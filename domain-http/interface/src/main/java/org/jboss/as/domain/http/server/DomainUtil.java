@@ -28,15 +28,19 @@ import static io.undertow.util.Headers.HOST;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Deque;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import io.undertow.attribute.ExchangeAttributes;
+import io.undertow.connector.ByteBufferPool;
 import io.undertow.io.IoCallback;
 import io.undertow.io.Sender;
 import io.undertow.server.HttpServerExchange;
@@ -66,6 +70,17 @@ public class DomainUtil {
     private static final String DEFAULT_RESOURCE = "/" + INDEX_HTML;
     private static final String USE_STREAM_AS_RESPONSE = "useStreamAsResponse";
     private static final HttpString USE_STREAM_AS_RESPONSE_HEADER = new HttpString("org.wildfly.useStreamAsResponse");
+    /**
+     * Prefix of the HTTP headers and query parameters that control the HTTP response rather than the operation. Query
+     * parameters with this prefix are never converted to operation parameters.
+     */
+    static final String HTTP_PARAMETER_PREFIX = "org.wildfly.";
+    /** Responses smaller than this are not worth compressing */
+    private static final int GZIP_MIN_SIZE = 1024;
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    static final HttpString STREAM_RESPONSE = new HttpString(HTTP_PARAMETER_PREFIX + "streamResponse");
 
     public static void writeResponse(final HttpServerExchange exchange, final int status, ModelNode response,
             OperationParameter operationParameter) {
@@ -83,15 +98,74 @@ public class DomainUtil {
             // is not send as part of the response but expressed with the HTTP status code.
             response = response.get(RESULT);
         }
+        // The encoding depends on the request headers, whether or not this request accepted gzip
+        responseHeaders.add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        final boolean gzip = isGzipAccepted(exchange.getRequestHeaders());
         try {
-            byte[] data = getResponseBytes(response, operationParameter);
-            responseHeaders.put(Headers.CONTENT_LENGTH, data.length);
-            exchange.getResponseSender().send(ByteBuffer.wrap(data));
+            if (operationParameter.isStream()) {
+                // Write the response as it is serialized rather than holding a second copy of it in memory.
+                // Without a content length undertow uses a chunked transfer encoding.
+                exchange.startBlocking();
+                if (gzip) {
+                    responseHeaders.put(Headers.CONTENT_ENCODING, GZIP);
+                }
+                try (OutputStream out = gzip ? new GZIPOutputStream(exchange.getOutputStream(), STREAM_BUFFER_SIZE)
+                        : new BufferedOutputStream(exchange.getOutputStream())) {
+                    writeResponse(response, operationParameter, out);
+                }
+            } else {
+                // Serialize into pooled buffers and hand those to the connection without blocking the calling thread
+                final ByteBufferPool pool = exchange.getConnection().getByteBufferPool();
+                PooledBufferOutputStream body = new PooledBufferOutputStream(pool);
+                try {
+                    writeResponse(response, operationParameter, body);
+                    if (gzip && body.size() >= GZIP_MIN_SIZE) {
+                        final PooledBufferOutputStream compressed = new PooledBufferOutputStream(pool);
+                        try (OutputStream out = new GZIPOutputStream(compressed, STREAM_BUFFER_SIZE)) {
+                            body.writeTo(out);
+                        } catch (IOException | RuntimeException e) {
+                            compressed.free();
+                            throw e;
+                        }
+                        body.free();
+                        body = compressed;
+                        responseHeaders.put(Headers.CONTENT_ENCODING, GZIP);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    body.free();
+                    throw e;
+                }
+                responseHeaders.put(Headers.CONTENT_LENGTH, body.size());
+                final PooledBufferOutputStream content = body;
+                exchange.getResponseSender().send(content.getBuffers(), new IoCallback() {
+                    @Override
+                    public void onComplete(HttpServerExchange exchange, Sender sender) {
+                        content.free();
+                        IoCallback.END_EXCHANGE.onComplete(exchange, sender);
+                    }
+
+                    @Override
+                    public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+                        content.free();
+                        IoCallback.END_EXCHANGE.onException(exchange, sender, exception);
+                    }
+                });
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    static void writeResponse(final ModelNode modelNode, final OperationParameter operationParameter, final OutputStream out) throws IOException {
+        if (operationParameter.isEncode()) {
+            modelNode.writeBase64(out);
+        } else {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            modelNode.writeJSONString(writer, !operationParameter.isPretty());
+            writer.flush();
+        }
+    }
+
 
     static void writeStreamResponse(final HttpServerExchange exchange,
                                      final OperationResponse operationResponse,
@@ -169,19 +243,6 @@ public class DomainUtil {
         return "application/octet-stream";
     }
 
-    private static byte[] getResponseBytes(final ModelNode modelNode, final OperationParameter operationParameter) throws IOException {
-        if (operationParameter.isEncode()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            BufferedOutputStream out = new BufferedOutputStream(baos);
-            modelNode.writeBase64(out);
-            out.flush();
-            return baos.toByteArray();
-        } else {
-            String json = modelNode.toJSONString(!operationParameter.isPretty());
-            return json.getBytes(StandardCharsets.UTF_8);
-        }
-    }
-
     static void writeCacheHeaders(final HttpServerExchange exchange, final int status, final OperationParameter operationParameter) {
         final HeaderMap responseHeaders = exchange.getResponseHeaders();
 
@@ -225,6 +286,55 @@ public class DomainUtil {
         return new ResourceHandlerDefinition(context, DEFAULT_RESOURCE, predicateHandler);
     }
 
+    /**
+     * Determines whether the client accepts a gzip encoded response, following RFC 7231 section 5.3.4: an explicit
+     * {@code gzip} (or {@code x-gzip}) coding takes precedence over {@code *}, and a quality value of 0 means the
+     * coding is not acceptable.
+     *
+     * @param requestHeaders - The request headers
+     * @return {@code true} if the response may be gzip encoded
+     */
+    static boolean isGzipAccepted(final HeaderMap requestHeaders) {
+        final HeaderValues values = requestHeaders.get(Headers.ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        float gzipQuality = -1;
+        float wildcardQuality = -1;
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                final int semicolon = coding.indexOf(';');
+                final String name = (semicolon < 0 ? coding : coding.substring(0, semicolon)).trim();
+                if (GZIP.equalsIgnoreCase(name) || X_GZIP.equalsIgnoreCase(name)) {
+                    gzipQuality = Math.max(gzipQuality, getQuality(semicolon < 0 ? "" : coding.substring(semicolon + 1)));
+                } else if ("*".equals(name)) {
+                    wildcardQuality = Math.max(wildcardQuality, getQuality(semicolon < 0 ? "" : coding.substring(semicolon + 1)));
+                }
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+    }
+
+    /**
+     * Gets the quality value from the parameters of a coding.
+     *
+     * @param parameters the parameters following the coding name
+     * @return the quality, 1 if not given, or 0 if it cannot be parsed
+     */
+    private static float getQuality(final String parameters) {
+        for (String parameter : parameters.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Math.max(0f, Math.min(1f, Float.parseFloat(trimmed.substring(2).trim())));
+                } catch (NumberFormatException e) {
+                    return 0f;
+                }
+            }
+        }
+        return 1f;
+    }
+
     static int getStreamIndex(final HttpServerExchange exchange, final HeaderMap requestHeaders) {
         // First check for an HTTP header
         int result = getStreamIndex(requestHeaders.get(USE_STREAM_AS_RESPONSE_HEADER));
@@ -236,6 +346,39 @@ public class DomainUtil {
         return result;
     }
 
+    /**
+     * Determines whether the response should be written as it is serialized, without a content length.
+     * This is requested with the {@code org.wildfly.streamResponse} HTTP header or query parameter.
+     *
+     * @param exchange - The current HttpExchange
+     * @return {@code true} if the response should be streamed
+     */
+    static boolean isStreamResponse(final HttpServerExchange exchange) {
+        String value = getHttpParameter(exchange, STREAM_RESPONSE);
+        if (value == null) {
+            return false;
+        }
+        return value.isEmpty() || Boolean.parseBoolean(value) || "1".equals(value);
+    }
+
+    /**
+     * Gets the value of a parameter of the HTTP response, from the HTTP header or else the query parameter of the name.
+     *
+     * @param exchange - The current HttpExchange
+     * @param name - The name of the parameter, starting with {@link #HTTP_PARAMETER_PREFIX}
+     * @return the value, or {@code null} if the parameter is not set
+     */
+    static String getHttpParameter(final HttpServerExchange exchange, final HttpString name) {
+        String value = exchange.getRequestHeaders().getFirst(name);
+        if (value == null) {
+            final Deque<String> holder = exchange.getQueryParameters().get(name.toString());
+            if (holder != null && !holder.isEmpty()) {
+                value = holder.getFirst();
+            }
+        }
+        return value;
+    }
+
     private static int getStreamIndex(Deque<String> holder) {
         int result;
         if (holder != null) {
@@ -15,6 +15,7 @@ public class OperationParameter {
     private final ETag etag;
     private final boolean encode;
     private final boolean pretty;
+    private final boolean stream;
 
     private OperationParameter(Builder builder) {
         this.get = builder.get;
@@ -22,6 +23,7 @@ public class OperationParameter {
         this.etag = builder.etag;
         this.encode = builder.encode;
         this.pretty = builder.pretty;
+        this.stream = builder.stream;
     }
 
     public boolean isGet() {
@@ -44,6 +46,10 @@ public class OperationParameter {
         return pretty;
     }
 
+    public boolean isStream() {
+        return stream;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("OperationResult{");
@@ -52,6 +58,7 @@ public class OperationParameter {
         sb.append(", etag=").append(etag);
         sb.append(", encode=").append(encode);
         sb.append(", pretty=").append(pretty);
+        sb.append(", stream=").append(stream);
         sb.append('}');
         return sb.toString();
     }
@@ -67,6 +74,7 @@ public class OperationParameter {
         private ETag etag;
         private boolean pretty;
         private boolean encode;
+        private boolean stream;
 
         /**
          * Creates a new builder.
@@ -80,6 +88,7 @@ public class OperationParameter {
          *     <li>etag (null)</li>
          *     <li>encode (false)</li>
          *     <li>pretty (false)</li>
+         *     <li>stream (false)</li>
          * </ul>
          *
          * @param get
@@ -89,6 +98,7 @@ public class OperationParameter {
             this.maxAge = 0;
             this.encode = false;
             this.pretty = false;
+            this.stream = false;
         }
 
         public Builder maxAge(int maxAge) {
@@ -111,6 +121,11 @@ public class OperationParameter {
             return this;
         }
 
+        public Builder stream(boolean stream) {
+            this.stream = stream;
+            return this;
+        }
+
         public OperationParameter build() {
             return new OperationParameter(this);
         }
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+
+/**
+ * An {@link OutputStream} collecting what is written to it in buffers taken from a {@link ByteBufferPool}, so a
+ * response can be serialized without building it as a {@code String} or {@code byte[]} first.
+ * <p>
+ * The pool is shared by all connections of the server, so at most {@code maxPooledSize} bytes are taken
+ * from it. Anything beyond that is collected in heap buffers that are simply dropped once the response is written.
+ * <p>
+ * The buffers are handed to the connection as they are and must be returned to the pool with {@link #free()} once
+ * they have been written.
+ */
+final class PooledBufferOutputStream extends OutputStream {
+
+    /** Default for the number of bytes taken from the pool, the rest of a large response goes to the heap */
+    static final int DEFAULT_MAX_POOLED_SIZE = 64 * 1024;
+    /** Size of the heap buffers used once the pooled limit is reached */
+    private static final int HEAP_BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBufferPool pool;
+    private final long maxPooledSize;
+    private final List<PooledByteBuffer> pooled = new ArrayList<>();
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private long pooledSize;
+    private ByteBuffer current;
+    private long size;
+
+    PooledBufferOutputStream(final ByteBufferPool pool) {
+        this(pool, DEFAULT_MAX_POOLED_SIZE);
+    }
+
+    /**
+     * Creates a stream that takes at most {@code maxPooledSize} bytes of buffers from the pool.
+     *
+     * @param pool the pool
+     * @param maxPooledSize the number of bytes after which heap buffers are used instead
+     */
+    PooledBufferOutputStream(final ByteBufferPool pool, final long maxPooledSize) {
+        this.pool = pool;
+        this.maxPooledSize = maxPooledSize;
+    }
+
+    @Override
+    public void write(final int b) {
+        ensureCapacity();
+        current.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) {
+        while (len > 0) {
+            ensureCapacity();
+            final int count = Math.min(len, current.remaining());
+            current.put(b, off, count);
+            off += count;
+            len -= count;
+            size += count;
+        }
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the number of bytes
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Gets the written content, ready to be read. Must only be called once writing is done.
+     *
+     * @return the buffers holding the content
+     */
+    ByteBuffer[] getBuffers() {
+        final ByteBuffer[] result = new ByteBuffer[buffers.size()];
+        for (int i = 0; i < result.length; i++) {
+            final ByteBuffer buffer = buffers.get(i).duplicate();
+            buffer.flip();
+            result[i] = buffer;
+        }
+        return result;
+    }
+
+    /**
+     * Copies the written content to another stream.
+     *
+     * @param out the target stream
+     * @throws IOException if the target stream cannot be written
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        byte[] chunk = null;
+        for (ByteBuffer buffer : getBuffers()) {
+            if (buffer.hasArray()) {
+                out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                if (chunk == null) {
+                    chunk = new byte[Math.min(buffer.capacity(), 8192)];
+                }
+                while (buffer.hasRemaining()) {
+                    final int count = Math.min(chunk.length, buffer.remaining());
+                    buffer.get(chunk, 0, count);
+                    out.write(chunk, 0, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns all pooled buffers to the pool and drops the heap buffers.
+     */
+    void free() {
+        for (PooledByteBuffer buffer : pooled) {
+            buffer.close();
+        }
+        pooled.clear();
+        buffers.clear();
+        pooledSize = 0;
+        current = null;
+    }
+
+    private void ensureCapacity() {
+        if (current == null || !current.hasRemaining()) {
+            if (pooledSize < maxPooledSize) {
+                final PooledByteBuffer buffer = pool.allocate();
+                pooled.add(buffer);
+                current = buffer.getBuffer();
+                current.clear();
+                pooledSize += current.capacity();
+            } else {
+                current = ByteBuffer.allocate(HEAP_BUFFER_SIZE);
+            }
+            buffers.add(current);
+        }
+    }
+}
@@ -107,4 +107,13 @@ public interface HttpServerLogger extends BasicLogger {
             " 'ManagementRealm' and this is already selected by default by the add-user tool.")
     String realmNotReadyForSecuredManagementHandler(String scriptFile);
 
+    @Message(id = 17, value = "Pagination is not supported for operation '%s'; only read-resource and read-children-resources can be paged")
+    IllegalArgumentException paginationNotSupported(String operation);
+
+    @Message(id = 18, value = "Invalid page size value '%s'")
+    IllegalArgumentException invalidPageSize(String value);
+
+    @Message(id = 19, value = "Invalid cursor value '%s'")
+    IllegalArgumentException invalidCursor(String value);
+
 }
@@ -0,0 +1,410 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILD_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_NAMES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_TYPES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import io.undertow.Undertow;
+import io.undertow.server.handlers.BlockingHandler;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.NotificationHandlerRegistration;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationAttachments;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link DomainApiPagedRead} and of the streamed responses of {@link DomainUtil}.
+ */
+public class DomainApiPagedReadTestCase {
+
+    private static final PathAddress A_1 = PathAddress.pathAddress("a", "1");
+    private static final PathAddress A_1_B_1 = A_1.append("b", "1");
+    private static final PathAddress A_1_B_2 = A_1.append("b", "2");
+    private static final PathAddress A_2 = PathAddress.pathAddress("a", "2");
+    private static final PathAddress C_1 = PathAddress.pathAddress("c", "1");
+    private static final PathAddress C_1_D_1 = C_1.append("d", "1");
+    /** The whole tree in depth first order */
+    private static final List<PathAddress> ALL = Arrays.asList(PathAddress.EMPTY_ADDRESS, A_1, A_1_B_1, A_1_B_2, A_2, C_1, C_1_D_1);
+
+    /** The children of each resource, ordered by type and then by name */
+    private final Map<PathAddress, List<PathElement>> tree = new LinkedHashMap<>();
+    private final List<ModelNode> executed = new CopyOnWriteArrayList<>();
+    /** Resources the caller is not authorized to address */
+    private final Set<PathAddress> denied = new HashSet<>();
+    private Undertow server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() {
+        for (PathAddress address : ALL) {
+            tree.put(address, new ArrayList<>());
+            if (address.size() > 0) {
+                tree.get(address.getParent()).add(address.getLastElement());
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testCollectWholeTree() {
+        assertEquals(ALL, walk(null, Integer.MAX_VALUE, 100).collect());
+    }
+
+    @Test
+    public void testCollectToDepth() {
+        assertEquals(Arrays.asList(PathAddress.EMPTY_ADDRESS, A_1, A_2, C_1), walk(null, 1, 100).collect());
+        assertEquals(Collections.singletonList(PathAddress.EMPTY_ADDRESS), walk(null, 0, 100).collect());
+    }
+
+    @Test
+    public void testCollectFromBase() {
+        DomainApiPagedRead.SubtreeWalk walk = new DomainApiPagedRead.SubtreeWalk(this::getChildren, A_1, null, Integer.MAX_VALUE, 100);
+        assertEquals(Arrays.asList(A_1, A_1_B_1, A_1_B_2), walk.collect());
+        assertEquals(PathAddress.pathAddress("b", "2").toModelNode(), walk.getCursor(A_1_B_2));
+    }
+
+    @Test
+    public void testResumeFromCursor() {
+        for (int pageSize = 1; pageSize <= ALL.size() + 1; pageSize++) {
+            List<PathAddress> all = new ArrayList<>();
+            ModelNode cursor = null;
+            int pages = 0;
+            boolean more;
+            do {
+                // As DomainApiPagedRead does, collect one more than the page size to tell whether there is a further page
+                DomainApiPagedRead.SubtreeWalk walk = walk(cursor, Integer.MAX_VALUE, pageSize + 1);
+                List<PathAddress> page = walk.collect();
+                more = page.size() > pageSize;
+                List<PathAddress> returned = more ? page.subList(0, pageSize) : page;
+                all.addAll(returned);
+                cursor = more ? walk.getCursor(returned.get(returned.size() - 1)) : null;
+                pages++;
+            } while (more);
+            assertEquals("page size " + pageSize, ALL, all);
+            assertEquals("page size " + pageSize, (ALL.size() + pageSize - 1) / pageSize, pages);
+        }
+    }
+
+    @Test
+    public void testResumeAfterRemovedResource() {
+        ModelNode cursor = walk(null, Integer.MAX_VALUE, 100).getCursor(A_1_B_1);
+        assertEquals(Arrays.asList(A_1_B_2, A_2, C_1, C_1_D_1), walk(cursor, Integer.MAX_VALUE, 100).collect());
+
+        // The resource of the cursor and its parent have been removed since the previous page
+        tree.get(PathAddress.EMPTY_ADDRESS).remove(A_1.getLastElement());
+        tree.remove(A_1);
+        assertEquals(Arrays.asList(A_2, C_1, C_1_D_1), walk(cursor, Integer.MAX_VALUE, 100).collect());
+    }
+
+    @Test
+    public void testCursorEncoding() {
+        ModelNode cursor = A_1_B_2.toModelNode();
+        assertEquals(cursor, DomainApiPagedRead.decodeCursor(DomainApiPagedRead.encodeCursor(cursor), false));
+        ModelNode name = new ModelNode("some name");
+        assertEquals(name, DomainApiPagedRead.decodeCursor(DomainApiPagedRead.encodeCursor(name), true));
+        try {
+            DomainApiPagedRead.decodeCursor(DomainApiPagedRead.encodeCursor(cursor), true);
+            fail("an address is not a child name");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            DomainApiPagedRead.decodeCursor("not a cursor", false);
+            fail("invalid cursor accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPagedReadOverHttp() throws Exception {
+        startServer();
+        List<PathAddress> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            // A plain "cursor" query parameter is a parameter of the operation, not of the pagination
+            String query = "?recursive=true&cursor=op-param&org.wildfly.pageSize=3"
+                    + (cursor == null ? "" : "&org.wildfly.cursor=" + cursor);
+            HttpURLConnection connection = open("/" + query);
+            assertEquals(200, connection.getResponseCode());
+            ModelNode page = ModelNode.fromJSONString(read(connection));
+            assertTrue(page.asList().size() <= 3);
+            for (ModelNode entry : page.asList()) {
+                PathAddress address = PathAddress.pathAddress(entry.get(OP_ADDR));
+                assertEquals(address.toString(), entry.get(RESULT, "name").asString());
+                all.add(address);
+            }
+            cursor = connection.getHeaderField(DomainApiPagedRead.NEXT_CURSOR_HEADER.toString());
+            pages++;
+        } while (cursor != null);
+        assertEquals(ALL, all);
+        assertEquals(3, pages);
+
+        boolean readResource = false;
+        for (ModelNode operation : executed) {
+            if (READ_RESOURCE_OPERATION.equals(operation.get(OP).asString())) {
+                readResource = true;
+                assertEquals("op-param", operation.get("cursor").asString());
+                assertFalse(operation.has(DomainApiPagedRead.PAGE_SIZE.toString()));
+                assertFalse(operation.has(DomainApiPagedRead.CURSOR.toString()));
+            }
+        }
+        assertTrue(readResource);
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() throws Exception {
+        startServer();
+        HttpURLConnection connection = open("/?recursive=true&org.wildfly.pageSize=" + ALL.size());
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(ALL.size(), ModelNode.fromJSONString(read(connection)).asList().size());
+        assertNull(connection.getHeaderField(DomainApiPagedRead.NEXT_CURSOR_HEADER.toString()));
+    }
+
+    @Test
+    public void testPageSizeHeader() throws Exception {
+        startServer();
+        HttpURLConnection connection = open("/a/1?recursive=true");
+        connection.setRequestProperty(DomainApiPagedRead.PAGE_SIZE.toString(), "2");
+        assertEquals(200, connection.getResponseCode());
+        List<ModelNode> page = ModelNode.fromJSONString(read(connection)).asList();
+        assertEquals(2, page.size());
+        assertEquals(A_1, PathAddress.pathAddress(page.get(0).get(OP_ADDR)));
+        assertEquals(A_1_B_1, PathAddress.pathAddress(page.get(1).get(OP_ADDR)));
+        assertNotNull(connection.getHeaderField(DomainApiPagedRead.NEXT_CURSOR_HEADER.toString()));
+    }
+
+    @Test
+    public void testMissingBaseAddress() throws Exception {
+        startServer();
+        HttpURLConnection connection = open("/a/3?recursive=true&org.wildfly.pageSize=2");
+        assertEquals(500, connection.getResponseCode());
+        assertTrue(readError(connection).contains("No resource " + PathAddress.pathAddress("a", "3")));
+        assertNull(connection.getHeaderField(DomainApiPagedRead.NEXT_CURSOR_HEADER.toString()));
+    }
+
+    @Test
+    public void testUnauthorizedBaseAddress() throws Exception {
+        denied.add(A_1);
+        startServer();
+        HttpURLConnection connection = open("/a/1?recursive=true&org.wildfly.pageSize=2");
+        assertEquals(403, connection.getResponseCode());
+        assertTrue(readError(connection).contains("WFLYCTL0313"));
+    }
+
+    @Test
+    public void testStreamResponse() throws Exception {
+        startServer();
+        HttpURLConnection buffered = open("/a/1");
+        assertEquals(200, buffered.getResponseCode());
+        assertNotNull(buffered.getHeaderField("Content-Length"));
+        // The client did not ask for gzip, but caches still need to know the encoding depends on it
+        assertEquals("Accept-Encoding", buffered.getHeaderField("Vary"));
+        String expected = read(buffered);
+        assertEquals(A_1.toString(), ModelNode.fromJSONString(expected).get("name").asString());
+
+        HttpURLConnection streamed = open("/a/1?org.wildfly.streamResponse");
+        assertEquals(200, streamed.getResponseCode());
+        assertNull(streamed.getHeaderField("Content-Length"));
+        assertEquals("chunked", streamed.getHeaderField("Transfer-Encoding"));
+        assertEquals("Accept-Encoding", streamed.getHeaderField("Vary"));
+        assertEquals(expected, read(streamed));
+
+        streamed = open("/a/1");
+        streamed.setRequestProperty(DomainUtil.STREAM_RESPONSE.toString(), "true");
+        assertEquals(200, streamed.getResponseCode());
+        assertNull(streamed.getHeaderField("Content-Length"));
+        assertEquals(expected, read(streamed));
+
+        HttpURLConnection notStreamed = open("/a/1?org.wildfly.streamResponse=false");
+        assertEquals(200, notStreamed.getResponseCode());
+        assertNotNull(notStreamed.getHeaderField("Content-Length"));
+        assertEquals(expected, read(notStreamed));
+
+        for (ModelNode operation : executed) {
+            assertFalse(operation.has(DomainUtil.STREAM_RESPONSE.toString()));
+        }
+    }
+
+    private DomainApiPagedRead.SubtreeWalk walk(ModelNode cursor, int maxDepth, int limit) {
+        return new DomainApiPagedRead.SubtreeWalk(this::getChildren, PathAddress.EMPTY_ADDRESS, cursor, maxDepth, limit);
+    }
+
+    private List<PathElement> getChildren(PathAddress address) {
+        List<PathElement> children = tree.get(address);
+        return children == null ? Collections.<PathElement>emptyList() : children;
+    }
+
+    private void startServer() {
+        server = Undertow.builder()
+                .addHttpListener(0, "localhost")
+                .setHandler(new BlockingHandler(new DomainApiHandler(new TreeModelController())))
+                .build();
+        server.start();
+        InetSocketAddress address = (InetSocketAddress) server.getListenerInfo().get(0).getAddress();
+        baseUrl = "http://localhost:" + address.getPort();
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL(baseUrl + path).openConnection();
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        return read(connection.getInputStream());
+    }
+
+    private static String readError(HttpURLConnection connection) throws IOException {
+        return read(connection.getErrorStream());
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Answers the reads that paging uses from the resources in {@link #tree}, recording each operation.
+     */
+    private final class TreeModelController implements ModelController {
+
+        @Override
+        public ModelNode execute(ModelNode operation, OperationMessageHandler handler, OperationTransactionControl control, OperationAttachments attachments) {
+            executed.add(operation.clone());
+            PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+            List<PathElement> children = tree.get(address);
+            ModelNode response = new ModelNode();
+            if (denied.contains(address)) {
+                response.get(OUTCOME).set(FAILED);
+                response.get(FAILURE_DESCRIPTION).set("WFLYCTL0313: Unauthorized to execute operation");
+                return response;
+            }
+            if (children == null) {
+                response.get(OUTCOME).set(FAILED);
+                response.get(FAILURE_DESCRIPTION).set("No resource " + address);
+                return response;
+            }
+            ModelNode result = response.get(RESULT);
+            switch (operation.get(OP).asString()) {
+                case READ_CHILDREN_TYPES_OPERATION: {
+                    Set<String> types = new LinkedHashSet<>();
+                    for (PathElement child : children) {
+                        types.add(child.getKey());
+                    }
+                    result.setEmptyList();
+                    for (String type : types) {
+                        result.add(type);
+                    }
+                    break;
+                }
+                case READ_CHILDREN_NAMES_OPERATION: {
+                    result.setEmptyList();
+                    for (PathElement child : children) {
+                        if (child.getKey().equals(operation.get(CHILD_TYPE).asString())) {
+                            result.add(child.getValue());
+                        }
+                    }
+                    break;
+                }
+                case READ_RESOURCE_OPERATION:
+                    result.get("name").set(address.toString());
+                    break;
+                default:
+                    throw new UnsupportedOperationException(operation.get(OP).asString());
+            }
+            response.get(OUTCOME).set(SUCCESS);
+            return response;
+        }
+
+        @Override
+        public OperationResponse execute(Operation operation, OperationMessageHandler handler, OperationTransactionControl control) {
+            return OperationResponse.Factory.createSimple(execute(operation.getOperation(), handler, control, operation));
+        }
+
+        @Override
+        public ModelControllerClient createClient(Executor executor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NotificationHandlerRegistration getNotificationRegistry() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
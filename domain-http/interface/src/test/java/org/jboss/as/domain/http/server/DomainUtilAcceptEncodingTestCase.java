@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.undertow.util.HeaderMap;
+import io.undertow.util.Headers;
+import org.junit.Test;
+
+/**
+ * Tests of the {@code Accept-Encoding} handling of {@link DomainUtil}.
+ */
+public class DomainUtilAcceptEncodingTestCase {
+
+    @Test
+    public void testNoHeader() {
+        assertFalse(DomainUtil.isGzipAccepted(new HeaderMap()));
+    }
+
+    @Test
+    public void testGzip() {
+        assertTrue(isGzipAccepted("gzip"));
+        assertTrue(isGzipAccepted("GZIP"));
+        assertTrue(isGzipAccepted("x-gzip"));
+        assertTrue(isGzipAccepted("deflate, gzip"));
+        assertTrue(isGzipAccepted("gzip;q=0.5"));
+        assertTrue(isGzipAccepted("gzip; q=0.001"));
+        assertFalse(isGzipAccepted("deflate"));
+        assertFalse(isGzipAccepted("identity"));
+    }
+
+    @Test
+    public void testZeroQuality() {
+        assertFalse(isGzipAccepted("gzip;q=0"));
+        assertFalse(isGzipAccepted("gzip;q=0.0"));
+        assertFalse(isGzipAccepted("gzip ; q=0.000"));
+        assertFalse(isGzipAccepted("*;q=0"));
+        assertFalse(isGzipAccepted("gzip;q=invalid"));
+    }
+
+    @Test
+    public void testExplicitCodingBeatsWildcard() {
+        assertTrue(isGzipAccepted("*"));
+        assertTrue(isGzipAccepted("deflate, *;q=0.1"));
+        // The explicit gzip coding decides, wherever it is listed
+        assertFalse(isGzipAccepted("*, gzip;q=0"));
+        assertFalse(isGzipAccepted("gzip;q=0, *"));
+        assertTrue(isGzipAccepted("*;q=0, gzip"));
+        assertTrue(isGzipAccepted("gzip, *;q=0"));
+    }
+
+    @Test
+    public void testMultipleHeaders() {
+        final HeaderMap headers = new HeaderMap();
+        headers.add(Headers.ACCEPT_ENCODING, "*");
+        headers.add(Headers.ACCEPT_ENCODING, "gzip;q=0");
+        assertFalse(DomainUtil.isGzipAccepted(headers));
+
+        headers.clear();
+        headers.add(Headers.ACCEPT_ENCODING, "deflate");
+        headers.add(Headers.ACCEPT_ENCODING, "gzip");
+        assertTrue(DomainUtil.isGzipAccepted(headers));
+    }
+
+    private static boolean isGzipAccepted(final String acceptEncoding) {
+        final HeaderMap headers = new HeaderMap();
+        headers.add(Headers.ACCEPT_ENCODING, acceptEncoding);
+        return DomainUtil.isGzipAccepted(headers);
+    }
+}
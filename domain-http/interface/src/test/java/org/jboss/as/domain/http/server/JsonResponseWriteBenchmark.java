@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.DefaultByteBufferPool;
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the ways a JSON response body of the HTTP management interface is produced, for a response shaped like a
+ * metrics scrape: {@code resources} resources with {@code attributes} numeric and string attributes each.
+ * <p>
+ * {@link #string} is how the body was produced before responses were serialized into pooled buffers: the whole
+ * JSON {@code String}, then a {@code byte[]} copy of it. Run with {@code -prof gc} to compare the allocation rates.
+ * <p>
+ * This is not run as part of the test suite; run {@link #main(String[])} against the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonResponseWriteBenchmark {
+
+    @Param({"10", "500"})
+    private int resources;
+
+    @Param("20")
+    private int attributes;
+
+    private ModelNode response;
+    private OperationParameter operationParameter;
+    private ByteBufferPool pool;
+
+    @Setup
+    public void setup() {
+        response = new ModelNode();
+        response.get("outcome").set("success");
+        final ModelNode result = response.get("result");
+        for (int i = 0; i < resources; i++) {
+            final ModelNode resource = result.get("resource-" + i);
+            for (int j = 0; j < attributes; j++) {
+                if (j % 2 == 0) {
+                    resource.get("metric-" + j).set((long) i * j);
+                } else {
+                    resource.get("attribute-" + j).set("value " + i + "/" + j);
+                }
+            }
+        }
+        operationParameter = new OperationParameter.Builder(false).build();
+        pool = new DefaultByteBufferPool(true, 16 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public void string(Blackhole blackhole) {
+        final byte[] data = response.toJSONString(!operationParameter.isPretty()).getBytes(StandardCharsets.UTF_8);
+        blackhole.consume(ByteBuffer.wrap(data));
+    }
+
+    @Benchmark
+    public void pooled(Blackhole blackhole) throws IOException {
+        final PooledBufferOutputStream body = new PooledBufferOutputStream(pool);
+        try {
+            DomainUtil.writeResponse(response, operationParameter, body);
+            blackhole.consume(body.getBuffers());
+        } finally {
+            body.free();
+        }
+    }
+
+    @Benchmark
+    public void pooledGzip(Blackhole blackhole) throws IOException {
+        final PooledBufferOutputStream body = new PooledBufferOutputStream(pool);
+        final PooledBufferOutputStream compressed = new PooledBufferOutputStream(pool);
+        try {
+            DomainUtil.writeResponse(response, operationParameter, body);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192)) {
+                body.writeTo(out);
+            }
+            blackhole.consume(compressed.getBuffers());
+        } finally {
+            body.free();
+            compressed.free();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonResponseWriteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import io.undertow.server.DefaultByteBufferPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link PooledBufferOutputStream}.
+ */
+public class PooledBufferOutputStreamTestCase {
+
+    private static final int BUFFER_SIZE = 16;
+
+    private DefaultByteBufferPool pool;
+
+    @Before
+    public void createPool() {
+        pool = new DefaultByteBufferPool(true, BUFFER_SIZE);
+    }
+
+    @After
+    public void closePool() {
+        pool.close();
+    }
+
+    @Test
+    public void testWritesAcrossBufferBoundaries() throws IOException {
+        final byte[] expected = bytes(100);
+        final PooledBufferOutputStream out = new PooledBufferOutputStream(pool);
+        try {
+            // A single byte, then a write that spans several buffers, then one that ends exactly on a boundary
+            out.write(expected[0]);
+            out.write(expected, 1, 40);
+            out.write(expected, 41, 7);
+            out.write(expected, 48, 52);
+            assertEquals(100, out.size());
+
+            final ByteBuffer[] buffers = out.getBuffers();
+            assertEquals(7, buffers.length);
+            for (int i = 0; i < buffers.length - 1; i++) {
+                assertEquals(BUFFER_SIZE, buffers[i].remaining());
+            }
+            assertEquals(100 % BUFFER_SIZE, buffers[buffers.length - 1].remaining());
+            assertArrayEquals(expected, toByteArray(buffers));
+            assertArrayEquals(expected, writeTo(out));
+            // Reading the content does not consume it
+            assertArrayEquals(expected, toByteArray(out.getBuffers()));
+        } finally {
+            out.free();
+        }
+    }
+
+    @Test
+    public void testExactBufferSize() throws IOException {
+        final byte[] expected = bytes(2 * BUFFER_SIZE);
+        final PooledBufferOutputStream out = new PooledBufferOutputStream(pool);
+        try {
+            out.write(expected);
+            assertEquals(2, out.getBuffers().length);
+            assertArrayEquals(expected, writeTo(out));
+        } finally {
+            out.free();
+        }
+    }
+
+    @Test
+    public void testHeapBuffersAbovePooledLimit() throws IOException {
+        final byte[] expected = bytes(10 * BUFFER_SIZE + 3);
+        final PooledBufferOutputStream out = new PooledBufferOutputStream(pool, 2 * BUFFER_SIZE);
+        try {
+            out.write(expected);
+            final ByteBuffer[] buffers = out.getBuffers();
+            assertEquals(3, buffers.length);
+            assertTrue(buffers[0].isDirect());
+            assertTrue(buffers[1].isDirect());
+            assertFalse(buffers[2].isDirect());
+            assertEquals(8 * BUFFER_SIZE + 3, buffers[2].remaining());
+            assertArrayEquals(expected, toByteArray(buffers));
+            assertArrayEquals(expected, writeTo(out));
+        } finally {
+            out.free();
+        }
+    }
+
+    @Test
+    public void testFree() {
+        final PooledBufferOutputStream out = new PooledBufferOutputStream(pool);
+        out.write(bytes(3 * BUFFER_SIZE), 0, 3 * BUFFER_SIZE);
+        out.free();
+        assertEquals(0, out.getBuffers().length);
+        // Freeing twice is harmless
+        out.free();
+    }
+
+    private static byte[] bytes(final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    private static byte[] writeTo(final PooledBufferOutputStream out) throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        out.writeTo(target);
+        return target.toByteArray();
+    }
+
+    private static byte[] toByteArray(final ByteBuffer[] buffers) {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                target.write(buffer.get());
+            }
+        }
+        return target.toByteArray();
+    }
+}
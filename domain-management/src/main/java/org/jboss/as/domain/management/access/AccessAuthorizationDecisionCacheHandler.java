@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.access;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.access.management.DelegatingConfigurableAuthorizer;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Handler for reading the authorization decision cache metrics from the {@link DelegatingConfigurableAuthorizer}.
+ */
+class AccessAuthorizationDecisionCacheHandler extends AbstractRuntimeOnlyHandler {
+
+    private final DelegatingConfigurableAuthorizer configurableAuthorizer;
+
+    AccessAuthorizationDecisionCacheHandler(DelegatingConfigurableAuthorizer configurableAuthorizer) {
+        this.configurableAuthorizer = configurableAuthorizer;
+    }
+
+    @Override
+    protected boolean requiresRuntime(OperationContext context) {
+        return true;
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        String attr = operation.require(ModelDescriptionConstants.NAME).asString();
+        if (AccessAuthorizationResourceDefinition.DECISION_CACHE_HITS.getName().equals(attr)) {
+            context.getResult().set(configurableAuthorizer.getDecisionCacheHitCount());
+        } else if (AccessAuthorizationResourceDefinition.DECISION_CACHE_MISSES.getName().equals(attr)) {
+            context.getResult().set(configurableAuthorizer.getDecisionCacheMissCount());
+        }
+    }
+}
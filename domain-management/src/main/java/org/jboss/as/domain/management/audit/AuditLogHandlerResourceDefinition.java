@@ -84,8 +84,26 @@ public class AuditLogHandlerResourceDefinition extends SimpleResourceDefinition
         .build();
 
 
+    public static final SimpleAttributeDefinition QUEUED_RECORDS = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.QUEUED_RECORDS, ModelType.INT)
+        .setStorageRuntime()
+        .setRuntimeServiceNotRequired()
+        .build();
+
+    public static final SimpleAttributeDefinition DROPPED_RECORDS = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.DROPPED_RECORDS, ModelType.LONG)
+        .setStorageRuntime()
+        .setRuntimeServiceNotRequired()
+        .build();
+
+    public static final SimpleAttributeDefinition BLOCKED_RECORDS = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.BLOCKED_RECORDS, ModelType.LONG)
+        .setStorageRuntime()
+        .setRuntimeServiceNotRequired()
+        .build();
+
+
     private static final AttributeDefinition[] RUNTIME_ATTRIBUTES = new AttributeDefinition[] {FAILURE_COUNT, DISABLED_DUE_TO_FAILURE};
 
+    private static final AttributeDefinition[] METRICS = new AttributeDefinition[] {QUEUED_RECORDS, DROPPED_RECORDS, BLOCKED_RECORDS};
+
     static final String[] HANDLER_TYPES = new String[] {FILE_HANDLER, SYSLOG_HANDLER, PERIODIC_ROTATING_FILE_HANDLER, SIZE_ROTATING_FILE_HANDLER, IN_MEMORY_HANDLER};
 
     protected final ManagedAuditLogger auditLogger;
@@ -110,6 +128,9 @@ public class AuditLogHandlerResourceDefinition extends SimpleResourceDefinition
         for (AttributeDefinition def : RUNTIME_ATTRIBUTES) {
             resourceRegistration.registerReadOnlyAttribute(def, new HandlerRuntimeAttributeHandler(auditLogger));
         }
+        for (AttributeDefinition def : METRICS) {
+            resourceRegistration.registerMetric(def, new HandlerRuntimeAttributeHandler(auditLogger));
+        }
     }
 
     @Override
@@ -143,6 +164,12 @@ public class AuditLogHandlerResourceDefinition extends SimpleResourceDefinition
                 context.getResult().set(auditLogger.getHandlerFailureCount(handlerName));
             } else if (attr.equals(DISABLED_DUE_TO_FAILURE.getName())) {
                 context.getResult().set(auditLogger.getHandlerDisabledDueToFailure(handlerName));
+            } else if (attr.equals(QUEUED_RECORDS.getName())) {
+                context.getResult().set(auditLogger.getHandlerQueuedRecords(handlerName));
+            } else if (attr.equals(DROPPED_RECORDS.getName())) {
+                context.getResult().set(auditLogger.getHandlerDroppedRecords(handlerName));
+            } else if (attr.equals(BLOCKED_RECORDS.getName())) {
+                context.getResult().set(auditLogger.getHandlerBlockedRecords(handlerName));
             }
         }
     }
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SNAPSHOT_READ_COUNT;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.registry.PlaceholderResource;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link ManagementControllerResourceDefinition.SnapshotReadCountHandler}.
+ */
+public class SnapshotReadCountHandlerTestCase {
+
+    @Test
+    public void testReadsLiveCount() throws OperationFailedException {
+        final long[] count = {3};
+        // Stands in for the controller's resource, whose model reflects the current count each time it is read
+        final Resource resource = new PlaceholderResource.PlaceholderResourceEntry("service", "management-operations") {
+            @Override
+            public ModelNode getModel() {
+                final ModelNode model = new ModelNode();
+                model.get(SNAPSHOT_READ_COUNT).set(count[0]);
+                return model;
+            }
+        };
+
+        assertEquals(3, read(resource).asLong());
+        count[0] = 7;
+        assertEquals(7, read(resource).asLong());
+    }
+
+    @Test
+    public void testUndefinedCount() throws OperationFailedException {
+        assertEquals(0, read(Resource.Factory.create(true)).asLong());
+    }
+
+    private static ModelNode read(Resource resource) throws OperationFailedException {
+        final OperationContext context = mock(OperationContext.class);
+        final ModelNode result = new ModelNode();
+        when(context.readResource(PathAddress.EMPTY_ADDRESS, false)).thenReturn(resource);
+        when(context.getResult()).thenReturn(result);
+        ManagementControllerResourceDefinition.SnapshotReadCountHandler.INSTANCE.execute(context, new ModelNode());
+        return result;
+    }
+}
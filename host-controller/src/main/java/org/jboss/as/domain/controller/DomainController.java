@@ -129,6 +129,16 @@ public interface DomainController {
         // default no-op because I'm tired of writing no-op impls in testsuite classes
     }
 
+    /**
+     * Gets the journal of changes to the domain model, used to only send the changed parts of the domain model
+     * to reconnecting slave hosts.
+     *
+     * @return the journal, or {@code null} if this process does not keep one
+     */
+    default DomainModelJournal getDomainModelJournal() {
+        return null;
+    }
+
     /**
      * Get the operations needed to create the given profile.
      *
@@ -0,0 +1,270 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.domain.controller.logging.DomainControllerLogger;
+import org.jboss.as.version.Version;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Versioned journal of the changes made to the domain model of the master domain controller, used to only send the
+ * changed parts of the domain model to a slave host that reconnects.
+ * <p>
+ * Each committed change to the persistent domain model increments the version and records the top level resources it
+ * affected. The version a slave host synchronized with is identified by a token combining a digest of the domain model at
+ * that version with a digest of the host's registration information. When the host reconnects, the journal provides
+ * the top level resources changed since then, or {@code null} if the journal no longer goes back that far and the complete
+ * model has to be sent.
+ */
+public final class DomainModelJournal {
+
+    private static final String MAX_SIZE_PROPERTY = "jboss.as.domain-model-journal.max-size";
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final int MAX_DIGESTS = 64;
+
+    private final int maxSize;
+    // Guarded by this
+    private long version;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Map<Long, String> digests = new LinkedHashMap<Long, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_DIGESTS;
+        }
+    };
+
+    DomainModelJournal(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static DomainModelJournal create() {
+        int maxSize = DEFAULT_MAX_SIZE;
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MAX_SIZE_PROPERTY, null);
+        if (value != null) {
+            try {
+                maxSize = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                DomainControllerLogger.ROOT_LOGGER.debugf("Ignoring invalid value %s for %s", value, MAX_SIZE_PROPERTY);
+            }
+        }
+        return new DomainModelJournal(maxSize);
+    }
+
+    /**
+     * Records a committed change to the domain model.
+     *
+     * @param affectedAddresses the addresses of the resources modified by the change
+     */
+    public synchronized void recordChange(Set<PathAddress> affectedAddresses) {
+        final Set<PathElement> changed = new HashSet<>();
+        for (PathAddress address : affectedAddresses) {
+            if (address.size() > 0 && !HOST.equals(address.getElement(0).getKey())) {
+                changed.add(address.getElement(0));
+            }
+        }
+        version++;
+        entries.addLast(new Entry(version, changed));
+        while (entries.size() > maxSize) {
+            entries.removeFirst();
+        }
+        final long oldest = getOldestVersion();
+        digests.keySet().removeIf(digested -> digested < oldest);
+    }
+
+    /**
+     * Gets the current version of the domain model. This must be read before the domain model is, while holding
+     * the controller lock.
+     *
+     * @return the version
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Creates the token identifying a version of the domain model as synchronized by a host.
+     *
+     * @param version the version of the domain model
+     * @param domainRoot the root resource of the domain model at that version
+     * @param hostDigest the digest of the host's registration information
+     * @return the token
+     */
+    public String createToken(long version, Resource domainRoot, String hostDigest) {
+        String digest;
+        synchronized (this) {
+            digest = digests.get(version);
+        }
+        if (digest == null) {
+            digest = digest(domainRoot);
+            synchronized (this) {
+                if (version >= getOldestVersion()) {
+                    digests.put(version, digest);
+                }
+            }
+        }
+        return createToken(digest, hostDigest);
+    }
+
+    /**
+     * Gets the top level resources that changed since a host synchronized the domain model.
+     *
+     * @param token the token the host received when it last synchronized the domain model
+     * @param hostDigest the digest of the host's current registration information
+     * @return the changed top level resources, or {@code null} if the version is unknown and the complete domain
+     *         model has to be sent
+     */
+    public synchronized Set<PathElement> getChangesSince(String token, String hostDigest) {
+        if (token == null || token.isEmpty() || maxSize <= 0) {
+            return null;
+        }
+        for (Map.Entry<Long, String> digest : digests.entrySet()) {
+            if (token.equals(createToken(digest.getValue(), hostDigest))) {
+                return getChangesSince(digest.getKey());
+            }
+        }
+        return null;
+    }
+
+    private Set<PathElement> getChangesSince(long since) {
+        if (since < getOldestVersion()) {
+            return null;
+        }
+        final Set<PathElement> changed = new HashSet<>();
+        final Iterator<Entry> iterator = entries.descendingIterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.version <= since) {
+                break;
+            }
+            changed.addAll(entry.changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Gets the oldest version whose subsequent changes are all still recorded.
+     */
+    private long getOldestVersion() {
+        final Entry first = entries.peekFirst();
+        return first == null ? version : first.version - 1;
+    }
+
+    /**
+     * Creates the digest of the persistent part of a domain model, excluding the hosts.
+     *
+     * @param domainRoot the root resource of the domain model
+     * @return the hex encoded digest
+     */
+    static String digest(Resource domainRoot) {
+        final MessageDigest messageDigest = createMessageDigest();
+        try (DataOutputStream output = new DataOutputStream(new DigestOutputStream(NullOutputStream.INSTANCE, messageDigest))) {
+            digest(PathAddress.EMPTY_ADDRESS, domainRoot, output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return HashUtil.bytesToHexString(messageDigest.digest());
+    }
+
+    private static void digest(PathAddress address, Resource resource, DataOutputStream output) throws IOException {
+        if (resource.isProxy() || resource.isRuntime()) {
+            return;
+        } else if (address.size() == 1 && HOST.equals(address.getElement(0).getKey())) {
+            return;
+        }
+        address.toModelNode().writeExternal(output);
+        resource.getModel().writeExternal(output);
+        for (String childType : resource.getChildTypes()) {
+            for (Resource.ResourceEntry entry : resource.getChildren(childType)) {
+                digest(address.append(entry.getPathElement()), entry, output);
+            }
+        }
+    }
+
+    /**
+     * Creates the hex encoded digest of a string.
+     *
+     * @param value the value
+     * @return the digest
+     */
+    public static String digest(String value) {
+        return HashUtil.bytesToHexString(createMessageDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String createToken(String modelDigest, String hostDigest) {
+        // The release is included, as the transformation of the model depends on it
+        return digest(Version.AS_VERSION + modelDigest + hostDigest);
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final long version;
+        private final Set<PathElement> changed;
+
+        private Entry(long version, Set<PathElement> changed) {
+            this.version = version;
+            this.changed = changed;
+        }
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
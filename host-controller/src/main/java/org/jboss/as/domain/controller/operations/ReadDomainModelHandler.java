@@ -22,9 +22,16 @@
 
 package org.jboss.as.domain.controller.operations;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DOMAIN_MODEL;
+
+import java.util.Set;
+
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.controller.transform.Transformers;
 import org.jboss.dmr.ModelNode;
 
@@ -38,11 +45,29 @@ class ReadDomainModelHandler implements OperationStepHandler {
     private final Transformers transformers;
     private final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry;
     private final boolean lock;
+    private final String domainModelVersion;
+    private final Set<PathElement> changedResources;
 
     public ReadDomainModelHandler(final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry, final Transformers transformers, final boolean lock) {
+        this(ignoredTransformationRegistry, transformers, lock, null, null);
+    }
+
+    /**
+     * Creates a handler which also returns the version of the domain model.
+     *
+     * @param ignoredTransformationRegistry registry of resources ignored by the transformation target
+     * @param transformers the transformers for the host
+     * @param lock whether to acquire the controller lock
+     * @param domainModelVersion the version of the domain model, or {@code null} to only return the described resources
+     * @param changedResources the top level resources to describe, or {@code null} to describe the complete model
+     */
+    ReadDomainModelHandler(final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry, final Transformers transformers, final boolean lock,
+                           final String domainModelVersion, final Set<PathElement> changedResources) {
         this.transformers = transformers;
         this.ignoredTransformationRegistry = ignoredTransformationRegistry != null ? ignoredTransformationRegistry : Transformers.DEFAULT;
         this.lock = lock;
+        this.domainModelVersion = domainModelVersion;
+        this.changedResources = changedResources;
     }
 
     public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
@@ -53,9 +78,25 @@ class ReadDomainModelHandler implements OperationStepHandler {
         }
 
         final Transformers.TransformationInputs transformationInputs = new Transformers.TransformationInputs(context);
+        Resource root = transformationInputs.getRootResource();
+        if (changedResources != null) {
+            root = ReadMasterDomainModelUtil.createFilteredRootResource(root, changedResources);
+        }
         final ReadMasterDomainModelUtil readUtil = ReadMasterDomainModelUtil.readMasterDomainResourcesForInitialConnect(transformers,
-                transformationInputs, ignoredTransformationRegistry, transformationInputs.getRootResource());
-        context.getResult().set(readUtil.getDescribedResources());
+                transformationInputs, ignoredTransformationRegistry, root);
+        if (domainModelVersion == null) {
+            context.getResult().set(readUtil.getDescribedResources());
+        } else {
+            final ModelNode result = context.getResult();
+            result.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).set(domainModelVersion);
+            result.get(DOMAIN_MODEL).set(readUtil.getDescribedResources());
+            if (changedResources != null) {
+                final ModelNode changes = result.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_CHANGES).setEmptyList();
+                for (PathElement element : changedResources) {
+                    changes.add(PathAddress.pathAddress(element).toModelNode());
+                }
+            }
+        }
     }
 
 }
@@ -22,13 +22,24 @@
 
 package org.jboss.as.domain.controller.operations;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST_EXCLUDE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SOCKET_BINDING_GROUP;
+
+import java.util.Collections;
+import java.util.Set;
+
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.extension.ExtensionRegistry;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.controller.transform.Transformers;
+import org.jboss.as.domain.controller.DomainModelJournal;
 import org.jboss.as.host.controller.mgmt.HostInfo;
 import org.jboss.dmr.ModelNode;
 
@@ -49,12 +60,19 @@ public class ReadMasterDomainModelHandler implements OperationStepHandler {
     private final Transformers transformers;
     private final ExtensionRegistry extensionRegistry;
     private final boolean lock;
+    private final DomainModelJournal journal;
 
     public ReadMasterDomainModelHandler(final HostInfo hostInfo, final Transformers transformers, final ExtensionRegistry extensionRegistry, boolean lock) {
+        this(hostInfo, transformers, extensionRegistry, lock, null);
+    }
+
+    public ReadMasterDomainModelHandler(final HostInfo hostInfo, final Transformers transformers, final ExtensionRegistry extensionRegistry, boolean lock,
+                                        final DomainModelJournal journal) {
         this.hostInfo = hostInfo;
         this.transformers = transformers;
         this.extensionRegistry = extensionRegistry;
         this.lock = lock;
+        this.journal = journal;
     }
 
     @Override
@@ -65,6 +83,8 @@ public class ReadMasterDomainModelHandler implements OperationStepHandler {
         }
 
         final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry;
+        // The version has to be read before the model, so the model contains at least the changes up to that version
+        final long version = journal != null ? journal.getVersion() : 0;
         final Resource resource = context.readResourceFromRoot(PathAddress.EMPTY_ADDRESS);
         // The host info is only null in the tests
         if (hostInfo == null) {
@@ -74,8 +94,49 @@ public class ReadMasterDomainModelHandler implements OperationStepHandler {
             ignoredTransformationRegistry = ReadMasterDomainModelUtil.createHostIgnoredRegistry(hostInfo, rc);
         }
 
-        final OperationStepHandler handler = new ReadDomainModelHandler(ignoredTransformationRegistry, transformers, lock);
+        final OperationStepHandler handler;
+        if (journal != null && hostInfo != null && hostInfo.getDomainModelVersion() != null) {
+            // The slave host can receive only the changes since the version it last synchronized
+            final String hostDigest = hostInfo.getDomainModelSyncDigest();
+            final String currentVersion = journal.createToken(version, resource, hostDigest);
+            Set<PathElement> changes;
+            if (currentVersion.equals(hostInfo.getDomainModelVersion())) {
+                changes = Collections.emptySet();
+            } else {
+                changes = journal.getChangesSince(hostInfo.getDomainModelVersion(), hostDigest);
+                if (changes != null && requiresFullModel(changes)) {
+                    changes = null;
+                }
+            }
+            handler = new ReadDomainModelHandler(ignoredTransformationRegistry, transformers, lock, currentVersion, changes);
+        } else {
+            handler = new ReadDomainModelHandler(ignoredTransformationRegistry, transformers, lock);
+        }
         context.addStep(handler, OperationContext.Stage.MODEL);
     }
 
+    /**
+     * Whether the changes affect which parts of the domain model the slave host receives, in which case the complete
+     * model has to be sent.
+     */
+    private boolean requiresFullModel(final Set<PathElement> changes) {
+        for (PathElement element : changes) {
+            switch (element.getKey()) {
+                case EXTENSION:
+                case HOST_EXCLUDE:
+                    return true;
+                case PROFILE:
+                case SERVER_GROUP:
+                case SOCKET_BINDING_GROUP:
+                    if (hostInfo.isIgnoreUnaffectedConfig()) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
 }
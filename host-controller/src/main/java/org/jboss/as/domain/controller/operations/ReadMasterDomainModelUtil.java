@@ -65,6 +65,12 @@ public class ReadMasterDomainModelUtil {
 
     public static final String ORDERED_CHILD_TYPES_PROPERTY = "ordered-child-types";
 
+    /** The version of the domain model sent to a slave host, or last synchronized by it */
+    public static final String DOMAIN_MODEL_VERSION = "domain-model-version";
+
+    /** The top level resources that changed since the version a slave host last synchronized with */
+    public static final String DOMAIN_MODEL_CHANGES = "domain-model-changes";
+
     private final Set<PathElement> newRootResources = new HashSet<>();
 
     private volatile List<ModelNode> describedResources;
@@ -92,6 +98,82 @@ public class ReadMasterDomainModelUtil {
         return util;
     }
 
+    /**
+     * Creates a view of the domain root resource that only contains the given top level resources.
+     *
+     * @param domainRoot the root resource for the domain resource tree
+     * @param children the top level resources to include
+     * @return the filtered root resource
+     */
+    static Resource createFilteredRootResource(final Resource domainRoot, final Set<PathElement> children) {
+        final Resource filtered = Resource.Factory.create(false, domainRoot.getOrderedChildTypes());
+        filtered.writeModel(domainRoot.getModel());
+        for (final PathElement element : children) {
+            final Resource child = domainRoot.getChild(element);
+            if (child != null) {
+                filtered.registerChild(element, child);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Applies the changed top level resources sent by the master to the description of the local domain model, resulting
+     * in the description of the complete domain model of the master.
+     *
+     * @param localModel the described local domain model
+     * @param changedModel the described root resource and changed top level resources
+     * @param changes the addresses of the changed top level resources, including removed ones
+     * @return the described domain model
+     */
+    static ModelNode mergeDomainModelChanges(final ModelNode localModel, final ModelNode changedModel, final ModelNode changes) {
+        final Set<PathElement> changed = new HashSet<>();
+        for (final ModelNode address : changes.asList()) {
+            changed.add(PathAddress.pathAddress(address).getElement(0));
+        }
+        final ModelNode merged = new ModelNode().setEmptyList();
+        for (final ModelNode description : changedModel.asList()) {
+            if (PathAddress.pathAddress(description.require(DOMAIN_RESOURCE_ADDRESS)).size() == 0) {
+                merged.add(description);
+            }
+        }
+        for (final ModelNode description : localModel.asList()) {
+            final PathAddress address = PathAddress.pathAddress(description.require(DOMAIN_RESOURCE_ADDRESS));
+            if (address.size() > 0 && !changed.contains(address.getElement(0))) {
+                merged.add(description);
+            }
+        }
+        for (final ModelNode description : changedModel.asList()) {
+            if (PathAddress.pathAddress(description.require(DOMAIN_RESOURCE_ADDRESS)).size() > 0) {
+                merged.add(description);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Removes the resources ignored by the given registry, and their children, from a described domain model. The
+     * result is the same as describing the model with that registry in the first place.
+     *
+     * @param describedModel the described domain model, as returned by {@link #getDescribedResources()}
+     * @param ignoredTransformationRegistry registry of ignored resources
+     * @return the described resources that are not ignored, in their original order
+     */
+    static ModelNode filterDescribedResources(final ModelNode describedModel, final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry) {
+        final ModelNode filtered = new ModelNode().setEmptyList();
+        for (final ModelNode description : describedModel.asList()) {
+            final PathAddress address = PathAddress.pathAddress(description.require(DOMAIN_RESOURCE_ADDRESS));
+            boolean ignored = false;
+            for (int i = 1; i <= address.size() && !ignored; i++) {
+                ignored = ignoredTransformationRegistry.isResourceTransformationIgnored(address.subAddress(0, i));
+            }
+            if (!ignored) {
+                filtered.add(description);
+            }
+        }
+        return filtered;
+    }
+
     /**
      * Gets a list of the resources for the slave's ApplyXXXXHandlers. Although the format might appear
      * similar as the operations generated at boot-time this description is only useful
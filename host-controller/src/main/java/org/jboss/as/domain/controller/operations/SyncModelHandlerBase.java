@@ -67,23 +67,44 @@ abstract class SyncModelHandlerBase implements OperationStepHandler {
     @Override
     public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
 
+        final HostControllerRegistrationHandler.OperationExecutor operationExecutor = parameters.getOperationExecutor();
+        ModelNode domainModel = operation.require(DOMAIN_MODEL);
+        ModelNode currentModel = null;
+        if (operation.hasDefined(ReadMasterDomainModelUtil.DOMAIN_MODEL_CHANGES)) {
+            // The master only sent the top level resources changed since the last sync, the others are as in the local model
+            final ReadDomainModelHandler currentModelHandler = new ReadDomainModelHandler(null, TRANSFORMERS, true);
+            currentModel = operationExecutor.executeReadOnly(OPERATION, currentModelHandler, ModelController.OperationTransactionControl.COMMIT);
+            if (currentModel.hasDefined(FAILURE_DESCRIPTION)) {
+                context.getFailureDescription().set(currentModel.get(FAILURE_DESCRIPTION));
+                return;
+            }
+            domainModel = ReadMasterDomainModelUtil.mergeDomainModelChanges(currentModel.get(RESULT), domainModel,
+                    operation.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_CHANGES));
+        }
+
         // Create the remote model based on the result of the read-master-model operation
         final Set<String> remoteExtensions = new HashSet<>();
-        final Resource remote = ReadMasterDomainModelUtil.createResourceFromDomainModelOp(operation.require(DOMAIN_MODEL), remoteExtensions);
+        final Resource remote = ReadMasterDomainModelUtil.createResourceFromDomainModelOp(domainModel, remoteExtensions);
         final Transformers.ResourceIgnoredTransformationRegistry ignoredTransformationRegistry = createRegistry(context, remote, remoteExtensions);
 
         // Describe the local model
-        final ReadDomainModelHandler readModelHandler = new ReadDomainModelHandler(ignoredTransformationRegistry, TRANSFORMERS, true);
-        final HostControllerRegistrationHandler.OperationExecutor operationExecutor = parameters.getOperationExecutor();
-        final ModelNode localModel = operationExecutor.executeReadOnly(OPERATION, readModelHandler, ModelController.OperationTransactionControl.COMMIT);
-        if (localModel.hasDefined(FAILURE_DESCRIPTION)) {
-            context.getFailureDescription().set(localModel.get(FAILURE_DESCRIPTION));
-            return;
+        final ModelNode localModel;
+        if (currentModel != null) {
+            // Already described above, only drop what the registry ignores instead of reading it again
+            localModel = ReadMasterDomainModelUtil.filterDescribedResources(currentModel.get(RESULT), ignoredTransformationRegistry);
+        } else {
+            final ReadDomainModelHandler readModelHandler = new ReadDomainModelHandler(ignoredTransformationRegistry, TRANSFORMERS, true);
+            final ModelNode result = operationExecutor.executeReadOnly(OPERATION, readModelHandler, ModelController.OperationTransactionControl.COMMIT);
+            if (result.hasDefined(FAILURE_DESCRIPTION)) {
+                context.getFailureDescription().set(result.get(FAILURE_DESCRIPTION));
+                return;
+            }
+            localModel = result.get(RESULT);
         }
 
         // Translate the local domain-model to a resource
         final Set<String> localExtensions = new HashSet<>();
-        final Resource transformedResource = ReadMasterDomainModelUtil.createResourceFromDomainModelOp(localModel.get(RESULT), localExtensions);
+        final Resource transformedResource = ReadMasterDomainModelUtil.createResourceFromDomainModelOp(localModel, localExtensions);
 
         // Create the local describe operations
         final OrderedChildTypesAttachment orderedChildTypesAttachment = new OrderedChildTypesAttachment();
@@ -23,7 +23,6 @@
 package org.jboss.as.domain.controller.operations.coordination;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CALLER_TYPE;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CANCELLED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.COMPOSITE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONCURRENT_GROUPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DOMAIN_FAILURE_DESCRIPTION;
@@ -36,12 +35,13 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLBACK_ACROSS_GROUPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLING_TO_SERVERS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLOUT_TIMING;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_OPERATIONS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STEPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.USER;
@@ -50,14 +50,13 @@ import static org.jboss.as.domain.controller.logging.DomainControllerLogger.HOST
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import org.jboss.as.controller.BlockingTimeout;
 import org.jboss.as.controller.CompositeOperationHandler;
@@ -80,7 +79,6 @@ import org.jboss.as.domain.controller.plan.ServerTaskExecutor;
 import org.jboss.as.host.controller.logging.HostControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
-import org.jboss.threads.AsyncFuture;
 
 /**
  * Formulates a rollout plan, invokes the proxies to execute it on the servers.
@@ -89,6 +87,10 @@ import org.jboss.threads.AsyncFuture;
  */
 public class DomainRolloutStepHandler implements OperationStepHandler {
 
+    /** Keys of the {@code rollout-timing} response header, all values in ms */
+    static final String PREPARE_TIME = "prepare-time";
+    static final String COMPLETION_TIME = "completion-time";
+
     private final MultiphaseOverallContext multiphaseContext;
     private final Map<String, ProxyController> hostProxies;
     private final Map<String, ProxyController> serverProxies;
@@ -189,6 +191,7 @@ public class DomainRolloutStepHandler implements OperationStepHandler {
     private void finalizeOp(final OperationContext context, final Map<ServerIdentity, ServerTaskExecutor.ExecutedServerRequest> submittedTasks,
                             final List<ServerTaskExecutor.ServerPreparedResponse> preparedResults, final BlockingTimeout blockingTimeout) {
 
+        final long start = System.nanoTime();
         boolean interrupted = false;
         // Inform the remote hosts whether to commit or roll back their updates
         // Do them all before reading results so the commits/rollbacks can be executed in parallel
@@ -240,75 +243,84 @@ public class DomainRolloutStepHandler implements OperationStepHandler {
             }
         }
         // Now read the final values. This ensures the operations are committed on the remote servers
-        // before we expose the servers to further requests
+        // before we expose the servers to further requests. Responses are handled in the order they
+        // arrive, with a single deadline shared by all servers since the commits/rollbacks went out together
 
+        final Map<ServerIdentity, Future<OperationResponse>> finalResults = new LinkedHashMap<ServerIdentity, Future<OperationResponse>>();
+        for (Map.Entry<ServerIdentity, ServerTaskExecutor.ExecutedServerRequest> entry : submittedTasks.entrySet()) {
+            finalResults.put(entry.getKey(), entry.getValue().getFinalResult());
+        }
         try {
             // If we've been interrupted, only wait 50 ms for a final response, otherwise wait the domain blocking timeout
-            // Before WFCORE-996 was analyzed, in the interrupted case we would wait 0 ms. 50 ms is a
-            // workaround attempt to avoid a race
-            int patient = interrupted ? 50 : blockingTimeout.getDomainBlockingTimeout(multiphaseContext.getLocalHostInfo().isMasterDomainController());
-            for (Map.Entry<ServerIdentity, ServerTaskExecutor.ExecutedServerRequest> entry : submittedTasks.entrySet()) {
-                final ServerTaskExecutor.ExecutedServerRequest request = entry.getValue();
-                final ServerIdentity sid = entry.getKey();
-                final Future<OperationResponse> future = request.getFinalResult();
-                try {
-                    final OperationResponse finalResponse = future.isCancelled()
-                            ? getCancelledResult()
-                            : future.get(patient, TimeUnit.MILLISECONDS);
-
-                    final ModelNode untransformedResponse = finalResponse.getResponseNode();
-                    HOST_CONTROLLER_LOGGER.tracef("Final response from %s is %s (untransformed)", sid, untransformedResponse);
-                    final ModelNode transformedResult = request.transformResult(untransformedResponse);
-
-                    // Make sure any streams associated with the remote response are properly
-                    // integrated with our response
-                    ResponseAttachmentInputStreamSupport.handleDomainOperationResponseStreams(context, transformedResult, finalResponse.getInputStreams());
-
-                    HOST_CONTROLLER_LOGGER.tracef("Transformed final response from %s is %s", sid, transformedResult);
-
-                    multiphaseContext.addServerResult(sid, transformedResult);
-                } catch (InterruptedException e) {
-                    cancelPreferAsync(future, true);
-                    interrupted = true;
-                    // We suppressed an interrupt, so don't block indefinitely waiting for other responses;
-                    // just grab them if they are already available
-                    patient = patient == 0 ? 0 : 50; // if we were already really impatient, we still are
-                    HOST_CONTROLLER_LOGGER.interruptedAwaitingFinalResponse(sid.getServerName(), sid.getHostName());
-                } catch (ExecutionException e) {
-                    cancelPreferAsync(future, true);
-                    HOST_CONTROLLER_LOGGER.caughtExceptionAwaitingFinalResponse(e.getCause(), sid.getServerName(), sid.getHostName());
-                } catch (TimeoutException e) {
-                    cancelPreferAsync(future, true);
+            final int patient = blockingTimeout.getDomainBlockingTimeout(multiphaseContext.getLocalHostInfo().isMasterDomainController());
+            interrupted = new FinalResponseCollector(finalResults).collect(patient, interrupted, new FinalResponseCollector.ResponseHandler() {
+                @Override
+                public void handleResponse(ServerIdentity server, OperationResponse response) {
+                    handleFinalResponse(context, server, submittedTasks.get(server), response);
+                }
+
+                @Override
+                public void handleFailure(ServerIdentity server, Throwable cause) {
+                    HOST_CONTROLLER_LOGGER.caughtExceptionAwaitingFinalResponse(cause, server.getServerName(), server.getHostName());
+                }
+
+                @Override
+                public void handleTimeout(ServerIdentity server, boolean interrupted) {
                     if (interrupted) {
-                        HOST_CONTROLLER_LOGGER.interruptedAwaitingFinalResponse(sid.getServerName(), sid.getHostName());
+                        HOST_CONTROLLER_LOGGER.interruptedAwaitingFinalResponse(server.getServerName(), server.getHostName());
                     } else {
-                        HOST_CONTROLLER_LOGGER.timedOutAwaitingFinalResponse(patient, sid.getServerName(), sid.getHostName());
+                        HOST_CONTROLLER_LOGGER.timedOutAwaitingFinalResponse(patient, server.getServerName(), server.getHostName());
                     }
-                    // we already waited at least the original 'patient' value since we sent out commit/rollback msgs;
-                    // don't need to wait so long any more
-                    patient = 0;
                 }
-            }
+            });
         } finally {
+            if (!submittedTasks.isEmpty()) {
+                setCompletionTiming(context.getResponseHeaders(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
-    private void cancelPreferAsync(Future<?> future, boolean mayInterruptIfRunning) {
-
-        if (future instanceof AsyncFuture) { // the normal case
-            ((AsyncFuture) future).asyncCancel(mayInterruptIfRunning);
-        } else { // the ServerRequireRestartTask case, where we're interrupting a thread executing an op locally
-            future.cancel(mayInterruptIfRunning);
+    /**
+     * Records the time of the server prepare phase in the {@code rollout-timing} response header.
+     *
+     * @param responseHeaders the response headers
+     * @param prepareTime the time in ms for the prepare phase of all server groups
+     * @param serverGroupPrepareTimes the time in ms for the prepare phase of each server group, in rollout order
+     */
+    static void setPrepareTiming(final ModelNode responseHeaders, final long prepareTime, final Map<String, Long> serverGroupPrepareTimes) {
+        final ModelNode timing = responseHeaders.get(ROLLOUT_TIMING);
+        timing.get(PREPARE_TIME).set(prepareTime);
+        for (Map.Entry<String, Long> entry : serverGroupPrepareTimes.entrySet()) {
+            timing.get(SERVER_GROUPS, entry.getKey()).set(entry.getValue());
         }
     }
 
-    private OperationResponse getCancelledResult() {
-        ModelNode cancelled = new ModelNode();
-        cancelled.get(OUTCOME).set(CANCELLED);
-        return OperationResponse.Factory.createSimple(cancelled);
+    /**
+     * Records the time of the server commit or rollback phase in the {@code rollout-timing} response header.
+     *
+     * @param responseHeaders the response headers
+     * @param completionTime the time in ms until the final responses were read
+     */
+    static void setCompletionTiming(final ModelNode responseHeaders, final long completionTime) {
+        responseHeaders.get(ROLLOUT_TIMING, COMPLETION_TIME).set(completionTime);
+    }
+
+    private void handleFinalResponse(final OperationContext context, final ServerIdentity sid,
+                                     final ServerTaskExecutor.ExecutedServerRequest request, final OperationResponse finalResponse) {
+        final ModelNode untransformedResponse = finalResponse.getResponseNode();
+        HOST_CONTROLLER_LOGGER.tracef("Final response from %s is %s (untransformed)", sid, untransformedResponse);
+        final ModelNode transformedResult = request.transformResult(untransformedResponse);
+
+        // Make sure any streams associated with the remote response are properly
+        // integrated with our response
+        ResponseAttachmentInputStreamSupport.handleDomainOperationResponseStreams(context, transformedResult, finalResponse.getInputStreams());
+
+        HOST_CONTROLLER_LOGGER.tracef("Transformed final response from %s is %s", sid, transformedResult);
+
+        multiphaseContext.addServerResult(sid, transformedResult);
     }
 
     private void pushToServers(final OperationContext context, final Map<ServerIdentity, ServerTaskExecutor.ExecutedServerRequest> submittedTasks,
@@ -332,6 +344,8 @@ public class DomainRolloutStepHandler implements OperationStepHandler {
             }
 
             final Transformers.TransformationInputs transformationInputs = Transformers.TransformationInputs.getOrCreate(context);
+            // TODO per host pipelining. Each server operation is transformed and sent to the host of the server as a
+            // request of its own; sending the operations for all the servers of a host as a single request is not done yet
             final ServerTaskExecutor taskExecutor = new ServerTaskExecutor(context, submittedTasks, preparedResults) {
 
                 @Override
@@ -365,7 +379,10 @@ public class DomainRolloutStepHandler implements OperationStepHandler {
             };
             RolloutPlanController rolloutPlanController = new RolloutPlanController(opsByGroup, rolloutPlan,
                     multiphaseContext, taskExecutor, executorService, blockingTimeout);
+            final long start = System.nanoTime();
             RolloutPlanController.Result planResult = rolloutPlanController.execute();
+            setPrepareTiming(context.getResponseHeaders(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    rolloutPlanController.getServerGroupPrepareTimes());
             if (trace) {
                 HOST_CONTROLLER_LOGGER.tracef("Rollout plan result is %s", planResult);
             }
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller.operations.coordination;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CANCELLED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.domain.controller.ServerIdentity;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+
+/**
+ * Reads the final responses of the servers involved in a domain operation in the order they arrive. The commit or
+ * rollback messages went out to all servers together, so all servers share a single deadline.
+ */
+final class FinalResponseCollector {
+
+    /** Callback for the outcome of each server's final response. */
+    interface ResponseHandler {
+
+        /**
+         * Handles the final response of a server. A cancelled request is reported with an outcome of {@code cancelled}.
+         *
+         * @param server the server
+         * @param response the response
+         */
+        void handleResponse(ServerIdentity server, OperationResponse response);
+
+        /**
+         * Handles a request that failed. The request has been cancelled.
+         *
+         * @param server the server
+         * @param cause the failure
+         */
+        void handleFailure(ServerIdentity server, Throwable cause);
+
+        /**
+         * Handles a request that did not complete before the deadline. The request has been cancelled.
+         *
+         * @param server the server
+         * @param interrupted whether the deadline was shortened because the thread was interrupted
+         */
+        void handleTimeout(ServerIdentity server, boolean interrupted);
+    }
+
+    /** If interrupted we no longer block, but still give responses that are about to arrive this many ms */
+    static final long INTERRUPTED_TIMEOUT = 50;
+
+    private final Map<ServerIdentity, Future<OperationResponse>> outstanding;
+    private final BlockingQueue<ServerIdentity> completed = new LinkedBlockingQueue<ServerIdentity>();
+
+    /**
+     * Creates a collector and starts tracking the completion of the given requests.
+     *
+     * @param finalResults the futures for the final response of each server
+     */
+    FinalResponseCollector(final Map<ServerIdentity, Future<OperationResponse>> finalResults) {
+        this.outstanding = new LinkedHashMap<ServerIdentity, Future<OperationResponse>>(finalResults);
+        for (Map.Entry<ServerIdentity, Future<OperationResponse>> entry : outstanding.entrySet()) {
+            final ServerIdentity sid = entry.getKey();
+            final Future<OperationResponse> future = entry.getValue();
+            if (future instanceof AsyncFuture) {
+                ((AsyncFuture<OperationResponse>) future).addListener(CompletionListener.INSTANCE, new Runnable() {
+                    @Override
+                    public void run() {
+                        completed.add(sid);
+                    }
+                });
+            } else {
+                // the ServerRequireRestartTask case; we can only block on it
+                completed.add(sid);
+            }
+        }
+    }
+
+    /**
+     * Hands every response to the handler as it arrives, until all servers responded or the deadline passed.
+     * Requests still outstanding at the deadline are used if their response raced in, and cancelled otherwise.
+     *
+     * @param timeout the time in ms all servers together have to respond
+     * @param interrupted whether the calling thread was already interrupted, in which case responses are
+     *                    only awaited for {@link #INTERRUPTED_TIMEOUT} ms. Before WFCORE-996 was analyzed we would
+     *                    wait 0 ms; the short wait is a workaround attempt to avoid a race
+     * @param handler the handler
+     * @return {@code true} if the thread was interrupted, either before or while collecting
+     */
+    boolean collect(final long timeout, boolean interrupted, final ResponseHandler handler) {
+        long deadline = System.currentTimeMillis() + (interrupted ? INTERRUPTED_TIMEOUT : timeout);
+        while (!outstanding.isEmpty()) {
+            final ServerIdentity sid;
+            try {
+                sid = completed.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                // We suppressed an interrupt, so don't block indefinitely waiting for other responses;
+                // just grab them if they are already available
+                deadline = Math.min(deadline, System.currentTimeMillis() + INTERRUPTED_TIMEOUT);
+                continue;
+            }
+            if (sid == null) {
+                break;
+            }
+            final Future<OperationResponse> future = outstanding.remove(sid);
+            if (future == null) {
+                continue;
+            }
+            try {
+                final OperationResponse finalResponse = future.isCancelled()
+                        ? getCancelledResult()
+                        : future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                handler.handleResponse(sid, finalResponse);
+            } catch (InterruptedException e) {
+                cancelPreferAsync(future);
+                interrupted = true;
+                deadline = Math.min(deadline, System.currentTimeMillis() + INTERRUPTED_TIMEOUT);
+                handler.handleTimeout(sid, true);
+            } catch (ExecutionException e) {
+                cancelPreferAsync(future);
+                handler.handleFailure(sid, e.getCause());
+            } catch (TimeoutException e) {
+                cancelPreferAsync(future);
+                handler.handleTimeout(sid, interrupted);
+            }
+        }
+        // Whatever is left did not complete in time; take any response that raced in, otherwise give up on it
+        for (Map.Entry<ServerIdentity, Future<OperationResponse>> entry : outstanding.entrySet()) {
+            final ServerIdentity sid = entry.getKey();
+            final Future<OperationResponse> future = entry.getValue();
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    handler.handleResponse(sid, future.get());
+                    continue;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    handler.handleFailure(sid, e.getCause());
+                    continue;
+                }
+            }
+            cancelPreferAsync(future);
+            handler.handleTimeout(sid, interrupted);
+        }
+        outstanding.clear();
+        return interrupted;
+    }
+
+    private static void cancelPreferAsync(final Future<?> future) {
+        if (future instanceof AsyncFuture) { // the normal case
+            ((AsyncFuture) future).asyncCancel(true);
+        } else { // the ServerRequireRestartTask case, where we're interrupting a thread executing an op locally
+            future.cancel(true);
+        }
+    }
+
+    private static OperationResponse getCancelledResult() {
+        ModelNode cancelled = new ModelNode();
+        cancelled.get(OUTCOME).set(CANCELLED);
+        return OperationResponse.Factory.createSimple(cancelled);
+    }
+
+    /** Runs the listener attachment once the future is done, whatever the outcome */
+    private static class CompletionListener implements AsyncFuture.Listener<Object, Runnable> {
+
+        private static final CompletionListener INSTANCE = new CompletionListener();
+
+        @Override
+        public void handleComplete(AsyncFuture<?> future, Runnable attachment) {
+            attachment.run();
+        }
+
+        @Override
+        public void handleFailed(AsyncFuture<?> future, Throwable cause, Runnable attachment) {
+            attachment.run();
+        }
+
+        @Override
+        public void handleCancelled(AsyncFuture<?> future, Runnable attachment) {
+            attachment.run();
+        }
+    }
+}
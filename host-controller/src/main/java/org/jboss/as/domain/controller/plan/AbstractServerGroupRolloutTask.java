@@ -30,6 +30,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUT
 import java.net.InetAddress;
 import java.security.PrivilegedAction;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.AccessAuditContext;
 import org.jboss.as.controller.BlockingTimeout;
@@ -56,6 +57,7 @@ abstract class AbstractServerGroupRolloutTask implements Runnable {
     protected final SecurityIdentity securityIdentity;
     protected final InetAddress sourceAddress;
     protected final BlockingTimeout blockingTimeout;
+    private volatile long prepareTime = -1;
 
     public AbstractServerGroupRolloutTask(List<ServerUpdateTask> tasks, ServerUpdatePolicy updatePolicy, ServerTaskExecutor executor, SecurityIdentity securityIdentity, InetAddress sourceAddress, BlockingTimeout blockingTimeout) {
         this.tasks = tasks;
@@ -73,7 +75,12 @@ abstract class AbstractServerGroupRolloutTask implements Runnable {
 
                 @Override
                 public Void run() {
-                    execute();
+                    final long start = System.nanoTime();
+                    try {
+                        execute();
+                    } finally {
+                        prepareTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
                     return null;
                 }
 
@@ -83,6 +90,19 @@ abstract class AbstractServerGroupRolloutTask implements Runnable {
         }
     }
 
+    /**
+     * Gets the time it took to send the operation to the servers in the group and gather their prepared results.
+     *
+     * @return the time in ms, or {@code -1} if the task did not run
+     */
+    long getPrepareTime() {
+        return prepareTime;
+    }
+
+    String getServerGroupName() {
+        return updatePolicy.getServerGroupName();
+    }
+
     /**
      * Execute the the rollout task.
      */
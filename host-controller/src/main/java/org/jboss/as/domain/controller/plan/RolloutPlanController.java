@@ -41,6 +41,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -71,6 +72,7 @@ public class RolloutPlanController {
     private final boolean rollbackAcrossGroups;
     private final RollingUpdateTask rootTask;
     private final Map<String, ServerUpdatePolicy> updatePolicies = new HashMap<String, ServerUpdatePolicy>();
+    private final List<AbstractServerGroupRolloutTask> groupTasks = new ArrayList<AbstractServerGroupRolloutTask>();
     private final boolean shutdown;
     private final long gracefulShutdownPeriod;
     private final MultiphaseOverallContext domainOperationContext;
@@ -124,7 +126,7 @@ public class RolloutPlanController {
                         continue;
                     }
 
-                    final List<ServerUpdateTask> groupTasks = new ArrayList<ServerUpdateTask>();
+                    final List<ServerUpdateTask> serverTasks = new ArrayList<ServerUpdateTask>();
                     final ModelNode policyNode = prop.getValue();
                     final boolean rollingGroup = policyNode.hasDefined(ROLLING_TO_SERVERS) && policyNode.get(ROLLING_TO_SERVERS).asBoolean();
 
@@ -141,13 +143,16 @@ public class RolloutPlanController {
 
                     SecurityIdentity securityIdentity = accessAuditContext != null ?  accessAuditContext.getSecurityIdentity() : null;
                     InetAddress sourceAddress = accessAuditContext != null ?  accessAuditContext.getRemoteAddress() : null;
-                    seriesTasks.add(rollingGroup ? new RollingServerGroupUpdateTask(groupTasks, policy, taskExecutor, securityIdentity, sourceAddress, blockingTimeout)
-                        : new ConcurrentServerGroupUpdateTask(groupTasks, policy, taskExecutor, securityIdentity, sourceAddress, blockingTimeout));
+                    final AbstractServerGroupRolloutTask groupTask = rollingGroup
+                        ? new RollingServerGroupUpdateTask(serverTasks, policy, taskExecutor, securityIdentity, sourceAddress, blockingTimeout)
+                        : new ConcurrentServerGroupUpdateTask(serverTasks, policy, taskExecutor, securityIdentity, sourceAddress, blockingTimeout);
+                    seriesTasks.add(groupTask);
+                    groupTasks.add(groupTask);
 
                     updatePolicies.put(serverGroupName, policy);
 
                     for (Map.Entry<ServerIdentity, ModelNode> entry : groupEntry.entrySet()) {
-                        groupTasks.add(createServerTask(entry.getKey(), entry.getValue(), policy));
+                        serverTasks.add(createServerTask(entry.getKey(), entry.getValue(), policy));
                     }
                 }
             }
@@ -155,6 +160,9 @@ public class RolloutPlanController {
     }
 
     public Result execute() {
+        // TODO prepare phase scatter-gather. Each server group task gathers the prepared results of its own servers,
+        // and the groups of a series are awaited one by one; gathering the prepared results of all groups as they
+        // arrive, while applying max-failed-servers and the rolling semantics, is not done yet
         this.rootTask.run();
 
         Result result = null;
@@ -175,6 +183,23 @@ public class RolloutPlanController {
         return result;
     }
 
+    /**
+     * Gets the time each server group took to reach its prepared state, in the order the groups were rolled out.
+     * Groups that were skipped are not included.
+     *
+     * @return map of server group name to prepare time in ms
+     */
+    public Map<String, Long> getServerGroupPrepareTimes() {
+        final Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (AbstractServerGroupRolloutTask task : groupTasks) {
+            final long prepareTime = task.getPrepareTime();
+            if (prepareTime > -1) {
+                result.put(task.getServerGroupName(), prepareTime);
+            }
+        }
+        return result;
+    }
+
     private ServerUpdateTask createServerTask(final ServerIdentity serverIdentity, final ModelNode serverOp,
                                               final ServerUpdatePolicy policy) {
         ServerUpdateTask result;
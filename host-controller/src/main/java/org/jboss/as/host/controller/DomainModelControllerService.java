@@ -135,6 +135,7 @@ import org.jboss.as.controller.registry.ResourceProvider;
 import org.jboss.as.controller.services.path.PathManagerService;
 import org.jboss.as.controller.transform.Transformers;
 import org.jboss.as.domain.controller.DomainController;
+import org.jboss.as.domain.controller.DomainModelJournal;
 import org.jboss.as.domain.controller.HostConnectionInfo;
 import org.jboss.as.domain.controller.HostConnectionInfo.Event;
 import org.jboss.as.domain.controller.HostRegistrations;
@@ -488,6 +489,11 @@ public class DomainModelControllerService extends AbstractControllerService impl
         }
     }
 
+    @Override
+    public DomainModelJournal getDomainModelJournal() {
+        return hostControllerConfigurationPersister.getDomainModelJournal();
+    }
+
     @Override
     public ModelNode getProfileOperations(String profileName) {
         ModelNode operation = new ModelNode();
@@ -39,6 +39,7 @@ import org.jboss.as.controller.persistence.ConfigurationFile;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
+import org.jboss.as.domain.controller.DomainModelJournal;
 import org.jboss.as.domain.controller.LocalHostControllerInfo;
 import org.jboss.as.host.controller.logging.HostControllerLogger;
 import org.jboss.dmr.ModelNode;
@@ -60,6 +61,7 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
     private final ExtensionRegistry hostExtensionRegistry;
     private final ExtensionRegistry extensionRegistry;
     private Boolean slave;
+    private volatile DomainModelJournal domainModelJournal;
 
     public HostControllerConfigurationPersister(final HostControllerEnvironment environment, final LocalHostControllerInfo localHostControllerInfo,
                                                 final ExecutorService executorService, final ExtensionRegistry hostExtensionRegistry, final ExtensionRegistry extensionRegistry) {
@@ -115,6 +117,7 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
                         runningModeControl.getAndClearNewDomainBootFileName());
             }
             domainPersister = ConfigurationPersisterFactory.createDomainXmlConfigurationPersister(domainConfigurationFile, executorService, extensionRegistry, environment);
+            domainModelJournal = DomainModelJournal.create();
         }
         // Store this back to environment so mgmt api that exposes it can still work
         environment.setDomainConfigurationFile(domainConfigurationFile);
@@ -136,6 +139,15 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
         return domainPersister;
     }
 
+    /**
+     * Gets the journal of the changes to the domain model.
+     *
+     * @return the journal, or {@code null} if this is not the master host controller
+     */
+    public DomainModelJournal getDomainModelJournal() {
+        return domainModelJournal;
+    }
+
     public ExtensibleConfigurationPersister getHostPersister() {
         return hostPersister;
     }
@@ -165,6 +177,10 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
                 }
                 if (delegates[1] != null) {
                     delegates[1].commit();
+                    final DomainModelJournal journal = domainModelJournal;
+                    if (journal != null) {
+                        journal.recordChange(affectedAddresses);
+                    }
                 }
             }
 
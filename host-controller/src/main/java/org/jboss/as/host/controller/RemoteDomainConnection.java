@@ -43,13 +43,16 @@ import javax.security.auth.callback.CallbackHandler;
 
 import org.jboss.as.controller.RunningMode;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.remote.CompactModelCodec;
 import org.jboss.as.controller.remote.TransactionalProtocolClient;
 import org.jboss.as.domain.controller.SlaveRegistrationException;
+import org.jboss.as.domain.controller.operations.ReadMasterDomainModelUtil;
 import org.jboss.as.domain.management.CallbackHandlerFactory;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.host.controller.discovery.DiscoveryOption;
 import org.jboss.as.host.controller.discovery.RemoteDomainControllerConnectionConfiguration;
 import org.jboss.as.host.controller.logging.HostControllerLogger;
+import org.jboss.as.host.controller.mgmt.ContentChunkRequestAndHandler;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
 import org.jboss.as.protocol.ProtocolConnectionConfiguration;
 import org.jboss.as.protocol.ProtocolConnectionManager;
@@ -65,6 +68,8 @@ import org.jboss.as.protocol.mgmt.ManagementPongRequestHandler;
 import org.jboss.as.protocol.mgmt.ManagementRequestContext;
 import org.jboss.as.remoting.management.ManagementRemotingServices;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.remoting3.Attachments;
 import org.jboss.remoting3.Channel;
 import org.jboss.remoting3.Connection;
 import org.jboss.threads.AsyncFuture;
@@ -79,6 +84,11 @@ import org.wildfly.security.manager.WildFlySecurityManager;
  */
 class RemoteDomainConnection extends FutureManagementChannel {
 
+    /**
+     * Attached to the channel handler if the DC serves deployment content as chunks.
+     */
+    static final Attachments.Key<Boolean> CHUNKED_CONTENT = new Attachments.Key<>(Boolean.class);
+
     private static final String CHANNEL_SERVICE_TYPE = ManagementRemotingServices.DOMAIN_CHANNEL;
     private static final long INTERVAL;
     private static final long TIMEOUT;
@@ -259,6 +269,8 @@ class RemoteDomainConnection extends FutureManagementChannel {
     protected Future<Connection> reconnect() {
         // Reset the connection state
         channelHandler.getAttachments().removeAttachment(TransactionalProtocolClient.SEND_IDENTITY);
+        channelHandler.getAttachments().removeAttachment(TransactionalProtocolClient.COMPACT_MODEL);
+        channelHandler.getAttachments().removeAttachment(CHUNKED_CONTENT);
         return executorService.submit(new Callable<Connection>() {
             @Override
             public Connection call() throws Exception {
@@ -321,8 +333,16 @@ class RemoteDomainConnection extends FutureManagementChannel {
         if(! result.hasDefined(ModelDescriptionConstants.RESULT)) {
             return false;
         }
-        final List<ModelNode> bootOperations= result.get(ModelDescriptionConstants.RESULT).asList();
-        return callback.applyDomainModel(bootOperations);
+        final ModelNode domainModel = result.get(ModelDescriptionConstants.RESULT);
+        if (domainModel.getType() == ModelType.OBJECT) {
+            // The master keeps a journal of the domain model, and may only have sent the changed resources
+            final List<ModelNode> bootOperations = domainModel.get(ModelDescriptionConstants.DOMAIN_MODEL).asList();
+            final ModelNode changes = domainModel.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_CHANGES);
+            return callback.applyDomainModel(bootOperations, changes.isDefined() ? changes : null,
+                    domainModel.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).asString());
+        }
+        final List<ModelNode> bootOperations= domainModel.asList();
+        return callback.applyDomainModel(bootOperations, null, null);
     }
 
     void registered() {
@@ -348,9 +368,12 @@ class RemoteDomainConnection extends FutureManagementChannel {
          * Apply the remote domain model.
          *
          * @param result the read-domain-model operation result
+         * @param changes the changed top level resources if the result only describes those, {@code null} if it describes
+         *                the complete domain model
+         * @param domainModelVersion the version of the domain model, or {@code null} if the master does not provide it
          * @return {@code true} if the model was applied successfully, {@code false} otherwise
          */
-        boolean applyDomainModel(List<ModelNode> result);
+        boolean applyDomainModel(List<ModelNode> result, ModelNode changes, String domainModelVersion);
 
         /**
          * Event that the registration was completed.
@@ -453,14 +476,23 @@ class RemoteDomainConnection extends FutureManagementChannel {
          public void handleRequest(final DataInput input, final ActiveOperation.ResultHandler<Void> resultHandler, final ManagementRequestContext<Void> context) throws IOException {
              byte param = input.readByte();
              // If it failed
-             if(param != DomainControllerProtocol.PARAM_OK) {
+             final ModelNode domainModel;
+             if (param == DomainControllerProtocol.PARAM_OK_COMPACT) {
+                 // The DC supports the compact encoding, use it for the operations we send it as well
+                 domainModel = CompactModelCodec.read(input);
+                 channelHandler.getAttachments().attach(TransactionalProtocolClient.COMPACT_MODEL, Boolean.TRUE);
+             } else if (param == DomainControllerProtocol.PARAM_OK) {
+                 domainModel = new ModelNode();
+                 domainModel.readExternal(input);
+             } else {
                  final byte errorCode = input.readByte();
                  final String message =  input.readUTF();
                  resultHandler.failed(new SlaveRegistrationException(SlaveRegistrationException.ErrorCode.parseCode(errorCode), message));
                  return;
              }
-             final ModelNode domainModel = new ModelNode();
-             domainModel.readExternal(input);
+             if (ContentChunkRequestAndHandler.readChunkedContentSupported(input)) {
+                 channelHandler.getAttachments().attach(CHUNKED_CONTENT, Boolean.TRUE);
+             }
              context.executeAsync(new ManagementRequestContext.AsyncTask<Void>() {
                  @Override
                  public void execute(ManagementRequestContext<Void> voidManagementRequestContext) throws Exception {
@@ -42,6 +42,10 @@ import java.io.DataInput;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +86,7 @@ import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.LocalHostControllerInfo;
 import org.jboss.as.domain.controller.SlaveRegistrationException;
 import org.jboss.as.domain.controller.operations.FetchMissingConfigurationHandler;
+import org.jboss.as.domain.controller.operations.ReadMasterDomainModelUtil;
 import org.jboss.as.domain.controller.operations.SyncDomainModelOperationHandler;
 import org.jboss.as.domain.controller.operations.SyncServerGroupOperationHandler;
 import org.jboss.as.domain.controller.operations.coordination.DomainControllerLockIdUtils;
@@ -91,6 +96,8 @@ import org.jboss.as.host.controller.discovery.DiscoveryOption;
 import org.jboss.as.host.controller.discovery.RemoteDomainControllerConnectionConfiguration;
 import org.jboss.as.host.controller.ignored.IgnoredDomainResourceRegistry;
 import org.jboss.as.host.controller.logging.HostControllerLogger;
+import org.jboss.as.host.controller.mgmt.ContentChunkRequestAndHandler;
+import org.jboss.as.host.controller.mgmt.ContentChunkRequestAndHandler.ManifestEntry;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
 import org.jboss.as.host.controller.mgmt.DomainRemoteFileRequestAndHandler;
 import org.jboss.as.host.controller.mgmt.HostControllerRegistrationHandler;
@@ -103,9 +110,11 @@ import org.jboss.as.protocol.mgmt.FlushableDataOutput;
 import org.jboss.as.protocol.mgmt.ManagementChannelHandler;
 import org.jboss.as.protocol.mgmt.ManagementRequestContext;
 import org.jboss.as.remoting.management.ManagementRemotingServices;
+import org.jboss.as.repository.ContentChunkStore;
 import org.jboss.as.repository.ContentReference;
 import org.jboss.as.repository.ContentRepository;
 import org.jboss.as.repository.HostFileRepository;
+import org.jboss.as.repository.PathUtil;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.CannotCreateLocalDirectoryException;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.DidNotReadEntireFileException;
 import org.jboss.as.version.ProductConfig;
@@ -142,6 +151,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private static final int CONNECTION_TIMEOUT_DEFAULT = 30000;
     private static final String CONNECTION_TIMEOUT_PROPERTY = "jboss.host.domain.connection.timeout";
     private static final int CONNECTION_TIMEOUT = getSystemProperty(CONNECTION_TIMEOUT_PROPERTY, CONNECTION_TIMEOUT_DEFAULT);
+    private static final long CONTENT_CHUNKS_MAX_SIZE_DEFAULT = 1024L * 1024L * 1024L;
+    private static final String CONTENT_CHUNKS_MAX_SIZE_PROPERTY = "jboss.host.domain.content-chunks.max-size";
+    private static final long CONTENT_CHUNKS_MAX_SIZE = getSystemProperty(CONTENT_CHUNKS_MAX_SIZE_PROPERTY, CONTENT_CHUNKS_MAX_SIZE_DEFAULT);
 
     //private static final ModelNode APPLY_EXTENSIONS = new ModelNode();
     private static final ModelNode APPLY_DOMAIN_MODEL = new ModelNode();
@@ -178,6 +190,7 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private final HostControllerEnvironment hostControllerEnvironment;
     private final RunningMode runningMode;
     private final File tempDir;
+    private final ContentChunkStore contentChunkStore;
     private final Map<String, ProxyController> serverProxies;
 
     /** Used to invoke ModelController ops on the master */
@@ -196,6 +209,8 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private ManagementChannelHandler handler;
     private volatile ResponseAttachmentInputStreamSupport responseAttachmentSupport;
     private volatile RemoteDomainConnection connection;
+    /** The version of the domain model last applied, as provided by the master */
+    private volatile String domainModelVersion;
 
     private RemoteDomainConnectionService(final ModelController controller,
                                           final ExtensionRegistry extensionRegistry,
@@ -224,6 +239,7 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         this.executor = executor;
         this.runningMode = runningMode;
         this.tempDir = hostControllerEnvironment.getDomainTempDir();
+        this.contentChunkStore = new ContentChunkStore(new File(hostControllerEnvironment.getDomainDataDir(), "content-chunks"), CONTENT_CHUNKS_MAX_SIZE);
         this.serverProxies = serverProxies;
         this.domainConfigAvailable = domainConfigAvailable;
     }
@@ -531,7 +547,11 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                  */
                 @Override
                 public ModelNode createLocalHostInfo() {
-                    return HostInfo.createLocalHostHostInfo(localHostInfo, productConfig, ignoredDomainResourceRegistry, ReadRootResourceHandler.grabDomainResource(operationExecutor).getChildren(HOST).iterator().next());
+                    final ModelNode info = HostInfo.createLocalHostHostInfo(localHostInfo, productConfig, ignoredDomainResourceRegistry, ReadRootResourceHandler.grabDomainResource(operationExecutor).getChildren(HOST).iterator().next());
+                    // Let the master only send the changes since the last applied version
+                    final String version = domainModelVersion;
+                    info.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).set(version != null ? version : "");
+                    return info;
                 }
 
                 @Override
@@ -540,10 +560,15 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                 }
 
                 @Override
-                public boolean applyDomainModel(final List<ModelNode> bootOperations) {
+                public boolean applyDomainModel(final List<ModelNode> bootOperations, final ModelNode changes, final String version) {
                     // Apply the model..
                     final HostInfo info = HostInfo.fromModelNode(createLocalHostInfo());
-                    return applyRemoteDomainModel(bootOperations, info);
+                    domainModelVersion = null;
+                    final boolean applied = applyRemoteDomainModel(bootOperations, changes, info);
+                    if (applied) {
+                        domainModelVersion = version;
+                    }
+                    return applied;
                 }
 
                 @Override
@@ -587,9 +612,10 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
      * Apply the remote domain model to the local host controller.
      *
      * @param bootOperations the result of the remote read-domain-model op
+     * @param changes the changed top level resources if {@code bootOperations} only describes those, {@code null} otherwise
      * @return {@code true} if the model was applied successfully, {@code false} otherwise
      */
-    private boolean applyRemoteDomainModel(final List<ModelNode> bootOperations, final HostInfo hostInfo) {
+    private boolean applyRemoteDomainModel(final List<ModelNode> bootOperations, final ModelNode changes, final HostInfo hostInfo) {
         try {
             HostControllerLogger.ROOT_LOGGER.debug("Applying domain level boot operations provided by master");
             SyncModelParameters parameters =
@@ -599,6 +625,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                     new SyncDomainModelOperationHandler(hostInfo, parameters);
             final ModelNode operation = APPLY_DOMAIN_MODEL.clone();
             operation.get(DOMAIN_MODEL).set(bootOperations);
+            if (changes != null) {
+                operation.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_CHANGES).set(changes);
+            }
 
             final ModelNode result = operationExecutor.execute(OperationBuilder.create(operation).build(), OperationMessageHandler.DISCARD, ModelController.OperationTransactionControl.COMMIT, handler);
 
@@ -753,6 +782,59 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     }
 
+    private class GetContentManifestRequest extends AbstractManagementRequest<List<ManifestEntry>, Void> {
+        private final String hash;
+
+        private GetContentManifestRequest(final String hash) {
+            this.hash = hash;
+        }
+
+        @Override
+        public byte getOperationType() {
+            return DomainControllerProtocol.GET_CONTENT_CHUNKS_REQUEST;
+        }
+
+        @Override
+        protected void sendRequest(ActiveOperation.ResultHandler<List<ManifestEntry>> resultHandler, ManagementRequestContext<Void> context, FlushableDataOutput output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(localHostInfo.getLocalHostName());
+            ContentChunkRequestAndHandler.sendRequest(output, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, hash, Collections.<byte[]>emptyList());
+        }
+
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<List<ManifestEntry>> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            resultHandler.done(ContentChunkRequestAndHandler.readManifest(input));
+        }
+    }
+
+    private class GetContentChunksRequest extends AbstractManagementRequest<Void, Void> {
+        private final String hash;
+        private final List<byte[]> chunks;
+
+        private GetContentChunksRequest(final String hash, final List<byte[]> chunks) {
+            this.hash = hash;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public byte getOperationType() {
+            return DomainControllerProtocol.GET_CONTENT_CHUNKS_REQUEST;
+        }
+
+        @Override
+        protected void sendRequest(ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context, FlushableDataOutput output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(localHostInfo.getLocalHostName());
+            ContentChunkRequestAndHandler.sendRequest(output, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, hash, chunks);
+        }
+
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            ContentChunkRequestAndHandler.readChunks(input, chunks.size(), contentChunkStore);
+            resultHandler.done(null);
+        }
+    }
+
     static class RemoteFileRepository implements HostFileRepository {
         private final HostFileRepository localFileRepository;
         private volatile RemoteFileRepositoryExecutor remoteFileRepositoryExecutor;
@@ -807,6 +889,16 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private final RemoteFileRepositoryExecutor remoteFileRepositoryExecutor = new RemoteFileRepositoryExecutor() {
         public File getFile(final String relativePath, final byte repoId, HostFileRepository localFileRepository) {
             if(connection.isConnected()) {
+                // Only if the master said it serves chunks when we registered, older masters have no handler for them
+                if (repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT
+                        && Boolean.TRUE.equals(handler.getAttachments().getAttachment(RemoteDomainConnection.CHUNKED_CONTENT))) {
+                    try {
+                        final List<ManifestEntry> manifest = handler.executeRequest(new GetContentManifestRequest(relativePath), null).getResult().get();
+                        return getContentChunks(relativePath, manifest, localFileRepository);
+                    } catch (Exception e) {
+                        throw HostControllerLogger.ROOT_LOGGER.failedToGetFileFromRemoteRepository(e);
+                    }
+                }
                 try {
                     return handler.executeRequest(new GetFileRequest(repoId, relativePath, localFileRepository), null).getResult().get();
                 } catch (Exception e) {
@@ -825,6 +917,53 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     };
 
+    /**
+     * Gets the chunks of deployment content missing from the chunk store, then writes the content files from the
+     * store. Chunks are stored as they arrive, so a failed transfer resumes with the chunks it did not get.
+     */
+    private File getContentChunks(final String hash, final List<ManifestEntry> manifest, final HostFileRepository localFileRepository) throws Exception {
+        final File localPath = localFileRepository.getDeploymentRoot(new ContentReference(hash, HashUtil.hexStringToByteArray(hash)));
+        if (manifest == null) {
+            // Not found on DC
+            return localPath;
+        }
+        final List<byte[]> missing = ContentChunkRequestAndHandler.getMissingChunks(manifest, contentChunkStore);
+        ROOT_LOGGER.debugf("Getting %d chunks of %s", missing.size(), hash);
+        for (int i = 0; i < missing.size(); i += ContentChunkRequestAndHandler.MAX_CHUNKS_PER_REQUEST) {
+            final List<byte[]> chunks = missing.subList(i, Math.min(missing.size(), i + ContentChunkRequestAndHandler.MAX_CHUNKS_PER_REQUEST));
+            handler.executeRequest(new GetContentChunksRequest(hash, chunks), null).getResult().get();
+        }
+        // Write the content next to its final location, so incomplete content is never mistaken for the real thing
+        final File parent = localPath.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw HostControllerLogger.ROOT_LOGGER.cannotCreateLocalDirectory(parent);
+        }
+        final Path tmp = Files.createTempDirectory(parent.toPath(), localPath.getName());
+        try {
+            for (ManifestEntry entry : manifest) {
+                final File file = new File(tmp.toFile(), entry.getPath());
+                if (entry.isDirectory()) {
+                    if (!file.isDirectory() && !file.mkdirs()) {
+                        throw HostControllerLogger.ROOT_LOGGER.cannotCreateLocalDirectory(file);
+                    }
+                } else {
+                    contentChunkStore.assemble(entry.getHashes(), file);
+                }
+            }
+            try {
+                Files.move(tmp, localPath.toPath());
+            } catch (FileAlreadyExistsException e) {
+                // Got concurrently, and content with the same hash is the same
+            }
+        } finally {
+            if (Files.exists(tmp)) {
+                PathUtil.deleteRecursively(tmp);
+            }
+        }
+        contentChunkStore.trim();
+        return localPath;
+    }
+
     private void setupHandler() {
         // Setup the transaction protocol handler
         handler.addHandlerFactory(new TransactionalProtocolOperationHandler(controller, handler, responseAttachmentSupport));
@@ -853,6 +992,15 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     }
 
+    private static long getSystemProperty(final String name, final long defaultValue) {
+        final String value = WildFlySecurityManager.getPropertyPrivileged(name, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            return defaultValue;
+        }
+    }
+
     private static class ReadRootResourceHandler implements OperationStepHandler {
         private Resource resource;
 
@@ -1452,4 +1452,15 @@ public interface HostControllerLogger extends BasicLogger {
     @Message(id = 215, value = "Could not find java executable under %s.")
     IllegalStateException cannotFindJavaExe(String binDir);
 
+    /**
+     * Creates an exception indicating a requested content chunk could not be found.
+     *
+     * @param hash the hash of the chunk.
+     * @param path the path of the content.
+     *
+     * @return a {@link RequestProcessingException} for the error.
+     */
+    @Message(id = 216, value = "Content chunk %s was not found in %s")
+    RequestProcessingException contentChunkNotFound(String hash, String path);
+
 }
@@ -0,0 +1,531 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import static org.jboss.as.protocol.mgmt.ProtocolUtils.expectHeader;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.host.controller.logging.HostControllerLogger;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ActiveOperation;
+import org.jboss.as.protocol.mgmt.FlushableDataOutput;
+import org.jboss.as.protocol.mgmt.ManagementRequestContext;
+import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
+import org.jboss.as.protocol.mgmt.RequestProcessingException;
+import org.jboss.as.repository.ContentChunkStore;
+import org.jboss.as.repository.ContentChunks;
+import org.jboss.as.repository.RemoteFileRequestAndHandler.RootFileReader;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Protocol code for getting content from the master to a slave HC as content-addressed chunks.
+ * <p>
+ * The slave first asks for the manifest of the content, which lists each file with the hashes of its
+ * {@link ContentChunks chunks}, and then asks only for the chunks missing from its {@link ContentChunkStore}.
+ * Received chunks are kept, so an interrupted transfer resumes with the chunks it did not get yet, and chunks
+ * shared with content received earlier are not sent again. The bandwidth used for sending chunks to a host can be
+ * limited with the {@value #MAX_BYTES_PER_SECOND_PROPERTY} system property.
+ * </p>
+ * <p>
+ * Content is chunked once when its manifest is requested, and the resulting index of chunk locations is kept for the
+ * requests for its chunks that follow. Repository content is immutable, so the indexes are shared by all hosts and
+ * only dropped, least recently used first, once they hold more than {@value #MAX_INDEXED_CHUNKS} chunks.
+ * </p>
+ */
+public class ContentChunkRequestAndHandler {
+
+    /** The largest number of chunks to ask for in one request */
+    public static final int MAX_CHUNKS_PER_REQUEST = 32;
+
+    private static final String MAX_BYTES_PER_SECOND_PROPERTY = "jboss.domain.content-transfer.max-bytes-per-second";
+    private static final long MAX_BYTES_PER_SECOND = getMaxBytesPerSecond();
+    private static final int HASH_LENGTH = 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** About 16 GiB of content at the average chunk size */
+    private static final int MAX_INDEXED_CHUNKS = 64 * 1024;
+
+    /** The indexes of recently requested content, by content root. Guarded by itself */
+    private static final Map<File, ContentIndex> INDEXES = new LinkedHashMap<>(16, 0.75f, true);
+    /** The number of chunks held by {@link #INDEXES}. Guarded by {@link #INDEXES} */
+    private static int indexedChunks;
+
+    private final Executor asyncExecutor;
+    private final TransferLimiter limiter;
+
+    /**
+     * @param asyncExecutor the executor used to write responses. Chunks sent by the handler share one bandwidth
+     *                      limit, so the handler should be used for the requests of a single host
+     */
+    public ContentChunkRequestAndHandler(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        this.limiter = MAX_BYTES_PER_SECOND > 0 ? new TransferLimiter(MAX_BYTES_PER_SECOND) : null;
+    }
+
+    /**
+     * Writes a request for the manifest of the content, or for chunks of the content.
+     *
+     * @param output the output
+     * @param rootId the id of the root of the content
+     * @param filePath the path of the content
+     * @param hashes the hashes of the chunks, or an empty list to get the manifest
+     * @throws IOException if the request could not be written
+     */
+    public static void sendRequest(FlushableDataOutput output, byte rootId, String filePath, List<byte[]> hashes) throws IOException {
+        output.writeByte(DomainControllerProtocol.PARAM_ROOT_ID);
+        output.writeByte(rootId);
+        output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+        output.writeUTF(filePath);
+        output.writeByte(DomainControllerProtocol.PARAM_NUM_CHUNKS);
+        output.writeInt(hashes.size());
+        for (byte[] hash : hashes) {
+            output.write(hash);
+        }
+    }
+
+    /**
+     * Reads whether the master serves deployment content as chunks, from the response to a registration which
+     * announced {@link HostInfo#CHUNKED_CONTENT}. Follows the domain model.
+     *
+     * @param input the input
+     * @return {@code true} if content can be requested as chunks
+     * @throws IOException if the response could not be read
+     */
+    public static boolean readChunkedContentSupported(DataInput input) throws IOException {
+        // A master that predates chunked content ignores the flag and ends the response after the domain model
+        return input.readByte() == DomainControllerProtocol.PARAM_CHUNKED_CONTENT;
+    }
+
+    /**
+     * Reads the response to a request for the manifest.
+     *
+     * @param input the input
+     * @return the files of the content, or {@code null} if the content was not found on the master
+     * @throws IOException if the response could not be read
+     */
+    public static List<ManifestEntry> readManifest(DataInput input) throws IOException {
+        expectHeader(input, DomainControllerProtocol.PARAM_NUM_FILES);
+        final int numFiles = input.readInt();
+        if (numFiles < 0) {
+            return null;
+        }
+        final List<ManifestEntry> entries = new ArrayList<>(numFiles);
+        for (int i = 0; i < numFiles; i++) {
+            expectHeader(input, DomainControllerProtocol.FILE_START);
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+            final String path = input.readUTF();
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_SIZE);
+            final long size = input.readLong();
+            expectHeader(input, DomainControllerProtocol.PARAM_NUM_CHUNKS);
+            final int numChunks = input.readInt();
+            final List<byte[]> hashes = new ArrayList<>(numChunks);
+            for (int j = 0; j < numChunks; j++) {
+                hashes.add(readHash(input));
+            }
+            expectHeader(input, DomainControllerProtocol.FILE_END);
+            entries.add(new ManifestEntry(path, size, hashes));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the response to a request for chunks, adding the chunks to a store.
+     *
+     * @param input the input
+     * @param numChunks the number of chunks requested
+     * @param store the store
+     * @throws IOException if the response could not be read, or a chunk could not be stored
+     */
+    public static void readChunks(DataInput input, int numChunks, ContentChunkStore store) throws IOException {
+        for (int i = 0; i < numChunks; i++) {
+            expectHeader(input, DomainControllerProtocol.PARAM_CHUNK);
+            final byte[] hash = readHash(input);
+            final int length = input.readInt();
+            store.storeChunk(hash, input, length);
+        }
+    }
+
+    public void handleRequest(final DataInput input, final RootFileReader reader,
+                              final ActiveOperation.ResultHandler<Void> resultHandler,
+                              final ManagementRequestContext<Void> context) throws IOException {
+        final ChunkRequest request = ChunkRequest.read(input);
+
+        final ManagementRequestContext.AsyncTask<Void> task = new ManagementRequestContext.AsyncTask<Void>() {
+            @Override
+            public void execute(ManagementRequestContext<Void> context) throws RequestProcessingException, IOException {
+                final File root = reader.readRootFile(request.rootId, request.filePath);
+                FlushableDataOutput output = context.writeMessage(ManagementResponseHeader.create(context.getRequestHeader()));
+                try {
+                    writeResponse(root, request.filePath, request.hashes, output);
+                    output.close();
+                    resultHandler.done(null); // call stack (AsyncTaskRunner created by ManagementRequestContext) handles failures
+                } finally {
+                    StreamUtils.safeClose(output);
+                }
+            }
+        };
+
+        if (asyncExecutor == null) {
+            context.executeAsync(task);
+        } else {
+            context.executeAsync(task, asyncExecutor);
+        }
+    }
+
+    /**
+     * Writes the response to a request for the manifest of some content, or for chunks of it.
+     *
+     * @param root the root of the content, or {@code null} if it does not exist
+     * @param filePath the path of the content, as requested
+     * @param hashes the hashes of the chunks requested, or an empty list for the manifest
+     * @param output the output
+     * @throws IOException if the content could not be read or the response written
+     * @throws RequestProcessingException if a chunk is not part of the content
+     */
+    void writeResponse(final File root, final String filePath, final List<byte[]> hashes, final DataOutput output) throws IOException, RequestProcessingException {
+        final ContentIndex index = root == null || !root.exists() ? null : getIndex(root);
+        if (hashes.isEmpty()) {
+            writeManifest(index, output);
+        } else {
+            // Find all chunks before writing, so a missing one fails the request rather than truncating the response
+            writeChunks(locateChunks(index, filePath, hashes), output);
+        }
+    }
+
+    /**
+     * Gets the chunks missing from a store, in the order of the manifest and without duplicates.
+     *
+     * @param manifest the manifest of the content
+     * @param store the store
+     * @return the hashes of the missing chunks
+     */
+    public static List<byte[]> getMissingChunks(final List<ManifestEntry> manifest, final ContentChunkStore store) {
+        final Set<String> requested = new HashSet<>();
+        final List<byte[]> missing = new ArrayList<>();
+        for (ManifestEntry entry : manifest) {
+            for (byte[] chunk : entry.getHashes()) {
+                if (!store.hasChunk(chunk) && requested.add(HashUtil.bytesToHexString(chunk))) {
+                    missing.add(chunk);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static void writeManifest(final ContentIndex index, final DataOutput output) throws IOException {
+        output.writeByte(DomainControllerProtocol.PARAM_NUM_FILES);
+        if (index == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(index.entries.size());
+        for (ManifestEntry entry : index.entries) {
+            output.writeByte(DomainControllerProtocol.FILE_START);
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+            output.writeUTF(entry.path);
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_SIZE);
+            output.writeLong(entry.size);
+            output.writeByte(DomainControllerProtocol.PARAM_NUM_CHUNKS);
+            output.writeInt(entry.hashes.size());
+            for (byte[] hash : entry.hashes) {
+                output.write(hash);
+            }
+            output.writeByte(DomainControllerProtocol.FILE_END);
+        }
+    }
+
+    private void writeChunks(final List<ChunkLocation> locations, final DataOutput output) throws IOException {
+        final Map<File, RandomAccessFile> openFiles = new HashMap<>();
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            for (ChunkLocation location : locations) {
+                RandomAccessFile file = openFiles.get(location.file);
+                if (file == null) {
+                    file = new RandomAccessFile(location.file, "r");
+                    openFiles.put(location.file, file);
+                }
+                output.writeByte(DomainControllerProtocol.PARAM_CHUNK);
+                output.write(location.chunk.getHash());
+                output.writeInt(location.chunk.getLength());
+                file.seek(location.chunk.getOffset());
+                int remaining = location.chunk.getLength();
+                while (remaining > 0) {
+                    final int len = Math.min(remaining, buffer.length);
+                    file.readFully(buffer, 0, len);
+                    if (limiter != null) {
+                        limiter.acquire(len);
+                    }
+                    output.write(buffer, 0, len);
+                    remaining -= len;
+                }
+            }
+        } finally {
+            for (RandomAccessFile file : openFiles.values()) {
+                StreamUtils.safeClose(file);
+            }
+        }
+    }
+
+    private static List<ChunkLocation> locateChunks(final ContentIndex index, final String filePath, final List<byte[]> hashes) throws RequestProcessingException {
+        final List<ChunkLocation> locations = new ArrayList<>(hashes.size());
+        for (byte[] hash : hashes) {
+            final String hex = HashUtil.bytesToHexString(hash);
+            final ChunkLocation location = index == null ? null : index.locations.get(hex);
+            if (location == null) {
+                throw HostControllerLogger.ROOT_LOGGER.contentChunkNotFound(hex, filePath);
+            }
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Gets the index of some content, chunking it if it is not indexed yet.
+     */
+    static ContentIndex getIndex(final File root) throws IOException {
+        synchronized (INDEXES) {
+            final ContentIndex index = INDEXES.get(root);
+            if (index != null) {
+                return index;
+            }
+        }
+        // Chunk without holding the lock. Content requested by several hosts at once may be chunked more than once,
+        // but it is the same each time.
+        final ContentIndex index = new ContentIndex(root);
+        synchronized (INDEXES) {
+            final ContentIndex previous = INDEXES.put(root, index);
+            if (previous != null) {
+                indexedChunks -= previous.locations.size();
+            }
+            indexedChunks += index.locations.size();
+            final Iterator<ContentIndex> eldest = INDEXES.values().iterator();
+            while (indexedChunks > MAX_INDEXED_CHUNKS && INDEXES.size() > 1) {
+                indexedChunks -= eldest.next().locations.size();
+                eldest.remove();
+            }
+        }
+        return index;
+    }
+
+    private static List<File> getFiles(final File root) {
+        if (root.isFile()) {
+            return Collections.singletonList(root);
+        }
+        final List<File> files = new ArrayList<>();
+        getFiles(root, files);
+        return files;
+    }
+
+    private static void getFiles(final File dir, final List<File> files) {
+        final File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isFile() || isEmpty(child)) {
+                files.add(child);
+            } else {
+                getFiles(child, files);
+            }
+        }
+    }
+
+    private static boolean isEmpty(File file) {
+        final String[] children = file.list();
+        return children == null || children.length == 0;
+    }
+
+    private static String getRelativePath(final File root, final File file) {
+        return file.equals(root) ? "" : file.getAbsolutePath().substring(root.getAbsolutePath().length() + 1);
+    }
+
+    private static byte[] readHash(DataInput input) throws IOException {
+        final byte[] hash = new byte[HASH_LENGTH];
+        input.readFully(hash);
+        return hash;
+    }
+
+    private static long getMaxBytesPerSecond() {
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MAX_BYTES_PER_SECOND_PROPERTY, null);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                HostControllerLogger.ROOT_LOGGER.debugf("Ignoring invalid value %s for %s", value, MAX_BYTES_PER_SECOND_PROPERTY);
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * A file listed in the manifest of some content.
+     */
+    public static final class ManifestEntry {
+        private final String path;
+        private final long size;
+        private final List<byte[]> hashes;
+
+        private ManifestEntry(String path, long size, List<byte[]> hashes) {
+            this.path = path;
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        /**
+         * @return the path of the file relative to the content root, or an empty string if the root is the file
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isDirectory() {
+            return size < 0;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the hashes of the chunks of the file, in order
+         */
+        public List<byte[]> getHashes() {
+            return hashes;
+        }
+    }
+
+    /**
+     * A request as written by {@link #sendRequest(FlushableDataOutput, byte, String, List)}.
+     */
+    static final class ChunkRequest {
+        final byte rootId;
+        final String filePath;
+        final List<byte[]> hashes;
+
+        private ChunkRequest(byte rootId, String filePath, List<byte[]> hashes) {
+            this.rootId = rootId;
+            this.filePath = filePath;
+            this.hashes = hashes;
+        }
+
+        static ChunkRequest read(DataInput input) throws IOException {
+            expectHeader(input, DomainControllerProtocol.PARAM_ROOT_ID);
+            final byte rootId = input.readByte();
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+            final String filePath = input.readUTF();
+            expectHeader(input, DomainControllerProtocol.PARAM_NUM_CHUNKS);
+            final int numChunks = input.readInt();
+            final List<byte[]> hashes = new ArrayList<>(numChunks);
+            for (int i = 0; i < numChunks; i++) {
+                hashes.add(readHash(input));
+            }
+            return new ChunkRequest(rootId, filePath, hashes);
+        }
+    }
+
+    /**
+     * The manifest of some content, and where each of its chunks is found.
+     */
+    static final class ContentIndex {
+        private final List<ManifestEntry> entries = new ArrayList<>();
+        private final Map<String, ChunkLocation> locations = new HashMap<>();
+
+        ContentIndex(final File root) throws IOException {
+            for (File file : getFiles(root)) {
+                if (file.isDirectory()) {
+                    entries.add(new ManifestEntry(getRelativePath(root, file), -1L, Collections.emptyList()));
+                } else {
+                    final List<ContentChunks.Chunk> chunks = ContentChunks.getChunks(file);
+                    final List<byte[]> hashes = new ArrayList<>(chunks.size());
+                    for (ContentChunks.Chunk chunk : chunks) {
+                        hashes.add(chunk.getHash());
+                        locations.putIfAbsent(HashUtil.bytesToHexString(chunk.getHash()), new ChunkLocation(file, chunk));
+                    }
+                    entries.add(new ManifestEntry(getRelativePath(root, file), file.length(), hashes));
+                }
+            }
+        }
+    }
+
+    private static final class ChunkLocation {
+        private final File file;
+        private final ContentChunks.Chunk chunk;
+
+        private ChunkLocation(File file, ContentChunks.Chunk chunk) {
+            this.file = file;
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * Token bucket allowing a burst of one second worth of bytes. Callers take their bytes up front and then sleep
+     * off any debt outside the lock, so concurrent transfers to the same host share the limit fairly.
+     */
+    static final class TransferLimiter {
+        private final long bytesPerSecond;
+        private long available;
+        private long lastRefill = System.nanoTime();
+
+        TransferLimiter(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.available = bytesPerSecond;
+        }
+
+        void acquire(int bytes) throws InterruptedIOException {
+            final long waitNanos;
+            synchronized (this) {
+                final long now = System.nanoTime();
+                final long elapsed = Math.min(now - lastRefill, TimeUnit.SECONDS.toNanos(1));
+                lastRefill = now;
+                available = Math.min(bytesPerSecond, available + (long) (elapsed * (double) bytesPerSecond / TimeUnit.SECONDS.toNanos(1)));
+                available -= bytes;
+                waitNanos = available < 0 ? (long) (-available * (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond) : 0L;
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+}
@@ -55,6 +55,7 @@ import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.extension.ExtensionRegistry;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.remote.CompactModelCodec;
 import org.jboss.as.controller.remote.TransactionalProtocolClient;
 import org.jboss.as.controller.transform.TransformationTarget;
 import org.jboss.as.controller.transform.TransformationTargetImpl;
@@ -369,7 +370,8 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
                 // Remotely resolve the subsystem versions and create the transformation
                 registrationContext.processSubsystems(transformers, extensions);
                 // Now run the read-domain model operation
-                final ReadMasterDomainModelHandler handler = new ReadMasterDomainModelHandler(hostInfo, transformers, domainController.getExtensionRegistry(), false);
+                final ReadMasterDomainModelHandler handler = new ReadMasterDomainModelHandler(hostInfo, transformers, domainController.getExtensionRegistry(), false,
+                        domainController.getDomainModelJournal());
                 context.addStep(READ_DOMAIN_MODEL.getOperation(), handler, OperationContext.Stage.MODEL);
 
                 context.completeStep(new OperationContext.ResultHandler() {
@@ -552,6 +554,10 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
             if (sendResultToHost(transaction, result)) return;
             synchronized (this) {
                 Long pingPongId = hostInfo.getRemoteConnectionId();
+                if (hostInfo.isCompactModel()) {
+                    // The slave announced it can read the compact encoding, use it for the operations we send it
+                    handler.getAttachments().attach(TransactionalProtocolClient.COMPACT_MODEL, Boolean.TRUE);
+                }
                 // Register the slave
                 domainController.registerRemoteHost(hostName, handler, transformers, pingPongId, registerProxyController);
                 // Complete registration
@@ -571,7 +577,7 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
             final Boolean registered = executeBlocking(new IOTask<Boolean>() {
                 @Override
                 void sendMessage(final FlushableDataOutput output) throws IOException {
-                    sendResponse(output, DomainControllerProtocol.PARAM_OK, result);
+                    sendDomainModel(output, hostInfo.isCompactModel(), hostInfo.isChunkedContent(), result);
                 }
             });
             if(! registered) {
@@ -734,6 +740,34 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
         output.close();
     }
 
+    /**
+     * Send the domain model to a registering host. The compact model encoding is only used if the host announced
+     * {@link HostInfo#COMPACT_MODEL}; the different response type tells the host which encoding to read. If the host
+     * announced {@link HostInfo#CHUNKED_CONTENT} the domain model is followed by the parameter telling it that
+     * deployment content can be requested as chunks, which hosts that did not announce it would not read.
+     *
+     * @param output the output
+     * @param compact whether to use the compact model encoding
+     * @param chunkedContent whether to tell the host that content can be requested as chunks
+     * @param domainModel the domain model
+     * @throws IOException for any error
+     */
+    static void sendDomainModel(final FlushableDataOutput output, final boolean compact, final boolean chunkedContent,
+                                final ModelNode domainModel) throws IOException {
+        if (compact) {
+            output.writeByte(DomainControllerProtocol.PARAM_OK_COMPACT);
+            CompactModelCodec.write(output, domainModel);
+        } else {
+            output.writeByte(DomainControllerProtocol.PARAM_OK);
+            domainModel.writeExternal(output);
+        }
+        if (chunkedContent) {
+            output.writeByte(DomainControllerProtocol.PARAM_CHUNKED_CONTENT);
+        }
+        output.writeByte(ManagementProtocol.RESPONSE_END);
+        output.close();
+    }
+
     /**
      * Send a failed operation response.
      *
@@ -52,7 +52,9 @@ import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.extension.ExtensionRegistry;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.remote.CompactModelCodec;
 import org.jboss.as.controller.transform.Transformers;
+import org.jboss.as.domain.controller.DomainModelJournal;
 import org.jboss.as.domain.controller.LocalHostControllerInfo;
 import org.jboss.as.domain.controller.logging.DomainControllerLogger;
 import org.jboss.as.domain.controller.operations.ReadMasterDomainModelUtil;
@@ -73,6 +75,12 @@ import org.jboss.dmr.Property;
  */
 public class HostInfo implements Transformers.ResourceIgnoredTransformationRegistry, Transformers.OperationExcludedTransformationRegistry {
 
+    /** Key of the host info flag announcing that the host can read the compact model encoding. */
+    public static final String COMPACT_MODEL = "compact-model";
+
+    /** Key of the host info flag announcing that the host can get deployment content as chunks. */
+    public static final String CHUNKED_CONTENT = "chunked-content";
+
     /**
      * Create the metadata which gets send to the DC when registering.
      *
@@ -105,6 +113,10 @@ public class HostInfo implements Transformers.ResourceIgnoredTransformationRegis
         }
         boolean ignoreUnaffectedServerGroups = hostInfo.isRemoteDomainControllerIgnoreUnaffectedConfiguration();
         IgnoredNonAffectedServerGroupsUtil.addCurrentServerGroupsToHostInfoModel(ignoreUnaffectedServerGroups, hostModelResource, info);
+        if (CompactModelCodec.isEnabled()) {
+            info.get(COMPACT_MODEL).set(true);
+        }
+        info.get(CHUNKED_CONTENT).set(true);
         return info;
     }
 
@@ -130,6 +142,10 @@ public class HostInfo implements Transformers.ResourceIgnoredTransformationRegis
     private final Set<ServerConfigInfo> serverConfigInfos;
     private final Set<String> domainIgnoredExtensions;
     private final boolean hostDeclaredIgnoreUnaffected;
+    private final String domainModelVersion;
+    private final String domainModelSyncDigest;
+    private final boolean compactModel;
+    private final boolean chunkedContent;
     // GuardedBy this
     private ReadMasterDomainModelUtil.RequiredConfigurationHolder requiredConfigurationHolder;
 
@@ -144,6 +160,8 @@ public class HostInfo implements Transformers.ResourceIgnoredTransformationRegis
         productVersion = hostInfo.hasDefined(PRODUCT_VERSION) ? hostInfo.require(PRODUCT_VERSION).asString() : null;
         remoteConnectionId = hostInfo.hasDefined(RemoteDomainConnectionService.DOMAIN_CONNECTION_ID)
                 ? hostInfo.get(RemoteDomainConnectionService.DOMAIN_CONNECTION_ID).asLong() : null;
+        compactModel = hostInfo.hasDefined(COMPACT_MODEL) && hostInfo.get(COMPACT_MODEL).asBoolean() && CompactModelCodec.isEnabled();
+        chunkedContent = hostInfo.hasDefined(CHUNKED_CONTENT) && hostInfo.get(CHUNKED_CONTENT).asBoolean();
 
         Set<String> domainIgnoredExtensions = null;
         Set<String> domainActiveServerGroups = null;
@@ -179,6 +197,21 @@ public class HostInfo implements Transformers.ResourceIgnoredTransformationRegis
             serverConfigInfos = Collections.emptySet();
         }
         this.serverConfigInfos = serverConfigInfos;
+
+        if (hostInfo.has(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION)) {
+            domainModelVersion = hostInfo.hasDefined(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION)
+                    ? hostInfo.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).asString() : "";
+            // Everything but the per connection data determines which parts of the domain model the host receives
+            final ModelNode syncInfo = hostInfo.clone();
+            syncInfo.remove(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION);
+            syncInfo.remove(RemoteDomainConnectionService.DOMAIN_CONNECTION_ID);
+            syncInfo.remove(COMPACT_MODEL);
+            syncInfo.remove(CHUNKED_CONTENT);
+            domainModelSyncDigest = DomainModelJournal.digest(syncInfo.toString());
+        } else {
+            domainModelVersion = null;
+            domainModelSyncDigest = null;
+        }
     }
 
     public String getHostName() {
@@ -223,6 +256,46 @@ public class HostInfo implements Transformers.ResourceIgnoredTransformationRegis
         return ignoredResources.isResourceTransformationIgnored(address);
     }
 
+    /**
+     * Gets the version of the domain model the host last synchronized with, as provided by
+     * {@link org.jboss.as.domain.controller.DomainModelJournal#createToken}.
+     *
+     * @return the version, an empty string if the host has not synchronized yet, or {@code null} if the host
+     *         does not support receiving only the changes to the domain model
+     */
+    public String getDomainModelVersion() {
+        return domainModelVersion;
+    }
+
+    /**
+     * Gets the digest of the registration information that affects which parts of the domain model are sent to the host.
+     *
+     * @return the digest, or {@code null} if the host does not support receiving only the changes to the domain model
+     */
+    public String getDomainModelSyncDigest() {
+        return domainModelSyncDigest;
+    }
+
+    /**
+     * Gets whether the host and this process both support the compact model encoding. If not, the domain model and
+     * the operations sent to the host use the standard encoding.
+     *
+     * @return {@code true} if the compact model encoding can be used
+     */
+    public boolean isCompactModel() {
+        return compactModel;
+    }
+
+    /**
+     * Gets whether the host can get deployment content as chunks. If so, the response to its registration tells it
+     * that this process serves them.
+     *
+     * @return {@code true} if the host announced it gets content as chunks
+     */
+    public boolean isChunkedContent() {
+        return chunkedContent;
+    }
+
     public boolean isIgnoreUnaffectedConfig() {
         return ignoreUnaffectedConfig;
     }
@@ -52,10 +52,13 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
 
     private final DomainController domainController;
     private final Executor asyncExecutor;
+    private final ContentChunkRequestAndHandler chunkSupport;
 
     public MasterDomainControllerOperationHandlerImpl(final DomainController domainController, final Executor asyncExecutor) {
         this.domainController = domainController;
         this.asyncExecutor = asyncExecutor;
+        // One per channel, so the chunks sent to a host share its bandwidth limit
+        this.chunkSupport = new ContentChunkRequestAndHandler(asyncExecutor);
     }
 
     @Override
@@ -68,6 +71,9 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
             } case DomainControllerProtocol.GET_FILE_REQUEST: {
                 handlers.registerActiveOperation(header.getBatchId(), null);
                 return new GetFileOperation();
+            } case DomainControllerProtocol.GET_CONTENT_CHUNKS_REQUEST: {
+                handlers.registerActiveOperation(header.getBatchId(), null);
+                return new GetContentChunksOperation();
             } case DomainControllerProtocol.SERVER_INSTABILITY_REQUEST: {
                 handlers.registerActiveOperation(header.getBatchId(), null);
                 return new ServerUnstableHandler();
@@ -100,32 +106,41 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
         @Override
         void handleRequest(String hostId, DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException {
             DomainControllerLogger.ROOT_LOGGER.tracef("Handling GetFileOperation with id %d from %s", context.getOperationId(), hostId);
-            final RootFileReader reader = new RootFileReader() {
-                public File readRootFile(byte rootId, String filePath) throws RequestProcessingException {
-                    final HostFileRepository localFileRepository = domainController.getLocalFileRepository();
-
-                    switch (rootId) {
-                        case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
-                            return localFileRepository.getFile(filePath);
-                        }
-                        case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
-                            return localFileRepository.getConfigurationFile(filePath);
-                        }
-                        case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
-                            byte[] hash = HashUtil.hexStringToByteArray(filePath);
-                            return localFileRepository.getDeploymentRoot(new ContentReference(filePath, hash));
-                        }
-                        default: {
-                            throw HostControllerLogger.ROOT_LOGGER.invalidRootId(rootId);
-                        }
-                    }
-                }
-            };
+            remoteSupport.handleRequest(input, rootFileReader, resultHandler, context);
+        }
+    }
+
+    private class GetContentChunksOperation extends AbstractHostRequestHandler {
 
-            remoteSupport.handleRequest(input, reader, resultHandler, context);
+        @Override
+        void handleRequest(String hostId, DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            DomainControllerLogger.ROOT_LOGGER.tracef("Handling GetContentChunksOperation with id %d from %s", context.getOperationId(), hostId);
+            chunkSupport.handleRequest(input, rootFileReader, resultHandler, context);
         }
     }
 
+    private final RootFileReader rootFileReader = new RootFileReader() {
+        public File readRootFile(byte rootId, String filePath) throws RequestProcessingException {
+            final HostFileRepository localFileRepository = domainController.getLocalFileRepository();
+
+            switch (rootId) {
+                case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
+                    return localFileRepository.getFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
+                    return localFileRepository.getConfigurationFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
+                    byte[] hash = HashUtil.hexStringToByteArray(filePath);
+                    return localFileRepository.getDeploymentRoot(new ContentReference(filePath, hash));
+                }
+                default: {
+                    throw HostControllerLogger.ROOT_LOGGER.invalidRootId(rootId);
+                }
+            }
+        }
+    };
+
     abstract static class AbstractHostRequestHandler implements ManagementRequestHandler<Void, Void> {
 
         abstract void handleRequest(final String hostId, DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException;
@@ -48,6 +48,8 @@ import org.jboss.as.controller.client.Operation;
 import org.jboss.as.controller.client.OperationBuilder;
 import org.jboss.as.controller.client.OperationMessageHandler;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.remote.CompactModelCodec;
+import org.jboss.as.controller.remote.TransactionalProtocolClient;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.host.controller.ManagedServerOperationsFactory;
 import org.jboss.as.host.controller.ServerInventory;
@@ -166,6 +168,22 @@ public class ServerToHostProtocolHandler implements ManagementRequestHandlerFact
 
     }
 
+    /**
+     * Read whether the server accepts operations in the compact model encoding. Servers that do not support it end
+     * the request after the known parameters, in which case the standard encoding is used.
+     *
+     * @param input the request input
+     * @throws IOException for any error
+     */
+    void readCompactModelSupport(final DataInput input) throws IOException {
+        final boolean compactModel = input.readByte() == DomainServerProtocol.PARAM_COMPACT_MODEL && CompactModelCodec.isEnabled();
+        if (compactModel) {
+            channelHandler.getAttachments().attach(TransactionalProtocolClient.COMPACT_MODEL, Boolean.TRUE);
+        } else {
+            channelHandler.getAttachments().removeAttachment(TransactionalProtocolClient.COMPACT_MODEL);
+        }
+    }
+
     /**
      * The server registration handler.
      */
@@ -175,6 +193,7 @@ public class ServerToHostProtocolHandler implements ManagementRequestHandlerFact
         public void handleRequest(final DataInput input, final ActiveOperation.ResultHandler<Void> resultHandler, final ManagementRequestContext<Void> context) throws IOException {
             final String serverName = input.readUTF();
             final int operationId = input.readInt();
+            readCompactModelSupport(input);
             serverProcessName = serverName;
             ROOT_LOGGER.serverConnected(serverName, context.getChannel());
             // Execute the registration request
@@ -261,6 +280,7 @@ public class ServerToHostProtocolHandler implements ManagementRequestHandlerFact
         public void handleRequest(final DataInput input, final ActiveOperation.ResultHandler<Void> resultHandler, final ManagementRequestContext<Void> context) throws IOException {
             expectHeader(input, DomainServerProtocol.PARAM_SERVER_NAME);
             final String serverName = input.readUTF();
+            readCompactModelSupport(input);
             final Channel channel = context.getChannel();
             ROOT_LOGGER.serverConnected(serverName, channel);
             context.executeAsync(new ManagementRequestContext.AsyncTask<Void>() {
@@ -115,6 +115,7 @@ import org.jboss.as.server.controller.resources.ServiceContainerResourceDefiniti
 import org.jboss.as.server.controller.resources.SystemPropertyResourceDefinition;
 import org.jboss.as.server.controller.resources.VaultResourceDefinition;
 import org.jboss.as.server.operations.CleanObsoleteContentHandler;
+import org.jboss.as.server.operations.ContentIngestMetricHandler;
 import org.jboss.as.server.operations.InstanceUuidReadHandler;
 import org.jboss.as.server.operations.RunningModeReadHandler;
 import org.jboss.as.server.operations.SuspendStateReadHandler;
@@ -318,6 +319,7 @@ public class HostResourceDefinition extends SimpleResourceDefinition {
         );
         hostRegistration.registerReadOnlyAttribute(PRODUCT_NAME, null);
         hostRegistration.registerReadOnlyAttribute(UUID, new InstanceUuidReadHandler(environment));
+        ContentIngestMetricHandler.register(hostRegistration, contentRepository);
         hostRegistration.registerReadOnlyAttribute(SERVER_STATE, null);
         hostRegistration.registerReadOnlyAttribute(RELEASE_VERSION, null);
         hostRegistration.registerReadOnlyAttribute(RELEASE_CODENAME, null);
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.registry.Resource;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link DomainModelJournal}.
+ */
+public class DomainModelJournalTestCase {
+
+    private static final PathElement PROFILE = PathElement.pathElement("profile", "default");
+    private static final PathElement SERVER_GROUP = PathElement.pathElement("server-group", "main");
+    private static final PathElement HOST = PathElement.pathElement("host", "master");
+    private static final String HOST_DIGEST = DomainModelJournal.digest("slave");
+
+    @Test
+    public void testUnchangedModel() {
+        final DomainModelJournal journal = new DomainModelJournal(10);
+        final String token = journal.createToken(journal.getVersion(), createModel("a"), HOST_DIGEST);
+
+        // A new journal for the same model, as after a restart of the master
+        final DomainModelJournal restarted = new DomainModelJournal(10);
+        assertEquals(token, restarted.createToken(restarted.getVersion(), createModel("a"), HOST_DIGEST));
+        assertEquals(Collections.emptySet(), journal.getChangesSince(token, HOST_DIGEST));
+    }
+
+    @Test
+    public void testChangesSince() {
+        final DomainModelJournal journal = new DomainModelJournal(10);
+        final String token = journal.createToken(journal.getVersion(), createModel("a"), HOST_DIGEST);
+
+        journal.recordChange(new HashSet<>(Arrays.asList(PathAddress.pathAddress(PROFILE, PathElement.pathElement("subsystem", "logging")),
+                PathAddress.pathAddress(HOST))));
+        final String changedToken = journal.createToken(journal.getVersion(), createModel("b"), HOST_DIGEST);
+        assertNotEquals(token, changedToken);
+        assertEquals(Collections.singleton(PROFILE), journal.getChangesSince(token, HOST_DIGEST));
+
+        journal.recordChange(Collections.singleton(PathAddress.pathAddress(SERVER_GROUP)));
+        assertEquals(new HashSet<>(Arrays.asList(PROFILE, SERVER_GROUP)), journal.getChangesSince(token, HOST_DIGEST));
+        assertEquals(Collections.singleton(SERVER_GROUP), journal.getChangesSince(changedToken, HOST_DIGEST));
+    }
+
+    @Test
+    public void testTruncatedJournal() {
+        final DomainModelJournal journal = new DomainModelJournal(1);
+        final String token = journal.createToken(journal.getVersion(), createModel("a"), HOST_DIGEST);
+
+        journal.recordChange(Collections.singleton(PathAddress.pathAddress(PROFILE)));
+        assertEquals(Collections.singleton(PROFILE), journal.getChangesSince(token, HOST_DIGEST));
+
+        journal.recordChange(Collections.singleton(PathAddress.pathAddress(SERVER_GROUP)));
+        assertNull(journal.getChangesSince(token, HOST_DIGEST));
+    }
+
+    @Test
+    public void testUnknownVersion() {
+        final DomainModelJournal journal = new DomainModelJournal(10);
+        final String token = journal.createToken(journal.getVersion(), createModel("a"), HOST_DIGEST);
+
+        assertNull(journal.getChangesSince(token, DomainModelJournal.digest("other")));
+        assertNull(journal.getChangesSince("", HOST_DIGEST));
+        assertTrue(journal.getChangesSince(token, HOST_DIGEST).isEmpty());
+    }
+
+    @Test
+    public void testHostsAreNotDigested() {
+        final Resource root = createModel("a");
+        final String digest = DomainModelJournal.digest(root);
+        final Resource host = Resource.Factory.create();
+        host.getModel().get("name").set("master");
+        root.registerChild(HOST, host);
+        assertEquals(digest, DomainModelJournal.digest(root));
+    }
+
+    private static Resource createModel(final String value) {
+        final Resource root = Resource.Factory.create();
+        root.getModel().get("name").set("domain");
+        final Resource profile = Resource.Factory.create();
+        root.registerChild(PROFILE, profile);
+        final Resource subsystem = Resource.Factory.create();
+        subsystem.getModel().get("value").set(value);
+        profile.registerChild(PathElement.pathElement("subsystem", "logging"), subsystem);
+        root.registerChild(SERVER_GROUP, Resource.Factory.create());
+        return root;
+    }
+}
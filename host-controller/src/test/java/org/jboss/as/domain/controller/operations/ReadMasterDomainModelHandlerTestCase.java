@@ -36,6 +36,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REL
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WILDCARD;
 
 import java.util.Collections;
+import java.util.List;
 
 import org.jboss.as.controller.ExpressionResolver;
 import org.jboss.as.controller.ModelVersion;
@@ -115,6 +116,92 @@ public class ReadMasterDomainModelHandlerTestCase {
         Assert.assertFalse(transformed.get("profile").hasDefined("ignored"));
     }
 
+    @Test
+    public void testMergeDomainModelChangesOrdering() {
+        final ModelNode changedModel = describedModel(description(2), description(2, "profile", "p"),
+                description(2, "profile", "p", "subsystem", "t"));
+        final ModelNode changes = new ModelNode().add(PathAddress.pathAddress("profile", "p").toModelNode());
+
+        final ModelNode merged = ReadMasterDomainModelUtil.mergeDomainModelChanges(localDescribedModel(), changedModel, changes);
+
+        // The root first, then the unchanged local resources in their original order and then the changed ones
+        assertDescribedAddresses(merged, PathAddress.EMPTY_ADDRESS, PathAddress.pathAddress("extension", "x"),
+                PathAddress.pathAddress("socket-binding-group", "g"), PathAddress.pathAddress("profile", "p"),
+                PathAddress.pathAddress("profile", "p").append("subsystem", "t"));
+        Assert.assertEquals(2, merged.get(0).get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_MODEL, "attr").asInt());
+        Assert.assertEquals(2, merged.get(3).get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_MODEL, "attr").asInt());
+    }
+
+    @Test
+    public void testMergeDomainModelChangesRemovedResource() {
+        // profile=p changed but the master did not describe it, so it was removed along with its children
+        final ModelNode changedModel = describedModel(description(2));
+        final ModelNode changes = new ModelNode().add(PathAddress.pathAddress("profile", "p").toModelNode());
+
+        final ModelNode merged = ReadMasterDomainModelUtil.mergeDomainModelChanges(localDescribedModel(), changedModel, changes);
+
+        assertDescribedAddresses(merged, PathAddress.EMPTY_ADDRESS, PathAddress.pathAddress("extension", "x"),
+                PathAddress.pathAddress("socket-binding-group", "g"));
+    }
+
+    @Test
+    public void testMergeDomainModelChangesNoChanges() {
+        final ModelNode changedModel = describedModel(description(2));
+
+        final ModelNode merged = ReadMasterDomainModelUtil.mergeDomainModelChanges(localDescribedModel(), changedModel, new ModelNode().setEmptyList());
+
+        // Only the root resource is taken from the master
+        assertDescribedAddresses(merged, PathAddress.EMPTY_ADDRESS, PathAddress.pathAddress("extension", "x"),
+                PathAddress.pathAddress("profile", "p"), PathAddress.pathAddress("profile", "p").append("subsystem", "s"),
+                PathAddress.pathAddress("socket-binding-group", "g"));
+        Assert.assertEquals(2, merged.get(0).get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_MODEL, "attr").asInt());
+        Assert.assertEquals(1, merged.get(2).get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_MODEL, "attr").asInt());
+    }
+
+    @Test
+    public void testFilterDescribedResources() {
+        final PathAddress ignored = PathAddress.pathAddress("profile", "p");
+        final ModelNode filtered = ReadMasterDomainModelUtil.filterDescribedResources(localDescribedModel(), ignored::equals);
+
+        assertDescribedAddresses(filtered, PathAddress.EMPTY_ADDRESS, PathAddress.pathAddress("extension", "x"),
+                PathAddress.pathAddress("socket-binding-group", "g"));
+        assertDescribedAddresses(ReadMasterDomainModelUtil.filterDescribedResources(localDescribedModel(), Transformers.DEFAULT),
+                PathAddress.EMPTY_ADDRESS, PathAddress.pathAddress("extension", "x"), PathAddress.pathAddress("profile", "p"),
+                PathAddress.pathAddress("profile", "p").append("subsystem", "s"), PathAddress.pathAddress("socket-binding-group", "g"));
+    }
+
+    private static ModelNode localDescribedModel() {
+        return describedModel(description(1), description(1, "extension", "x"), description(1, "profile", "p"),
+                description(1, "profile", "p", "subsystem", "s"), description(1, "socket-binding-group", "g"));
+    }
+
+    private static ModelNode describedModel(final ModelNode... descriptions) {
+        final ModelNode model = new ModelNode().setEmptyList();
+        for (final ModelNode description : descriptions) {
+            model.add(description);
+        }
+        return model;
+    }
+
+    private static ModelNode description(final int attr, final String... address) {
+        PathAddress pathAddress = PathAddress.EMPTY_ADDRESS;
+        for (int i = 0; i < address.length; i += 2) {
+            pathAddress = pathAddress.append(address[i], address[i + 1]);
+        }
+        final ModelNode description = new ModelNode();
+        description.get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_ADDRESS).set(pathAddress.toModelNode());
+        description.get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_MODEL, "attr").set(attr);
+        return description;
+    }
+
+    private static void assertDescribedAddresses(final ModelNode described, final PathAddress... expected) {
+        final List<ModelNode> descriptions = described.asList();
+        Assert.assertEquals(described.toString(), expected.length, descriptions.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i], PathAddress.pathAddress(descriptions.get(i).get(ReadMasterDomainModelUtil.DOMAIN_RESOURCE_ADDRESS)));
+        }
+    }
+
     private Resource createProfile() {
         Resource profile = Resource.Factory.create();
         Resource subsystem = Resource.Factory.create();
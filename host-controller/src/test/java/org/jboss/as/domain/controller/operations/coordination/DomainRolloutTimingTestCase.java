@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller.operations.coordination;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.IN_SERIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLOUT_TIMING;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUPS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.as.controller.remote.TransactionalProtocolClient;
+import org.jboss.as.domain.controller.ServerIdentity;
+import org.jboss.as.domain.controller.plan.RolloutPlanController;
+import org.jboss.as.domain.controller.plan.ServerTaskExecutor;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the {@code rollout-timing} response header written by {@link DomainRolloutStepHandler}.
+ */
+public class DomainRolloutTimingTestCase {
+
+    @Test
+    public void testServerGroupPrepareTimes() throws Exception {
+        final Map<String, Map<ServerIdentity, ModelNode>> opsByGroup = new HashMap<String, Map<ServerIdentity, ModelNode>>();
+        opsByGroup.put("second", Collections.singletonMap(new ServerIdentity("host", "second", "server-two"), Operations.createReadResourceOperation(new ModelNode().setEmptyList())));
+        opsByGroup.put("first", Collections.singletonMap(new ServerIdentity("host", "first", "server-one"), Operations.createReadResourceOperation(new ModelNode().setEmptyList())));
+
+        final ModelNode rolloutPlan = new ModelNode();
+        rolloutPlan.get(IN_SERIES).add().get(SERVER_GROUP, "first").setEmptyObject();
+        rolloutPlan.get(IN_SERIES).add().get(SERVER_GROUP, "second").setEmptyObject();
+        // A group without servers to update is skipped
+        rolloutPlan.get(IN_SERIES).add().get(SERVER_GROUP, "unaffected").setEmptyObject();
+
+        final List<ServerIdentity> executed = new ArrayList<ServerIdentity>();
+        final ServerTaskExecutor taskExecutor = new ServerTaskExecutor(null, new HashMap<>(), new ArrayList<>()) {
+            @Override
+            protected int execute(TransactionalProtocolClient.TransactionalOperationListener<ServerOperation> listener, ServerIdentity server, ModelNode original) {
+                executed.add(server);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return -1;
+            }
+        };
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            final RolloutPlanController controller = new RolloutPlanController(opsByGroup, rolloutPlan,
+                    new MultiphaseOverallContext(null), taskExecutor, executorService, null);
+            Assert.assertTrue(controller.getServerGroupPrepareTimes().isEmpty());
+            controller.execute();
+
+            final Map<String, Long> prepareTimes = controller.getServerGroupPrepareTimes();
+            Assert.assertEquals(Arrays.asList("first", "second"), new ArrayList<String>(prepareTimes.keySet()));
+            Assert.assertTrue(prepareTimes.get("first") >= 10);
+            Assert.assertTrue(prepareTimes.get("second") >= 10);
+            Assert.assertEquals(2, executed.size());
+
+            final ModelNode headers = new ModelNode();
+            DomainRolloutStepHandler.setPrepareTiming(headers, 25, prepareTimes);
+            DomainRolloutStepHandler.setCompletionTiming(headers, 5);
+            final ModelNode timing = headers.get(ROLLOUT_TIMING);
+            Assert.assertEquals(25, timing.get(DomainRolloutStepHandler.PREPARE_TIME).asLong());
+            Assert.assertEquals(5, timing.get(DomainRolloutStepHandler.COMPLETION_TIME).asLong());
+            Assert.assertEquals(Arrays.asList("first", "second"), new ArrayList<String>(timing.get(SERVER_GROUPS).keys()));
+            Assert.assertEquals(prepareTimes.get("first").longValue(), timing.get(SERVER_GROUPS, "first").asLong());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNoServerGroups() {
+        final ModelNode headers = new ModelNode();
+        DomainRolloutStepHandler.setPrepareTiming(headers, 0, Collections.<String, Long>emptyMap());
+        Assert.assertEquals(0, headers.get(ROLLOUT_TIMING, DomainRolloutStepHandler.PREPARE_TIME).asLong());
+        Assert.assertFalse(headers.get(ROLLOUT_TIMING).hasDefined(SERVER_GROUPS));
+        Assert.assertFalse(headers.get(ROLLOUT_TIMING).hasDefined(DomainRolloutStepHandler.COMPLETION_TIME));
+    }
+}
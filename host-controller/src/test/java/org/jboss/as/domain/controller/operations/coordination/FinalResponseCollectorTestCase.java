@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller.operations.coordination;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CANCELLED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.domain.controller.ServerIdentity;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFutureTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FinalResponseCollector}.
+ */
+public class FinalResponseCollectorTestCase {
+
+    private static final ServerIdentity ONE = new ServerIdentity("host", "group", "one");
+    private static final ServerIdentity TWO = new ServerIdentity("host", "group", "two");
+    private static final ServerIdentity THREE = new ServerIdentity("host", "group", "three");
+
+    @Test
+    public void testResponsesAreHandledInCompletionOrder() {
+        final TestFuture one = new TestFuture();
+        final TestFuture two = new TestFuture();
+        final TestFuture three = new TestFuture();
+        final FinalResponseCollector collector = new FinalResponseCollector(futures(one, two, three));
+        three.complete();
+        one.complete();
+        two.complete();
+
+        final RecordingHandler handler = new RecordingHandler();
+        Assert.assertFalse(collector.collect(10000, false, handler));
+        Assert.assertEquals(Arrays.asList(THREE, ONE, TWO), handler.responded);
+        Assert.assertTrue(handler.timedOut.isEmpty());
+        Assert.assertEquals(SUCCESS, handler.responses.get(THREE).get(OUTCOME).asString());
+    }
+
+    @Test
+    public void testServersShareOneDeadline() {
+        final TestFuture one = new TestFuture();
+        final TestFuture two = new TestFuture();
+        final TestFuture three = new TestFuture();
+        final FinalResponseCollector collector = new FinalResponseCollector(futures(one, two, three));
+        two.complete();
+
+        final RecordingHandler handler = new RecordingHandler();
+        final long start = System.nanoTime();
+        Assert.assertFalse(collector.collect(500, false, handler));
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Each server waiting its own timeout would take 1000 ms for the two that never respond
+        Assert.assertTrue(String.valueOf(elapsed), elapsed >= 500 && elapsed < 1000);
+        Assert.assertEquals(Arrays.asList(TWO), handler.responded);
+        Assert.assertEquals(Arrays.asList(ONE, THREE), handler.timedOut);
+        Assert.assertTrue(one.isCancelled());
+        Assert.assertTrue(three.isCancelled());
+    }
+
+    @Test
+    public void testFailedAndCancelledRequests() {
+        final TestFuture one = new TestFuture();
+        final TestFuture two = new TestFuture();
+        final FinalResponseCollector collector = new FinalResponseCollector(futures(one, two));
+        final Exception failure = new Exception("failed");
+        one.fail(failure);
+        two.asyncCancel(true);
+
+        final RecordingHandler handler = new RecordingHandler();
+        Assert.assertFalse(collector.collect(10000, false, handler));
+        Assert.assertSame(failure, handler.failures.get(ONE));
+        Assert.assertEquals(Arrays.asList(TWO), handler.responded);
+        Assert.assertEquals(CANCELLED, handler.responses.get(TWO).get(OUTCOME).asString());
+    }
+
+    @Test
+    public void testBlockingRequestIsCancelledAtDeadline() {
+        // The local require-restart task is a plain future without completion notification
+        final FutureTask<OperationResponse> one = new FutureTask<OperationResponse>(() -> response(SUCCESS));
+        final Map<ServerIdentity, Future<OperationResponse>> futures = new LinkedHashMap<ServerIdentity, Future<OperationResponse>>();
+        futures.put(ONE, one);
+
+        final RecordingHandler handler = new RecordingHandler();
+        Assert.assertFalse(new FinalResponseCollector(futures).collect(100, false, handler));
+        Assert.assertEquals(Arrays.asList(ONE), handler.timedOut);
+        Assert.assertTrue(one.isCancelled());
+    }
+
+    @Test
+    public void testInterruptedOnlyWaitsBriefly() {
+        final TestFuture one = new TestFuture();
+        final TestFuture two = new TestFuture();
+        final FinalResponseCollector collector = new FinalResponseCollector(futures(one, two));
+        two.complete();
+
+        final RecordingHandler handler = new RecordingHandler();
+        final long start = System.nanoTime();
+        Assert.assertTrue(collector.collect(60000, true, handler));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10000);
+        Assert.assertEquals(Arrays.asList(TWO), handler.responded);
+        Assert.assertEquals(Arrays.asList(ONE), handler.timedOut);
+        Assert.assertTrue(handler.interrupted);
+    }
+
+    private static Map<ServerIdentity, Future<OperationResponse>> futures(final TestFuture... futures) {
+        final ServerIdentity[] servers = {ONE, TWO, THREE};
+        final Map<ServerIdentity, Future<OperationResponse>> result = new LinkedHashMap<ServerIdentity, Future<OperationResponse>>();
+        for (int i = 0; i < futures.length; i++) {
+            result.put(servers[i], futures[i]);
+        }
+        return result;
+    }
+
+    private static OperationResponse response(final String outcome) {
+        final ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(outcome);
+        return OperationResponse.Factory.createSimple(response);
+    }
+
+    private static class TestFuture extends AsyncFutureTask<OperationResponse> {
+
+        TestFuture() {
+            super(null);
+        }
+
+        void complete() {
+            setResult(response(SUCCESS));
+        }
+
+        void fail(final Exception cause) {
+            setFailed(cause);
+        }
+
+        @Override
+        public void asyncCancel(final boolean interruptionDesired) {
+            setCancelled();
+        }
+    }
+
+    private static class RecordingHandler implements FinalResponseCollector.ResponseHandler {
+
+        private final List<ServerIdentity> responded = new ArrayList<ServerIdentity>();
+        private final Map<ServerIdentity, ModelNode> responses = new LinkedHashMap<ServerIdentity, ModelNode>();
+        private final Map<ServerIdentity, Throwable> failures = new LinkedHashMap<ServerIdentity, Throwable>();
+        private final List<ServerIdentity> timedOut = new ArrayList<ServerIdentity>();
+        private boolean interrupted;
+
+        @Override
+        public void handleResponse(final ServerIdentity server, final OperationResponse response) {
+            responded.add(server);
+            responses.put(server, response.getResponseNode());
+        }
+
+        @Override
+        public void handleFailure(final ServerIdentity server, final Throwable cause) {
+            failures.put(server, cause);
+        }
+
+        @Override
+        public void handleTimeout(final ServerIdentity server, final boolean interrupted) {
+            timedOut.add(server);
+            this.interrupted |= interrupted;
+        }
+    }
+}
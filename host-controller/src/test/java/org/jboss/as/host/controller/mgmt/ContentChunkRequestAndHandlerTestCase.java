@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jboss.as.controller.remote.CompactModelCodec;
+import org.jboss.as.host.controller.mgmt.ContentChunkRequestAndHandler.ChunkRequest;
+import org.jboss.as.host.controller.mgmt.ContentChunkRequestAndHandler.ManifestEntry;
+import org.jboss.as.protocol.mgmt.FlushableDataOutput;
+import org.jboss.as.protocol.mgmt.RequestProcessingException;
+import org.jboss.as.repository.ContentChunkStore;
+import org.jboss.as.repository.PathUtil;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of getting content as chunks with {@link ContentChunkRequestAndHandler}, with requests and responses going
+ * through their wire format.
+ */
+public class ContentChunkRequestAndHandlerTestCase {
+
+    private static final String HASH = "0123456789abcdef0123456789abcdef01234567";
+
+    private final ContentChunkRequestAndHandler handler = new ContentChunkRequestAndHandler(null);
+    private Path dir;
+    private File content;
+    private final Map<String, byte[]> files = new HashMap<>();
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("content-chunks");
+        content = dir.resolve("content").toFile();
+        final byte[] library = randomBytes(2 * 1024 * 1024, 1);
+        addFile("lib/a.jar", library);
+        // The same library again, its chunks are only sent once
+        addFile("lib/copy-of-a.jar", library);
+        addFile("b.jar", randomBytes(1536 * 1024 + 7, 2));
+        addFile("empty.txt", new byte[0]);
+        Files.createDirectories(content.toPath().resolve("empty-dir"));
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        PathUtil.deleteRecursively(dir);
+    }
+
+    @Test
+    public void testTransfer() throws Exception {
+        final List<ManifestEntry> manifest = getManifest();
+        Assert.assertEquals(5, manifest.size());
+        final ContentChunkStore store = newStore();
+        final List<byte[]> missing = ContentChunkRequestAndHandler.getMissingChunks(manifest, store);
+        int total = 0;
+        for (ManifestEntry entry : manifest) {
+            total += entry.getHashes().size();
+        }
+        Assert.assertTrue(missing.size() + " of " + total, missing.size() < total);
+
+        getChunks(missing, store, Integer.MAX_VALUE);
+        Assert.assertTrue(ContentChunkRequestAndHandler.getMissingChunks(manifest, store).isEmpty());
+        assertAssembled(manifest, store);
+    }
+
+    @Test
+    public void testResumeInterruptedTransfer() throws Exception {
+        final List<ManifestEntry> manifest = getManifest();
+        final List<byte[]> missing = ContentChunkRequestAndHandler.getMissingChunks(manifest, newStore());
+        try {
+            // The connection drops half way through the response
+            getChunks(missing, newStore(), 2 * 1024 * 1024);
+            Assert.fail("The truncated response was read");
+        } catch (EOFException expected) {
+        }
+
+        // Chunks received in full before the connection dropped are kept
+        final ContentChunkStore store = newStore();
+        final List<byte[]> remaining = ContentChunkRequestAndHandler.getMissingChunks(manifest, store);
+        Assert.assertFalse(remaining.isEmpty());
+        Assert.assertTrue(remaining.size() < missing.size());
+
+        getChunks(remaining, store, Integer.MAX_VALUE);
+        assertAssembled(manifest, store);
+    }
+
+    @Test
+    public void testUnknownChunk() throws Exception {
+        final byte[] unknown = new byte[20];
+        new Random(3).nextBytes(unknown);
+        try {
+            handler.writeResponse(content, HASH, Collections.singletonList(unknown), new DataOutputStream(new ByteArrayOutputStream()));
+            Assert.fail("An unknown chunk was sent");
+        } catch (RequestProcessingException expected) {
+        }
+    }
+
+    @Test
+    public void testContentNotFound() throws Exception {
+        final byte[] response = respond(null, Collections.emptyList());
+        Assert.assertNull(ContentChunkRequestAndHandler.readManifest(new DataInputStream(new ByteArrayInputStream(response))));
+    }
+
+    @Test
+    public void testMasterWithoutChunkedContent() throws Exception {
+        final ModelNode domainModel = new ModelNode();
+        domainModel.get("name").set("domain");
+
+        // A master without the handler for chunk requests answers a registration with just the domain model
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        HostControllerRegistrationHandler.sendResponse(new Output(response), DomainControllerProtocol.PARAM_OK, domainModel);
+        Assert.assertFalse(readRegistrationResponse(response.toByteArray(), domainModel));
+
+        for (boolean compact : new boolean[] {false, true}) {
+            response = new ByteArrayOutputStream();
+            HostControllerRegistrationHandler.sendDomainModel(new Output(response), compact, true, domainModel);
+            Assert.assertTrue(readRegistrationResponse(response.toByteArray(), domainModel));
+
+            // Nor does a current master announce them to a host that did not ask
+            response = new ByteArrayOutputStream();
+            HostControllerRegistrationHandler.sendDomainModel(new Output(response), compact, false, domainModel);
+            Assert.assertFalse(readRegistrationResponse(response.toByteArray(), domainModel));
+        }
+    }
+
+    private List<ManifestEntry> getManifest() throws IOException, RequestProcessingException {
+        final byte[] response = respond(content, Collections.emptyList());
+        return ContentChunkRequestAndHandler.readManifest(new DataInputStream(new ByteArrayInputStream(response)));
+    }
+
+    /**
+     * Gets chunks in requests of the largest size allowed, reading at most {@code maxBytes} of each response.
+     */
+    private void getChunks(List<byte[]> hashes, ContentChunkStore store, long maxBytes) throws IOException, RequestProcessingException {
+        for (int i = 0; i < hashes.size(); i += ContentChunkRequestAndHandler.MAX_CHUNKS_PER_REQUEST) {
+            final List<byte[]> batch = hashes.subList(i, Math.min(hashes.size(), i + ContentChunkRequestAndHandler.MAX_CHUNKS_PER_REQUEST));
+            byte[] response = respond(content, batch);
+            if (response.length > maxBytes) {
+                response = Arrays.copyOf(response, (int) maxBytes);
+            }
+            ContentChunkRequestAndHandler.readChunks(new DataInputStream(new ByteArrayInputStream(response)), batch.size(), store);
+        }
+    }
+
+    /**
+     * Reads the response to a registration as the slave does.
+     *
+     * @return whether the master serves content as chunks
+     */
+    private static boolean readRegistrationResponse(byte[] response, ModelNode expected) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(response));
+        final byte param = input.readByte();
+        final ModelNode domainModel;
+        if (param == DomainControllerProtocol.PARAM_OK_COMPACT) {
+            domainModel = CompactModelCodec.read(input);
+        } else {
+            Assert.assertEquals(DomainControllerProtocol.PARAM_OK, param);
+            domainModel = new ModelNode();
+            domainModel.readExternal(input);
+        }
+        Assert.assertEquals(expected, domainModel);
+        return ContentChunkRequestAndHandler.readChunkedContentSupported(input);
+    }
+
+    /**
+     * Writes a request, and the response of the master to it.
+     */
+    private byte[] respond(File root, List<byte[]> hashes) throws IOException, RequestProcessingException {
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        try (Output output = new Output(request)) {
+            ContentChunkRequestAndHandler.sendRequest(output, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, HASH, hashes);
+        }
+        final ChunkRequest received = ChunkRequest.read(new DataInputStream(new ByteArrayInputStream(request.toByteArray())));
+        Assert.assertEquals(DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, received.rootId);
+        Assert.assertEquals(HASH, received.filePath);
+        Assert.assertEquals(hashes.size(), received.hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            Assert.assertArrayEquals(hashes.get(i), received.hashes.get(i));
+        }
+
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (Output output = new Output(response)) {
+            handler.writeResponse(root, received.filePath, received.hashes, output);
+        }
+        return response.toByteArray();
+    }
+
+    private void assertAssembled(List<ManifestEntry> manifest, ContentChunkStore store) throws IOException {
+        final File target = dir.resolve("target").toFile();
+        final List<String> paths = new ArrayList<>();
+        for (ManifestEntry entry : manifest) {
+            final String path = entry.getPath().replace(File.separatorChar, '/');
+            paths.add(path);
+            if (entry.isDirectory()) {
+                Assert.assertEquals("empty-dir", path);
+                continue;
+            }
+            final File file = new File(target, entry.getPath());
+            store.assemble(entry.getHashes(), file);
+            Assert.assertEquals(entry.getSize(), file.length());
+            Assert.assertArrayEquals(path, files.get(path), Files.readAllBytes(file.toPath()));
+        }
+        Collections.sort(paths);
+        Assert.assertEquals(Arrays.asList("b.jar", "empty-dir", "empty.txt", "lib/a.jar", "lib/copy-of-a.jar"), paths);
+    }
+
+    private ContentChunkStore newStore() {
+        return new ContentChunkStore(dir.resolve("store").toFile(), Long.MAX_VALUE);
+    }
+
+    private void addFile(String path, byte[] bytes) throws IOException {
+        final Path file = content.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+        files.put(path, bytes);
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static final class Output extends DataOutputStream implements FlushableDataOutput {
+        Output(ByteArrayOutputStream out) {
+            super(out);
+        }
+    }
+}
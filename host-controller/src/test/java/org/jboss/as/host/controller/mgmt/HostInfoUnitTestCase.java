@@ -36,6 +36,8 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.remote.CompactModelCodec;
+import org.jboss.as.domain.controller.operations.ReadMasterDomainModelUtil;
 import org.jboss.as.host.controller.RemoteDomainConnectionService;
 import org.jboss.as.host.controller.ignored.IgnoreDomainResourceTypeResource;
 import org.jboss.as.host.controller.ignored.IgnoredDomainResourceRegistry;
@@ -85,6 +87,45 @@ public class HostInfoUnitTestCase {
         Assert.assertEquals(1L, testee.getRemoteConnectionId().longValue());
     }
 
+    @Test
+    public void testCompactModel() {
+        LocalHostControllerInfoImpl lch = new MockLocalHostControllerInfo(new ControlledProcessState(true), "test");
+        ProductConfig productConfig = new ProductConfig("product", "version", "main");
+        IgnoredDomainResourceRegistry ignoredRegistry = new IgnoredDomainResourceRegistry(lch);
+        ModelNode model = HostInfo.createLocalHostHostInfo(lch, productConfig, ignoredRegistry, Resource.Factory.create());
+        Assert.assertEquals(CompactModelCodec.isEnabled(), model.hasDefined(HostInfo.COMPACT_MODEL));
+        Assert.assertEquals(CompactModelCodec.isEnabled(), HostInfo.fromModelNode(model).isCompactModel());
+
+        // Hosts that predate the compact encoding do not send the flag
+        model.remove(HostInfo.COMPACT_MODEL);
+        Assert.assertFalse(HostInfo.fromModelNode(model).isCompactModel());
+
+        // Nor does a host that disabled it change which parts of the domain model it receives
+        model.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).set("");
+        final String digest = HostInfo.fromModelNode(model).getDomainModelSyncDigest();
+        model.get(HostInfo.COMPACT_MODEL).set(true);
+        Assert.assertEquals(digest, HostInfo.fromModelNode(model).getDomainModelSyncDigest());
+    }
+
+    @Test
+    public void testChunkedContent() {
+        LocalHostControllerInfoImpl lch = new MockLocalHostControllerInfo(new ControlledProcessState(true), "test");
+        ProductConfig productConfig = new ProductConfig("product", "version", "main");
+        IgnoredDomainResourceRegistry ignoredRegistry = new IgnoredDomainResourceRegistry(lch);
+        ModelNode model = HostInfo.createLocalHostHostInfo(lch, productConfig, ignoredRegistry, Resource.Factory.create());
+        Assert.assertTrue(HostInfo.fromModelNode(model).isChunkedContent());
+
+        // Hosts that predate chunked content do not send the flag
+        model.remove(HostInfo.CHUNKED_CONTENT);
+        Assert.assertFalse(HostInfo.fromModelNode(model).isChunkedContent());
+
+        // Nor does getting content as chunks change which parts of the domain model a host receives
+        model.get(ReadMasterDomainModelUtil.DOMAIN_MODEL_VERSION).set("");
+        final String digest = HostInfo.fromModelNode(model).getDomainModelSyncDigest();
+        model.get(HostInfo.CHUNKED_CONTENT).set(true);
+        Assert.assertEquals(digest, HostInfo.fromModelNode(model).getDomainModelSyncDigest());
+    }
+
     @Test
     public void testRemoteDomainControllerIgnoreUnaffectedConfiguration() {
         LocalHostControllerInfoImpl lch = new MockLocalHostControllerInfo(new ControlledProcessState(true), "test");
@@ -75,6 +75,15 @@ public class ManagementModelIntegration implements ModelControllerServiceInitial
             return managementModel.getRootResource();
         }
 
+        /**
+         * Gets the root resource of the currently published model, which is not affected by later changes.
+         *
+         * @return the resource, or {@code null} if the model does not track publication
+         */
+        Resource getPublishedResource() {
+            return managementModel.getPublishedRootResource();
+        }
+
         ImmutableManagementResourceRegistration getRegistration() {
             return managementModel.getRootResourceRegistration();
         }
@@ -38,6 +38,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRI
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -69,6 +70,7 @@ import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResol
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.controller.registry.OperationEntry.Flag;
 import org.jboss.as.core.security.AccessMechanism;
 import org.jboss.as.jmx.logging.JmxLogger;
@@ -100,6 +102,7 @@ public class ModelControllerMBeanHelper {
     private final String domain;
     private final ObjectInstance rootObjectInstance;
     private final ManagementModelIntegration.ManagementModelProvider managementModelProvider;
+    private volatile ObjectNameIndex index;
 
     ModelControllerMBeanHelper(TypeConverters converters, ConfiguredDomains configuredDomains, String domain,
                                ModelController controller, MutabilityChecker mutabilityChecker,
@@ -115,9 +118,20 @@ public class ModelControllerMBeanHelper {
     }
 
     int getMBeanCount() {
+        final ObjectNameIndex index = getIndex();
+        int count = index.getRegisteredCount();
+        for (ObjectNameIndex.Entry live : index.getLiveEntries()) {
+            if (live.isRegistered()) {
+                count += countLive(live);
+            }
+        }
+        return count;
+    }
+
+    private int countLive(final ObjectNameIndex.Entry live) {
         // Here we don't provide the accessControlUtil as we don't want to pay the cost of doing RBAC
         // checks. An mbean exists and can be in the count regardless of whether it can be addressed
-        return new RootResourceIterator<Integer>(null, getRootResourceAndRegistration().getResource(), new ResourceAction<Integer>() {
+        return new RootResourceIterator<Integer>(null, live.getResource(), live.getAddress(), new ResourceAction<Integer>() {
             int count;
             final ImmutableManagementResourceRegistration rootRegistration = getRootResourceAndRegistration().getRegistration();
             @Override
@@ -144,26 +158,13 @@ public class ModelControllerMBeanHelper {
     }
 
     Set<ObjectInstance> queryMBeans(final MBeanServer mbeanServer, final ObjectName name, final QueryExp query) {
-        Set<ObjectInstance> basic = new RootResourceIterator<Set<ObjectInstance>>(accessControlUtil, getRootResourceAndRegistration().getResource(),
-                new ObjectNameMatchResourceAction<Set<ObjectInstance>>(name) {
-
-            Set<ObjectInstance> set = new HashSet<ObjectInstance>();
-
-            @Override
-            public boolean onResource(ObjectName resourceName) {
-                if (name == null || name.apply(resourceName)) {
-                    set.add(new ObjectInstance(resourceName, CLASS_NAME));
-                }
-                return true;
-            }
-
-            @Override
-            public Set<ObjectInstance> getResult() {
-                return set;
-            }
-        }).iterate();
+        Set<ObjectName> names = findNames(name);
+        Set<ObjectInstance> basic = new HashSet<ObjectInstance>(names.size());
+        for (ObjectName resourceName : names) {
+            basic.add(new ObjectInstance(resourceName, CLASS_NAME));
+        }
 
-        // Handle any 'query' outside the RootResourceIterator so if the query calls back
+        // Handle any 'query' outside the index lookup so if the query calls back
         // into us it's not a recursive kind of thing in the ModelController
         Set<ObjectInstance> result;
         if (query == null || basic.isEmpty()) {
@@ -188,26 +189,9 @@ public class ModelControllerMBeanHelper {
     }
 
     Set<ObjectName> queryNames(MBeanServer mbeanServer, final ObjectName name, final QueryExp query) {
-        Set<ObjectName> basic = new RootResourceIterator<Set<ObjectName>>(accessControlUtil, getRootResourceAndRegistration().getResource(),
-                new ObjectNameMatchResourceAction<Set<ObjectName>>(name) {
+        Set<ObjectName> basic = findNames(name);
 
-            Set<ObjectName> set = new HashSet<ObjectName>();
-
-            @Override
-            public boolean onResource(ObjectName resourceName) {
-                if (name == null || name.apply(resourceName)) {
-                    set.add(resourceName);
-                }
-                return true;
-            }
-
-            @Override
-            public Set<ObjectName> getResult() {
-                return set;
-            }
-        }).iterate();
-
-        // Handle any 'query' outside the RootResourceIterator so if the query calls back
+        // Handle any 'query' outside the index lookup so if the query calls back
         // into us it's not a recursive kind of thing in the ModelController
         Set<ObjectName> result;
         if (query == null || basic.isEmpty()) {
@@ -230,6 +214,73 @@ public class ModelControllerMBeanHelper {
         return result;
     }
 
+    /**
+     * Finds the names of the resources matching a name or pattern that the caller may address. Candidates come from
+     * the index, and only they and their ancestors are checked for access, as a resource whose parent is not
+     * accessible is not accessible either.
+     */
+    private Set<ObjectName> findNames(final ObjectName name) {
+        final ObjectNameIndex index = getIndex();
+        final Set<ObjectName> result = new HashSet<ObjectName>();
+        final Map<ObjectNameIndex.Entry, Boolean> accessible = new HashMap<>();
+        for (ObjectNameIndex.Entry entry : index.getCandidates(name)) {
+            if ((name == null || name.apply(entry.getName())) && isAccessible(entry, accessible)) {
+                result.add(entry.getName());
+            }
+        }
+        for (ObjectNameIndex.Entry live : index.getLiveEntries()) {
+            if (isAccessible(live.getParent(), accessible)) {
+                result.addAll(new RootResourceIterator<Set<ObjectName>>(accessControlUtil, live.getResource(), live.getAddress(),
+                        new ObjectNameMatchResourceAction<Set<ObjectName>>(name) {
+
+                    Set<ObjectName> set = new HashSet<ObjectName>();
+
+                    @Override
+                    public boolean onResource(ObjectName resourceName) {
+                        if (name == null || name.apply(resourceName)) {
+                            set.add(resourceName);
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public Set<ObjectName> getResult() {
+                        return set;
+                    }
+                }).iterate());
+            }
+        }
+        return result;
+    }
+
+    private boolean isAccessible(final ObjectNameIndex.Entry entry, final Map<ObjectNameIndex.Entry, Boolean> checked) {
+        Boolean result = checked.get(entry);
+        if (result == null) {
+            result = (entry.getParent() == null || isAccessible(entry.getParent(), checked))
+                    && accessControlUtil.getResourceAccess(entry.getAddress(), false).isAccessibleResource();
+            checked.put(entry, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of the currently published model, creating it if the model has changed since the index
+     * was last created. If the model does not track publication, a new index is created each time.
+     */
+    private ObjectNameIndex getIndex() {
+        final ManagementModelIntegration.ResourceAndRegistration reg = getRootResourceAndRegistration();
+        final Resource published = reg.getPublishedResource();
+        if (published == null) {
+            return ObjectNameIndex.create(domain, reg.getResource(), reg.getRegistration(), CORE_SERVICE_PLATFORM_MBEAN);
+        }
+        ObjectNameIndex current = index;
+        if (current == null || !current.isFor(published)) {
+            current = ObjectNameIndex.create(domain, published, reg.getRegistration(), CORE_SERVICE_PLATFORM_MBEAN);
+            index = current;
+        }
+        return current;
+    }
+
     /**  Set the mbean server on the QueryExp and try and pass back any previously set one */
     private static MBeanServer setQueryExpServer(QueryExp query, MBeanServer toSet) {
         // We assume the QueryExp is a QueryEval subclass or uses the QueryEval thread local
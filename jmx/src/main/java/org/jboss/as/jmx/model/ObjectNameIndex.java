@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jmx.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.registry.Resource.ResourceEntry;
+
+/**
+ * Index of the {@link ObjectName}s of the resources in a published management model, so queries can be answered
+ * without walking the whole model and creating the name of every resource each time.
+ * <p>
+ * A published model is never modified, so the index stays valid until another model is published. The exception
+ * is runtime and proxy resources, whose children can change without a new model being published; these are not
+ * indexed but recorded as {@link #getLiveEntries() live entries}, whose subtrees callers walk on each query.
+ * </p>
+ */
+final class ObjectNameIndex {
+
+    private final Resource root;
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Entry> liveEntries = new ArrayList<>();
+    private final Map<ObjectName, Entry> byName = new HashMap<>();
+    /** Entries by "key=value" of each of their key properties */
+    private final Map<String, List<Entry>> byProperty = new HashMap<>();
+    private final ObjectNameAddressUtil.ObjectNameCreationContext creationContext = ObjectNameAddressUtil.ObjectNameCreationContext.create();
+    private int registeredCount;
+
+    private ObjectNameIndex(final Resource root) {
+        this.root = root;
+    }
+
+    /**
+     * Indexes a published model.
+     *
+     * @param domain the JMX domain of the names
+     * @param root the published root resource
+     * @param rootRegistration the root resource registration
+     * @param excluded the address of a subtree not visible in the domain
+     * @return the index
+     */
+    static ObjectNameIndex create(final String domain, final Resource root, final ImmutableManagementResourceRegistration rootRegistration,
+                                  final PathAddress excluded) {
+        final ObjectNameIndex index = new ObjectNameIndex(root);
+        index.add(domain, root, PathAddress.EMPTY_ADDRESS, null, rootRegistration, excluded);
+        return index;
+    }
+
+    private void add(final String domain, final Resource resource, final PathAddress address, final Entry parent,
+                     final ImmutableManagementResourceRegistration rootRegistration, final PathAddress excluded) {
+        if (address.equals(excluded)) {
+            return;
+        }
+        final boolean registered = (parent == null || parent.registered) && rootRegistration.getSubModel(address) != null;
+        if (parent != null && (resource.isRuntime() || resource.isProxy())) {
+            liveEntries.add(new Entry(address, null, parent, resource, registered));
+            return;
+        }
+        final ObjectName name = ObjectNameAddressUtil.createObjectName(domain, address, creationContext);
+        final Entry entry = new Entry(address, name, parent, null, registered);
+        entries.add(entry);
+        byName.put(name, entry);
+        for (Map.Entry<String, String> property : name.getKeyPropertyList().entrySet()) {
+            byProperty.computeIfAbsent(property.getKey() + '=' + property.getValue(), k -> new ArrayList<>()).add(entry);
+        }
+        if (registered) {
+            registeredCount++;
+        }
+        for (String type : resource.getChildTypes()) {
+            if (resource.hasChildren(type)) {
+                for (ResourceEntry child : resource.getChildren(type)) {
+                    final PathElement pathElement = child.getPathElement();
+                    add(domain, child, address.append(pathElement), entry, rootRegistration, excluded);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether this index was created for a published model.
+     *
+     * @param publishedRoot the root resource of the published model
+     * @return {@code true} if the index is for the model
+     */
+    boolean isFor(final Resource publishedRoot) {
+        return root == publishedRoot;
+    }
+
+    /**
+     * Gets the entries whose names may match a name or pattern. Callers still need to apply the pattern.
+     *
+     * @param pattern the name or pattern, or {@code null} for all entries
+     * @return the candidate entries
+     */
+    Collection<Entry> getCandidates(final ObjectName pattern) {
+        if (pattern == null) {
+            return entries;
+        }
+        if (!pattern.isPattern()) {
+            final Entry entry = byName.get(pattern);
+            return entry == null ? Collections.<Entry>emptyList() : Collections.singletonList(entry);
+        }
+        // Any property with a literal value must be in the name, so start from the fewest entries having one
+        Collection<Entry> candidates = entries;
+        for (Map.Entry<String, String> property : pattern.getKeyPropertyList().entrySet()) {
+            if (!pattern.isPropertyValuePattern(property.getKey())) {
+                final List<Entry> withProperty = byProperty.get(property.getKey() + '=' + property.getValue());
+                if (withProperty == null) {
+                    return Collections.emptyList();
+                }
+                if (withProperty.size() < candidates.size()) {
+                    candidates = withProperty;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets the runtime and proxy resources, whose subtrees are not indexed.
+     */
+    List<Entry> getLiveEntries() {
+        return liveEntries;
+    }
+
+    /**
+     * Gets the number of indexed resources that have a resource registration, not counting resources under
+     * ones that do not.
+     */
+    int getRegisteredCount() {
+        return registeredCount;
+    }
+
+    static final class Entry {
+        private final PathAddress address;
+        private final ObjectName name;
+        private final Entry parent;
+        private final Resource resource;
+        private final boolean registered;
+
+        private Entry(PathAddress address, ObjectName name, Entry parent, Resource resource, boolean registered) {
+            this.address = address;
+            this.name = name;
+            this.parent = parent;
+            this.resource = resource;
+            this.registered = registered;
+        }
+
+        PathAddress getAddress() {
+            return address;
+        }
+
+        /**
+         * @return the name, or {@code null} for a live entry
+         */
+        ObjectName getName() {
+            return name;
+        }
+
+        /**
+         * @return the entry of the parent resource, or {@code null} for the root
+         */
+        Entry getParent() {
+            return parent;
+        }
+
+        /**
+         * @return the resource of a live entry, or {@code null} for an indexed one
+         */
+        Resource getResource() {
+            return resource;
+        }
+
+        /**
+         * @return whether the resource and all its ancestors have a resource registration
+         */
+        boolean isRegistered() {
+            return registered;
+        }
+    }
+}
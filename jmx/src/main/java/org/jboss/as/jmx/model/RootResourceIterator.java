@@ -31,16 +31,28 @@ import org.jboss.as.controller.registry.Resource.ResourceEntry;
 class RootResourceIterator<T> {
     private final ResourceAccessControlUtil accessControlUtil;
     private final Resource rootResource;
+    private final PathAddress rootAddress;
     private final ResourceAction<T> action;
 
     RootResourceIterator(final ResourceAccessControlUtil accessControlUtil, final Resource rootResource, final ResourceAction<T> action) {
+        this(accessControlUtil, rootResource, PathAddress.EMPTY_ADDRESS, action);
+    }
+
+    /**
+     * Creates an iterator over a subtree of the model.
+     *
+     * @param rootAddress the address of {@code rootResource}
+     */
+    RootResourceIterator(final ResourceAccessControlUtil accessControlUtil, final Resource rootResource, final PathAddress rootAddress,
+                         final ResourceAction<T> action) {
         this.accessControlUtil = accessControlUtil;
         this.rootResource = rootResource;
+        this.rootAddress = rootAddress;
         this.action = action;
     }
 
     T iterate() {
-        doIterate(rootResource, PathAddress.EMPTY_ADDRESS);
+        doIterate(rootResource, rootAddress);
         return action.getResult();
     }
 
@@ -0,0 +1,186 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jmx.model;
+
+import static org.jboss.as.controller.PathElement.pathElement;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.ObjectName;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.ResourceBuilder;
+import org.jboss.as.controller.ResourceDefinition;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.registry.DelegatingResource;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ObjectNameIndex}.
+ */
+public class ObjectNameIndexTestCase {
+
+    private static final String DOMAIN = "jboss.as";
+    private static final PathAddress EXCLUDED = PathAddress.pathAddress(pathElement("core-service", "platform-mbean"));
+    private static final PathElement SUBSYSTEM = pathElement("subsystem", "foo");
+    private static final PathElement RESOURCE_A = pathElement("resource", "a");
+    private static final PathElement RESOURCE_B = pathElement("resource", "b");
+    private static final PathElement RUNTIME = pathElement("runtime", "r");
+    private static final PathElement PROXY = pathElement("proxy", "p");
+    private static final PathElement UNREGISTERED = pathElement("unregistered", "u");
+    private static final ResourceDefinition rootResourceDef = ResourceBuilder.Factory.create(PathElement.pathElement("test"), NonResolvingResourceDescriptionResolver.INSTANCE).build();
+
+    private ManagementResourceRegistration rootRegistration;
+    private Resource root;
+
+    @Before
+    public void setup() {
+        NonResolvingResourceDescriptionResolver resolver = new NonResolvingResourceDescriptionResolver();
+        rootRegistration = ManagementResourceRegistration.Factory.forProcessType(ProcessType.EMBEDDED_SERVER).createRegistration(rootResourceDef);
+        ManagementResourceRegistration subsystemRegistration = rootRegistration.registerSubModel(new SimpleResourceDefinition(SUBSYSTEM, resolver));
+        subsystemRegistration.registerSubModel(new SimpleResourceDefinition(pathElement("resource"), resolver));
+        rootRegistration.registerSubModel(new SimpleResourceDefinition(pathElement("runtime"), resolver));
+        rootRegistration.registerSubModel(new SimpleResourceDefinition(pathElement("proxy"), resolver));
+        rootRegistration.registerSubModel(new SimpleResourceDefinition(EXCLUDED.getLastElement(), resolver));
+
+        root = Resource.Factory.create();
+        Resource subsystem = Resource.Factory.create();
+        subsystem.registerChild(RESOURCE_A, Resource.Factory.create());
+        subsystem.registerChild(RESOURCE_B, Resource.Factory.create());
+        root.registerChild(SUBSYSTEM, subsystem);
+        Resource runtime = Resource.Factory.create(true);
+        runtime.registerChild(pathElement("child", "c"), Resource.Factory.create(true));
+        root.registerChild(RUNTIME, runtime);
+        root.registerChild(PROXY, new DelegatingResource(Resource.Factory.create()) {
+            @Override
+            public boolean isProxy() {
+                return true;
+            }
+        });
+        root.registerChild(UNREGISTERED, Resource.Factory.create());
+        root.registerChild(EXCLUDED.getLastElement(), Resource.Factory.create());
+    }
+
+    @Test
+    public void testAllCandidates() throws Exception {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        Set<ObjectName> names = names(index.getCandidates(null));
+        Assert.assertEquals(names.toString(), 5, names.size());
+        Assert.assertTrue(names.contains(new ObjectName("jboss.as:management-root=server")));
+        Assert.assertTrue(names.contains(name(SUBSYSTEM)));
+        Assert.assertTrue(names.contains(name(SUBSYSTEM, RESOURCE_A)));
+        Assert.assertTrue(names.contains(name(SUBSYSTEM, RESOURCE_B)));
+        Assert.assertTrue(names.contains(name(UNREGISTERED)));
+    }
+
+    @Test
+    public void testExactCandidates() throws Exception {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        Collection<ObjectNameIndex.Entry> candidates = index.getCandidates(name(SUBSYSTEM, RESOURCE_A));
+        Assert.assertEquals(1, candidates.size());
+        ObjectNameIndex.Entry entry = candidates.iterator().next();
+        Assert.assertEquals(PathAddress.pathAddress(SUBSYSTEM, RESOURCE_A), entry.getAddress());
+        Assert.assertEquals(PathAddress.pathAddress(SUBSYSTEM), entry.getParent().getAddress());
+        Assert.assertNull(entry.getResource());
+
+        Assert.assertTrue(index.getCandidates(name(SUBSYSTEM, pathElement("resource", "c"))).isEmpty());
+        Assert.assertTrue(index.getCandidates(name(EXCLUDED.getLastElement())).isEmpty());
+        // Runtime and proxy resources are not indexed
+        Assert.assertTrue(index.getCandidates(name(RUNTIME)).isEmpty());
+        Assert.assertTrue(index.getCandidates(name(PROXY)).isEmpty());
+    }
+
+    @Test
+    public void testPatternCandidates() throws Exception {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        ObjectName pattern = new ObjectName("jboss.as:subsystem=foo,resource=*");
+        Set<ObjectName> matches = new HashSet<>();
+        for (ObjectNameIndex.Entry entry : index.getCandidates(pattern)) {
+            if (pattern.apply(entry.getName())) {
+                matches.add(entry.getName());
+            }
+        }
+        Assert.assertEquals(2, matches.size());
+        Assert.assertTrue(matches.contains(name(SUBSYSTEM, RESOURCE_A)));
+        Assert.assertTrue(matches.contains(name(SUBSYSTEM, RESOURCE_B)));
+
+        Assert.assertTrue(index.getCandidates(new ObjectName("jboss.as:subsystem=bar,*")).isEmpty());
+        Assert.assertEquals(5, index.getCandidates(new ObjectName("jboss.as:*")).size());
+    }
+
+    @Test
+    public void testLiveEntries() throws Exception {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        List<ObjectNameIndex.Entry> live = index.getLiveEntries();
+        Assert.assertEquals(2, live.size());
+        Set<PathAddress> addresses = new HashSet<>();
+        for (ObjectNameIndex.Entry entry : live) {
+            addresses.add(entry.getAddress());
+            Assert.assertNull(entry.getName());
+            Assert.assertSame(root.getChild(entry.getAddress().getLastElement()), entry.getResource());
+            Assert.assertEquals(PathAddress.EMPTY_ADDRESS, entry.getParent().getAddress());
+            Assert.assertTrue(entry.isRegistered());
+        }
+        Assert.assertTrue(addresses.contains(PathAddress.pathAddress(RUNTIME)));
+        Assert.assertTrue(addresses.contains(PathAddress.pathAddress(PROXY)));
+    }
+
+    @Test
+    public void testRegisteredCount() {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        // The root, the subsystem and its two resources, but not the unregistered resource
+        Assert.assertEquals(4, index.getRegisteredCount());
+        for (ObjectNameIndex.Entry entry : index.getCandidates(null)) {
+            Assert.assertEquals(entry.getAddress().toString(), !entry.getAddress().equals(PathAddress.pathAddress(UNREGISTERED)), entry.isRegistered());
+        }
+    }
+
+    @Test
+    public void testIsFor() {
+        ObjectNameIndex index = ObjectNameIndex.create(DOMAIN, root, rootRegistration, EXCLUDED);
+        Assert.assertTrue(index.isFor(root));
+        Assert.assertFalse(index.isFor(root.clone()));
+        Assert.assertFalse(index.isFor(null));
+    }
+
+    private static ObjectName name(PathElement... elements) {
+        return ObjectNameAddressUtil.createObjectName(DOMAIN, PathAddress.pathAddress(elements));
+    }
+
+    private static Set<ObjectName> names(Collection<ObjectNameIndex.Entry> entries) {
+        Set<ObjectName> names = new HashSet<>();
+        for (ObjectNameIndex.Entry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+}
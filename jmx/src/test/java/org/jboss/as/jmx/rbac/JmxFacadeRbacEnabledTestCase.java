@@ -127,10 +127,13 @@ public class JmxFacadeRbacEnabledTestCase extends AbstractControllerTestBase {
     private static final PathElement ONE = PathElement.pathElement("one");
     private static final PathElement ONE_A = PathElement.pathElement("one", "a");
     private static final PathElement ONE_B = PathElement.pathElement("one", "b");
+    private static final PathElement TWO = PathElement.pathElement("two");
+    private static final PathElement TWO_X = PathElement.pathElement("two", "x");
 
     private static final ObjectName ROOT_NAME;
     private static final ObjectName ONE_A_NAME;
     private static final ObjectName ONE_B_NAME;
+    private static final ObjectName ONE_A_TWO_X_NAME;
 
     private static SecurityDomain testDomain;
 
@@ -139,6 +142,7 @@ public class JmxFacadeRbacEnabledTestCase extends AbstractControllerTestBase {
             ROOT_NAME = new ObjectName("jboss.as:management-root=server");
             ONE_A_NAME = new ObjectName("jboss.as:one=a");
             ONE_B_NAME = new ObjectName("jboss.as:one=b");
+            ONE_A_TWO_X_NAME = new ObjectName("jboss.as:one=a,two=x");
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -515,6 +519,93 @@ public class JmxFacadeRbacEnabledTestCase extends AbstractControllerTestBase {
         });
     }
 
+    @Test
+    public void testPatternQueryExcludesSensitiveResourceAsMonitor() throws Exception {
+        checkPatternQuerySensitive(StandardRole.MONITOR, false);
+    }
+
+    @Test
+    public void testPatternQueryExcludesSensitiveResourceAsAdministrator() throws Exception {
+        checkPatternQuerySensitive(StandardRole.ADMINISTRATOR, true);
+    }
+
+    private void checkPatternQuerySensitive(final StandardRole standardRole, final boolean addressable) throws Exception {
+        ChildResourceDefinition oneChild = new ChildResourceDefinition(ONE, createSensitivityConstraint("checkPatternQuerySensitive" + standardRole, true, false, false));
+        oneChild.addAttribute("attr1");
+        ManagementResourceRegistration oneRegistration = rootRegistration.registerSubModel(oneChild);
+        oneRegistration.registerSubModel(new ChildResourceDefinition(TWO));
+        Resource resourceA = Resource.Factory.create();
+        resourceA.registerChild(TWO_X, Resource.Factory.create());
+        rootResource.registerChild(ONE_A, resourceA);
+        rootResource.registerChild(ONE_B, Resource.Factory.create());
+
+        AccessAuditContext.doAs(roleToSecurityIdentity(standardRole), null, new PrivilegedExceptionAction<Void>() {
+            @Override
+            public Void run() throws Exception {
+                Set<ObjectName> names = server.queryNames(new ObjectName("jboss.as:one=*"), null);
+                Assert.assertEquals(addressable ? 2 : 0, names.size());
+                Assert.assertEquals(addressable, server.queryNames(ONE_A_NAME, null).contains(ONE_A_NAME));
+                // Children of a resource that cannot be addressed cannot be addressed either
+                Assert.assertEquals(addressable, server.queryNames(new ObjectName("jboss.as:two=x,*"), null).contains(ONE_A_TWO_X_NAME));
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testQueryAfterModelChange() throws Exception {
+        ChildResourceDefinition oneChild = new ChildResourceDefinition(ONE);
+        oneChild.addAttribute("attr1");
+        rootRegistration.registerSubModel(oneChild);
+        rootResource.registerChild(ONE_B, Resource.Factory.create());
+
+        AccessAuditContext.doAs(roleToSecurityIdentity(StandardRole.ADMINISTRATOR), null, new PrivilegedExceptionAction<Void>() {
+            @Override
+            public Void run() throws Exception {
+                ObjectName pattern = new ObjectName("jboss.as:one=*");
+                Assert.assertEquals(Collections.singleton(ONE_B_NAME), server.queryNames(pattern, null));
+                int count = server.getMBeanCount();
+
+                // Publishes a new model, so the names must be found again
+                server.invoke(ROOT_NAME, "addOne", new String[]{"a", "test"}, new String[] {String.class.getName(), String.class.getName()});
+                Set<ObjectName> names = server.queryNames(pattern, null);
+                Assert.assertEquals(2, names.size());
+                Assert.assertTrue(names.contains(ONE_A_NAME));
+                Assert.assertTrue(server.queryNames(ONE_A_NAME, null).contains(ONE_A_NAME));
+                Assert.assertEquals(count + 1, server.getMBeanCount());
+
+                server.invoke(ONE_B_NAME, "remove", new Object[0], new String[0]);
+                Assert.assertEquals(Collections.singleton(ONE_A_NAME), server.queryNames(pattern, null));
+                Assert.assertEquals(count, server.getMBeanCount());
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testQueryRuntimeResourceChildren() throws Exception {
+        ManagementResourceRegistration oneRegistration = rootRegistration.registerSubModel(new ChildResourceDefinition(ONE));
+        oneRegistration.registerSubModel(new ChildResourceDefinition(TWO));
+        Resource runtimeResource = Resource.Factory.create(true);
+        rootResource.registerChild(ONE_A, runtimeResource);
+
+        AccessAuditContext.doAs(roleToSecurityIdentity(StandardRole.ADMINISTRATOR), null, new PrivilegedExceptionAction<Void>() {
+            @Override
+            public Void run() throws Exception {
+                ObjectName pattern = new ObjectName("jboss.as:two=*,*");
+                Assert.assertTrue(server.queryNames(null, null).contains(ONE_A_NAME));
+                Assert.assertTrue(server.queryNames(pattern, null).isEmpty());
+                int count = server.getMBeanCount();
+
+                // Children of runtime resources change without a new model being published
+                runtimeResource.registerChild(TWO_X, Resource.Factory.create(true));
+                Assert.assertEquals(Collections.singleton(ONE_A_TWO_X_NAME), server.queryNames(pattern, null));
+                Assert.assertEquals(count + 1, server.getMBeanCount());
+                return null;
+            }
+        });
+    }
+
     @Test
     public void testReadVaultExpressionsNoReadAsMonitor() throws Exception {
         checkReadVaultExpressionReadSensitive(StandardRole.MONITOR, false);
@@ -25,22 +25,27 @@ package org.jboss.as.logging;
 import static org.jboss.as.logging.CommonAttributes.ENCODING;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -60,6 +65,7 @@ import org.jboss.as.controller.access.constraint.SensitivityClassification;
 import org.jboss.as.controller.access.management.AccessConstraintDefinition;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.logging.logging.LoggingLogger;
@@ -115,9 +121,14 @@ class LogFileResourceDefinition extends SimpleResourceDefinition {
             .setDefaultValue(new ModelNode(true))
             .build();
 
+    private static final SimpleAttributeDefinition POSITION = SimpleAttributeDefinitionBuilder.create("position", ModelType.LONG, true)
+            .setAllowExpression(false)
+            .setValidator(new LongRangeValidator(0, true))
+            .build();
+
     private static final SimpleOperationDefinition READ_LOG_FILE = new SimpleOperationDefinitionBuilder("read-log-file", LoggingExtension.getResourceDescriptionResolver())
             .addAccessConstraint(VIEW_SERVER_LOGS)
-            .setParameters(ENCODING, LINES, SKIP, TAIL)
+            .setParameters(ENCODING, LINES, SKIP, TAIL, POSITION)
             .setReplyType(ModelType.LIST)
             .setReplyValueType(ModelType.STRING)
             .setReadOnly()
@@ -235,48 +246,81 @@ class LogFileResourceDefinition extends SimpleResourceDefinition {
             final boolean tail = TAIL.resolveModelAttribute(context, operation).asBoolean();
             final ModelNode encodingModel = ENCODING.resolveModelAttribute(context, operation);
             final String encoding = (encodingModel.isDefined() ? encodingModel.asString() : null);
-            final File path = new File(pathManager.resolveRelativePathEntry(fileName, ServerEnvironment.SERVER_LOG_DIR));
+            final ModelNode positionModel = POSITION.resolveModelAttribute(context, operation);
+            final Path path = Paths.get(pathManager.resolveRelativePathEntry(fileName, ServerEnvironment.SERVER_LOG_DIR));
 
             // The file must exist
-            if (!path.exists()) {
+            if (Files.notExists(path)) {
                 throw LoggingLogger.ROOT_LOGGER.logFileNotFound(fileName, ServerEnvironment.SERVER_LOG_DIR);
             }
 
             // Read the contents of the log file
             try {
+                final long size = Files.size(path);
+                long start = 0L;
+                long end = size;
+                if (positionModel.isDefined()) {
+                    // Only read the complete lines appended since the position the previous invocation returned. If
+                    // the file is now smaller it has been rotated or truncated, so read it from the start.
+                    start = positionModel.asLong();
+                    if (start > size) {
+                        start = 0L;
+                    }
+                    end = ReverseLineReader.findCompleteLinesEnd(path, start, size);
+                }
                 final List<String> lines;
                 if (numberOfLines == 0) {
                     lines = Collections.emptyList();
                 } else {
-                    lines = readLines(path, encoding, tail, skip, numberOfLines);
+                    lines = readLines(path, encoding, tail, skip, numberOfLines, start, end);
                 }
                 final ModelNode result = context.getResult().setEmptyList();
                 for (String line : lines) {
                     result.add(line);
                 }
+                // The position to pass to the next invocation to only read the lines appended after this read
+                context.getResponseHeaders().get(POSITION.getName()).set(positionModel.isDefined() ? end : ReverseLineReader.findCompleteLinesEnd(path, 0L, size));
             } catch (IOException e) {
                 throw LoggingLogger.ROOT_LOGGER.failedToReadLogFile(e, fileName);
             }
             context.completeStep(ResultHandler.NOOP_RESULT_HANDLER);
         }
+    }
 
-        private List<String> readLines(final File file, final String encoding, final boolean tail, final int skip, final int numberOfLines) throws IOException {
-            final List<String> lines;
-            if (numberOfLines < 0) {
-                lines = new ArrayList<>();
-            } else {
-                lines = new ArrayList<>(numberOfLines);
-            }
-            try (
-                    final InputStream in = (tail ? new LifoFileInputStream(file) : Files.newInputStream(file.toPath()));
-                    /* we should stick with the default here and not use UTF-8.
-                    The encoding on the file handler does not default to UTF-8 but the system default.
-                    I think here we should stick with the system default unless explicitly defined.
-                    I could see a UTF-8 default possibly being problematic on IBM bases systems.
-                     */
-                    final InputStreamReader isr = (encoding == null ? new InputStreamReader(in) : new InputStreamReader(in, encoding));
-                    final BufferedReader reader = new BufferedReader(isr)
-            ) {
+    /**
+     * Reads the lines of a log file.
+     *
+     * @param file          the log file
+     * @param encoding      the character encoding of the file or {@code null} for the system default
+     * @param tail          {@code true} to read the lines at the end of the file
+     * @param skip          the number of lines to skip, from the end of the file if reading the tail
+     * @param numberOfLines the maximum number of lines to read or {@code -1} for all lines
+     *
+     * @return the lines in the order they appear in the file
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static List<String> readLines(final Path file, final String encoding, final boolean tail, final int skip, final int numberOfLines) throws IOException {
+        return readLines(file, encoding, tail, skip, numberOfLines, 0L, Files.size(file));
+    }
+
+    private static List<String> readLines(final Path file, final String encoding, final boolean tail, final int skip, final int numberOfLines,
+                                          final long start, final long end) throws IOException {
+        /* we should stick with the default here and not use UTF-8.
+        The encoding on the file handler does not default to UTF-8 but the system default.
+        I think here we should stick with the system default unless explicitly defined.
+        I could see a UTF-8 default possibly being problematic on IBM bases systems.
+         */
+        final Charset charset = (encoding == null ? Charset.defaultCharset() : forName(encoding));
+        final List<String> lines;
+        if (numberOfLines < 0) {
+            lines = new ArrayList<>();
+        } else {
+            lines = new ArrayList<>(numberOfLines);
+        }
+        if (tail && ReverseLineReader.isSupported(charset)) {
+            // Only the lines needed are read, from the end of the file
+            try (ReverseLineReader reader = new ReverseLineReader(file, charset, start, end)) {
                 int lineCount = 0;
                 String line;
                 while ((line = reader.readLine()) != null) {
@@ -284,74 +328,83 @@ class LogFileResourceDefinition extends SimpleResourceDefinition {
                     if (lines.size() == numberOfLines) break;
                     lines.add(line);
                 }
-                if (tail) {
-                    Collections.reverse(lines);
+            }
+            Collections.reverse(lines);
+            return lines;
+        }
+        try (
+                final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(new RangeInputStream(channel, start, end), charset))
+        ) {
+            if (tail) {
+                // The line feeds can't be found without decoding the file, so keep the last lines while reading it
+                final Deque<String> lastLines = new ArrayDeque<>();
+                final long keep = numberOfLines < 0 ? Long.MAX_VALUE : (long) numberOfLines + skip;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (lastLines.size() == keep) {
+                        lastLines.removeFirst();
+                    }
+                    lastLines.addLast(line);
+                }
+                for (int i = 0; i < skip && !lastLines.isEmpty(); i++) {
+                    lastLines.removeLast();
                 }
+                lines.addAll(lastLines);
                 return lines;
             }
+            int lineCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (++lineCount <= skip) continue;
+                if (lines.size() == numberOfLines) break;
+                lines.add(line);
+            }
+            return lines;
         }
     }
 
-    static final class LifoFileInputStream extends InputStream {
-        private final RandomAccessFile raf;
-        private final long len;
-        private long start;
-        private long end;
-        private long pos;
-
-        LifoFileInputStream(final File file) throws IOException {
-            raf = new RandomAccessFile(file, "r");
-            len = raf.length();
-            start = len;
-            end = len;
-            pos = end;
+    private static Charset forName(final String encoding) throws UnsupportedEncodingException {
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
         }
+    }
 
-        private void positionFile() throws IOException {
-            end = start;
-            // If we're at the beginning of the file, nothing more to read
-            if (end == 0) {
-                end = -1;
-                start = -1;
-                pos = -1;
-                return;
-            }
+    /**
+     * An input stream reading a region of a file.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long pos;
 
-            long filePointer = start - 1;
-            while (true) {
-                filePointer--;
-                // We're at the start of the file
-                if (filePointer < 0) {
-                    break;
-                }
-                // Position the file
-                raf.seek(filePointer);
-                final byte readByte = raf.readByte();
-                // If the byte is a line feed we've found the next line ignoring the last line feed in the file
-                if (readByte == '\n' && filePointer != (len - 1)) {
-                    break;
-                }
-            }
-            start = filePointer + 1;
-            pos = start;
+        private RangeInputStream(final FileChannel channel, final long start, final long end) {
+            this.channel = channel;
+            this.end = end;
+            this.pos = start;
         }
 
         @Override
         public int read() throws IOException {
-            if (pos < end) {
-                raf.seek(pos++);
-                return raf.readByte();
-            } else if (pos < 0) {
-                return -1;
-            } else {
-                positionFile();
-                return read();
-            }
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
         }
 
         @Override
-        public void close() throws IOException {
-            raf.close();
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos >= end) {
+                return -1;
+            }
+            final int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - pos)), pos);
+            if (read > 0) {
+                pos += read;
+            }
+            return read;
         }
     }
 
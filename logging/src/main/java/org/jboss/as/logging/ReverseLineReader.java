@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a region of a file from the last line to the first.
+ * <p>
+ * The file is scanned backwards for line feeds a block at a time, and only the bytes of the lines returned are
+ * decoded. A line ends with a line feed, optionally preceded by a carriage return which is not part of the line. A
+ * line feed ending the region does not start an empty last line.
+ * <p>
+ * Lines can only be found this way if a line feed byte always is a line feed character, which is the case for the
+ * character sets {@link #isSupported(Charset) supported} by this reader. That includes UTF-8 and other multi-byte
+ * character sets compatible with ASCII, but not UTF-16 or UTF-32.
+ */
+final class ReverseLineReader implements Closeable {
+
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final byte[] LINE_SEPARATORS = {'\n', '\r'};
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final long start;
+    private final byte[] block;
+    // the block holds the bytes of the file from blockStart to blockEnd
+    private long blockStart;
+    private long blockEnd;
+    // the end of the next line to return, or start - 1 if all lines were returned
+    private long position;
+
+    ReverseLineReader(final Path file, final Charset charset, final long start, final long end) throws IOException {
+        this(file, charset, start, end, DEFAULT_BLOCK_SIZE);
+    }
+
+    ReverseLineReader(final Path file, final Charset charset, final long start, final long end, final int blockSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.charset = charset;
+        this.start = start;
+        this.block = new byte[blockSize];
+        this.blockStart = end;
+        this.blockEnd = end;
+        if (end <= start) {
+            position = start - 1;
+        } else if (byteAt(end - 1) == '\n') {
+            position = end - 1;
+        } else {
+            position = end;
+        }
+    }
+
+    /**
+     * Checks whether lines encoded with the character set can be found by looking for line feed bytes.
+     *
+     * @param charset the character set
+     *
+     * @return {@code true} if the character set can be read by this reader
+     */
+    static boolean isSupported(final Charset charset) {
+        return Arrays.equals(LINE_SEPARATORS, new String(LINE_SEPARATORS, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    /**
+     * Finds the end of the last complete line in a region of a file, that is the offset just after the last line
+     * feed.
+     *
+     * @param file  the file
+     * @param start the start of the region
+     * @param end   the end of the region
+     *
+     * @return the offset following the last line feed in the region or {@code start} if there is none
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static long findCompleteLinesEnd(final Path file, final long start, final long end) throws IOException {
+        try (ReverseLineReader reader = new ReverseLineReader(file, null, start, end)) {
+            return reader.findLineFeed(end) + 1;
+        }
+    }
+
+    /**
+     * Reads the line preceding the previously read line.
+     *
+     * @return the line or {@code null} if the start of the region was reached
+     *
+     * @throws IOException if the file cannot be read
+     */
+    String readLine() throws IOException {
+        if (position < start) {
+            return null;
+        }
+        final long lineFeed = findLineFeed(position);
+        final long lineStart = Math.max(lineFeed + 1, start);
+        long lineEnd = position;
+        position = lineFeed < start ? start - 1 : lineFeed;
+        if (lineEnd > lineStart && byteAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        final int length = (int) (lineEnd - lineStart);
+        if (lineStart >= blockStart && lineEnd <= blockEnd) {
+            return new String(block, (int) (lineStart - blockStart), length, charset);
+        }
+        final byte[] bytes = new byte[length];
+        read(ByteBuffer.wrap(bytes), lineStart);
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds the last line feed before an offset.
+     *
+     * @param end the offset to search back from, exclusive
+     *
+     * @return the offset of the line feed or {@code start - 1} if there is none
+     */
+    private long findLineFeed(final long end) throws IOException {
+        long pos = end;
+        while (pos > start) {
+            if (pos <= blockStart || pos > blockEnd) {
+                loadBlock(pos);
+            }
+            for (int i = (int) (pos - blockStart) - 1; i >= 0; i--) {
+                if (block[i] == '\n') {
+                    return blockStart + i;
+                }
+            }
+            pos = blockStart;
+        }
+        return start - 1;
+    }
+
+    private byte byteAt(final long offset) throws IOException {
+        if (offset < blockStart || offset >= blockEnd) {
+            loadBlock(offset + 1);
+        }
+        return block[(int) (offset - blockStart)];
+    }
+
+    /**
+     * Loads the block ending at the given offset.
+     */
+    private void loadBlock(final long end) throws IOException {
+        final long blockStart = Math.max(start, end - block.length);
+        read(ByteBuffer.wrap(block, 0, (int) (end - blockStart)), blockStart);
+        this.blockStart = blockStart;
+        this.blockEnd = end;
+    }
+
+    private void read(final ByteBuffer buffer, final long offset) throws IOException {
+        long pos = offset;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            pos += read;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading the lines of a file backwards with {@link ReverseLineReader}.
+ */
+public class ReverseLineReaderTestCase {
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("reverse-line-reader", ".log");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testLineEndings() throws IOException {
+        write("first\nsecond\r\n\nlast\n");
+        assertEquals(Arrays.asList("last", "", "second", "first"), readAll(StandardCharsets.UTF_8, 0, 64));
+
+        // An unterminated last line is still a line
+        write("first\nlast");
+        assertEquals(Arrays.asList("last", "first"), readAll(StandardCharsets.UTF_8, 0, 64));
+
+        write("\n");
+        assertEquals(Collections.singletonList(""), readAll(StandardCharsets.UTF_8, 0, 64));
+
+        write("");
+        assertEquals(Collections.emptyList(), readAll(StandardCharsets.UTF_8, 0, 64));
+    }
+
+    @Test
+    public void testMultiByteLinesAcrossBlocks() throws IOException {
+        final List<String> expected = new ArrayList<>();
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            final StringBuilder line = new StringBuilder();
+            for (int j = 0; j < i % 13; j++) {
+                line.append("\u00e9\u4e2d\ud83d\ude00").append(j);
+            }
+            expected.add(line.toString());
+            content.append(line).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        write(content.toString());
+        Collections.reverse(expected);
+        // Block sizes smaller than a line, not aligned with the characters and larger than the file
+        for (int blockSize : new int[] {1, 7, 64, 1 << 16}) {
+            assertEquals("block size " + blockSize, expected, readAll(StandardCharsets.UTF_8, 0, blockSize));
+        }
+    }
+
+    @Test
+    public void testRegion() throws IOException {
+        write("one\ntwo\nthree\nfour\nfive");
+        final long end = ReverseLineReader.findCompleteLinesEnd(file, 0, Files.size(file));
+        assertEquals("one\ntwo\nthree\nfour\n".length(), end);
+        assertEquals(Arrays.asList("four", "three", "two", "one"), readAll(StandardCharsets.UTF_8, 0, end, 3));
+
+        // Only the lines appended after a previous read
+        final long start = "one\ntwo\n".length();
+        assertEquals(Arrays.asList("four", "three"), readAll(StandardCharsets.UTF_8, start, end, 3));
+        assertEquals(start, ReverseLineReader.findCompleteLinesEnd(file, start, start + 2));
+    }
+
+    @Test
+    public void testSupportedCharsets() {
+        assertTrue(ReverseLineReader.isSupported(StandardCharsets.UTF_8));
+        assertTrue(ReverseLineReader.isSupported(StandardCharsets.ISO_8859_1));
+        assertFalse(ReverseLineReader.isSupported(StandardCharsets.UTF_16));
+        assertFalse(ReverseLineReader.isSupported(StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    public void testReadLines() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        write(content.toString());
+        assertEquals(Arrays.asList("line 45", "line 46", "line 47", "line 48", "line 49"),
+                LogFileResourceDefinition.readLines(file, "UTF-8", true, 0, 5));
+        assertEquals(Arrays.asList("line 40", "line 41"), LogFileResourceDefinition.readLines(file, "UTF-8", true, 8, 2));
+        assertEquals(Arrays.asList("line 2", "line 3"), LogFileResourceDefinition.readLines(file, "UTF-8", false, 2, 2));
+        assertEquals(50, LogFileResourceDefinition.readLines(file, "UTF-8", true, 0, -1).size());
+
+        // Not readable backwards; the file is decoded from the start
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_16LE));
+        assertEquals(Arrays.asList("line 40", "line 41"), LogFileResourceDefinition.readLines(file, "UTF-16LE", true, 8, 2));
+    }
+
+    private void write(final String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> readAll(final Charset charset, final long start, final int blockSize) throws IOException {
+        return readAll(charset, start, Files.size(file), blockSize);
+    }
+
+    private List<String> readAll(final Charset charset, final long start, final long end, final int blockSize) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (ReverseLineReader reader = new ReverseLineReader(file, charset, start, end, blockSize)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            assertNull(reader.readLine());
+        }
+        return lines;
+    }
+}
@@ -31,4 +31,25 @@ interface Constants {
     String MAX_REQUESTS = "max-requests";
     String ACTIVE_REQUESTS = "active-requests";
     String TRACK_INDIVIDUAL_ENDPOINTS = "track-individual-endpoints";
+    String REQUEST_LATENCY = "request-latency";
+    String DEPLOYMENT = "deployment";
+    String ENTRY_POINT = "entry-point";
+    String QUEUED_TASKS = "queued-tasks";
+    String QUEUE_WAIT_P50 = "queue-wait-p50";
+    String QUEUE_WAIT_P90 = "queue-wait-p90";
+    String QUEUE_WAIT_P99 = "queue-wait-p99";
+    String QUEUE_WAIT_MAX = "queue-wait-max";
+    String REQUESTS = "requests";
+    String IN_FLIGHT_P50 = "in-flight-p50";
+    String IN_FLIGHT_P90 = "in-flight-p90";
+    String IN_FLIGHT_P99 = "in-flight-p99";
+    String IN_FLIGHT_MAX = "in-flight-max";
+    String ENABLE_LATENCY_RECORDING = "enable-latency-recording";
+    String DISABLE_LATENCY_RECORDING = "disable-latency-recording";
+    String RESET_REQUEST_LATENCY = "reset-request-latency";
+    String PRIORITY_CLASS = "priority-class";
+    String WEIGHT = "weight";
+    String CONTROL_POINTS = "control-points";
+    String QUEUE_LENGTH = "queue-length";
+    String DROPPED_TASKS = "dropped-tasks";
 }
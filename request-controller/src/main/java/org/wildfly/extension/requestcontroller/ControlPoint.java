@@ -51,11 +51,19 @@ public class ControlPoint {
     private final boolean trackIndividualControlPoints;
 
     /**
-     * The number of active requests that are using this entry point
+     * The number of active requests that are using this entry point. While the entry point is running most updates
+     * go to {@link #stripedRequestCount} instead, this only holds the exact count while paused.
      */
     @SuppressWarnings("unused")
     private volatile int activeRequestCount = 0;
 
+    private final StripedRequestCounter stripedRequestCount;
+
+    /**
+     * Whether the striped counter is sealed and {@link #activeRequestCount} is exact
+     */
+    private volatile boolean exactCounting = false;
+
     /**
      * If this entry point is paused
      */
@@ -64,6 +72,16 @@ public class ControlPoint {
     @SuppressWarnings("unused")
     private volatile ServerActivityCallback listener = null;
 
+    /**
+     * Latency statistics, null unless latency recording is enabled for this entry point
+     */
+    private volatile RequestLatency latency;
+
+    /**
+     * The priority class whose queue holds the tasks queued by this entry point
+     */
+    private volatile RequestController.PriorityClass priorityClass;
+
     /**
      * The number of services that are using this entry point.
      * This is a deployment time measurement, not a runtime one
@@ -75,6 +93,7 @@ public class ControlPoint {
         this.deployment = deployment;
         this.entryPoint = entryPoint;
         this.trackIndividualControlPoints = trackIndividualControlPoints;
+        this.stripedRequestCount = trackIndividualControlPoints ? new StripedRequestCounter() : null;
     }
 
     public String getEntryPoint() {
@@ -98,6 +117,7 @@ public class ControlPoint {
         }
         this.paused = true;
         listenerUpdater.set(this, requestCountListener);
+        sealRequestCount();
         if (activeRequestCountUpdater.get(this) == 0) {
             if (listenerUpdater.compareAndSet(this, requestCountListener, null)) {
                 requestCountListener.done();
@@ -114,6 +134,24 @@ public class ControlPoint {
         if (listener != null) {
             listenerUpdater.compareAndSet(this, listener, null);
         }
+        unsealRequestCount();
+    }
+
+    /**
+     * Moves the striped request count into the exact counter, so the last request completing can be detected
+     */
+    synchronized void sealRequestCount() {
+        if (stripedRequestCount != null && !exactCounting) {
+            activeRequestCountUpdater.addAndGet(this, (int) stripedRequestCount.seal());
+            exactCounting = true;
+        }
+    }
+
+    private synchronized void unsealRequestCount() {
+        if (exactCounting) {
+            exactCounting = false;
+            stripedRequestCount.unseal();
+        }
     }
 
 
@@ -129,11 +167,13 @@ public class ControlPoint {
             return RunResult.REJECTED;
         }
         if(trackIndividualControlPoints) {
-            activeRequestCountUpdater.incrementAndGet(this);
+            increaseRequestCount();
         }
         RunResult runResult = controller.beginRequest(false);
         if (runResult == RunResult.REJECTED) {
             decreaseRequestCount();
+        } else {
+            requestStarted();
         }
         return runResult;
     }
@@ -151,9 +191,13 @@ public class ControlPoint {
      */
     public RunResult forceBeginRequest() throws Exception {
         if(trackIndividualControlPoints) {
-            activeRequestCountUpdater.incrementAndGet(this);
+            increaseRequestCount();
+        }
+        RunResult runResult = controller.beginRequest(true);
+        if (runResult == RunResult.RUN) {
+            requestStarted();
         }
-        return controller.beginRequest(true);
+        return runResult;
     }
 
     /**
@@ -161,8 +205,9 @@ public class ControlPoint {
      */
     void beginExistingRequest() {
         if(trackIndividualControlPoints) {
-            activeRequestCountUpdater.incrementAndGet(this);
+            increaseRequestCount();
         }
+        requestStarted();
     }
 
     /**
@@ -171,14 +216,53 @@ public class ControlPoint {
      * This cannot be done automatically when the handleRequest method completes, as some
      */
     public void requestComplete() {
+        final RequestLatency latency = this.latency;
+        if (latency != null) {
+            latency.requestComplete();
+        }
         decreaseRequestCount();
         controller.requestComplete();
     }
 
+    private void requestStarted() {
+        final RequestLatency latency = this.latency;
+        if (latency != null) {
+            latency.requestStarted();
+        }
+    }
+
+    /**
+     * @return the time to pass to {@link #queuedTaskStarted(long)} once a task queued now starts
+     */
+    long taskQueued() {
+        return latency != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Called when a queued task starts running, before {@link #beginExistingRequest()}.
+     *
+     * @param queuedTime the value returned by {@link #taskQueued()} when the task was queued
+     */
+    void queuedTaskStarted(long queuedTime) {
+        final RequestLatency latency = this.latency;
+        if (latency != null && queuedTime != 0) {
+            latency.queuedTaskStarted(queuedTime);
+        }
+    }
+
+    private void increaseRequestCount() {
+        if (!stripedRequestCount.increment()) {
+            activeRequestCountUpdater.incrementAndGet(this);
+        }
+    }
+
     private void decreaseRequestCount() {
         if (trackIndividualControlPoints) {
+            if (stripedRequestCount.decrement()) {
+                return;
+            }
             int result = activeRequestCountUpdater.decrementAndGet(this);
-            if (paused && result == 0) {
+            if (paused && exactCounting && result == 0) {
                 ServerActivityCallback listener = listenerUpdater.get(this);
                 if (listener != null) {
                     if (listenerUpdater.compareAndSet(this, listener, null)) {
@@ -233,7 +317,37 @@ public class ControlPoint {
     }
 
     public int getActiveRequestCount() {
-        return activeRequestCountUpdater.get(this);
+        if (stripedRequestCount == null) {
+            return activeRequestCountUpdater.get(this);
+        }
+        return activeRequestCountUpdater.get(this) + (int) stripedRequestCount.sum();
+    }
+
+    /**
+     * Enables or disables recording of request latency for this entry point. Disabling it discards the statistics
+     * recorded so far.
+     */
+    synchronized void setLatencyRecording(boolean enabled) {
+        if (enabled && latency == null) {
+            latency = new RequestLatency();
+        } else if (!enabled) {
+            latency = null;
+        }
+    }
+
+    /**
+     * @return the latency statistics, or null if latency recording is not enabled
+     */
+    RequestLatency getLatency() {
+        return latency;
+    }
+
+    RequestController.PriorityClass getPriorityClass() {
+        return priorityClass;
+    }
+
+    void setPriorityClass(RequestController.PriorityClass priorityClass) {
+        this.priorityClass = priorityClass;
     }
 
     synchronized int increaseReferenceCount() {
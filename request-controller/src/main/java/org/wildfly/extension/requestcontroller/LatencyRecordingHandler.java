@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Handler for the operations that enable and disable request latency recording.
+ * <p>
+ * Recording is a runtime setting only, it is not persisted and is lost on restart.
+ */
+class LatencyRecordingHandler extends AbstractRuntimeOnlyHandler {
+
+    private final boolean enable;
+
+    LatencyRecordingHandler(boolean enable) {
+        this.enable = enable;
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String deployment = RequestControllerRootDefinition.DEPLOYMENT.resolveModelAttribute(context, operation).asString();
+        final ModelNode entryPoint = RequestControllerRootDefinition.ENTRY_POINT.resolveModelAttribute(context, operation);
+        ServiceController<?> service = context.getServiceRegistry(false).getService(RequestController.SERVICE_NAME);
+        if(service == null) {
+            return;
+        }
+        RequestController requestController = (RequestController) service.getService().getValue();
+        requestController.setLatencyRecording(deployment, entryPoint.isDefined() ? entryPoint.asString() : null, enable);
+    }
+}
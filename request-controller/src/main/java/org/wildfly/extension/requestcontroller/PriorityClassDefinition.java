@@ -0,0 +1,202 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.PersistentResourceDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.StringListAttributeDefinition;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Definition of a priority class, which groups the tasks queued by a set of control points so they can be given a
+ * weighted share of the permits that become available while requests are limited or the server is suspended.
+ */
+class PriorityClassDefinition extends PersistentResourceDefinition {
+
+    static final PathElement PATH = PathElement.pathElement(Constants.PRIORITY_CLASS);
+
+    static final SimpleAttributeDefinition WEIGHT = SimpleAttributeDefinitionBuilder.create(Constants.WEIGHT, ModelType.INT, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(1))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .build();
+
+    static final StringListAttributeDefinition CONTROL_POINTS = new StringListAttributeDefinition.Builder(Constants.CONTROL_POINTS)
+            .setAllowExpression(true)
+            .setMinSize(1)
+            .build();
+
+    static final SimpleAttributeDefinition QUEUE_LENGTH = SimpleAttributeDefinitionBuilder.create(Constants.QUEUE_LENGTH, ModelType.INT)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition DROPPED_TASKS = SimpleAttributeDefinitionBuilder.create(Constants.DROPPED_TASKS, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    static final List<AttributeDefinition> ATTRIBUTES = Arrays.asList(WEIGHT, CONTROL_POINTS);
+
+    private final boolean registerRuntimeOnly;
+
+    PriorityClassDefinition(boolean registerRuntimeOnly) {
+        super(new SimpleResourceDefinition.Parameters(PATH, RequestControllerExtension.getResolver(Constants.PRIORITY_CLASS))
+                .setAddHandler(new PriorityClassAdd())
+                .setRemoveHandler(new PriorityClassRemove()));
+        this.registerRuntimeOnly = registerRuntimeOnly;
+    }
+
+    @Override
+    public Collection<AttributeDefinition> getAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        PriorityClassWriteHandler handler = new PriorityClassWriteHandler();
+        for (AttributeDefinition attribute : ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(attribute, null, handler);
+        }
+        if (registerRuntimeOnly) {
+            resourceRegistration.registerMetric(QUEUE_LENGTH, new PriorityClassMetricsHandler());
+            resourceRegistration.registerMetric(DROPPED_TASKS, new PriorityClassMetricsHandler());
+        }
+    }
+
+    private static RequestController getRequestController(OperationContext context) {
+        ServiceController<?> serviceController = context.getServiceRegistry(false).getService(RequestController.SERVICE_NAME);
+        if (serviceController == null) {
+            return null;
+        }
+        return (RequestController) serviceController.getService().getValue();
+    }
+
+    /**
+     * Applies the given priority class model to the request controller
+     */
+    private static void apply(OperationContext context, String name, ModelNode model) throws OperationFailedException {
+        RequestController requestController = getRequestController(context);
+        if (requestController != null) {
+            int weight = WEIGHT.resolveModelAttribute(context, model).asInt();
+            List<String> controlPoints = CONTROL_POINTS.unwrap(context, model);
+            requestController.setPriorityClass(name, weight, controlPoints);
+        }
+    }
+
+    private static class PriorityClassAdd extends AbstractAddStepHandler {
+
+        private PriorityClassAdd() {
+            super(ATTRIBUTES);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            apply(context, context.getCurrentAddressValue(), model);
+        }
+
+        @Override
+        protected void rollbackRuntime(OperationContext context, ModelNode operation, Resource resource) {
+            RequestController requestController = getRequestController(context);
+            if (requestController != null) {
+                requestController.removePriorityClass(context.getCurrentAddressValue());
+            }
+        }
+    }
+
+    private static class PriorityClassRemove extends AbstractRemoveStepHandler {
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            RequestController requestController = getRequestController(context);
+            if (requestController != null) {
+                requestController.removePriorityClass(context.getCurrentAddressValue());
+            }
+        }
+
+        @Override
+        protected void recoverServices(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            apply(context, context.getCurrentAddressValue(), model);
+        }
+    }
+
+    private static class PriorityClassWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+        private PriorityClassWriteHandler() {
+            super(ATTRIBUTES);
+        }
+
+        @Override
+        protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                               ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+            apply(context, context.getCurrentAddressValue(), context.readResource(PathAddress.EMPTY_ADDRESS).getModel());
+            return false;
+        }
+
+        @Override
+        protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                             ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+            final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+            restored.get(attributeName).set(valueToRestore);
+            apply(context, context.getCurrentAddressValue(), restored);
+        }
+    }
+
+    private static class PriorityClassMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            RequestController requestController = getRequestController(context);
+            RequestController.PriorityClass priorityClass = requestController == null ? null : requestController.getPriorityClass(context.getCurrentAddressValue());
+            if (priorityClass == null) {
+                return;
+            }
+            final String attributeName = operation.require(NAME).asString();
+            if (Constants.QUEUE_LENGTH.equals(attributeName)) {
+                context.getResult().set(priorityClass.getQueueLength());
+            } else {
+                context.getResult().set(priorityClass.getDroppedTasks());
+            }
+        }
+    }
+}
@@ -34,17 +34,24 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.requestcontroller.logging.RequestControllerLogger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.regex.Pattern;
 
 /**
  * A controller that manages the active requests that are running in the container.
@@ -63,16 +70,35 @@ public class RequestController implements Service<RequestController>, ServerActi
     public static final ServiceName SERVICE_NAME = RequestControllerRootDefinition.REQUEST_CONTROLLER_CAPABILITY.getCapabilityServiceName();
 
     private static final AtomicIntegerFieldUpdater<RequestController> activeRequestCountUpdater = AtomicIntegerFieldUpdater.newUpdater(RequestController.class, "activeRequestCount");
+    private static final AtomicIntegerFieldUpdater<RequestController> queuedTaskCountUpdater = AtomicIntegerFieldUpdater.newUpdater(RequestController.class, "queuedTaskCount");
     private static final AtomicReferenceFieldUpdater<RequestController, ServerActivityCallback> listenerUpdater = AtomicReferenceFieldUpdater.newUpdater(RequestController.class, ServerActivityCallback.class, "listener");
 
     private volatile int maxRequestCount = -1;
 
+    /**
+     * The exact part of the active request count. While the controller is running without a request limit most
+     * updates go to {@link #stripedRequestCount} instead.
+     */
     private volatile int activeRequestCount = 0;
 
+    private final StripedRequestCounter stripedRequestCount = new StripedRequestCounter();
+
+    /**
+     * Whether the striped counter is sealed and {@link #activeRequestCount} holds the exact number of active
+     * requests. This is the case while paused or if a request limit is set.
+     */
+    private volatile boolean exactCounting = false;
+
     private volatile boolean paused = false;
 
     private final Map<ControlPointIdentifier, ControlPoint> entryPoints = new HashMap<>();
 
+    /**
+     * The entry points that record request latency. A null entry point name matches all entry points of the deployment.
+     * These are kept separately so recording survives control points being removed and recreated on redeployment.
+     */
+    private final Set<ControlPointIdentifier> latencyRecording = new HashSet<>();
+
     private final InjectedValue<SuspendController> shutdownControllerInjectedValue = new InjectedValue<>();
 
     @SuppressWarnings("unused")
@@ -89,9 +115,29 @@ public class RequestController implements Service<RequestController>, ServerActi
         listener.done();
     }
 
-    private Timer timer;
+    private ScheduledThreadPoolExecutor timer;
+
+    /**
+     * The class of control points that do not match any configured priority class
+     */
+    private final PriorityClass defaultPriorityClass = new PriorityClass(null, 1, Collections.emptyList());
+
+    /**
+     * The configured priority classes, followed by the default one. Replaced on changes.
+     */
+    private volatile PriorityClass[] priorityClasses = {defaultPriorityClass};
 
-    private final Deque<QueuedTask> taskQueue = new LinkedBlockingDeque<>();
+    /**
+     * Guards moving tasks between the queues of the priority classes and the weighted round robin state. The queue of
+     * the default class is never replaced, so while it is the only class it is used without this lock.
+     */
+    private final Object queueLock = new Object();
+
+    /**
+     * The number of queued tasks over all priority classes. It is updated after a task is added or removed, so it may
+     * briefly lag behind the queues.
+     */
+    private volatile int queuedTaskCount = 0;
 
     /**
      * Pause the controller. All existing requests will have a chance to finish, and once all requests are
@@ -104,6 +150,7 @@ public class RequestController implements Service<RequestController>, ServerActi
     public synchronized void suspended(ServerActivityCallback requestCountListener) {
         this.paused = true;
         listenerUpdater.set(this, requestCountListener);
+        updateCountingMode();
 
         if (activeRequestCountUpdater.get(this) == 0) {
             if (listenerUpdater.compareAndSet(this, requestCountListener, null)) {
@@ -122,11 +169,27 @@ public class RequestController implements Service<RequestController>, ServerActi
         if (listener != null) {
             listenerUpdater.compareAndSet(this, listener, null);
         }
-        while (!taskQueue.isEmpty() && (activeRequestCount < maxRequestCount || maxRequestCount < 0)) {
+        updateCountingMode();
+        while (queuedTaskCount > 0 && (getActiveRequestCount() < maxRequestCount || maxRequestCount < 0)) {
             runQueuedTask(false);
         }
     }
 
+    /**
+     * Seals the striped request counter if exact counts are needed, or reopens it otherwise.
+     * Invoke with the object monitor held.
+     */
+    private void updateCountingMode() {
+        final boolean exact = paused || maxRequestCount > 0;
+        if (exact && !exactCounting) {
+            activeRequestCountUpdater.addAndGet(this, (int) stripedRequestCount.seal());
+            exactCounting = true;
+        } else if (!exact && exactCounting) {
+            exactCounting = false;
+            stripedRequestCount.unseal();
+        }
+    }
+
     /**
      * Pauses a given deployment
      *
@@ -205,19 +268,26 @@ public class RequestController implements Service<RequestController>, ServerActi
         for (ControlPoint controlPoint : entryPoints.values()) {
             eps.add(new RequestControllerState.EntryPointState(controlPoint.getDeployment(), controlPoint.getEntryPoint(), controlPoint.isPaused(), controlPoint.getActiveRequestCount()));
         }
-        return new RequestControllerState(paused, activeRequestCount, maxRequestCount, eps);
+        return new RequestControllerState(paused, getActiveRequestCount(), maxRequestCount, eps);
     }
 
     RunResult beginRequest(boolean force) {
-        int maxRequests = maxRequestCount;
-        int active = activeRequestCountUpdater.get(this);
         boolean success = false;
-        while ((maxRequests <= 0 || active < maxRequests) && (!paused || force)) {
-            if (activeRequestCountUpdater.compareAndSet(this, active, active + 1)) {
-                success = true;
-                break;
+        if (!exactCounting && (!paused || force)) {
+            // No limit to check, so a striped increment is enough. This fails if the counter
+            // was sealed in the meantime, in which case the exact path below applies
+            success = stripedRequestCount.increment();
+        }
+        if (!success) {
+            int maxRequests = maxRequestCount;
+            int active = activeRequestCountUpdater.get(this);
+            while ((maxRequests <= 0 || active < maxRequests) && (!paused || force)) {
+                if (activeRequestCountUpdater.compareAndSet(this, active, active + 1)) {
+                    success = true;
+                    break;
+                }
+                active = activeRequestCountUpdater.get(this);
             }
-            active = activeRequestCountUpdater.get(this);
         }
         if (success) {
             //re-check the paused state
@@ -239,9 +309,12 @@ public class RequestController implements Service<RequestController>, ServerActi
     }
 
     private void decrementRequestCount() {
-
+        if (stripedRequestCount.decrement()) {
+            // Not sealed, so not suspended yet. If suspension is in progress it checks the count once sealed
+            return;
+        }
         int result = activeRequestCountUpdater.decrementAndGet(this);
-        if (paused) {
+        if (paused && exactCounting) {
             if (paused && result == 0) {
                 ServerActivityCallback listener = listenerUpdater.get(this);
                 if (listener != null) {
@@ -269,6 +342,8 @@ public class RequestController implements Service<RequestController>, ServerActi
         ControlPoint ep = entryPoints.get(id);
         if (ep == null) {
             ep = new ControlPoint(this, deploymentName, entryPointName, trackIndividualControlPoints);
+            ep.setLatencyRecording(isLatencyRecorded(ep));
+            ep.setPriorityClass(findPriorityClass(deploymentName, entryPointName));
             entryPoints.put(id, ep);
         }
         ep.increaseReferenceCount();
@@ -287,6 +362,167 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
+    /**
+     * Enables or disables request latency recording for entry points of the given deployment. An entry point records
+     * latency while recording is enabled for it, or for all entry points of its deployment.
+     *
+     * @param deployment The top level deployment name
+     * @param entryPoint The entry point name, or null for all entry points of the deployment
+     * @param enabled    If recording should be enabled
+     */
+    public synchronized void setLatencyRecording(final String deployment, final String entryPoint, boolean enabled) {
+        ControlPointIdentifier id = new ControlPointIdentifier(deployment, entryPoint);
+        if (enabled) {
+            latencyRecording.add(id);
+        } else {
+            latencyRecording.remove(id);
+            if (entryPoint == null) {
+                latencyRecording.removeIf(i -> deployment.equals(i.deployment));
+            }
+        }
+        for (ControlPoint ep : entryPoints.values()) {
+            if (deployment.equals(ep.getDeployment())) {
+                ep.setLatencyRecording(isLatencyRecorded(ep));
+            }
+        }
+    }
+
+    private boolean isLatencyRecorded(ControlPoint controlPoint) {
+        return !latencyRecording.isEmpty()
+                && (latencyRecording.contains(new ControlPointIdentifier(controlPoint.getDeployment(), null))
+                || latencyRecording.contains(new ControlPointIdentifier(controlPoint.getDeployment(), controlPoint.getEntryPoint())));
+    }
+
+    /**
+     * @return The control points that currently record request latency
+     */
+    synchronized List<ControlPoint> getLatencyRecordingControlPoints() {
+        final List<ControlPoint> result = new ArrayList<>();
+        for (ControlPoint ep : entryPoints.values()) {
+            if (ep.getLatency() != null) {
+                result.add(ep);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Discards the request latency recorded so far by all entry points
+     */
+    public synchronized void resetLatency() {
+        for (ControlPoint ep : entryPoints.values()) {
+            RequestLatency latency = ep.getLatency();
+            if (latency != null) {
+                latency.reset();
+            }
+        }
+    }
+
+    /**
+     * Adds or updates a priority class. While requests are limited or the server is suspended, tasks queued by control
+     * points that match the class wait in the queue of that class. Whenever a permit becomes available, the queues take
+     * turns in proportion to their weights, so no class can starve another.
+     * <p>
+     * A control point pattern is a deployment name, optionally followed by a colon and an entry point name. A {@code *}
+     * in either part matches any sequence of characters. If a control point matches several classes, the one with the
+     * highest weight applies. Control points that match no class share a default class with weight 1.
+     *
+     * @param name The name of the class
+     * @param weight The weight of the class, at least 1
+     * @param controlPoints The patterns of control points that belong to the class
+     */
+    public synchronized void setPriorityClass(final String name, int weight, Collection<String> controlPoints) {
+        final List<PriorityClass> classes = new ArrayList<>();
+        PriorityClass existing = null;
+        for (PriorityClass priorityClass : priorityClasses) {
+            if (name.equals(priorityClass.name)) {
+                existing = priorityClass;
+            } else if (priorityClass != defaultPriorityClass) {
+                classes.add(priorityClass);
+            }
+        }
+        final PriorityClass updated = new PriorityClass(name, weight, controlPoints);
+        classes.add(updated);
+        updatePriorityClasses(classes, existing, updated);
+    }
+
+    /**
+     * Removes a priority class. Its queued tasks move to the class their control point now belongs to.
+     *
+     * @param name The name of the class
+     */
+    public synchronized void removePriorityClass(final String name) {
+        final List<PriorityClass> classes = new ArrayList<>();
+        PriorityClass existing = null;
+        for (PriorityClass priorityClass : priorityClasses) {
+            if (name.equals(priorityClass.name)) {
+                existing = priorityClass;
+            } else if (priorityClass != defaultPriorityClass) {
+                classes.add(priorityClass);
+            }
+        }
+        if (existing != null) {
+            updatePriorityClasses(classes, existing, null);
+        }
+    }
+
+    /**
+     * Installs the given classes and moves control points and queued tasks over. Invoke with the object monitor held.
+     *
+     * @param classes The configured classes
+     * @param replaced The class that is replaced or removed, or null
+     * @param replacement The class replacing it, or null if it is removed
+     */
+    private void updatePriorityClasses(List<PriorityClass> classes, PriorityClass replaced, PriorityClass replacement) {
+        if (replaced != null && replacement != null) {
+            // keep the metrics of a reconfigured class
+            replacement.droppedTasks.set(replaced.droppedTasks.get());
+        }
+        classes.add(defaultPriorityClass);
+        synchronized (queueLock) {
+            priorityClasses = classes.toArray(new PriorityClass[classes.size()]);
+            for (ControlPoint ep : entryPoints.values()) {
+                ep.setPriorityClass(findPriorityClass(ep.getDeployment(), ep.getEntryPoint()));
+            }
+            if (replaced != null) {
+                // Tasks keep their order within a class; moved tasks go after the ones already queued in their new class
+                QueuedTask task;
+                while ((task = replaced.tasks.poll()) != null) {
+                    PriorityClass priorityClass = findPriorityClass(task.controlPoint.getDeployment(), task.controlPoint.getEntryPoint());
+                    priorityClass.tasks.add(task);
+                    // only set once queued, as a task of the default class is removed on timeout without the lock
+                    task.priorityClass = priorityClass;
+                }
+            }
+        }
+    }
+
+    private PriorityClass findPriorityClass(String deployment, String entryPoint) {
+        PriorityClass result = defaultPriorityClass;
+        for (PriorityClass priorityClass : priorityClasses) {
+            if (priorityClass.matches(deployment, entryPoint)) {
+                if (result == defaultPriorityClass || priorityClass.weight > result.weight
+                        || (priorityClass.weight == result.weight && priorityClass.name.compareTo(result.name) < 0)) {
+                    result = priorityClass;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param name The name of the class
+     * @return The priority class with the given name, or null if there is none
+     */
+    PriorityClass getPriorityClass(final String name) {
+        for (PriorityClass priorityClass : priorityClasses) {
+            if (name.equals(priorityClass.name)) {
+                return priorityClass;
+            }
+        }
+        return null;
+    }
+
     /**
      * @return The maximum number of requests that can be active at a time
      */
@@ -303,8 +539,11 @@ public class RequestController implements Service<RequestController>, ServerActi
      * @param maxRequestCount The max request count
      */
     public void setMaxRequestCount(int maxRequestCount) {
-        this.maxRequestCount = maxRequestCount;
-        while (!taskQueue.isEmpty() && (activeRequestCount < maxRequestCount || maxRequestCount < 0)) {
+        synchronized (this) {
+            this.maxRequestCount = maxRequestCount;
+            updateCountingMode();
+        }
+        while (queuedTaskCount > 0 && (getActiveRequestCount() < maxRequestCount || maxRequestCount < 0)) {
             if(!runQueuedTask(false)) {
                 break;
             }
@@ -321,19 +560,23 @@ public class RequestController implements Service<RequestController>, ServerActi
     @Override
     public void start(StartContext startContext) throws StartException {
         shutdownControllerInjectedValue.getValue().registerActivity(this);
-        timer = new Timer();
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "RequestController timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most queued tasks run long before they time out; don't keep their timeouts around
+        timer.setRemoveOnCancelPolicy(true);
     }
 
     @Override
     public void stop(StopContext stopContext) {
         shutdownControllerInjectedValue.getValue().unRegisterActivity(this);
-        timer.cancel();
+        timer.shutdownNow();
         timer = null;
-        while (!taskQueue.isEmpty()) {
-            QueuedTask t = taskQueue.poll();
-            if(t != null) {
-                t.run();
-            }
+        QueuedTask t;
+        while ((t = pollQueuedTask(false)) != null) {
+            t.run();
         }
     }
 
@@ -347,22 +590,35 @@ public class RequestController implements Service<RequestController>, ServerActi
     }
 
     public int getActiveRequestCount() {
-        return activeRequestCount;
+        return activeRequestCount + (int) stripedRequestCount.sum();
     }
 
     void queueTask(ControlPoint controlPoint, Runnable task, Executor taskExecutor, long timeout, Runnable timeoutTask, boolean rejectOnSuspend, boolean forceRun) {
         if(paused) {
             if(rejectOnSuspend && !forceRun) {
+                controlPoint.getPriorityClass().droppedTasks.incrementAndGet();
                 taskExecutor.execute(timeoutTask);
                 return;
             }
         }
         QueuedTask queuedTask = new QueuedTask(taskExecutor, task, timeoutTask, controlPoint, forceRun);
-        taskQueue.add(queuedTask);
+        PriorityClass priorityClass = controlPoint.getPriorityClass();
+        if (priorityClass == defaultPriorityClass) {
+            // the default class is never replaced, so its tasks are never moved
+            queuedTask.priorityClass = priorityClass;
+            priorityClass.tasks.add(queuedTask);
+        } else {
+            synchronized (queueLock) {
+                // the class may have been replaced in the meantime
+                queuedTask.priorityClass = controlPoint.getPriorityClass();
+                queuedTask.priorityClass.tasks.add(queuedTask);
+            }
+        }
+        queuedTaskCountUpdater.incrementAndGet(this);
         runQueuedTask(false);
         if(queuedTask.isQueued()) {
             if(timeout > 0) {
-                timer.schedule(queuedTask, timeout);
+                queuedTask.timeoutFuture = timer.schedule(queuedTask, timeout, TimeUnit.MILLISECONDS);
             }
         }
     }
@@ -378,13 +634,8 @@ public class RequestController implements Service<RequestController>, ServerActi
         if (!hasPermit && beginRequest(paused) == RunResult.REJECTED) {
             return false;
         }
-        QueuedTask task = null;
-        if (!paused) {
-            task = taskQueue.poll();
-        } else {
-            //the container is suspended, but we still need to run any force queued tasks
-            task = findForcedTask();
-        }
+        //if the container is suspended we still need to run any force queued tasks
+        QueuedTask task = pollQueuedTask(paused);
         if (task != null) {
             if(!task.runRequest()) {
                 decrementRequestCount();
@@ -396,23 +647,93 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
-    private QueuedTask findForcedTask() {
+    /**
+     * Removes the next task to run from the queues. The queues of the priority classes that have tasks waiting take
+     * turns using smooth weighted round robin, so over time each class gets a share of the permits proportional to its
+     * weight, without one class getting long bursts.
+     *
+     * @param forcedOnly If only force queued tasks can be run. These are taken in order of the priority classes, as the
+     *                   container is suspending anyway.
+     * @return The task, or null if no task can be run
+     */
+    private QueuedTask pollQueuedTask(boolean forcedOnly) {
+        if (queuedTaskCount == 0) {
+            return null;
+        }
         QueuedTask task = null;
-        List<QueuedTask> storage = new ArrayList<>();
-        while (task == null && !taskQueue.isEmpty()) {
-            QueuedTask tmp = taskQueue.poll();
-            if(tmp.forceRun) {
-                task = tmp;
-            } else {
-                storage.add(tmp);
+        if (priorityClasses.length == 1 && !forcedOnly) {
+            // only the default class, there is nothing to choose between
+            task = defaultPriorityClass.tasks.poll();
+        }
+        if (task == null) {
+            // also if the tasks of a removed class are still being moved to the default class
+            synchronized (queueLock) {
+                if (forcedOnly) {
+                    for (PriorityClass priorityClass : priorityClasses) {
+                        for (QueuedTask tmp : priorityClass.tasks) {
+                            // the task may have been taken from the default queue without the lock
+                            if (tmp.forceRun && priorityClass.tasks.remove(tmp)) {
+                                task = tmp;
+                                break;
+                            }
+                        }
+                        if (task != null) {
+                            break;
+                        }
+                    }
+                } else {
+                    while (task == null) {
+                        PriorityClass selected = null;
+                        int totalWeight = 0;
+                        for (PriorityClass priorityClass : priorityClasses) {
+                            if (!priorityClass.tasks.isEmpty()) {
+                                priorityClass.currentWeight += priorityClass.weight;
+                                totalWeight += priorityClass.weight;
+                                if (selected == null || priorityClass.currentWeight > selected.currentWeight) {
+                                    selected = priorityClass;
+                                }
+                            } else {
+                                // an idle class does not build up credit
+                                priorityClass.currentWeight = 0;
+                            }
+                        }
+                        if (selected == null) {
+                            break;
+                        }
+                        selected.currentWeight -= totalWeight;
+                        // null if the last task of the default queue was taken without the lock, then select again
+                        task = selected.tasks.poll();
+                        if (selected.tasks.isEmpty()) {
+                            selected.currentWeight = 0;
+                        }
+                    }
+                }
             }
         }
-        //this screws the order somewhat, but the container is suspending anyway, and the order
-        //was never guarenteed. if we push them back onto the front we will need to just go through them again
-        taskQueue.addAll(storage);
+        if (task != null) {
+            queuedTaskCountUpdater.decrementAndGet(this);
+        }
         return task;
     }
 
+    /**
+     * Removes a task that timed out from its queue
+     */
+    private void removeQueuedTask(QueuedTask task) {
+        boolean removed;
+        if (task.priorityClass == defaultPriorityClass) {
+            // tasks are only ever moved into the default class, never out of it
+            removed = defaultPriorityClass.tasks.remove(task);
+        } else {
+            synchronized (queueLock) {
+                removed = task.priorityClass.tasks.remove(task);
+            }
+        }
+        if (removed) {
+            queuedTaskCountUpdater.decrementAndGet(this);
+        }
+    }
+
     private static final class ControlPointIdentifier {
         private final String deployment, name;
 
@@ -448,30 +769,41 @@ public class RequestController implements Service<RequestController>, ServerActi
     }
 
 
-    private static final class QueuedTask extends TimerTask {
+    private final class QueuedTask implements Runnable {
 
         private final Executor executor;
         private final Runnable task;
         private final Runnable cancelTask;
         private final ControlPoint controlPoint;
         private final boolean forceRun;
+        private final long queuedTime;
 
         //0 == queued
         //1 == run
         //2 == cancelled
         private final AtomicInteger state = new AtomicInteger(0);
 
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        /**
+         * The class whose queue holds this task, only changed with {@link #queueLock} held
+         */
+        private volatile PriorityClass priorityClass;
+
         private QueuedTask(Executor executor, Runnable task, Runnable cancelTask, ControlPoint controlPoint, boolean forceRun) {
             this.executor = executor;
             this.task = task;
             this.cancelTask = cancelTask;
             this.controlPoint = controlPoint;
             this.forceRun = forceRun;
+            this.queuedTime = controlPoint.taskQueued();
         }
 
         @Override
         public void run() {
             if(state.compareAndSet(0, 2)) {
+                removeQueuedTask(this);
+                priorityClass.droppedTasks.incrementAndGet();
                 if(cancelTask != null) {
                     try {
                         executor.execute(cancelTask);
@@ -485,11 +817,15 @@ public class RequestController implements Service<RequestController>, ServerActi
 
         public boolean runRequest() {
             if(state.compareAndSet(0, 1)) {
-                cancel();
+                final ScheduledFuture<?> timeoutFuture = this.timeoutFuture;
+                if (timeoutFuture != null) {
+                    timeoutFuture.cancel(false);
+                }
                 executor.execute(new Runnable() {
                     @Override
                     public void run() {
                         try {
+                            controlPoint.queuedTaskStarted(queuedTime);
                             controlPoint.beginExistingRequest();
                             task.run();
                         } finally {
@@ -508,4 +844,84 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int index;
+        while ((index = glob.indexOf('*', start)) >= 0) {
+            if (index > start) {
+                regex.append(Pattern.quote(glob.substring(start, index)));
+            }
+            regex.append(".*");
+            start = index + 1;
+        }
+        if (start < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static boolean matchesPattern(Pattern pattern, String value) {
+        return pattern.matcher(value == null ? "" : value).matches();
+    }
+
+    /**
+     * A class of control points whose queued tasks share a queue, see {@link #setPriorityClass(String, int, Collection)}
+     */
+    final class PriorityClass {
+
+        private final String name;
+        private final int weight;
+        private final List<Pattern[]> controlPoints;
+
+        /**
+         * The queued tasks. Tasks are only moved between classes with {@link #queueLock} held.
+         */
+        private final Deque<QueuedTask> tasks = new ConcurrentLinkedDeque<>();
+
+        /**
+         * The weighted round robin credit, guarded by {@link #queueLock}
+         */
+        private int currentWeight;
+
+        private final AtomicLong droppedTasks = new AtomicLong();
+
+        private PriorityClass(String name, int weight, Collection<String> controlPoints) {
+            this.name = name;
+            this.weight = weight;
+            this.controlPoints = new ArrayList<>(controlPoints.size());
+            for (String controlPoint : controlPoints) {
+                int index = controlPoint.indexOf(':');
+                if (index < 0) {
+                    this.controlPoints.add(new Pattern[]{globToPattern(controlPoint), null});
+                } else {
+                    this.controlPoints.add(new Pattern[]{globToPattern(controlPoint.substring(0, index)), globToPattern(controlPoint.substring(index + 1))});
+                }
+            }
+        }
+
+        private boolean matches(String deployment, String entryPoint) {
+            for (Pattern[] controlPoint : controlPoints) {
+                if (matchesPattern(controlPoint[0], deployment) && (controlPoint[1] == null || matchesPattern(controlPoint[1], entryPoint))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return The number of tasks waiting in the queue of this class
+         */
+        int getQueueLength() {
+            return tasks.size();
+        }
+
+        /**
+         * @return The number of tasks of this class that were not run, because they timed out while queued or were
+         * rejected as the server is suspended
+         */
+        long getDroppedTasks() {
+            return droppedTasks.get();
+        }
+    }
 }
@@ -30,12 +30,17 @@ import java.util.Collections;
 import java.util.List;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectListAttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
+import org.jboss.as.controller.OperationDefinition;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
 import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -62,6 +67,47 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
     public static final SimpleAttributeDefinition ACTIVE_REQUESTS = SimpleAttributeDefinitionBuilder.create(Constants.ACTIVE_REQUESTS, ModelType.INT, true)
             .setStorageRuntime()
             .build();
+
+    static final SimpleAttributeDefinition DEPLOYMENT = SimpleAttributeDefinitionBuilder.create(Constants.DEPLOYMENT, ModelType.STRING)
+            .build();
+
+    static final SimpleAttributeDefinition ENTRY_POINT = SimpleAttributeDefinitionBuilder.create(Constants.ENTRY_POINT, ModelType.STRING, true)
+            .build();
+
+    static final ObjectTypeAttributeDefinition CONTROL_POINT_LATENCY = ObjectTypeAttributeDefinition.Builder.of(Constants.REQUEST_LATENCY,
+            DEPLOYMENT,
+            ENTRY_POINT,
+            latencyCount(Constants.QUEUED_TASKS),
+            latencyMetric(Constants.QUEUE_WAIT_P50),
+            latencyMetric(Constants.QUEUE_WAIT_P90),
+            latencyMetric(Constants.QUEUE_WAIT_P99),
+            latencyMetric(Constants.QUEUE_WAIT_MAX),
+            latencyCount(Constants.REQUESTS),
+            latencyMetric(Constants.IN_FLIGHT_P50),
+            latencyMetric(Constants.IN_FLIGHT_P90),
+            latencyMetric(Constants.IN_FLIGHT_P99),
+            latencyMetric(Constants.IN_FLIGHT_MAX))
+            .setStorageRuntime()
+            .build();
+
+    public static final ObjectListAttributeDefinition REQUEST_LATENCY = ObjectListAttributeDefinition.Builder.of(Constants.REQUEST_LATENCY, CONTROL_POINT_LATENCY)
+            .setStorageRuntime()
+            .build();
+
+    static final OperationDefinition ENABLE_LATENCY_RECORDING = new SimpleOperationDefinitionBuilder(Constants.ENABLE_LATENCY_RECORDING, RequestControllerExtension.getResolver())
+            .setParameters(DEPLOYMENT, ENTRY_POINT)
+            .setRuntimeOnly()
+            .build();
+
+    static final OperationDefinition DISABLE_LATENCY_RECORDING = new SimpleOperationDefinitionBuilder(Constants.DISABLE_LATENCY_RECORDING, RequestControllerExtension.getResolver())
+            .setParameters(DEPLOYMENT, ENTRY_POINT)
+            .setRuntimeOnly()
+            .build();
+
+    static final OperationDefinition RESET_REQUEST_LATENCY = new SimpleOperationDefinitionBuilder(Constants.RESET_REQUEST_LATENCY, RequestControllerExtension.getResolver())
+            .setRuntimeOnly()
+            .build();
+
     public static final RequestControllerRootDefinition INSTANCE = new RequestControllerRootDefinition(true);
 
     static final RuntimeCapability<Void> REQUEST_CONTROLLER_CAPABILITY =
@@ -70,6 +116,19 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
 
     private final boolean registerRuntimeOnly;
 
+    private static SimpleAttributeDefinition latencyCount(String name) {
+        return SimpleAttributeDefinitionBuilder.create(name, ModelType.LONG)
+                .setStorageRuntime()
+                .build();
+    }
+
+    private static SimpleAttributeDefinition latencyMetric(String name) {
+        return SimpleAttributeDefinitionBuilder.create(name, ModelType.LONG)
+                .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+                .setStorageRuntime()
+                .build();
+    }
+
     RequestControllerRootDefinition(boolean registerRuntimeOnly) {
         super(RequestControllerExtension.SUBSYSTEM_PATH,
                 RequestControllerExtension.getResolver(),
@@ -85,7 +144,7 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
 
     private static Collection<AttributeDefinition> getAttributeDefinitions(boolean registerRuntimeOnly) {
         if(registerRuntimeOnly) {
-            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS, ACTIVE_REQUESTS});
+            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS, ACTIVE_REQUESTS, REQUEST_LATENCY});
         } else {
             return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS});
         }
@@ -93,7 +152,7 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
 
     @Override
     protected List<? extends PersistentResourceDefinition> getChildren() {
-        return Collections.emptyList();
+        return Collections.singletonList(new PriorityClassDefinition(registerRuntimeOnly));
     }
 
     @Override
@@ -103,6 +162,17 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
         resourceRegistration.registerReadWriteAttribute(TRACK_INDIVIDUAL_ENDPOINTS, null, new ReloadRequiredWriteAttributeHandler(TRACK_INDIVIDUAL_ENDPOINTS));
         if(registerRuntimeOnly) {
             resourceRegistration.registerMetric(ACTIVE_REQUESTS, new ActiveRequestsReadHandler());
+            resourceRegistration.registerMetric(REQUEST_LATENCY, new RequestLatencyReadHandler());
+        }
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+        if(registerRuntimeOnly) {
+            resourceRegistration.registerOperationHandler(ENABLE_LATENCY_RECORDING, new LatencyRecordingHandler(true));
+            resourceRegistration.registerOperationHandler(DISABLE_LATENCY_RECORDING, new LatencyRecordingHandler(false));
+            resourceRegistration.registerOperationHandler(RESET_REQUEST_LATENCY, new ResetRequestLatencyHandler());
         }
     }
 
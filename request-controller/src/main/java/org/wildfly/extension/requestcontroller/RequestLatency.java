@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+/**
+ * Latency statistics of a single {@link ControlPoint}, only created while recording is enabled for it.
+ * <p>
+ * Queue wait is the time between a task being queued with {@link ControlPoint#queueTask} and it starting to run,
+ * including the time spent waiting for its executor. In flight time is the time between a request being admitted and
+ * {@link ControlPoint#requestComplete()} being called.
+ * <p>
+ * As the control point API does not hand out a request handle, the start time is kept in a thread local, which only
+ * pairs a start with the right completion if every request completes on the thread that began it. A thread beginning
+ * a request while the start of its previous one is still set shows that a request was handed off to another thread,
+ * or that the thread offloaded work with {@link ControlPoint#forceBeginRequest()}. Once that has happened a
+ * completion can no longer be matched to its own start, so in flight time stops being recorded for the control point
+ * until recording is enabled again. Queue wait is not affected.
+ */
+final class RequestLatency {
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram inFlight = new LatencyHistogram();
+
+    /**
+     * The start time of the request begun on the current thread, 0 if there is none
+     */
+    private final ThreadLocal<long[]> requestStart = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    /**
+     * Whether a request was seen completing on another thread than the one that began it
+     */
+    private volatile boolean handedOff;
+
+    void queuedTaskStarted(long queuedTime) {
+        queueWait.record(System.nanoTime() - queuedTime);
+    }
+
+    void requestStarted() {
+        if (handedOff) {
+            return;
+        }
+        final long[] start = requestStart.get();
+        if (start[0] != 0) {
+            // The previous request begun on this thread did not complete on it
+            handedOff = true;
+            start[0] = 0;
+            return;
+        }
+        // 0 is reserved for "not started"; a clash with nanoTime just loses a single sample
+        start[0] = System.nanoTime();
+    }
+
+    void requestComplete() {
+        if (handedOff) {
+            return;
+        }
+        final long[] start = requestStart.get();
+        if (start[0] != 0) {
+            inFlight.record(System.nanoTime() - start[0]);
+            start[0] = 0;
+        }
+    }
+
+    void reset() {
+        queueWait.reset();
+        inFlight.reset();
+    }
+
+    LatencyHistogram.Snapshot getQueueWait() {
+        return queueWait.snapshot();
+    }
+
+    LatencyHistogram.Snapshot getInFlight() {
+        return inFlight.snapshot();
+    }
+}
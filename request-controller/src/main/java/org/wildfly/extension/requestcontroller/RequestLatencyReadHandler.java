@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Read handler for the request latency of the entry points that record it
+ */
+class RequestLatencyReadHandler extends AbstractRuntimeOnlyHandler {
+
+    @Override
+    protected boolean requiresRuntime(OperationContext context) {
+        return true;
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final ModelNode result = context.getResult().setEmptyList();
+        ServiceController<?> service = context.getServiceRegistry(false).getService(RequestController.SERVICE_NAME);
+        if(service == null) {
+            return;
+        }
+        RequestController requestController = (RequestController) service.getService().getValue();
+        for (ControlPoint controlPoint : requestController.getLatencyRecordingControlPoints()) {
+            RequestLatency latency = controlPoint.getLatency();
+            if (latency == null) {
+                continue;
+            }
+            ModelNode entry = new ModelNode();
+            if (controlPoint.getDeployment() != null) {
+                entry.get(Constants.DEPLOYMENT).set(controlPoint.getDeployment());
+            }
+            if (controlPoint.getEntryPoint() != null) {
+                entry.get(Constants.ENTRY_POINT).set(controlPoint.getEntryPoint());
+            }
+            LatencyHistogram.Snapshot queueWait = latency.getQueueWait();
+            entry.get(Constants.QUEUED_TASKS).set(queueWait.getCount());
+            entry.get(Constants.QUEUE_WAIT_P50).set(queueWait.getValueAtPercentile(50));
+            entry.get(Constants.QUEUE_WAIT_P90).set(queueWait.getValueAtPercentile(90));
+            entry.get(Constants.QUEUE_WAIT_P99).set(queueWait.getValueAtPercentile(99));
+            entry.get(Constants.QUEUE_WAIT_MAX).set(queueWait.getMax());
+            LatencyHistogram.Snapshot inFlight = latency.getInFlight();
+            entry.get(Constants.REQUESTS).set(inFlight.getCount());
+            entry.get(Constants.IN_FLIGHT_P50).set(inFlight.getValueAtPercentile(50));
+            entry.get(Constants.IN_FLIGHT_P90).set(inFlight.getValueAtPercentile(90));
+            entry.get(Constants.IN_FLIGHT_P99).set(inFlight.getValueAtPercentile(99));
+            entry.get(Constants.IN_FLIGHT_MAX).set(inFlight.getMax());
+            result.add(entry);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request counter spread over several cache lines, so threads beginning and completing requests concurrently do
+ * not all contend on a single atomic field.
+ * <p>
+ * The counter only tracks the unlimited, running state. Exact values are needed to enforce a request limit and to
+ * detect the last request completing while suspending, which is not possible while updates are spread. In those
+ * states the owner {@link #seal() seals} the counter, moving the counts into its own exact counter. A thread that
+ * finds its stripe sealed falls back to the exact counter, so after sealing every update is exact.
+ */
+final class StripedRequestCounter {
+
+    private static final long SEALED = Long.MIN_VALUE;
+
+    /** Spacing between stripes, in longs, so each stripe sits on its own cache line */
+    private static final int PADDING = 8;
+
+    private static final int STRIPES;
+
+    static {
+        int stripes = 1;
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        while (stripes < processors) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * Increments the stripe of the current thread.
+     *
+     * @return {@code false} if the counter is sealed, in which case the exact counter must be used
+     */
+    boolean increment() {
+        return add(1);
+    }
+
+    /**
+     * Decrements the stripe of the current thread.
+     *
+     * @return {@code false} if the counter is sealed, in which case the exact counter must be used
+     */
+    boolean decrement() {
+        return add(-1);
+    }
+
+    private boolean add(long delta) {
+        final int index = index();
+        long value;
+        do {
+            value = counts.get(index);
+            if (value == SEALED) {
+                return false;
+            }
+        } while (!counts.compareAndSet(index, value, value + delta));
+        return true;
+    }
+
+    /**
+     * Seals all stripes. Must not be called concurrently with {@link #unseal()}.
+     *
+     * @return the sum of the counts held by the stripes, which the caller must add to its exact counter
+     */
+    long seal() {
+        long total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            final int index = i * PADDING;
+            long value;
+            do {
+                value = counts.get(index);
+                if (value == SEALED) {
+                    break;
+                }
+            } while (!counts.compareAndSet(index, value, SEALED));
+            if (value != SEALED) {
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Reopens the stripes after a {@link #seal()}, with the counts left in the caller's exact counter.
+     */
+    void unseal() {
+        for (int i = 0; i < STRIPES; i++) {
+            counts.compareAndSet(i * PADDING, SEALED, 0);
+        }
+    }
+
+    /**
+     * @return the sum of the unsealed stripes. Not an atomic snapshot.
+     */
+    long sum() {
+        long total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            final long value = counts.get(i * PADDING);
+            if (value != SEALED) {
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        id ^= id >>> 16;
+        id *= 0x45d9f3bL;
+        id ^= id >>> 16;
+        return ((int) id & (STRIPES - 1)) * PADDING;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the queuing of tasks by priority class in {@link RequestController}.
+ */
+public class PriorityClassTestCase {
+
+    private RequestController controller;
+    private ControlPoint interactive;
+    private ControlPoint batch;
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private final Executor executor = pending::add;
+    private final List<String> started = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        controller = new RequestController(false);
+        controller.setPriorityClass("interactive", 3, Collections.singletonList("*:undertow"));
+        controller.setPriorityClass("batch", 1, Arrays.asList("batch.ear", "batch-*.war:ejb"));
+        interactive = controller.getControlPoint("app.war", "undertow");
+        batch = controller.getControlPoint("batch-1.war", "ejb");
+    }
+
+    @Test
+    public void testControlPointMatching() {
+        assertEquals(controller.getPriorityClass("interactive"), interactive.getPriorityClass());
+        assertEquals(controller.getPriorityClass("batch"), batch.getPriorityClass());
+        assertEquals(controller.getPriorityClass("batch"), controller.getControlPoint("batch.ear", "ejb").getPriorityClass());
+        // matches both, the class with the highest weight applies
+        assertEquals(controller.getPriorityClass("interactive"), controller.getControlPoint("batch.ear", "undertow").getPriorityClass());
+        assertNotNull(controller.getControlPoint("app.war", "ejb").getPriorityClass());
+    }
+
+    @Test
+    public void testWeightedDequeue() throws Exception {
+        controller.setMaxRequestCount(1);
+        assertEquals(RunResult.RUN, interactive.beginRequest());
+        for (int i = 0; i < 8; i++) {
+            queue(batch, "batch");
+            queue(interactive, "interactive");
+        }
+        assertEquals(8, controller.getPriorityClass("batch").getQueueLength());
+        assertEquals(8, controller.getPriorityClass("interactive").getQueueLength());
+
+        interactive.requestComplete();
+        runPending();
+
+        assertEquals(16, started.size());
+        // interactive tasks get three of every four permits while both classes have tasks queued
+        assertEquals(3, Collections.frequency(started.subList(0, 4), "interactive"));
+        assertEquals(6, Collections.frequency(started.subList(0, 8), "interactive"));
+        assertEquals(0, controller.getPriorityClass("batch").getQueueLength());
+        assertEquals(0, controller.getActiveRequestCount());
+    }
+
+    @Test
+    public void testRemoveClassKeepsQueuedTasks() throws Exception {
+        controller.setMaxRequestCount(1);
+        assertEquals(RunResult.RUN, interactive.beginRequest());
+        queue(batch, "batch");
+        queue(batch, "batch");
+
+        controller.removePriorityClass("batch");
+        interactive.requestComplete();
+        runPending();
+
+        assertEquals(Arrays.asList("batch", "batch"), started);
+        assertEquals(0, controller.getActiveRequestCount());
+    }
+
+    @Test
+    public void testDroppedTasks() throws Exception {
+        controller.suspended(() -> { });
+        batch.queueTask(() -> started.add("batch"), executor, -1, () -> started.add("rejected"), true);
+        runPending();
+
+        assertEquals(Collections.singletonList("rejected"), started);
+        assertEquals(1, controller.getPriorityClass("batch").getDroppedTasks());
+        assertEquals(0, controller.getPriorityClass("interactive").getDroppedTasks());
+    }
+
+    private void queue(ControlPoint controlPoint, String name) {
+        controlPoint.queueTask(() -> started.add(name), executor, -1, null, false);
+    }
+
+    private void runPending() {
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+    }
+}
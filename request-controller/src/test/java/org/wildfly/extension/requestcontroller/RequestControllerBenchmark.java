@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the admission overhead of {@link ControlPoint#beginRequest()} and {@link ControlPoint#requestComplete()},
+ * and of {@link ControlPoint#queueTask(Runnable, Executor, long, Runnable, boolean)}, under contention.
+ * <p>
+ * With {@code maxRequests} set to {@code -1} requests are counted by the striped counters. Any positive limit
+ * forces the exact path, a compare-and-set on a single shared field, which is how every request was counted
+ * before the striped counters were introduced. The limit used is high enough never to reject a request.
+ * <p>
+ * A control point tracking its own requests only seals its counter while paused, so for the exact path its counter
+ * is sealed explicitly. Every update then goes to the shared fields of both the controller and the control point,
+ * as before, apart from the read of the sealed stripe that sends it there.
+ * <p>
+ * Queued tasks go through the queue of their priority class even if they can run straight away. With
+ * {@code priorityClasses} set a class is configured that the control point does not belong to, so the queues are
+ * shared under a lock for weighted round robin; without it only the lock free queue of the default class is used.
+ * <p>
+ * This is not run as part of the test suite; run {@link #main(String[])} against the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestControllerBenchmark {
+
+    @Param({"-1", "1000000"})
+    public int maxRequests;
+
+    @Param({"false", "true"})
+    public boolean trackIndividualControlPoints;
+
+    @Param({"false", "true"})
+    public boolean priorityClasses;
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private static final Runnable TASK = () -> { };
+
+    private ControlPoint controlPoint;
+
+    @Setup
+    public void setup() {
+        RequestController requestController = new RequestController(trackIndividualControlPoints);
+        requestController.setMaxRequestCount(maxRequests);
+        if (priorityClasses) {
+            requestController.setPriorityClass("other", 2, Collections.singleton("other-deployment"));
+        }
+        controlPoint = requestController.getControlPoint("deployment", "entry-point");
+        if (maxRequests > 0) {
+            controlPoint.sealRequestCount();
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public RunResult beginAndCompleteRequest() throws Exception {
+        RunResult result = controlPoint.beginRequest();
+        if (result == RunResult.RUN) {
+            controlPoint.requestComplete();
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void queueTask() {
+        controlPoint.queueTask(TASK, DIRECT_EXECUTOR, -1, null, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RequestControllerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -24,20 +24,27 @@
 
 package org.wildfly.extension.requestcontroller;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 import static org.jboss.as.server.Services.JBOSS_SUSPEND_CONTROLLER;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.jboss.as.controller.ModelVersion;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.RunningMode;
 import org.jboss.as.controller.notification.NotificationFilter;
 import org.jboss.as.controller.notification.NotificationHandler;
 import org.jboss.as.controller.notification.NotificationHandlerRegistry;
+import org.jboss.as.model.test.FailedOperationTransformationConfig;
+import org.jboss.as.model.test.ModelTestControllerVersion;
+import org.jboss.as.model.test.ModelTestUtils;
 import org.jboss.as.server.suspend.SuspendController;
 import org.jboss.as.subsystem.test.AbstractSubsystemBaseTest;
 import org.jboss.as.subsystem.test.AdditionalInitialization;
 import org.jboss.as.subsystem.test.KernelServices;
 import org.jboss.as.subsystem.test.KernelServicesBuilder;
+import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.ImmediateValue;
@@ -56,7 +63,17 @@ public class RequestControllerSubsystemTestCase extends AbstractSubsystemBaseTes
 
     @Override
     protected String getSubsystemXml() throws IOException {
-        return readResource("request-controller-1.0.xml");
+        return readResource("request-controller-1.1.xml");
+    }
+
+    @Override
+    protected String getSubsystemXsdPath() throws Exception {
+        return "schema/wildfly-request-controller_1_1.xsd";
+    }
+
+    @Test
+    public void testParse_1_0() throws Exception {
+        standardSubsystemTest("request-controller-1.0.xml", false);
     }
 
     @Test
@@ -72,6 +89,32 @@ public class RequestControllerSubsystemTestCase extends AbstractSubsystemBaseTes
         workerServiceController.awaitValue();
         RequestController controller = workerServiceController.getService().getValue();
         Assert.assertEquals(100, controller.getMaxRequestCount());
+        Assert.assertNotNull(controller.getPriorityClass("interactive"));
+        Assert.assertSame(controller.getPriorityClass("batch"), controller.getControlPoint("batch-1.war", "ejb").getPriorityClass());
+    }
+
+    @Test
+    public void testRejectingTransformersEAP72() throws Exception {
+        testRejectingTransformers(ModelTestControllerVersion.EAP_7_2_0_TEMP);
+    }
+
+    private void testRejectingTransformers(ModelTestControllerVersion controllerVersion) throws Exception {
+        ModelVersion version = RequestControllerSubsystemTransformers.VERSION_1_1;
+        KernelServicesBuilder builder = createKernelServicesBuilder(AdditionalInitialization.MANAGEMENT);
+        builder.createLegacyKernelServicesBuilder(AdditionalInitialization.MANAGEMENT, controllerVersion, version)
+                .addMavenResourceURL(controllerVersion.getCoreMavenGroupId() + ":wildfly-request-controller:" + controllerVersion.getCoreVersion())
+                .dontPersistXml();
+
+        KernelServices mainServices = builder.build();
+        Assert.assertTrue(mainServices.isSuccessfulBoot());
+        Assert.assertTrue(mainServices.getLegacyServices(version).isSuccessfulBoot());
+
+        // the subsystem itself is accepted, its priority classes are not
+        List<ModelNode> ops = builder.parseXmlResource("request-controller-1.1.xml");
+        PathAddress subsystemAddress = PathAddress.pathAddress(SUBSYSTEM, getMainSubsystemName());
+        ModelTestUtils.checkFailedTransformedBootOperations(mainServices, version, ops, new FailedOperationTransformationConfig()
+                .addFailedAttribute(subsystemAddress.append(PriorityClassDefinition.PATH),
+                        FailedOperationTransformationConfig.REJECTED_RESOURCE));
     }
 
     @Override
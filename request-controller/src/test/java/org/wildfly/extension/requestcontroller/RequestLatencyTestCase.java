@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the in flight time recorded by {@link RequestLatency} for the requests of a {@link ControlPoint}.
+ */
+public class RequestLatencyTestCase {
+
+    private ControlPoint controlPoint;
+
+    @Before
+    public void setup() {
+        RequestController controller = new RequestController(true);
+        controlPoint = controller.getControlPoint("deployment", "entry-point");
+        controlPoint.setLatencyRecording(true);
+    }
+
+    @Test
+    public void testCompletedOnSameThread() throws Exception {
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        Thread.sleep(5);
+        controlPoint.requestComplete();
+        assertEquals(1, getInFlightCount());
+        assertTrue(controlPoint.getLatency().getInFlight().getMax() >= 5000);
+    }
+
+    @Test
+    public void testCompletedOnAnotherThread() throws Exception {
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        runOnAnotherThread(controlPoint::requestComplete);
+        assertEquals(0, getInFlightCount());
+
+        // The start left behind by the handed off request is not paired with the completion of a later request
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        controlPoint.requestComplete();
+        assertEquals(0, getInFlightCount());
+
+        // Nor is any start paired with a completion afterwards, as requests of this control point are handed off
+        runOnAnotherThread(() -> {
+            try {
+                assertEquals(RunResult.RUN, controlPoint.beginRequest());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            controlPoint.requestComplete();
+        });
+        assertEquals(0, getInFlightCount());
+        assertEquals(0, controlPoint.getActiveRequestCount());
+    }
+
+    @Test
+    public void testOffloadedRequest() throws Exception {
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        // The request offloads work to another thread, which completes it
+        assertEquals(RunResult.RUN, controlPoint.forceBeginRequest());
+        runOnAnotherThread(controlPoint::requestComplete);
+        // Would otherwise be paired with the start of the offloaded request
+        controlPoint.requestComplete();
+        assertEquals(0, getInFlightCount());
+    }
+
+    private long getInFlightCount() {
+        return controlPoint.getLatency().getInFlight().getCount();
+    }
+
+    private static void runOnAnotherThread(Runnable task) throws InterruptedException {
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join(5000);
+    }
+}
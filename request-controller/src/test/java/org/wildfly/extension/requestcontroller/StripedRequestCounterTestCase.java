@@ -0,0 +1,194 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link StripedRequestCounter} and of suspending a {@link RequestController} while requests are counted
+ * on it.
+ */
+public class StripedRequestCounterTestCase {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testSealAndUnseal() {
+        StripedRequestCounter counter = new StripedRequestCounter();
+        assertTrue(counter.increment());
+        assertTrue(counter.increment());
+        assertTrue(counter.decrement());
+        assertEquals(1, counter.sum());
+
+        assertEquals(1, counter.seal());
+        assertEquals(0, counter.sum());
+        assertFalse(counter.increment());
+        assertFalse(counter.decrement());
+        // Sealing again moves nothing
+        assertEquals(0, counter.seal());
+
+        counter.unseal();
+        assertEquals(0, counter.sum());
+        assertTrue(counter.increment());
+        assertEquals(1, counter.sum());
+    }
+
+    @Test
+    public void testSealWhileCounting() throws Exception {
+        final StripedRequestCounter counter = new StripedRequestCounter();
+        final AtomicLong exact = new AtomicLong();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final CountDownLatch running = new CountDownLatch(THREADS);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(() -> {
+                running.countDown();
+                while (!stop.get()) {
+                    if (!counter.increment()) {
+                        exact.incrementAndGet();
+                    }
+                    if (!counter.decrement()) {
+                        exact.decrementAndGet();
+                    }
+                }
+                // Leave one request active per thread
+                if (!counter.increment()) {
+                    exact.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        running.await();
+        exact.addAndGet(counter.seal());
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Every update after sealing went to the exact counter, none were lost
+        assertEquals(THREADS, exact.get());
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    public void testSuspendWhileRequestsRun() throws Exception {
+        final RequestController controller = new RequestController(true);
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger activeWhenDone = new AtomicInteger(-1);
+        final CountDownLatch running = new CountDownLatch(THREADS);
+        final CountDownLatch suspended = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(() -> {
+                running.countDown();
+                while (!stop.get()) {
+                    try {
+                        if (controlPoint.beginRequest() == RunResult.RUN) {
+                            inFlight.incrementAndGet();
+                            inFlight.decrementAndGet();
+                            controlPoint.requestComplete();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        running.await();
+        controller.suspended(() -> {
+            activeWhenDone.set(inFlight.get());
+            suspended.countDown();
+        });
+        assertTrue(suspended.await(10, TimeUnit.SECONDS));
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Suspension completed with no request still running, and no request was admitted after it
+        assertEquals(0, activeWhenDone.get());
+        assertEquals(0, inFlight.get());
+        assertEquals(0, controller.getActiveRequestCount());
+        assertEquals(0, controlPoint.getActiveRequestCount());
+        assertEquals(RunResult.REJECTED, controlPoint.beginRequest());
+
+        controller.resume();
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        assertEquals(1, controller.getActiveRequestCount());
+        assertEquals(1, controlPoint.getActiveRequestCount());
+        controlPoint.requestComplete();
+        assertEquals(0, controller.getActiveRequestCount());
+    }
+
+    @Test
+    public void testPauseControlPointWhileRequestsRun() throws Exception {
+        final RequestController controller = new RequestController(true);
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        final AtomicBoolean stop = new AtomicBoolean();
+        final CountDownLatch running = new CountDownLatch(THREADS);
+        final CountDownLatch paused = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(() -> {
+                running.countDown();
+                while (!stop.get()) {
+                    try {
+                        if (controlPoint.beginRequest() == RunResult.RUN) {
+                            controlPoint.requestComplete();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        running.await();
+        controlPoint.pause(paused::countDown);
+        assertTrue(paused.await(10, TimeUnit.SECONDS));
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, controlPoint.getActiveRequestCount());
+
+        controlPoint.resume();
+        assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        assertEquals(1, controlPoint.getActiveRequestCount());
+        controlPoint.requestComplete();
+        assertEquals(0, controlPoint.getActiveRequestCount());
+    }
+}
@@ -37,8 +37,10 @@ import org.jboss.as.controller.ControlledProcessState;
 import org.jboss.as.controller.RunningModeControl;
 import org.jboss.as.repository.ContentRepository;
 import org.jboss.as.server.controller.git.GitContentRepository;
+import org.jboss.as.server.deployment.ArchiveMountCache;
 import org.jboss.as.server.deployment.ContentCleanerService;
 import org.jboss.as.server.deployment.DeploymentMountProvider;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.mgmt.domain.RemoteFileRepositoryService;
 import org.jboss.as.server.moduleservice.ExternalModuleService;
@@ -151,8 +153,11 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
         } else {
             RemoteFileRepositoryService.addService(serviceTarget, serverEnvironment.getServerContentDir(), serverEnvironment.getServerTempDir());
         }
-        ContentCleanerService.addService(serviceTarget, ServerService.JBOSS_SERVER_CLIENT_FACTORY, ServerService.JBOSS_SERVER_SCHEDULED_EXECUTOR);
-        DeploymentMountProvider.Factory.addService(serviceTarget);
+        // Shared by the annotation index processor and the content cleaner, which evicts its least recently used entries
+        final AnnotationIndexCache annotationIndexCache = AnnotationIndexCache.create(serverEnvironment);
+        ContentCleanerService.addService(serviceTarget, ServerService.JBOSS_SERVER_CLIENT_FACTORY, ServerService.JBOSS_SERVER_SCHEDULED_EXECUTOR,
+                annotationIndexCache);
+        DeploymentMountProvider.Factory.addService(serviceTarget, ArchiveMountCache.create(serverEnvironment));
         ServiceModuleLoader.addService(serviceTarget, configuration);
         ExternalModuleService.addService(serviceTarget);
         //Add server path manager service
@@ -160,7 +165,7 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
         final AbstractVaultReader vaultReader = loadVaultReaderService();
         ServerLogger.AS_ROOT_LOGGER.debugf("Using VaultReader %s", vaultReader);
         ServerService.addService(serviceTarget, configuration, processState, bootstrapListener, runningModeControl, vaultReader, configuration.getAuditLogger(),
-                configuration.getAuthorizer(), configuration.getSecurityIdentitySupplier(), suspendController);
+                configuration.getAuthorizer(), configuration.getSecurityIdentitySupplier(), suspendController, annotationIndexCache);
         final ServiceActivatorContext serviceActivatorContext = new ServiceActivatorContext() {
             @Override
             public ServiceTarget getServiceTarget() {
@@ -214,8 +214,10 @@ public interface Bootstrap {
                             persister = new GitConfigurationPersister(serverEnvironment.getGitRepository(), configurationFile, rootElement, parser, parser,
                                     runningModeControl.isReloaded());
                         } else {
-                            persister = new BackupXmlConfigurationPersister(configurationFile, rootElement, parser, parser,
+                            BackupXmlConfigurationPersister backupPersister = new BackupXmlConfigurationPersister(configurationFile, rootElement, parser, parser,
                                     runningModeControl.isReloaded(), serverEnvironment.getLaunchType() == ServerEnvironment.LaunchType.EMBEDDED);
+                            backupPersister.setCacheBootOperations(true);
+                            persister = backupPersister;
                         }
                         for (Namespace namespace : Namespace.domainValues()) {
                             if (!namespace.equals(Namespace.CURRENT)) {
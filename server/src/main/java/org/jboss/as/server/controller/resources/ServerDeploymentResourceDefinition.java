@@ -32,6 +32,7 @@ import org.jboss.as.server.deployment.DeploymentDeployHandler;
 import org.jboss.as.server.deployment.DeploymentExplodeHandler;
 import org.jboss.as.server.deployment.DeploymentRedeployHandler;
 import org.jboss.as.server.deployment.DeploymentRemoveHandler;
+import org.jboss.as.server.deployment.DeploymentTimingHandler;
 import org.jboss.as.server.deployment.DeploymentUndeployHandler;
 import org.jboss.as.server.deployment.ManagedDeploymentBrowseContentHandler;
 import org.jboss.as.server.deployment.ManagedDeploymentReadContentHandler;
@@ -63,6 +64,12 @@ public class ServerDeploymentResourceDefinition extends DeploymentResourceDefini
                 new DeploymentRemoveHandler(contentRepository, vaultReader));
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        DeploymentTimingHandler.registerDeploymentTimings(resourceRegistration);
+    }
+
     @Override
     public void registerOperations(ManagementResourceRegistration resourceRegistration) {
         super.registerOperations(resourceRegistration);
@@ -80,6 +80,7 @@ public abstract class AbstractDeploymentUnitService implements Service<Deploymen
         monitor = new StabilityMonitor();
         monitor.addController(context.getController());
         deploymentUnit = createAndInitializeDeploymentUnit(context.getController().getServiceContainer());
+        DeploymentTimings.attach(deploymentUnit);
 
         final String managementName = deploymentUnit.getAttachment(Attachments.MANAGEMENT_NAME);
         if (deploymentUnit.getParent()==null) {
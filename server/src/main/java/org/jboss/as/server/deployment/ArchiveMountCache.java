@@ -0,0 +1,623 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.logging.ServerLogger;
+import org.jboss.vfs.TempFileProvider;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * On-disk cache of the archives mounted for deployments, so that unchanged archives are neither copied nor expanded
+ * again when they are redeployed or the server is restarted.
+ * <p>
+ * Entries are keyed by a SHA-1 digest of the archive content. Zip mounts are backed by a single cached copy of the
+ * archive, shared by all the deployments that mount the same content. Expanded mounts are backed by a cached expansion
+ * of the archive, which is writable and so is only mounted by one deployment at a time; it is reused only if every
+ * file still has the size and last modified time recorded in its stamp when it was expanded. Entries are reference
+ * counted while mounted, and {@link #evict()} removes the least recently used entries that are not mounted once the
+ * cache grows beyond its maximum size.
+ *
+ * @see DeploymentMountProvider
+ */
+public final class ArchiveMountCache {
+
+    /** Name of the cache directory under the server temp directory */
+    public static final String DIRECTORY_NAME = "archive-cache";
+
+    /** Maximum size of the cache in bytes; {@code 0} disables it */
+    private static final String MAX_SIZE_PROPERTY = "org.wildfly.deployment.archive-cache.max-size";
+    private static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+
+    private static final String ZIP_SUFFIX = ".zip";
+    private static final String EXPANDED_SUFFIX = ".expanded";
+    private static final String STAMP_SUFFIX = ".stamp";
+    private static final String TMP_SUFFIX = ".tmp";
+    /** Included in the keys so entries written by an incompatible version are not picked up */
+    private static final byte KEY_VERSION = 1;
+    /** Maximum number of remembered digests of archives that are plain files */
+    private static final int MAX_DIGESTS = 1024;
+
+    private final Path directory;
+    private final long maxSize;
+    /** Approximate size of the cache directory, {@code -1} until first computed */
+    private final AtomicLong size = new AtomicLong(-1);
+    /** Number of open mounts of each entry; guarded by {@code this} */
+    private final Map<String, Integer> references = new HashMap<>();
+    /** Digests of archives that are plain files, so unchanged files are not read again to compute their key */
+    private final Map<String, FileDigest> digests = new ConcurrentHashMap<>();
+
+    ArchiveMountCache(final Path directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the cache for the given server, if enabled.
+     *
+     * @param serverEnvironment the server environment
+     * @return the cache, or {@code null} if caching of mounted archives is disabled
+     */
+    public static ArchiveMountCache create(final ServerEnvironment serverEnvironment) {
+        long maxSize = DEFAULT_MAX_SIZE;
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MAX_SIZE_PROPERTY, null);
+        if (value != null) {
+            try {
+                maxSize = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                ServerLogger.DEPLOYMENT_LOGGER.debugf("Ignoring invalid value %s for %s", value, MAX_SIZE_PROPERTY);
+            }
+        }
+        if (maxSize <= 0 || serverEnvironment.getServerTempDir() == null) {
+            return null;
+        }
+        return new ArchiveMountCache(serverEnvironment.getServerTempDir().toPath().resolve(DIRECTORY_NAME), maxSize);
+    }
+
+    /**
+     * Mounts an archive as a zip file system, backed by the cached copy of the archive.
+     *
+     * @param archive the archive
+     * @param mountPoint the mount point
+     * @param tempFileProvider the provider of the temp files of the mount
+     * @return the handle closing the mount
+     * @throws IOException if the archive cannot be mounted
+     */
+    Closeable mountZip(final VirtualFile archive, final VirtualFile mountPoint, final TempFileProvider tempFileProvider) throws IOException {
+        final String key = computeKey(archive);
+        final String name = key + ZIP_SUFFIX;
+        final Path file = directory.resolve(name);
+        acquire(name);
+        try {
+            if (Files.isRegularFile(file)) {
+                // Record the use so eviction removes the least recently used entries first
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } else if (!store(archive, key, file)) {
+                release(name);
+                return VFS.mountZip(archive, mountPoint, tempFileProvider);
+            }
+            return new Handle(VFS.mountZip(file.toFile(), mountPoint, tempFileProvider), name);
+        } catch (IOException | RuntimeException e) {
+            release(name);
+            throw e;
+        }
+    }
+
+    /**
+     * Mounts an archive as a real file system, backed by the cached expansion of the archive.
+     *
+     * @param archive the archive
+     * @param mountPoint the mount point
+     * @param tempFileProvider the provider of the temp files of the mount, if the archive cannot be cached
+     * @return the handle closing the mount
+     * @throws IOException if the archive cannot be mounted
+     */
+    Closeable mountZipExpanded(final VirtualFile archive, final VirtualFile mountPoint, final TempFileProvider tempFileProvider) throws IOException {
+        final String key = computeKey(archive);
+        final String name = key + EXPANDED_SUFFIX;
+        final Path dir = directory.resolve(name);
+        final Path stamp = directory.resolve(name + STAMP_SUFFIX);
+        final int mounts = acquire(name);
+        try {
+            if (mounts > 1) {
+                // A mount can modify the expansion, so it is not shared with another deployment mounting the same content
+                release(name);
+                return VFS.mountZipExpanded(archive, mountPoint, tempFileProvider);
+            }
+            if (isValid(dir, stamp)) {
+                Files.setLastModifiedTime(stamp, FileTime.fromMillis(System.currentTimeMillis()));
+            } else if (!expand(archive, key, dir, stamp)) {
+                // The archive cannot be expanded or changed while being read
+                release(name);
+                return VFS.mountZipExpanded(archive, mountPoint, tempFileProvider);
+            }
+            return new Handle(VFS.mountReal(dir.toFile(), mountPoint), name);
+        } catch (IOException | RuntimeException e) {
+            release(name);
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the key of an archive, reusing the digest of an unchanged plain file.
+     */
+    String computeKey(final VirtualFile archive) throws IOException {
+        final File file = new File(archive.getPathName());
+        final long length = archive.getSize();
+        final long lastModified = archive.getLastModified();
+        final boolean plainFile = file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        if (plainFile) {
+            final FileDigest digest = digests.get(file.getPath());
+            if (digest != null && digest.length == length && digest.lastModified == lastModified) {
+                return digest.key;
+            }
+        }
+        final String key;
+        try (InputStream in = archive.openStream()) {
+            key = digest(in, null);
+        }
+        if (plainFile) {
+            if (digests.size() >= MAX_DIGESTS) {
+                digests.clear();
+            }
+            digests.put(file.getPath(), new FileDigest(length, lastModified, key));
+        }
+        return key;
+    }
+
+    /**
+     * Copies an archive into the cache.
+     *
+     * @return {@code false} if the archive cannot be stored or changed since its key was computed
+     */
+    private boolean store(final VirtualFile archive, final String key, final Path file) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, key, TMP_SUFFIX);
+            final String copied;
+            try (InputStream in = archive.openStream(); OutputStream out = Files.newOutputStream(tmp)) {
+                copied = digest(in, out);
+            }
+            if (!key.equals(copied)) {
+                return false;
+            }
+            final long written = Files.size(tmp);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently
+                return true;
+            }
+            added(written);
+            return true;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot store archive %s", archive);
+            return false;
+        } finally {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * Expands an archive into the cache, replacing any previous invalid expansion.
+     *
+     * @return {@code false} if the archive cannot be expanded or changed since its key was computed
+     */
+    private boolean expand(final VirtualFile archive, final String key, final Path dir, final Path stamp) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            // The stamp goes first, so an entry is never considered valid while being replaced
+            Files.deleteIfExists(stamp);
+            if (!deleteRecursively(dir)) {
+                return false;
+            }
+            tmp = Files.createDirectory(directory.resolve(key + '-' + Long.toHexString(System.nanoTime()) + TMP_SUFFIX));
+            final MessageDigest digest = newDigest();
+            try (InputStream in = new DigestInputStream(archive.openStream(), digest);
+                 ZipInputStream zip = new ZipInputStream(in)) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    final Path target = tmp.resolve(entry.getName()).normalize();
+                    if (!target.startsWith(tmp) || target.equals(tmp)) {
+                        // Do not let entries escape the expansion directory
+                        continue;
+                    }
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        Files.copy(zip, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                // The digest covers the whole archive, including the central directory the zip stream does not read
+                final byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // Discard
+                }
+            }
+            if (!key.equals(toHex(digest.digest()))) {
+                return false;
+            }
+            // Moving the directory keeps the last modified times of the files recorded in the stamp
+            final Map<String, FileStamp> files = listFiles(tmp);
+            final long expandedSize = totalSize(files);
+            final StringBuilder manifest = new StringBuilder().append(expandedSize).append('\n');
+            for (Map.Entry<String, FileStamp> file : files.entrySet()) {
+                manifest.append(file.getValue().size).append(' ').append(file.getValue().lastModified).append(' ')
+                        .append(file.getKey()).append('\n');
+            }
+            Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+            final Path stampTmp = Files.createTempFile(directory, key, TMP_SUFFIX);
+            Files.write(stampTmp, manifest.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(stampTmp, stamp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            added(expandedSize);
+            return true;
+        } catch (IOException e) {
+            // Includes archives the zip stream cannot read, which are still mounted uncached
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot expand archive %s", archive);
+            return false;
+        } finally {
+            if (tmp != null) {
+                deleteRecursively(tmp);
+            }
+        }
+    }
+
+    private void added(final long written) {
+        if (size.get() < 0 || size.addAndGet(written) > maxSize) {
+            evict();
+        }
+    }
+
+    private synchronized int acquire(final String name) {
+        return references.merge(name, 1, Integer::sum);
+    }
+
+    private synchronized void release(final String name) {
+        references.computeIfPresent(name, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private synchronized boolean isReferenced(final String name) {
+        return references.containsKey(name);
+    }
+
+    /**
+     * Removes the least recently used entries that are not mounted until the cache is no larger than its maximum size.
+     */
+    public synchronized void evict() {
+        if (!Files.isDirectory(directory)) {
+            size.set(0);
+            return;
+        }
+        final List<Entry> entries = new ArrayList<>();
+        final long stale = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                try {
+                    final String name = file.getFileName().toString();
+                    final long lastModified = Files.getLastModifiedTime(file).toMillis();
+                    if (name.endsWith(ZIP_SUFFIX)) {
+                        final Entry entry = new Entry(name, file, null, Files.size(file), lastModified);
+                        entries.add(entry);
+                        total += entry.size;
+                    } else if (name.endsWith(EXPANDED_SUFFIX + STAMP_SUFFIX)) {
+                        final String entryName = name.substring(0, name.length() - STAMP_SUFFIX.length());
+                        final Entry entry = new Entry(entryName, directory.resolve(entryName), file, Math.max(readStamp(file), 0), lastModified);
+                        entries.add(entry);
+                        total += entry.size;
+                    } else if (name.endsWith(EXPANDED_SUFFIX) && lastModified < stale && !isReferenced(name)
+                            && !Files.exists(directory.resolve(name + STAMP_SUFFIX))) {
+                        // Expansion that was interrupted or invalidated
+                        deleteRecursively(file);
+                    } else if (name.endsWith(TMP_SUFFIX) && lastModified < stale) {
+                        // Left behind by a store that was interrupted
+                        deleteRecursively(file);
+                    }
+                } catch (IOException e) {
+                    // Removed concurrently
+                }
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot list archive cache %s", directory);
+            return;
+        }
+        if (total > maxSize) {
+            entries.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+            for (Entry entry : entries) {
+                if (total <= maxSize) {
+                    break;
+                }
+                if (isReferenced(entry.name)) {
+                    continue;
+                }
+                if (entry.stamp == null ? deleteQuietly(entry.file) : deleteQuietly(entry.stamp) && deleteRecursively(entry.file)) {
+                    total -= entry.size;
+                }
+            }
+        }
+        size.set(total);
+    }
+
+    /**
+     * Reads the total size of an expansion from the first line of its stamp.
+     *
+     * @return the size, or {@code -1} if the stamp does not exist or cannot be read
+     */
+    private static long readStamp(final Path stamp) {
+        if (!Files.isRegularFile(stamp)) {
+            return -1;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(stamp, StandardCharsets.UTF_8)) {
+            final String line = reader.readLine();
+            return line == null ? -1 : Long.parseLong(line.trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Checks that an expansion has exactly the files recorded in its stamp, with the same sizes and last modified
+     * times.
+     */
+    private static boolean isValid(final Path dir, final Path stamp) throws IOException {
+        if (!Files.isRegularFile(stamp) || !Files.isDirectory(dir)) {
+            return false;
+        }
+        final Map<String, FileStamp> expected = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(stamp, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            final long expandedSize = Long.parseLong(line.trim());
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split(" ", 3);
+                if (fields.length != 3) {
+                    return false;
+                }
+                expected.put(fields[2], new FileStamp(Long.parseLong(fields[0]), Long.parseLong(fields[1])));
+            }
+            if (expandedSize != totalSize(expected)) {
+                return false;
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Written by an older version or damaged
+            return false;
+        }
+        return expected.equals(listFiles(dir));
+    }
+
+    /**
+     * Lists the files in a directory by their path relative to it.
+     */
+    private static Map<String, FileStamp> listFiles(final Path dir) throws IOException {
+        final Map<String, FileStamp> files = new TreeMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                final StringBuilder path = new StringBuilder();
+                for (Path element : dir.relativize(file)) {
+                    if (path.length() > 0) {
+                        path.append('/');
+                    }
+                    path.append(element);
+                }
+                files.put(path.toString(), new FileStamp(attrs.size(), attrs.lastModifiedTime().toMillis()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static long totalSize(final Map<String, FileStamp> files) {
+        long total = 0;
+        for (FileStamp file : files.values()) {
+            total += file.size;
+        }
+        return total;
+    }
+
+    private static String digest(final InputStream in, final OutputStream copy) throws IOException {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            if (copy != null) {
+                copy.write(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(KEY_VERSION);
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    private static boolean deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot delete %s", file);
+            return false;
+        }
+    }
+
+    private static boolean deleteRecursively(final Path path) {
+        if (!Files.isDirectory(path)) {
+            return deleteQuietly(path);
+        }
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+                    if (e != null) {
+                        throw e;
+                    }
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return true;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot delete %s", path);
+            return false;
+        }
+    }
+
+    /**
+     * Closes a mount of a cached entry and releases the entry.
+     */
+    private final class Handle implements Closeable {
+        private final Closeable mount;
+        private final String name;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Handle(final Closeable mount, final String name) {
+            this.mount = mount;
+            this.name = name;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    mount.close();
+                } finally {
+                    release(name);
+                }
+            }
+        }
+    }
+
+    private static final class FileDigest {
+        private final long length;
+        private final long lastModified;
+        private final String key;
+
+        private FileDigest(final long length, final long lastModified, final String key) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.key = key;
+        }
+    }
+
+    private static final class FileStamp {
+        private final long size;
+        private final long lastModified;
+
+        private FileStamp(final long size, final long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof FileStamp)) {
+                return false;
+            }
+            final FileStamp stamp = (FileStamp) other;
+            return size == stamp.size && lastModified == stamp.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(lastModified);
+        }
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final Path file;
+        private final Path stamp;
+        private final long size;
+        private final long lastUsed;
+
+        private Entry(final String name, final Path file, final Path stamp, final long size, final long lastUsed) {
+            this.name = name;
+            this.file = file;
+            this.stamp = stamp;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -155,6 +155,11 @@ public final class Attachments {
      */
     public static final AttachmentKey<ExtensionInfo> EXTENSION_INFORMATION = AttachmentKey.create(ExtensionInfo.class);
 
+    /**
+     * The time spent in each phase and processor of a deployment unit.
+     */
+    public static final AttachmentKey<DeploymentTimings> DEPLOYMENT_TIMINGS = AttachmentKey.create(DeploymentTimings.class);
+
     /**
      * The server deployment repository
      */
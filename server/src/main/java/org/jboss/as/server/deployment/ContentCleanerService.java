@@ -33,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 import org.jboss.as.controller.ControlledProcessStateService;
 import org.jboss.as.controller.ModelControllerClientFactory;
 import org.jboss.as.server.Services;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceName;
@@ -74,9 +75,15 @@ public class ContentCleanerService implements Service<Void> {
     private final long interval;
     private final boolean server;
     private final TimeUnit unit;
+    private final AnnotationIndexCache indexCache;
 
     public static void addService(final ServiceTarget serviceTarget, final ServiceName clientFactoryService, final ServiceName scheduledExecutorServiceName) {
-        final ContentCleanerService service = new ContentCleanerService(true);
+        addService(serviceTarget, clientFactoryService, scheduledExecutorServiceName, null);
+    }
+
+    public static void addService(final ServiceTarget serviceTarget, final ServiceName clientFactoryService, final ServiceName scheduledExecutorServiceName,
+                                  final AnnotationIndexCache indexCache) {
+        final ContentCleanerService service = new ContentCleanerService(true, indexCache);
         ServiceBuilder<Void> builder = serviceTarget.addService(SERVICE_NAME, service)
                 .addDependency(clientFactoryService, ModelControllerClientFactory.class, service.clientFactoryValue)
                 .addDependency(ControlledProcessStateService.SERVICE_NAME, ControlledProcessStateService.class, service.controlledProcessStateServiceValue)
@@ -87,7 +94,7 @@ public class ContentCleanerService implements Service<Void> {
 
     public static void addServiceOnHostController(final ServiceTarget serviceTarget, final ServiceName hostControllerServiceName, final ServiceName clientFactoryServiceName,
                                                   final ServiceName hostControllerExecutorServiceName, final ServiceName scheduledExecutorServiceName) {
-        final ContentCleanerService service = new ContentCleanerService(false);
+        final ContentCleanerService service = new ContentCleanerService(false, null);
         ServiceBuilder<Void> builder = serviceTarget.addService(SERVICE_NAME, service)
                 .addDependency(clientFactoryServiceName, ModelControllerClientFactory.class, service.clientFactoryValue)
                 .addDependency(ControlledProcessStateService.SERVICE_NAME, ControlledProcessStateService.class, service.controlledProcessStateServiceValue)
@@ -96,10 +103,11 @@ public class ContentCleanerService implements Service<Void> {
         builder.install();
     }
 
-    ContentCleanerService(final boolean server) {
+    ContentCleanerService(final boolean server, final AnnotationIndexCache indexCache) {
         this.interval = DEFAULT_INTERVAL;
         this.unit = TimeUnit.MILLISECONDS;
         this.server = server;
+        this.indexCache = indexCache;
     }
 
     @Override
@@ -107,7 +115,7 @@ public class ContentCleanerService implements Service<Void> {
         this.deploymentContentCleaner = new ContentRepositoryCleaner(
                 clientFactoryValue.getValue().createSuperUserClient(executorServiceValue.getValue(), false),
                 controlledProcessStateServiceValue.getValue(),
-                scheduledExecutorValue.getValue(), unit.toMillis(interval), server);
+                scheduledExecutorValue.getValue(), unit.toMillis(interval), server, indexCache);
         deploymentContentCleaner.startScan();
     }
 
@@ -42,6 +42,7 @@ import org.jboss.as.controller.ControlledProcessStateService;
 import org.jboss.as.controller.LocalModelControllerClient;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.operations.CleanObsoleteContentHandler;
 import org.jboss.dmr.ModelNode;
@@ -61,6 +62,7 @@ class ContentRepositoryCleaner {
     private long cleanInterval = 0L;
     private volatile boolean enabled;
     private final boolean server;
+    private final AnnotationIndexCache indexCache;
     private ScheduledFuture<?> cleanTask;
 
     private final ContentRepositoryCleanerTask cleanRunnable = new ContentRepositoryCleanerTask();
@@ -75,6 +77,13 @@ class ContentRepositoryCleaner {
 
     public ContentRepositoryCleaner(LocalModelControllerClient client, ControlledProcessStateService controlledProcessStateService,
                                     ScheduledExecutorService scheduledExecutor, long interval, boolean server) {
+        this(client, controlledProcessStateService, scheduledExecutor, interval, server, null);
+    }
+
+    public ContentRepositoryCleaner(LocalModelControllerClient client, ControlledProcessStateService controlledProcessStateService,
+                                    ScheduledExecutorService scheduledExecutor, long interval, boolean server,
+                                    AnnotationIndexCache indexCache) {
+        this.indexCache = indexCache;
         this.controlledProcessStateService = controlledProcessStateService;
         this.client = client;
         this.scheduledExecutor = scheduledExecutor;
@@ -141,6 +150,11 @@ class ContentRepositoryCleaner {
             } else if (FAILED.equals(response.get(OUTCOME).asString())) {
                 error(response);
             }
+            if (indexCache != null) {
+                // Keep the annotation index cache within its bounds; indexes of content that is no longer deployed are
+                // not tracked, they are only removed once they become the least recently used
+                indexCache.evict();
+            }
         }
     }
 
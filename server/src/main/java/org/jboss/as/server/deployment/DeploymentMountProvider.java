@@ -75,7 +75,17 @@ public interface DeploymentMountProvider {
 
     static class Factory {
         public static void addService(final ServiceTarget serviceTarget) {
-            ServerDeploymentRepositoryImpl service = new ServerDeploymentRepositoryImpl();
+            addService(serviceTarget, null);
+        }
+
+        /**
+         * Installs the deployment mount provider.
+         *
+         * @param serviceTarget the service target
+         * @param archiveCache cache of the mounted archives, or {@code null} to mount them uncached
+         */
+        public static void addService(final ServiceTarget serviceTarget, final ArchiveMountCache archiveCache) {
+            ServerDeploymentRepositoryImpl service = new ServerDeploymentRepositoryImpl(archiveCache);
             org.jboss.as.server.Services.addServerExecutorDependency(
                     serviceTarget.addService(DeploymentMountProvider.SERVICE_NAME, service),
                     service.injectedExecutorService)
@@ -88,13 +98,15 @@ public interface DeploymentMountProvider {
         private static class ServerDeploymentRepositoryImpl implements DeploymentMountProvider, Service<DeploymentMountProvider> {
 
             private final InjectedValue<ExecutorService> injectedExecutorService = new InjectedValue<ExecutorService>();
+            private final ArchiveMountCache archiveCache;
             private volatile TempFileProvider tempFileProvider;
             private volatile ScheduledExecutorService scheduledExecutorService;
 
             /**
              * Creates a new ServerDeploymentRepositoryImpl.
              */
-            private ServerDeploymentRepositoryImpl() {
+            private ServerDeploymentRepositoryImpl(final ArchiveMountCache archiveCache) {
+                this.archiveCache = archiveCache;
             }
 
             @Override
@@ -103,8 +115,14 @@ public interface DeploymentMountProvider {
                 assert contents != null : "null contents";
                 switch (type) {
                     case ZIP:
+                        if (archiveCache != null) {
+                            return archiveCache.mountZip(contents, mountPoint, tempFileProvider);
+                        }
                         return VFS.mountZip(contents, mountPoint, tempFileProvider);
                     case EXPANDED:
+                        if (archiveCache != null) {
+                            return archiveCache.mountZipExpanded(contents, mountPoint, tempFileProvider);
+                        }
                         return VFS.mountZipExpanded(contents, mountPoint, tempFileProvider);
                     case REAL:
                         return VFS.mountReal(contents.getPhysicalFile(), mountPoint);
@@ -126,6 +144,10 @@ public interface DeploymentMountProvider {
                 } catch (IOException e) {
                     throw ServerLogger.ROOT_LOGGER.failedCreatingTempProvider(e);
                 }
+                if (archiveCache != null) {
+                    // Removes what was left behind by a previous run and not mounted since
+                    archiveCache.evict();
+                }
                 ServerLogger.ROOT_LOGGER.debugf("%s started", DeploymentMountProvider.class.getSimpleName());
             }
 
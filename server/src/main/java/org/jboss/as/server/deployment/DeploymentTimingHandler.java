@@ -0,0 +1,228 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBDEPLOYMENT;
+import static org.jboss.as.server.controller.resources.DeploymentAttributes.RUNTIME_NAME;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectListAttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.server.controller.descriptions.ServerDescriptions;
+import org.jboss.as.server.controller.resources.DeploymentAttributes;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+
+/**
+ * Exposes the {@link DeploymentTimings} of deployments and subdeployments as runtime attributes and reports, and
+ * sums them up across all deployments.
+ */
+public class DeploymentTimingHandler implements OperationStepHandler {
+
+    public static final String OPERATION_NAME = "read-timing-report";
+    public static final String AGGREGATE_OPERATION_NAME = "read-deployment-timing-report";
+
+    private static final String DEPLOYMENTS = "deployments";
+    private static final String SUBDEPLOYMENTS = "subdeployments";
+
+    public static final SimpleAttributeDefinition PROCESSING_TIME = SimpleAttributeDefinitionBuilder.create("processing-time", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .setStorageRuntime()
+            .build();
+
+    private static final SimpleAttributeDefinition PHASE = SimpleAttributeDefinitionBuilder.create(DeploymentTimings.PHASE, ModelType.STRING).build();
+    private static final SimpleAttributeDefinition WALL_TIME = SimpleAttributeDefinitionBuilder.create(DeploymentTimings.WALL_TIME, ModelType.LONG)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .build();
+    private static final SimpleAttributeDefinition CPU_TIME = SimpleAttributeDefinitionBuilder.create(DeploymentTimings.CPU_TIME, ModelType.LONG)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .build();
+    private static final SimpleAttributeDefinition ALLOCATED_BYTES = SimpleAttributeDefinitionBuilder.create(DeploymentTimings.ALLOCATED_BYTES, ModelType.LONG)
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .build();
+
+    public static final ObjectListAttributeDefinition PHASE_TIMINGS = new ObjectListAttributeDefinition.Builder("phase-timings",
+            new ObjectTypeAttributeDefinition.Builder(DeploymentTimings.PHASE, PHASE, WALL_TIME, CPU_TIME, ALLOCATED_BYTES).build())
+            .setRequired(false)
+            .setStorageRuntime()
+            .build();
+
+    private static final SimpleAttributeDefinition INCLUDE_PROCESSORS = SimpleAttributeDefinitionBuilder.create("include-processors", ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(true))
+            .build();
+
+    public static final SimpleOperationDefinition DEFINITION = new SimpleOperationDefinitionBuilder(OPERATION_NAME, DeploymentAttributes.DEPLOYMENT_RESOLVER)
+            .setParameters(INCLUDE_PROCESSORS)
+            .setReplyType(ModelType.OBJECT)
+            .setRuntimeOnly()
+            .setReadOnly()
+            .build();
+
+    public static final SimpleOperationDefinition AGGREGATE_DEFINITION = new SimpleOperationDefinitionBuilder(AGGREGATE_OPERATION_NAME,
+            ServerDescriptions.getResourceDescriptionResolver(SERVER, false))
+            .setParameters(INCLUDE_PROCESSORS)
+            .setReplyType(ModelType.OBJECT)
+            .setRuntimeOnly()
+            .setReadOnly()
+            .build();
+
+    private static final OperationStepHandler INSTANCE = new DeploymentTimingHandler();
+
+    private static final OperationStepHandler AGGREGATE_HANDLER = new OperationStepHandler() {
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final boolean includeProcessors = INCLUDE_PROCESSORS.resolveModelAttribute(context, operation).asBoolean();
+            final List<String> names = new ArrayList<>();
+            final List<String> runtimeNames = new ArrayList<>();
+            final Resource root = context.readResourceFromRoot(PathAddress.EMPTY_ADDRESS, false);
+            for (Resource.ResourceEntry entry : root.getChildren(DEPLOYMENT)) {
+                names.add(entry.getName());
+                runtimeNames.add(RUNTIME_NAME.resolveModelAttribute(context, entry.getModel()).asString());
+            }
+            context.addStep(new OperationStepHandler() {
+                @Override
+                public void execute(OperationContext context, ModelNode operation) {
+                    final List<DeploymentTimings> all = new ArrayList<>();
+                    final ModelNode deployments = new ModelNode().setEmptyObject();
+                    for (int i = 0; i < names.size(); i++) {
+                        final DeploymentUnit unit = getDeploymentUnit(context, Services.deploymentUnitName(runtimeNames.get(i)));
+                        if (unit == null) {
+                            continue;
+                        }
+                        final List<DeploymentTimings> units = new ArrayList<>();
+                        addTimings(unit, units);
+                        for (DeploymentUnit subdeployment : unit.getAttachmentList(Attachments.SUB_DEPLOYMENTS)) {
+                            addTimings(subdeployment, units);
+                        }
+                        if (!units.isEmpty()) {
+                            deployments.get(names.get(i)).set(DeploymentTimings.sum(units).getWallTime());
+                            all.addAll(units);
+                        }
+                    }
+                    final ModelNode result = DeploymentTimings.sum(all).toModelNode(includeProcessors);
+                    result.get(DEPLOYMENTS).set(deployments);
+                    context.getResult().set(result);
+                }
+            }, OperationContext.Stage.RUNTIME);
+        }
+    };
+
+    private DeploymentTimingHandler() {
+    }
+
+    /**
+     * Registers the timing attributes and report operation of deployments or subdeployments.
+     *
+     * @param registration the registration of the deployment or subdeployment resource
+     */
+    public static void registerDeploymentTimings(final ManagementResourceRegistration registration) {
+        registration.registerMetric(PROCESSING_TIME, INSTANCE);
+        registration.registerMetric(PHASE_TIMINGS, INSTANCE);
+        registration.registerOperationHandler(DEFINITION, INSTANCE);
+    }
+
+    /**
+     * Registers the operation reporting the timings of all deployments.
+     *
+     * @param registration the registration of the server root resource
+     */
+    public static void registerAggregateTimings(final ManagementResourceRegistration registration) {
+        registration.registerOperationHandler(AGGREGATE_DEFINITION, AGGREGATE_HANDLER);
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final boolean report = OPERATION_NAME.equals(operation.require(OP).asString());
+        final String attributeName = report ? null : operation.require(NAME).asString();
+        final boolean includeProcessors = report && INCLUDE_PROCESSORS.resolveModelAttribute(context, operation).asBoolean();
+        final PathAddress address = context.getCurrentAddress();
+        final PathElement subdeployment = SUBDEPLOYMENT.equals(address.getLastElement().getKey()) ? address.getLastElement() : null;
+        final PathAddress deploymentAddress = subdeployment == null ? address : address.getParent();
+        final ModelNode deployment = context.readResourceFromRoot(deploymentAddress, false).getModel();
+        final String runtimeName = RUNTIME_NAME.resolveModelAttribute(context, deployment).asString();
+        context.addStep(new OperationStepHandler() {
+            @Override
+            public void execute(OperationContext context, ModelNode operation) {
+                final DeploymentUnit unit = getDeploymentUnit(context, subdeployment == null
+                        ? Services.deploymentUnitName(runtimeName)
+                        : Services.deploymentUnitName(runtimeName, subdeployment.getValue()));
+                final DeploymentTimings timings = unit == null ? null : unit.getAttachment(Attachments.DEPLOYMENT_TIMINGS);
+                if (timings == null) {
+                    return;
+                }
+                final ModelNode result = context.getResult();
+                if (report) {
+                    result.set(timings.toModelNode(includeProcessors));
+                    if (subdeployment == null) {
+                        for (DeploymentUnit sub : unit.getAttachmentList(Attachments.SUB_DEPLOYMENTS)) {
+                            final DeploymentTimings subTimings = sub.getAttachment(Attachments.DEPLOYMENT_TIMINGS);
+                            if (subTimings != null) {
+                                result.get(SUBDEPLOYMENTS, sub.getName()).set(subTimings.toModelNode(includeProcessors));
+                            }
+                        }
+                    }
+                } else if (PROCESSING_TIME.getName().equals(attributeName)) {
+                    result.set(timings.getWallTime());
+                } else {
+                    result.set(timings.getPhases());
+                }
+            }
+        }, OperationContext.Stage.RUNTIME);
+    }
+
+    private static void addTimings(final DeploymentUnit unit, final List<DeploymentTimings> all) {
+        final DeploymentTimings timings = unit.getAttachment(Attachments.DEPLOYMENT_TIMINGS);
+        if (timings != null) {
+            all.add(timings);
+        }
+    }
+
+    private static DeploymentUnit getDeploymentUnit(final OperationContext context, final ServiceName serviceName) {
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(serviceName);
+        if (controller != null && controller.getService() instanceof AbstractDeploymentUnitService) {
+            return ((AbstractDeploymentUnitService) controller.getService()).getValue();
+        }
+        return null;
+    }
+}
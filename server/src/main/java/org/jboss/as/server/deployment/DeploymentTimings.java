@@ -0,0 +1,282 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Wall clock time, CPU time and allocated bytes spent in each phase of a deployment unit and in each of the
+ * {@link DeploymentUnitProcessor}s run for it, so slow deployments can be attributed to the processors responsible.
+ * <p>
+ * CPU time and allocations are measured for the thread running the phase, and are reported as {@code -1} where the
+ * JVM does not support measuring them. Processors that start work on other threads are only accounted for the time
+ * they wait for it.
+ *
+ * @see DeploymentUnitPhaseService
+ */
+public final class DeploymentTimings {
+
+    public static final String PHASE = "phase";
+    public static final String PROCESSOR = "processor";
+    public static final String SUBSYSTEM = "subsystem";
+    public static final String WALL_TIME = "wall-time";
+    public static final String CPU_TIME = "cpu-time";
+    public static final String ALLOCATED_BYTES = "allocated-bytes";
+    public static final String PHASES = "phases";
+    public static final String PROCESSORS = "processors";
+
+    /** Whether deployment timings are recorded; they are by default */
+    private static final boolean ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged("org.wildfly.deployment.timings", "true"));
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    /** {@code com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long)}, if available */
+    private static final Method ALLOCATED_BYTES_METHOD = getAllocatedBytesMethod();
+
+    private final Map<Phase, Timing> phases = new EnumMap<>(Phase.class);
+    private final Map<String, Timing> processors = new LinkedHashMap<>();
+
+    DeploymentTimings() {
+    }
+
+    /**
+     * Attaches new timings to a deployment unit, unless recording them is disabled.
+     *
+     * @param deploymentUnit the deployment unit
+     */
+    static void attach(final DeploymentUnit deploymentUnit) {
+        if (ENABLED) {
+            deploymentUnit.putAttachment(Attachments.DEPLOYMENT_TIMINGS, new DeploymentTimings());
+        }
+    }
+
+    /**
+     * Discards what was recorded, when the phases of the deployment unit are run again.
+     */
+    synchronized void reset() {
+        phases.clear();
+        processors.clear();
+    }
+
+    /**
+     * Starts measuring on the current thread.
+     *
+     * @return the sample to pass to {@link #phaseCompleted} or {@link #processorCompleted}
+     */
+    static long[] start() {
+        return new long[] {System.nanoTime(), cpuTime(), allocatedBytes()};
+    }
+
+    void phaseCompleted(final Phase phase, final long[] start) {
+        final long[] end = start();
+        synchronized (this) {
+            phases.computeIfAbsent(phase, p -> new Timing(p, null, null)).add(start, end);
+        }
+    }
+
+    void processorCompleted(final Phase phase, final RegisteredDeploymentUnitProcessor processor, final long[] start) {
+        final long[] end = start();
+        final String name = processor.getProcessor().getClass().getName();
+        synchronized (this) {
+            processors.computeIfAbsent(phase.name() + ':' + name, k -> new Timing(phase, name, processor.getSubsystemName())).add(start, end);
+        }
+    }
+
+    /**
+     * Sums up the timings of several deployment units.
+     *
+     * @param all the timings to sum up
+     * @return the total timings
+     */
+    public static DeploymentTimings sum(final Collection<DeploymentTimings> all) {
+        final DeploymentTimings total = new DeploymentTimings();
+        for (DeploymentTimings timings : all) {
+            synchronized (timings) {
+                for (Timing timing : timings.phases.values()) {
+                    total.phases.computeIfAbsent(timing.phase, p -> new Timing(p, null, null)).add(timing);
+                }
+                for (Map.Entry<String, Timing> entry : timings.processors.entrySet()) {
+                    final Timing timing = entry.getValue();
+                    total.processors.computeIfAbsent(entry.getKey(), k -> new Timing(timing.phase, timing.processor, timing.subsystem)).add(timing);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the wall clock time spent in all phases.
+     *
+     * @return the time in microseconds
+     */
+    public synchronized long getWallTime() {
+        long total = 0;
+        for (Timing timing : phases.values()) {
+            total += timing.wallTime;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(total);
+    }
+
+    /**
+     * Gets the timings of each phase, in phase order.
+     *
+     * @return list of objects with {@code phase}, {@code wall-time}, {@code cpu-time} and {@code allocated-bytes},
+     *         times being in microseconds
+     */
+    public synchronized ModelNode getPhases() {
+        final ModelNode result = new ModelNode().setEmptyList();
+        for (Timing timing : phases.values()) {
+            result.add(timing.toModelNode());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the timings of each processor, slowest first.
+     *
+     * @return list of objects with {@code phase}, {@code processor}, {@code subsystem}, {@code wall-time},
+     *         {@code cpu-time} and {@code allocated-bytes}, times being in microseconds
+     */
+    public synchronized ModelNode getProcessors() {
+        final List<Timing> sorted = new ArrayList<>(processors.values());
+        sorted.sort((a, b) -> Long.compare(b.wallTime, a.wallTime));
+        final ModelNode result = new ModelNode().setEmptyList();
+        for (Timing timing : sorted) {
+            result.add(timing.toModelNode());
+        }
+        return result;
+    }
+
+    /**
+     * Gets a report of the timings.
+     *
+     * @param includeProcessors whether to include the timings of each processor
+     * @return object with the {@code wall-time}, the {@link #getPhases() phases} and the optional
+     *         {@link #getProcessors() processors}
+     */
+    public ModelNode toModelNode(final boolean includeProcessors) {
+        final ModelNode result = new ModelNode();
+        result.get(WALL_TIME).set(getWallTime());
+        result.get(PHASES).set(getPhases());
+        if (includeProcessors) {
+            result.get(PROCESSORS).set(getProcessors());
+        }
+        return result;
+    }
+
+    private static long cpuTime() {
+        try {
+            return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATED_BYTES_METHOD == null) {
+            return -1;
+        }
+        try {
+            return (Long) ALLOCATED_BYTES_METHOD.invoke(THREADS, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static Method getAllocatedBytesMethod() {
+        try {
+            // Not referenced directly, as the com.sun.management API is not available on every JVM
+            final Class<?> type = Class.forName("com.sun.management.ThreadMXBean", false, null);
+            if (!type.isInstance(THREADS)) {
+                return null;
+            }
+            final Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+            return method.invoke(THREADS, Thread.currentThread().getId()) instanceof Long ? method : null;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static final class Timing {
+        private final Phase phase;
+        private final String processor;
+        private final String subsystem;
+        private int count;
+        private long wallTime;
+        /** {@code -1} if unknown */
+        private long cpuTime;
+        /** {@code -1} if unknown */
+        private long allocatedBytes;
+
+        private Timing(final Phase phase, final String processor, final String subsystem) {
+            this.phase = phase;
+            this.processor = processor;
+            this.subsystem = subsystem;
+        }
+
+        private void add(final long[] start, final long[] end) {
+            add(end[0] - start[0], start[1] < 0 || end[1] < 0 ? -1 : end[1] - start[1], start[2] < 0 || end[2] < 0 ? -1 : end[2] - start[2]);
+        }
+
+        private void add(final Timing timing) {
+            add(timing.wallTime, timing.cpuTime, timing.allocatedBytes);
+        }
+
+        private void add(final long wall, final long cpu, final long allocated) {
+            wallTime += wall;
+            if (count++ == 0) {
+                cpuTime = cpu;
+                allocatedBytes = allocated;
+            } else {
+                cpuTime = cpu < 0 || cpuTime < 0 ? -1 : cpuTime + cpu;
+                allocatedBytes = allocated < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + allocated;
+            }
+        }
+
+        private ModelNode toModelNode() {
+            final ModelNode result = new ModelNode();
+            result.get(PHASE).set(phase.name());
+            if (processor != null) {
+                result.get(PROCESSOR).set(processor);
+                if (subsystem != null) {
+                    result.get(SUBSYSTEM).set(subsystem);
+                }
+            }
+            result.get(WALL_TIME).set(TimeUnit.NANOSECONDS.toMicros(wallTime));
+            result.get(CPU_TIME).set(cpuTime < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(cpuTime));
+            result.get(ALLOCATED_BYTES).set(allocatedBytes);
+            return result;
+        }
+    }
+}
@@ -137,11 +137,22 @@ final class DeploymentUnitPhaseService<T> implements Service<T> {
             }
         }
 
+        final DeploymentTimings timings = deploymentUnit.getAttachment(Attachments.DEPLOYMENT_TIMINGS);
+        if (timings != null && phase == Phase.values()[0]) {
+            timings.reset();
+        }
+        final long[] phaseStart = timings == null ? null : DeploymentTimings.start();
         while (iterator.hasNext()) {
             final RegisteredDeploymentUnitProcessor processor = iterator.next();
             try {
                 if (shouldRun(deploymentUnit, processor)) {
-                    processor.getProcessor().deploy(processorContext);
+                    if (timings == null) {
+                        processor.getProcessor().deploy(processorContext);
+                    } else {
+                        final long[] start = DeploymentTimings.start();
+                        processor.getProcessor().deploy(processorContext);
+                        timings.processorCompleted(phase, processor, start);
+                    }
                 }
             } catch (Throwable e) {
                 while (iterator.hasPrevious()) {
@@ -151,6 +162,9 @@ final class DeploymentUnitPhaseService<T> implements Service<T> {
                 throw ServerLogger.ROOT_LOGGER.deploymentPhaseFailed(phase, deploymentUnit, e);
             }
         }
+        if (timings != null) {
+            timings.phaseCompleted(phase, phaseStart);
+        }
 
         final Phase nextPhase = phase.next();
         if (nextPhase != null) {
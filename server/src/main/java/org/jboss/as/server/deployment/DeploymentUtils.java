@@ -24,6 +24,8 @@ package org.jboss.as.server.deployment;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONTENT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HASH;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -36,8 +38,11 @@ import org.jboss.as.controller.HashUtil;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.server.controller.resources.DeploymentAttributes;
 import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.deployment.module.TempFileProviderService;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceName;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
 import org.wildfly.common.Assert;
 
 /**
@@ -88,6 +93,24 @@ public final class DeploymentUtils {
         return unit;
     }
 
+    /**
+     * Mounts an archive nested in a deployment as a zip file system at its own location. The mount goes through the
+     * {@link DeploymentMountProvider} of the top deployment unit, so unchanged archives can be served from the
+     * {@link ArchiveMountCache} across redeploys.
+     *
+     * @param deploymentUnit the deployment unit containing the archive
+     * @param archive the archive
+     * @return handle closing the mount
+     * @throws IOException if the archive cannot be mounted
+     */
+    public static Closeable mountNestedArchive(final DeploymentUnit deploymentUnit, final VirtualFile archive) throws IOException {
+        final DeploymentMountProvider mountProvider = getTopDeploymentUnit(deploymentUnit).getAttachment(Attachments.SERVER_DEPLOYMENT_REPOSITORY);
+        if (mountProvider == null) {
+            return VFS.mountZip(archive, archive, TempFileProviderService.provider());
+        }
+        return mountProvider.mountDeploymentContent(archive, archive, MountType.ZIP);
+    }
+
     public static ServiceName getDeploymentUnitPhaseServiceName(final DeploymentUnit depUnit, final Phase phase) {
         DeploymentUnit parent = depUnit.getParent();
         if (parent == null) {
@@ -0,0 +1,288 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.logging.ServerLogger;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.vfs.VirtualFile;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * On-disk cache of the annotation indexes generated for deployment resource roots, so unchanged roots do not
+ * have to be re-indexed on every deployment and server restart.
+ * <p>
+ * Entries are keyed by a SHA-1 digest of the indexed class files' paths and content, so any change to the content
+ * results in a different key. Stale entries are never read again and are removed by
+ * {@link #evict()} once the cache grows beyond its maximum size, least recently used first.
+ *
+ * @see ResourceRootIndexer
+ */
+public final class AnnotationIndexCache {
+
+    /** Name of the cache directory under the server data directory */
+    public static final String DIRECTORY_NAME = "annotation-index";
+
+    /** Maximum size of the cache in bytes; {@code 0} disables it */
+    private static final String MAX_SIZE_PROPERTY = "org.wildfly.deployment.annotation-index.cache.max-size";
+    private static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final String SUFFIX = ".idx";
+    private static final String TMP_SUFFIX = ".tmp";
+    /** Included in the keys so entries written by an incompatible version are not picked up */
+    private static final byte KEY_VERSION = 2;
+
+    private final Path directory;
+    private final long maxSize;
+    /** Approximate size of the cache directory, {@code -1} until first computed */
+    private final AtomicLong size = new AtomicLong(-1);
+
+    AnnotationIndexCache(final Path directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the cache for the given server, if enabled.
+     *
+     * @param serverEnvironment the server environment
+     * @return the cache, or {@code null} if caching of annotation indexes is disabled
+     */
+    public static AnnotationIndexCache create(final ServerEnvironment serverEnvironment) {
+        long maxSize = DEFAULT_MAX_SIZE;
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MAX_SIZE_PROPERTY, null);
+        if (value != null) {
+            try {
+                maxSize = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                ServerLogger.DEPLOYMENT_LOGGER.debugf("Ignoring invalid value %s for %s", value, MAX_SIZE_PROPERTY);
+            }
+        }
+        if (maxSize <= 0 || serverEnvironment.getServerDataDir() == null) {
+            return null;
+        }
+        return new AnnotationIndexCache(serverEnvironment.getServerDataDir().toPath().resolve(DIRECTORY_NAME), maxSize);
+    }
+
+    /**
+     * Computes the key of the index of the given class files, from their paths and content.
+     * <p>
+     * The content is read rather than relying on sizes and timestamps, as reproducible builds produce archives whose
+     * entries all have the same fixed timestamp. Reading and digesting the class files is still much cheaper than
+     * indexing them.
+     *
+     * @param root the resource root being indexed
+     * @param classFiles the class files to index
+     * @param ignoredPaths paths excluded from indexing, may be {@code null}
+     * @return the key
+     * @throws IOException if a class file cannot be read
+     */
+    static String computeKey(final VirtualFile root, final Collection<VirtualFile> classFiles, final Set<String> ignoredPaths) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(KEY_VERSION);
+        // Sort so the key does not depend on the iteration order of the file system
+        final TreeMap<String, VirtualFile> sorted = new TreeMap<>();
+        for (VirtualFile classFile : classFiles) {
+            sorted.put(classFile.getPathNameRelativeTo(root), classFile);
+        }
+        final byte[] buffer = new byte[8192];
+        for (Map.Entry<String, VirtualFile> entry : sorted.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            long length = 0;
+            try (InputStream in = entry.getValue().openStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    length += read;
+                }
+            }
+            // The length separates the content of one class file from the path of the next
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                digest.update((byte) (length >>> shift));
+            }
+        }
+        if (ignoredPaths != null) {
+            for (String ignored : new TreeSet<>(ignoredPaths)) {
+                digest.update((byte) '!');
+                digest.update(ignored.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a cached index.
+     *
+     * @param key the key of the index
+     * @return the index, or {@code null} if it is not cached or cannot be read
+     */
+    Index get(final String key) {
+        final Path file = directory.resolve(key + SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            final Index index = new IndexReader(in).read();
+            // Record the use so eviction removes the least recently used entries first
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return index;
+        } catch (IOException | RuntimeException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot read cached annotation index %s", file);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an index.
+     *
+     * @param key the key of the index
+     * @param index the index
+     */
+    void put(final String key, final Index index) {
+        final Path file = directory.resolve(key + SUFFIX);
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, key, TMP_SUFFIX);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                new IndexWriter(out).write(index);
+            }
+            final long written = Files.size(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            if (size.get() < 0 || size.addAndGet(written) > maxSize) {
+                evict();
+            }
+        } catch (IOException | RuntimeException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot store annotation index %s", file);
+        } finally {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is no larger than its maximum size.
+     */
+    public synchronized void evict() {
+        if (!Files.isDirectory(directory)) {
+            size.set(0);
+            return;
+        }
+        final List<Entry> entries = new ArrayList<>();
+        final long staleTmp = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                try {
+                    final String name = file.getFileName().toString();
+                    if (name.endsWith(SUFFIX)) {
+                        final Entry entry = new Entry(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+                        entries.add(entry);
+                        total += entry.size;
+                    } else if (name.endsWith(TMP_SUFFIX) && Files.getLastModifiedTime(file).toMillis() < staleTmp) {
+                        // Left behind by a store that was interrupted
+                        deleteQuietly(file);
+                    }
+                } catch (IOException e) {
+                    // Removed concurrently
+                }
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot list annotation index cache %s", directory);
+            return;
+        }
+        if (total > maxSize) {
+            entries.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+            for (Entry entry : entries) {
+                if (total <= maxSize) {
+                    break;
+                }
+                if (deleteQuietly(entry.file)) {
+                    total -= entry.size;
+                }
+            }
+        }
+        size.set(total);
+    }
+
+    private static boolean deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot delete %s", file);
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        private final Path file;
+        private final long size;
+        private final long lastUsed;
+
+        private Entry(final Path file, final long size, final long lastUsed) {
+            this.file = file;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -22,12 +22,25 @@
 
 package org.jboss.as.server.deployment.annotation;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.DeploymentUtils;
 import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.logging.ServerLogger;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Deployment unit processor responsible for creating and attaching an annotation index for a resource root
@@ -37,6 +50,50 @@ import org.jboss.as.server.deployment.module.ResourceRoot;
  */
 public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
 
+    private static final String PARALLELISM_PROPERTY = "org.wildfly.deployment.annotation-index.parallelism";
+
+    /**
+     * Maximum number of resource roots of a deployment indexed concurrently. A value of 1 indexes them one after
+     * another on the deployment thread.
+     */
+    private static final int PARALLELISM = getParallelism();
+
+    private final AnnotationIndexCache cache;
+    private final Executor executor;
+    private final int parallelism;
+
+    public AnnotationIndexProcessor() {
+        this(null, null);
+    }
+
+    /**
+     * @param cache cache of previously generated indexes, or {@code null} to always generate them
+     * @param executor executor used to index the resource roots of a deployment concurrently, or {@code null} to
+     *                 index them one after another on the deployment thread
+     */
+    public AnnotationIndexProcessor(final AnnotationIndexCache cache, final Executor executor) {
+        this(cache, executor, PARALLELISM);
+    }
+
+    AnnotationIndexProcessor(final AnnotationIndexCache cache, final Executor executor, final int parallelism) {
+        this.cache = cache;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    private static int getParallelism() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final String value = WildFlySecurityManager.getPropertyPrivileged(PARALLELISM_PROPERTY, null);
+        if (value != null) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                ServerLogger.DEPLOYMENT_LOGGER.debugf("Ignoring invalid value %s for %s", value, PARALLELISM_PROPERTY);
+            }
+        }
+        return processors;
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
      * found in this deployment and attach it to the deployment unit context.
@@ -47,8 +104,73 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
-        for (ResourceRoot resourceRoot : DeploymentUtils.allResourceRoots(deploymentUnit)) {
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
+        index(DeploymentUtils.allResourceRoots(deploymentUnit));
+    }
+
+    void index(final List<ResourceRoot> resourceRoots) throws DeploymentUnitProcessingException {
+        if (executor == null || parallelism <= 1 || resourceRoots.size() < 2) {
+            for (ResourceRoot resourceRoot : resourceRoots) {
+                ResourceRootIndexer.indexResourceRoot(resourceRoot, cache);
+            }
+        } else {
+            indexConcurrently(resourceRoots);
+        }
+    }
+
+    /**
+     * Indexes the given resource roots using up to {@code parallelism} threads, including the calling one, waiting for
+     * all of them to complete. The first failure, if any, is reported once the other roots are done.
+     * <p>
+     * The calling thread takes part in the indexing and helpers that the executor has not started by the time all roots
+     * have been taken have nothing left to do, so a busy executor cannot hold up the deployment.
+     */
+    private void indexConcurrently(final List<ResourceRoot> resourceRoots) throws DeploymentUnitProcessingException {
+        final Set<ResourceRoot> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(resourceRoots);
+        final Queue<ResourceRoot> queue = new ConcurrentLinkedQueue<>(distinct);
+        final CountDownLatch done = new CountDownLatch(distinct.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            ResourceRoot resourceRoot;
+            while ((resourceRoot = queue.poll()) != null) {
+                try {
+                    ResourceRootIndexer.indexResourceRoot(resourceRoot, cache);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        final int helpers = Math.min(parallelism, distinct.size()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // The calling thread indexes whatever is left
+                break;
+            }
+        }
+        worker.run();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable t = failure.get();
+        if (t instanceof DeploymentUnitProcessingException) {
+            throw (DeploymentUnitProcessingException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw ServerLogger.ROOT_LOGGER.deploymentIndexingFailed(t);
         }
     }
 
@@ -22,6 +22,7 @@
 
 package org.jboss.as.server.deployment.annotation;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
@@ -50,6 +51,17 @@ public class ResourceRootIndexer {
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
+        indexResourceRoot(resourceRoot, null);
+    }
+
+    /**
+     * Creates and attaches the annotation index to a resource root, if it has not already been attached, reusing
+     * a cached index if the content of the resource root has not changed since it was stored.
+     *
+     * @param resourceRoot the resource root
+     * @param cache the index cache, or {@code null} to always generate the index
+     */
+    public static void indexResourceRoot(final ResourceRoot resourceRoot, final AnnotationIndexCache cache) throws DeploymentUnitProcessingException {
         if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
             return;
         }
@@ -92,6 +104,23 @@ public class ResourceRootIndexer {
             });
 
             final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
+            String cacheKey = null;
+            if (cache != null) {
+                try {
+                    cacheKey = AnnotationIndexCache.computeKey(virtualFile, classChildren, indexIgnorePaths);
+                } catch (IOException e) {
+                    // Index without the cache; a class file that can't be read is reported by the indexing below
+                    ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Cannot compute the annotation index cache key of %s", virtualFile);
+                }
+            }
+            if (cacheKey != null) {
+                final Index cached = cache.get(cacheKey);
+                if (cached != null) {
+                    resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, cached);
+                    ServerLogger.DEPLOYMENT_LOGGER.tracef("Found cached index for archive %s", virtualFile);
+                    return;
+                }
+            }
             for (VirtualFile classFile : classChildren) {
                 InputStream inputStream = null;
                 try {
@@ -104,6 +133,9 @@ public class ResourceRootIndexer {
                 }
             }
             final Index index = indexer.complete();
+            if (cacheKey != null) {
+                cache.put(cacheKey, index);
+            }
             resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
             ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
         } catch (Throwable t) {
@@ -46,7 +46,6 @@ import org.jboss.as.server.deployment.annotation.ResourceRootIndexer;
 import org.jboss.as.server.moduleservice.ExternalModuleService;
 import org.jboss.as.server.moduleservice.ServiceModuleLoader;
 import org.jboss.modules.ModuleIdentifier;
-import org.jboss.vfs.VFS;
 import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
 
@@ -272,7 +271,7 @@ public final class ManifestClassPathProcessor implements DeploymentUnitProcessor
             if(overlay != null) {
                 overlay.remountAsZip(false);
             } else if(file.isFile()) {
-                closable = VFS.mountZip(file, file, TempFileProviderService.provider());
+                closable = DeploymentUtils.mountNestedArchive(deploymentUnit, file);
             }
             final MountHandle mountHandle = new MountHandle(closable);
             final ResourceRoot resourceRoot = new ResourceRoot(file, mountHandle);
@@ -22,11 +22,14 @@
 
 package org.jboss.as.server.deployment.reflect;
 
+import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.invocation.proxy.MethodIdentifier;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -45,6 +48,11 @@ import static java.lang.reflect.Modifier.STATIC;
  * A short-lived index of all the declared fields and methods of a class.
  * <p/>
  * The ClassReflectionIndex is only available during the deployment.
+ * <p/>
+ * The fields, constructors and methods of the class are each indexed the first time one of them is asked for, so a
+ * class whose members cannot be loaded no longer fails in {@link DeploymentReflectionIndex#getClassIndex(Class)}:
+ * the {@code errorGettingReflectiveInformation} {@link RuntimeException} is thrown by the first member accessor
+ * that needs them, and again by every later call to it.
  *
  * @param <?> the type being indexed
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
@@ -52,11 +60,11 @@ import static java.lang.reflect.Modifier.STATIC;
 public final class ClassReflectionIndex {
     private final DeploymentReflectionIndex deploymentReflectionIndex;
     private final Class<?> indexedClass;
-    private final Map<String, Field> fields;
-    private final Map<ParamList, Constructor<?>> constructors;
-    private final Map<ParamNameList, Constructor<?>> constructorsByTypeName;
-    private final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods;
-    private final Map<String, Map<ParamNameList, Map<String, Method>>> methodsByTypeName;
+
+    // Each kind of member is only indexed once it is first asked for; many classes only ever have their methods looked at
+    private volatile Map<String, Field> fields;
+    private volatile Constructors constructors;
+    private volatile Methods methods;
 
     /**
      * Identity map of all methods defined by this class and its superclasses (including default methods)
@@ -64,47 +72,88 @@ public final class ClassReflectionIndex {
      */
     private volatile Set<Method> classMethods;
 
-    @SuppressWarnings({"unchecked"})
     ClassReflectionIndex(final Class<?> indexedClass, final DeploymentReflectionIndex deploymentReflectionIndex) {
         this.deploymentReflectionIndex = deploymentReflectionIndex;
         this.indexedClass = indexedClass;
-        // -- fields --
-        final Field[] declaredFields = indexedClass.getDeclaredFields();
-        final Map<String, Field> fields = new HashMap<String, Field>();
-        for (Field field : declaredFields) {
-            field.setAccessible(true);
-            fields.put(field.getName(), field);
-        }
-        this.fields = fields;
-        // -- methods --
-        final Method[] declaredMethods = indexedClass.getDeclaredMethods();
-        final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods = new HashMap<String, Map<ParamList, Map<Class<?>, Method>>>();
-        final Map<String, Map<ParamNameList, Map<String, Method>>> methodsByTypeName = new HashMap<String, Map<ParamNameList, Map<String, Method>>>();
-        for (Method method : declaredMethods) {
-            // Ignore setting the accessible flag as Object.class comes from the java.base module in Java 9+. Really the
-            // only method that causes a warning and eventual failure is finalize(), but there's no reason for the
-            // overhead of the change.
-            if (method.getDeclaringClass() != Object.class) {
-                method.setAccessible(true);
+    }
+
+    private Map<String, Field> fields() {
+        Map<String, Field> fields = this.fields;
+        if (fields == null) {
+            synchronized (this) {
+                fields = this.fields;
+                if (fields == null) {
+                    this.fields = fields = index(() -> {
+                        final Field[] declaredFields = indexedClass.getDeclaredFields();
+                        final Map<String, Field> map = new HashMap<String, Field>();
+                        for (Field field : declaredFields) {
+                            field.setAccessible(true);
+                            map.put(field.getName(), field);
+                        }
+                        return map;
+                    });
+                }
+            }
+        }
+        return fields;
+    }
+
+    private Methods methods() {
+        Methods methods = this.methods;
+        if (methods == null) {
+            synchronized (this) {
+                methods = this.methods;
+                if (methods == null) {
+                    this.methods = methods = index(() -> {
+                        final Method[] declaredMethods = indexedClass.getDeclaredMethods();
+                        final Methods result = new Methods();
+                        for (Method method : declaredMethods) {
+                            // Ignore setting the accessible flag as Object.class comes from the java.base module in Java 9+. Really the
+                            // only method that causes a warning and eventual failure is finalize(), but there's no reason for the
+                            // overhead of the change.
+                            if (method.getDeclaringClass() != Object.class) {
+                                method.setAccessible(true);
+                            }
+                            addMethod(result.byType, method);
+                            addMethodByTypeName(result.byTypeName, method);
+                        }
+                        return result;
+                    });
+                }
             }
-            addMethod(methods, method);
-            addMethodByTypeName(methodsByTypeName, method);
         }
+        return methods;
+    }
+
+    private Constructors constructors() {
+        Constructors constructors = this.constructors;
+        if (constructors == null) {
+            synchronized (this) {
+                constructors = this.constructors;
+                if (constructors == null) {
+                    this.constructors = constructors = index(() -> {
+                        final Constructor<?>[] declaredConstructors = indexedClass.getDeclaredConstructors();
+                        final Constructors result = new Constructors();
+                        for (Constructor<?> constructor : declaredConstructors) {
+                            constructor.setAccessible(true);
+                            Class<?>[] parameterTypes = constructor.getParameterTypes();
+                            result.byType.put(createParamList(parameterTypes), constructor);
+                            result.byTypeName.put(createParamNameList(parameterTypes), constructor);
+                        }
+                        return result;
+                    });
+                }
+            }
+        }
+        return constructors;
+    }
 
-        this.methods = methods;
-        this.methodsByTypeName = methodsByTypeName;
-        // -- constructors --
-        final Constructor<?>[] declaredConstructors = (Constructor<?>[]) indexedClass.getDeclaredConstructors();
-        final Map<ParamNameList, Constructor<?>> constructorsByTypeName = new HashMap<ParamNameList, Constructor<?>>();
-        final Map<ParamList, Constructor<?>> constructors = new HashMap<ParamList, Constructor<?>>();
-        for (Constructor<?> constructor : declaredConstructors) {
-            constructor.setAccessible(true);
-            Class<?>[] parameterTypes = constructor.getParameterTypes();
-            constructors.put(createParamList(parameterTypes), constructor);
-            constructorsByTypeName.put(createParamNameList(parameterTypes), constructor);
+    private <T> T index(final PrivilegedAction<T> action) {
+        try {
+            return System.getSecurityManager() == null ? action.run() : AccessController.doPrivileged(action);
+        } catch (Throwable e) {
+            throw ServerLogger.ROOT_LOGGER.errorGettingReflectiveInformation(indexedClass, indexedClass.getClassLoader(), e);
         }
-        this.constructorsByTypeName = constructorsByTypeName;
-        this.constructors = constructors;
     }
 
     private static final ParamList EMPTY = new ParamList(new Class<?>[0]);
@@ -182,7 +231,7 @@ public final class ClassReflectionIndex {
      * @return the field, or {@code null} if no field of that name exists
      */
     public Field getField(String name) {
-        return fields.get(name);
+        return fields().get(name);
     }
 
     /**
@@ -191,7 +240,7 @@ public final class ClassReflectionIndex {
      * @return The (possibly empty) collection of all declared fields on this object
      */
     public Collection<Field> getFields() {
-        return Collections.unmodifiableCollection(fields.values());
+        return Collections.unmodifiableCollection(fields().values());
     }
 
     /**
@@ -203,7 +252,7 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(Class<?> returnType, String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().byType.get(name);
         if (nameMap == null) {
             return null;
         }
@@ -233,7 +282,7 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(String returnType, String name, String... paramTypeNames) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(name);
+        final Map<ParamNameList, Map<String, Method>> nameMap = methods().byTypeName.get(name);
         if (nameMap == null) {
             return null;
         }
@@ -251,7 +300,7 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(MethodIdentifier methodIdentifier) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(methodIdentifier.getName());
+        final Map<ParamNameList, Map<String, Method>> nameMap = methods().byTypeName.get(methodIdentifier.getName());
         if (nameMap == null) {
             return null;
         }
@@ -270,7 +319,7 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods matching the description
      */
     public Collection<Method> getMethods(String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().byType.get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -289,7 +338,7 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods matching the description
      */
     public Collection<Method> getMethods(String name, String... paramTypeNames) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(name);
+        final Map<ParamNameList, Map<String, Method>> nameMap = methods().byTypeName.get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -307,7 +356,7 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods with the given name
      */
     public Collection<Method> getAllMethods(String name) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().byType.get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -326,7 +375,7 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods with the given name and parameter count
      */
     public Collection<Method> getAllMethods(String name, int paramCount) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().byType.get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -348,7 +397,7 @@ public final class ClassReflectionIndex {
      */
     public Collection<Method> getMethods() {
         final Collection<Method> methods = new ArrayList<Method>();
-        for (Map.Entry<String, Map<ParamList, Map<Class<?>, Method>>> entry : this.methods.entrySet()) {
+        for (Map.Entry<String, Map<ParamList, Map<Class<?>, Method>>> entry : methods().byType.entrySet()) {
             final Map<ParamList, Map<Class<?>, Method>> nameMap = entry.getValue();
             for (Map<Class<?>, Method> map : nameMap.values()) {
                 methods.addAll(map.values());
@@ -363,7 +412,7 @@ public final class ClassReflectionIndex {
      * @return the constructors
      */
     public Collection<Constructor<?>> getConstructors() {
-        return Collections.unmodifiableCollection(constructors.values());
+        return Collections.unmodifiableCollection(constructors().byType.values());
     }
 
     /**
@@ -373,7 +422,7 @@ public final class ClassReflectionIndex {
      * @return the constructor, or {@code null} of no such constructor exists
      */
     public Constructor<?> getConstructor(Class<?>... paramTypes) {
-        return constructors.get(createParamList(paramTypes));
+        return constructors().byType.get(createParamList(paramTypes));
     }
 
     /**
@@ -383,7 +432,7 @@ public final class ClassReflectionIndex {
      * @return the constructor, or {@code null} of no such constructor exists
      */
     public Constructor<?> getConstructor(String... paramTypeNames) {
-        return constructorsByTypeName.get(createParamNameList(paramTypeNames));
+        return constructors().byTypeName.get(createParamNameList(paramTypeNames));
     }
 
     public Set<Method> getClassMethods() {
@@ -439,6 +488,16 @@ public final class ClassReflectionIndex {
     }
 
 
+    private static final class Methods {
+        final Map<String, Map<ParamList, Map<Class<?>, Method>>> byType = new HashMap<String, Map<ParamList, Map<Class<?>, Method>>>();
+        final Map<String, Map<ParamNameList, Map<String, Method>>> byTypeName = new HashMap<String, Map<ParamNameList, Map<String, Method>>>();
+    }
+
+    private static final class Constructors {
+        final Map<ParamList, Constructor<?>> byType = new HashMap<ParamList, Constructor<?>>();
+        final Map<ParamNameList, Constructor<?>> byTypeName = new HashMap<ParamNameList, Constructor<?>>();
+    }
+
     private static final class ParamList {
         private final Class<?>[] types;
         private final int hashCode;
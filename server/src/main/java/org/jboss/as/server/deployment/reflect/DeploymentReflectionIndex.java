@@ -22,21 +22,20 @@
 
 package org.jboss.as.server.deployment.reflect;
 
-import java.security.AccessController;
-import java.security.PrivilegedAction;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.security.ServerPermission;
 
 /**
  * A reflection index for a deployment.
+ * <p/>
+ * The index may be used from several threads at once; the members of each class are only indexed when first looked up.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex> classes = new HashMap<Class<?>, ClassReflectionIndex>();
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex>();
 
     DeploymentReflectionIndex() {
     }
@@ -60,22 +59,9 @@ public final class DeploymentReflectionIndex {
      * @param clazz the class
      * @return the index
      */
-    @SuppressWarnings({"unchecked"})
-    public synchronized ClassReflectionIndex getClassIndex(Class clazz) {
-        try {
-            ClassReflectionIndex index = classes.get(clazz);
-            if (index == null) {
-                final SecurityManager sm = System.getSecurityManager();
-                if (sm == null) {
-                    index = new ClassReflectionIndex(clazz, this);
-                } else {
-                    index = AccessController.doPrivileged((PrivilegedAction<ClassReflectionIndex>) () -> new ClassReflectionIndex(clazz, this));
-                }
-                classes.put(clazz, index);
-            }
-            return index;
-        } catch (Throwable e) {
-            throw ServerLogger.ROOT_LOGGER.errorGettingReflectiveInformation(clazz, clazz.getClassLoader(), e);
-        }
+    public ClassReflectionIndex getClassIndex(Class clazz) {
+        // get() first, as computeIfAbsent() locks the bin even when the mapping is present
+        final ClassReflectionIndex index = classes.get(clazz);
+        return index != null ? index : classes.computeIfAbsent(clazz, c -> new ClassReflectionIndex(c, this));
     }
 }
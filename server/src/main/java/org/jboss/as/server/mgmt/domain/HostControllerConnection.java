@@ -39,6 +39,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.remote.CompactModelCodec;
 import org.jboss.as.controller.remote.ResponseAttachmentInputStreamSupport;
 import org.jboss.as.controller.remote.TransactionalProtocolClient;
 import org.jboss.as.controller.remote.TransactionalProtocolOperationHandler;
@@ -259,6 +260,19 @@ class HostControllerConnection extends FutureManagementChannel {
         }
     }
 
+    /**
+     * Tell the HC that operations may be sent to this server in the compact model encoding. An HC that does not
+     * know the parameter ignores it, and one that does falls back to the standard encoding if it is missing.
+     *
+     * @param output the request output
+     * @throws IOException for any error
+     */
+    static void writeCompactModelSupport(final FlushableDataOutput output) throws IOException {
+        if (CompactModelCodec.isEnabled()) {
+            output.write(DomainServerProtocol.PARAM_COMPACT_MODEL);
+        }
+    }
+
     /**
      * The server registration request.
      */
@@ -273,6 +287,7 @@ class HostControllerConnection extends FutureManagementChannel {
         protected void sendRequest(final ActiveOperation.ResultHandler<ModelNode> resultHandler, final ManagementRequestContext<Void> context, final FlushableDataOutput output) throws IOException {
             output.writeUTF(serverProcessName);
             output.writeInt(initialOperationID);
+            writeCompactModelSupport(output);
         }
 
         @Override
@@ -304,6 +319,7 @@ class HostControllerConnection extends FutureManagementChannel {
         protected void sendRequest(final ActiveOperation.ResultHandler<Boolean> resultHandler, final ManagementRequestContext<Void> context, final FlushableDataOutput output) throws IOException {
             output.write(DomainServerProtocol.PARAM_SERVER_NAME);
             output.writeUTF(serverProcessName);
+            writeCompactModelSupport(output);
         }
 
         @Override
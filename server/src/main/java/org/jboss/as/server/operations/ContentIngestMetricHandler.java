@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.operations;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.repository.ContentRepository;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Handler for the metrics of the content added to the content repository.
+ */
+public class ContentIngestMetricHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition CONTENT_INGESTED_BYTES = new SimpleAttributeDefinitionBuilder("content-ingested-bytes", ModelType.LONG)
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setStorageRuntime()
+            .setRuntimeServiceNotRequired()
+            .build();
+
+    public static final SimpleAttributeDefinition CONTENT_INGEST_THROUGHPUT = new SimpleAttributeDefinitionBuilder("content-ingest-throughput", ModelType.LONG)
+            .setMeasurementUnit(MeasurementUnit.PER_SECOND)
+            .setStorageRuntime()
+            .setRuntimeServiceNotRequired()
+            .build();
+
+    private final ContentRepository contentRepository;
+
+    private ContentIngestMetricHandler(final ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    public static void register(final ManagementResourceRegistration registration, final ContentRepository contentRepository) {
+        final ContentIngestMetricHandler handler = new ContentIngestMetricHandler(contentRepository);
+        registration.registerMetric(CONTENT_INGESTED_BYTES, handler);
+        registration.registerMetric(CONTENT_INGEST_THROUGHPUT, handler);
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        final long bytes = contentRepository.getIngestedBytes();
+        if (CONTENT_INGESTED_BYTES.getName().equals(attributeName)) {
+            context.getResult().set(bytes);
+        } else if (CONTENT_INGEST_THROUGHPUT.getName().equals(attributeName)) {
+            final long time = contentRepository.getIngestTime();
+            context.getResult().set(time == 0 ? 0L : (long) (bytes * ((double) TimeUnit.SECONDS.toNanos(1) / time)));
+        }
+    }
+}
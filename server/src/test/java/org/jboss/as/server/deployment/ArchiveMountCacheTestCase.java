@@ -0,0 +1,218 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.vfs.TempFileProvider;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ArchiveMountCache}.
+ */
+public class ArchiveMountCacheTestCase {
+
+    private static final String TESTNAME = ArchiveMountCacheTestCase.class.getSimpleName();
+
+    private Path tmpDir;
+    private Path cacheDir;
+    private ScheduledExecutorService executor;
+    private TempFileProvider tempFileProvider;
+
+    @Before
+    public void setup() throws IOException {
+        tmpDir = Files.createTempDirectory(TESTNAME);
+        cacheDir = tmpDir.resolve("cache");
+        executor = Executors.newSingleThreadScheduledExecutor();
+        tempFileProvider = TempFileProvider.create(TESTNAME, executor, true);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        VFSUtils.safeClose(tempFileProvider);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (tmpDir != null) {
+            Files.walkFileTree(tmpDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testMountZipSharesCopy() throws IOException {
+        ArchiveMountCache cache = new ArchiveMountCache(cacheDir, Long.MAX_VALUE);
+        VirtualFile archive = VFS.getChild(createArchive("a.jar", "hello").toString());
+        VirtualFile first = VFS.getChild(TESTNAME + "/first.jar");
+        VirtualFile second = VFS.getChild(TESTNAME + "/second.jar");
+        try (Closeable a = cache.mountZip(archive, first, tempFileProvider);
+             Closeable b = cache.mountZip(archive, second, tempFileProvider)) {
+            Assert.assertEquals("hello", read(first.getChild("META-INF/test.txt")));
+            Assert.assertEquals("hello", read(second.getChild("META-INF/test.txt")));
+            Assert.assertEquals(1, list(cacheDir).size());
+        }
+        Assert.assertFalse(first.exists());
+    }
+
+    @Test
+    public void testMountZipExpanded() throws IOException {
+        ArchiveMountCache cache = new ArchiveMountCache(cacheDir, Long.MAX_VALUE);
+        VirtualFile archive = VFS.getChild(createArchive("a.jar", "hello").toString());
+        VirtualFile mountPoint = VFS.getChild(TESTNAME + "/expanded.jar");
+        try (Closeable handle = cache.mountZipExpanded(archive, mountPoint, tempFileProvider)) {
+            Assert.assertEquals("hello", read(mountPoint.getChild("META-INF/test.txt")));
+        }
+        Path expanded = cacheDir.resolve(cache.computeKey(archive) + ".expanded");
+        Assert.assertTrue(Files.isRegularFile(expanded.resolve("META-INF/test.txt")));
+
+        // A modified expansion is not reused
+        Files.write(expanded.resolve("META-INF/test.txt"), "modified!".getBytes(StandardCharsets.UTF_8));
+        try (Closeable handle = cache.mountZipExpanded(archive, mountPoint, tempFileProvider)) {
+            Assert.assertEquals("hello", read(mountPoint.getChild("META-INF/test.txt")));
+        }
+
+        // Nor is one modified in place without changing its size
+        Path file = expanded.resolve("META-INF/test.txt");
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        Files.write(file, "jello".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 2000));
+        try (Closeable handle = cache.mountZipExpanded(archive, mountPoint, tempFileProvider)) {
+            Assert.assertEquals("hello", read(mountPoint.getChild("META-INF/test.txt")));
+        }
+
+        // Nor one with an added file
+        Files.write(expanded.resolve("META-INF/added.txt"), new byte[0]);
+        try (Closeable handle = cache.mountZipExpanded(archive, mountPoint, tempFileProvider)) {
+            Assert.assertFalse(mountPoint.getChild("META-INF/added.txt").exists());
+        }
+    }
+
+    @Test
+    public void testMountZipExpandedNotShared() throws IOException {
+        ArchiveMountCache cache = new ArchiveMountCache(cacheDir, Long.MAX_VALUE);
+        VirtualFile archive = VFS.getChild(createArchive("a.jar", "hello").toString());
+        VirtualFile first = VFS.getChild(TESTNAME + "/first.jar");
+        VirtualFile second = VFS.getChild(TESTNAME + "/second.jar");
+        try (Closeable a = cache.mountZipExpanded(archive, first, tempFileProvider);
+             Closeable b = cache.mountZipExpanded(archive, second, tempFileProvider)) {
+            Path cached = cacheDir.toRealPath();
+            Assert.assertTrue(first.getChild("META-INF/test.txt").getPhysicalFile().toPath().toRealPath().startsWith(cached));
+            // The second mount gets its own expansion, so it cannot modify the files of the first
+            Assert.assertFalse(second.getChild("META-INF/test.txt").getPhysicalFile().toPath().toRealPath().startsWith(cached));
+            Assert.assertEquals("hello", read(second.getChild("META-INF/test.txt")));
+        }
+    }
+
+    @Test
+    public void testChangedArchiveGetsNewKey() throws IOException {
+        ArchiveMountCache cache = new ArchiveMountCache(cacheDir, Long.MAX_VALUE);
+        Path file = createArchive("a.jar", "hello");
+        VirtualFile archive = VFS.getChild(file.toString());
+        String key = cache.computeKey(archive);
+        Assert.assertEquals(key, cache.computeKey(archive));
+
+        createArchive("a.jar", "changed");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        Assert.assertNotEquals(key, cache.computeKey(archive));
+    }
+
+    @Test
+    public void testEvictSkipsMounted() throws IOException {
+        ArchiveMountCache cache = new ArchiveMountCache(cacheDir, 1);
+        VirtualFile a = VFS.getChild(createArchive("a.jar", "a").toString());
+        VirtualFile b = VFS.getChild(createArchive("b.jar", "b").toString());
+        VirtualFile mountPoint = VFS.getChild(TESTNAME + "/a.jar");
+        try (Closeable handle = cache.mountZip(a, mountPoint, tempFileProvider)) {
+            cache.mountZip(b, VFS.getChild(TESTNAME + "/b.jar"), tempFileProvider).close();
+            cache.evict();
+            Assert.assertEquals(1, list(cacheDir).size());
+            Assert.assertEquals("a", read(mountPoint.getChild("META-INF/test.txt")));
+        }
+        cache.evict();
+        Assert.assertTrue(list(cacheDir).isEmpty());
+    }
+
+    private Path createArchive(String name, String content) throws IOException {
+        Path file = tmpDir.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("META-INF/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("META-INF/test.txt"));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return file;
+    }
+
+    private static String read(VirtualFile file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = file.openStream()) {
+            VFSUtils.copyStream(in, out);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+}
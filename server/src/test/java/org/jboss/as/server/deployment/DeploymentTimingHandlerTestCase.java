@@ -0,0 +1,242 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_OPERATION_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractControllerService;
+import org.jboss.as.controller.CapabilityRegistry;
+import org.jboss.as.controller.ControlledProcessState;
+import org.jboss.as.controller.ExpressionResolver;
+import org.jboss.as.controller.ManagementModel;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.ResourceBuilder;
+import org.jboss.as.controller.RunningMode;
+import org.jboss.as.controller.RunningModeControl;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.access.management.DelegatingConfigurableAuthorizer;
+import org.jboss.as.controller.access.management.ManagementSecurityIdentitySupplier;
+import org.jboss.as.controller.audit.AuditLogger;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.persistence.NullConfigurationPersister;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.server.controller.resources.DeploymentAttributes;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the timing attributes and reports registered by {@link DeploymentTimingHandler}, read through the
+ * management layer.
+ */
+public class DeploymentTimingHandlerTestCase {
+
+    private static final String DEPLOYMENT_NAME = "test.war";
+    private static final PathAddress DEPLOYMENT_ADDRESS = PathAddress.pathAddress(DEPLOYMENT, DEPLOYMENT_NAME);
+    private static final RegisteredDeploymentUnitProcessor PROCESSOR = new RegisteredDeploymentUnitProcessor(1, new TestProcessor(), "test");
+
+    private ServiceContainer container;
+    private ModelControllerClient client;
+
+    @Before
+    public void setup() throws Exception {
+        container = ServiceContainer.Factory.create("test");
+        TestModelControllerService svc = new TestModelControllerService();
+        container.subTarget().addService(ServiceName.of("ModelController"), svc).install();
+        Assert.assertTrue(svc.latch.await(30, TimeUnit.SECONDS));
+        ModelController controller = svc.getValue();
+        client = controller.createClient(Executors.newSingleThreadExecutor());
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (container != null) {
+            container.shutdown();
+            container.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testNotDeployed() throws IOException {
+        Assert.assertFalse(readAttribute(DeploymentTimingHandler.PROCESSING_TIME.getName()).isDefined());
+        Assert.assertFalse(readAttribute(DeploymentTimingHandler.PHASE_TIMINGS.getName()).isDefined());
+        ModelNode report = execute(Util.createEmptyOperation(DeploymentTimingHandler.AGGREGATE_OPERATION_NAME, PathAddress.EMPTY_ADDRESS));
+        Assert.assertEquals(0, report.get(DeploymentTimings.WALL_TIME).asLong());
+        Assert.assertFalse(report.get("deployments").has(DEPLOYMENT_NAME));
+    }
+
+    @Test
+    public void testDeployed() throws Exception {
+        DeploymentTimings timings = deploy();
+        long[] phase = DeploymentTimings.start();
+        long[] processor = DeploymentTimings.start();
+        Thread.sleep(5);
+        timings.processorCompleted(Phase.STRUCTURE, PROCESSOR, processor);
+        timings.phaseCompleted(Phase.STRUCTURE, phase);
+
+        long processingTime = readAttribute(DeploymentTimingHandler.PROCESSING_TIME.getName()).asLong();
+        Assert.assertEquals(timings.getWallTime(), processingTime);
+        Assert.assertTrue(processingTime >= 5000);
+
+        List<ModelNode> phases = readAttribute(DeploymentTimingHandler.PHASE_TIMINGS.getName()).asList();
+        Assert.assertEquals(1, phases.size());
+        Assert.assertEquals(Phase.STRUCTURE.name(), phases.get(0).get(DeploymentTimings.PHASE).asString());
+
+        ModelNode report = execute(Util.createEmptyOperation(DeploymentTimingHandler.OPERATION_NAME, DEPLOYMENT_ADDRESS));
+        Assert.assertEquals(processingTime, report.get(DeploymentTimings.WALL_TIME).asLong());
+        List<ModelNode> processors = report.get(DeploymentTimings.PROCESSORS).asList();
+        Assert.assertEquals(1, processors.size());
+        Assert.assertEquals(TestProcessor.class.getName(), processors.get(0).get(DeploymentTimings.PROCESSOR).asString());
+
+        ModelNode operation = Util.createEmptyOperation(DeploymentTimingHandler.OPERATION_NAME, DEPLOYMENT_ADDRESS);
+        operation.get("include-processors").set(false);
+        Assert.assertFalse(execute(operation).has(DeploymentTimings.PROCESSORS));
+
+        ModelNode aggregate = execute(Util.createEmptyOperation(DeploymentTimingHandler.AGGREGATE_OPERATION_NAME, PathAddress.EMPTY_ADDRESS));
+        Assert.assertEquals(processingTime, aggregate.get(DeploymentTimings.WALL_TIME).asLong());
+        Assert.assertEquals(processingTime, aggregate.get("deployments", DEPLOYMENT_NAME).asLong());
+        Assert.assertEquals(1, aggregate.get(DeploymentTimings.PROCESSORS).asList().size());
+    }
+
+    @Test
+    public void testAggregateDescription() throws IOException {
+        // The root operation is described by the server resource descriptions, not the deployment ones
+        ModelNode operation = Util.createEmptyOperation(READ_OPERATION_DESCRIPTION_OPERATION, PathAddress.EMPTY_ADDRESS);
+        operation.get(NAME).set(DeploymentTimingHandler.AGGREGATE_OPERATION_NAME);
+        ModelNode description = execute(operation);
+        Assert.assertTrue(description.get(DESCRIPTION).asString().startsWith("Report the time spent"));
+    }
+
+    private DeploymentTimings deploy() throws InterruptedException {
+        TestDeploymentUnitService service = new TestDeploymentUnitService();
+        container.subTarget().addService(Services.deploymentUnitName(DEPLOYMENT_NAME), service).install();
+        container.awaitStability(30, TimeUnit.SECONDS);
+        DeploymentTimings timings = service.getValue().getAttachment(Attachments.DEPLOYMENT_TIMINGS);
+        Assert.assertNotNull(timings);
+        return timings;
+    }
+
+    private ModelNode readAttribute(String name) throws IOException {
+        ModelNode operation = Util.createEmptyOperation(READ_ATTRIBUTE_OPERATION, DEPLOYMENT_ADDRESS);
+        operation.get(NAME).set(name);
+        return execute(operation);
+    }
+
+    private ModelNode execute(ModelNode operation) throws IOException {
+        ModelNode response = client.execute(operation);
+        Assert.assertEquals(response.get(FAILURE_DESCRIPTION).asString(), SUCCESS, response.get(OUTCOME).asString());
+        return response.get(RESULT);
+    }
+
+    private static class TestModelControllerService extends AbstractControllerService {
+
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        TestModelControllerService() {
+            super(ProcessType.EMBEDDED_SERVER, new RunningModeControl(RunningMode.NORMAL), new NullConfigurationPersister(), new ControlledProcessState(true),
+                    ResourceBuilder.Factory.create(PathElement.pathElement("root"), NonResolvingResourceDescriptionResolver.INSTANCE).build(), null, ExpressionResolver.TEST_RESOLVER,
+                    AuditLogger.NO_OP_LOGGER, new DelegatingConfigurableAuthorizer(), new ManagementSecurityIdentitySupplier(), new CapabilityRegistry(true));
+        }
+
+        @Override
+        protected void initModel(ManagementModel managementModel, Resource modelControllerResource) {
+            ManagementResourceRegistration rootRegistration = managementModel.getRootResourceRegistration();
+            GlobalOperationHandlers.registerGlobalOperations(rootRegistration, processType);
+            DeploymentTimingHandler.registerAggregateTimings(rootRegistration);
+            ManagementResourceRegistration deployments = rootRegistration.registerSubModel(
+                    new SimpleResourceDefinition(PathElement.pathElement(DEPLOYMENT), NonResolvingResourceDescriptionResolver.INSTANCE));
+            DeploymentTimingHandler.registerDeploymentTimings(deployments);
+
+            Resource deployment = Resource.Factory.create();
+            deployment.getModel().get(DeploymentAttributes.RUNTIME_NAME.getName()).set(DEPLOYMENT_NAME);
+            managementModel.getRootResource().registerChild(DEPLOYMENT_ADDRESS.getLastElement(), deployment);
+        }
+
+        @Override
+        public void start(StartContext context) throws StartException {
+            super.start(context);
+            latch.countDown();
+        }
+
+        @Override
+        protected void bootThreadDone() {
+            super.bootThreadDone();
+            latch.countDown();
+        }
+    }
+
+    private static class TestDeploymentUnitService extends AbstractDeploymentUnitService {
+
+        TestDeploymentUnitService() {
+            super(null, null, Resource.Factory.create(), null, null);
+        }
+
+        @Override
+        protected DeploymentUnit createAndInitializeDeploymentUnit(ServiceRegistry registry) {
+            DeploymentUnit unit = new DeploymentUnitImpl(null, DEPLOYMENT_NAME, registry);
+            unit.putAttachment(Attachments.MANAGEMENT_NAME, DEPLOYMENT_NAME);
+            return unit;
+        }
+    }
+
+    private static class TestProcessor implements DeploymentUnitProcessor {
+        @Override
+        public void deploy(DeploymentPhaseContext phaseContext) {
+        }
+
+        @Override
+        public void undeploy(DeploymentUnit context) {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link DeploymentTimings}.
+ */
+public class DeploymentTimingsTestCase {
+
+    private static final RegisteredDeploymentUnitProcessor FAST = new RegisteredDeploymentUnitProcessor(1, new FastProcessor(), "fast");
+    private static final RegisteredDeploymentUnitProcessor SLOW = new RegisteredDeploymentUnitProcessor(2, new SlowProcessor(), "slow");
+
+    @Test
+    public void testProcessorsSlowestFirst() throws Exception {
+        DeploymentTimings timings = record();
+
+        ModelNode report = timings.toModelNode(true);
+        List<ModelNode> phases = report.get(DeploymentTimings.PHASES).asList();
+        Assert.assertEquals(2, phases.size());
+        Assert.assertEquals(Phase.STRUCTURE.name(), phases.get(0).get(DeploymentTimings.PHASE).asString());
+        Assert.assertEquals(Phase.PARSE.name(), phases.get(1).get(DeploymentTimings.PHASE).asString());
+        Assert.assertTrue(report.get(DeploymentTimings.WALL_TIME).asLong() >= 20000);
+
+        List<ModelNode> processors = report.get(DeploymentTimings.PROCESSORS).asList();
+        Assert.assertEquals(3, processors.size());
+        Assert.assertEquals(SlowProcessor.class.getName(), processors.get(0).get(DeploymentTimings.PROCESSOR).asString());
+        Assert.assertEquals("slow", processors.get(0).get(DeploymentTimings.SUBSYSTEM).asString());
+        Assert.assertTrue(processors.get(0).get(DeploymentTimings.WALL_TIME).asLong() >= 20000);
+
+        Assert.assertFalse(timings.toModelNode(false).has(DeploymentTimings.PROCESSORS));
+    }
+
+    @Test
+    public void testSum() throws Exception {
+        DeploymentTimings first = record();
+        DeploymentTimings second = record();
+
+        DeploymentTimings total = DeploymentTimings.sum(Arrays.asList(first, second));
+        Assert.assertEquals(first.getWallTime() + second.getWallTime(), total.getWallTime(), 1);
+        Assert.assertEquals(2, total.getPhases().asList().size());
+        Assert.assertEquals(3, total.getProcessors().asList().size());
+
+        total.reset();
+        Assert.assertEquals(0, total.getWallTime());
+        Assert.assertTrue(total.getPhases().asList().isEmpty());
+    }
+
+    private static DeploymentTimings record() throws Exception {
+        DeploymentTimings timings = new DeploymentTimings();
+        long[] phase = DeploymentTimings.start();
+        long[] processor = DeploymentTimings.start();
+        timings.processorCompleted(Phase.STRUCTURE, FAST, processor);
+        timings.phaseCompleted(Phase.STRUCTURE, phase);
+
+        phase = DeploymentTimings.start();
+        processor = DeploymentTimings.start();
+        timings.processorCompleted(Phase.PARSE, FAST, processor);
+        processor = DeploymentTimings.start();
+        Thread.sleep(20);
+        timings.processorCompleted(Phase.PARSE, SLOW, processor);
+        timings.phaseCompleted(Phase.PARSE, phase);
+        return timings;
+    }
+
+    private static class FastProcessor implements DeploymentUnitProcessor {
+        @Override
+        public void deploy(DeploymentPhaseContext phaseContext) {
+        }
+
+        @Override
+        public void undeploy(DeploymentUnit context) {
+        }
+    }
+
+    private static class SlowProcessor extends FastProcessor {
+    }
+}
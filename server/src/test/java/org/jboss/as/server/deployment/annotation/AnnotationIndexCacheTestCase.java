@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AnnotationIndexCache}.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private static final String TESTNAME = AnnotationIndexCacheTestCase.class.getSimpleName();
+
+    private Path tmpDir;
+    private Index index;
+
+    @Before
+    public void setup() throws IOException {
+        tmpDir = Files.createTempDirectory(TESTNAME);
+        Indexer indexer = new Indexer();
+        try (InputStream in = getClass().getResourceAsStream(TESTNAME + ".class")) {
+            indexer.index(in);
+        }
+        index = indexer.complete();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        if (tmpDir != null) {
+            Files.walkFileTree(tmpDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testStoreAndRead() {
+        AnnotationIndexCache cache = new AnnotationIndexCache(tmpDir.resolve("cache"), Long.MAX_VALUE);
+        Assert.assertNull(cache.get("a"));
+        cache.put("a", index);
+
+        Index cached = new AnnotationIndexCache(tmpDir.resolve("cache"), Long.MAX_VALUE).get("a");
+        Assert.assertNotNull(cached);
+        Assert.assertNotNull(cached.getClassByName(DotName.createSimple(AnnotationIndexCacheTestCase.class.getName())));
+        Assert.assertFalse(cached.getAnnotations(DotName.createSimple(Test.class.getName())).isEmpty());
+    }
+
+    @Test
+    public void testKeyDependsOnContent() throws IOException {
+        Path root = Files.createDirectories(tmpDir.resolve("root/org/example"));
+        Path classFile = root.resolve("A.class");
+        FileTime timestamp = FileTime.fromMillis(315532800000L);
+        Files.write(classFile, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(classFile, timestamp);
+        VirtualFile rootFile = VFS.getChild(tmpDir.resolve("root").toString());
+        String first = AnnotationIndexCache.computeKey(rootFile, Collections.singletonList(rootFile.getChild("org/example/A.class")), null);
+
+        // Same content and relative path under a different root
+        Path other = Files.createDirectories(tmpDir.resolve("other/org/example"));
+        Files.copy(classFile, other.resolve("A.class"));
+        VirtualFile otherFile = VFS.getChild(tmpDir.resolve("other").toString());
+        Assert.assertEquals(first, AnnotationIndexCache.computeKey(otherFile, Collections.singletonList(otherFile.getChild("org/example/A.class")), null));
+
+        // A change that keeps the size and timestamp, as a reproducible build would produce
+        Files.write(classFile, new byte[] {1, 2, 4});
+        Files.setLastModifiedTime(classFile, timestamp);
+        Assert.assertNotEquals(first, AnnotationIndexCache.computeKey(rootFile, Collections.singletonList(rootFile.getChild("org/example/A.class")), null));
+
+        // Ignored paths are part of the key
+        Files.write(classFile, new byte[] {1, 2, 3});
+        Assert.assertNotEquals(first, AnnotationIndexCache.computeKey(rootFile, Collections.singletonList(rootFile.getChild("org/example/A.class")),
+                Collections.singleton("org/ignored")));
+    }
+
+    @Test
+    public void testCorruptEntryIgnored() throws IOException {
+        Path dir = Files.createDirectories(tmpDir.resolve("cache"));
+        Files.write(dir.resolve("a.idx"), new byte[] {1, 2, 3});
+        AnnotationIndexCache cache = new AnnotationIndexCache(dir, Long.MAX_VALUE);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertFalse(Files.exists(dir.resolve("a.idx")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws IOException {
+        Path dir = tmpDir.resolve("cache");
+        AnnotationIndexCache unbounded = new AnnotationIndexCache(dir, Long.MAX_VALUE);
+        unbounded.put("a", index);
+        unbounded.put("b", index);
+        unbounded.put("c", index);
+        long entrySize = Files.size(dir.resolve("a.idx"));
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(dir.resolve("a.idx"), FileTime.fromMillis(now - 3000));
+        Files.setLastModifiedTime(dir.resolve("b.idx"), FileTime.fromMillis(now - 2000));
+        Files.setLastModifiedTime(dir.resolve("c.idx"), FileTime.fromMillis(now - 1000));
+        // Reading 'a' makes 'b' the least recently used
+        Assert.assertNotNull(unbounded.get("a"));
+
+        new AnnotationIndexCache(dir, 2 * entrySize).evict();
+        Assert.assertTrue(Files.exists(dir.resolve("a.idx")));
+        Assert.assertFalse(Files.exists(dir.resolve("b.idx")));
+        Assert.assertTrue(Files.exists(dir.resolve("c.idx")));
+    }
+}
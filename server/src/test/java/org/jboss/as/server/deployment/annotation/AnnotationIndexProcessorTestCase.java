@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VFS;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the concurrent indexing of resource roots by {@link AnnotationIndexProcessor}.
+ */
+public class AnnotationIndexProcessorTestCase {
+
+    private static final String TESTNAME = AnnotationIndexProcessorTestCase.class.getSimpleName();
+
+    private Path tmpDir;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() throws IOException {
+        tmpDir = Files.createTempDirectory(TESTNAME);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        executor.shutdownNow();
+        if (tmpDir != null) {
+            Files.walkFileTree(tmpDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testIndexedConcurrently() throws Exception {
+        List<ResourceRoot> roots = createRoots(8);
+        // The same root reachable twice is only indexed once
+        roots.add(roots.get(0));
+        new AnnotationIndexProcessor(null, executor, 4).index(roots);
+        assertIndexed(roots);
+    }
+
+    @Test
+    public void testRejectedHelpersIndexedOnCallingThread() throws Exception {
+        List<ResourceRoot> roots = createRoots(4);
+        new AnnotationIndexProcessor(null, command -> {
+            throw new RejectedExecutionException();
+        }, 4).index(roots);
+        assertIndexed(roots);
+    }
+
+    @Test
+    public void testSequentialWithoutExecutor() throws Exception {
+        List<ResourceRoot> roots = createRoots(3);
+        new AnnotationIndexProcessor(null, null, 4).index(roots);
+        assertIndexed(roots);
+    }
+
+    private List<ResourceRoot> createRoots(int count) throws IOException {
+        final String classPath = AnnotationIndexProcessorTestCase.class.getName().replace('.', '/') + ".class";
+        final List<ResourceRoot> roots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path classFile = tmpDir.resolve("root" + i).resolve(classPath);
+            Files.createDirectories(classFile.getParent());
+            try (InputStream in = getClass().getResourceAsStream(TESTNAME + ".class")) {
+                Files.copy(in, classFile);
+            }
+            roots.add(new ResourceRoot(VFS.getChild(tmpDir.resolve("root" + i).toString()), null));
+        }
+        return roots;
+    }
+
+    private static void assertIndexed(List<ResourceRoot> roots) {
+        for (ResourceRoot root : roots) {
+            Index index = root.getAttachment(Attachments.ANNOTATION_INDEX);
+            Assert.assertNotNull(root.getRootName(), index);
+            Assert.assertNotNull(index.getClassByName(DotName.createSimple(AnnotationIndexProcessorTestCase.class.getName())));
+        }
+    }
+}
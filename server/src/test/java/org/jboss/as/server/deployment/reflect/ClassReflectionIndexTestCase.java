@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ClassReflectionIndex}.
+ */
+public class ClassReflectionIndexTestCase {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testMembersIndexedLazily() throws Exception {
+        Class<?> clazz = new HidingClassLoader().loadClass(WithMissingType.class.getName());
+        ClassReflectionIndex index = DeploymentReflectionIndex.create().getClassIndex(clazz);
+
+        // Only the methods refer to the missing type, so the other members can still be looked up
+        Assert.assertNotNull(index.getField("value"));
+        Assert.assertNotNull(index.getConstructor(new Class<?>[0]));
+        for (int i = 0; i < 2; i++) {
+            try {
+                index.getMethods();
+                Assert.fail("Methods referring to a missing type were indexed");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getCause() instanceof NoClassDefFoundError);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentLookup() throws Exception {
+        DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object[]>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(new Callable<Object[]>() {
+                    @Override
+                    public Object[] call() throws Exception {
+                        start.await();
+                        ClassReflectionIndex classIndex = index.getClassIndex(Sample.class);
+                        Method method = classIndex.getMethod(void.class, "run", String.class);
+                        Field field = classIndex.getField("name");
+                        return new Object[] {classIndex, method, field};
+                    }
+                }));
+            }
+            start.countDown();
+            Object[] first = futures.get(0).get();
+            Assert.assertNotNull(first[1]);
+            Assert.assertNotNull(first[2]);
+            for (Future<Object[]> future : futures) {
+                // Every thread sees the members of the one index, so each class and member was indexed once
+                Object[] result = future.get();
+                for (int i = 0; i < result.length; i++) {
+                    Assert.assertSame(first[i], result[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class Sample {
+        private String name;
+
+        public void run(String name) {
+            this.name = name;
+        }
+
+        public void run() {
+            run(null);
+        }
+    }
+
+    public static class Missing {
+    }
+
+    public static class WithMissingType {
+        private int value;
+
+        public WithMissingType() {
+        }
+
+        public Missing get() {
+            return null;
+        }
+    }
+
+    /**
+     * Defines {@link WithMissingType} itself and cannot load {@link Missing}.
+     */
+    private static class HidingClassLoader extends ClassLoader {
+
+        HidingClassLoader() {
+            super(ClassReflectionIndexTestCase.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Missing.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(WithMissingType.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    byte[] bytes = readClass(name);
+                    clazz = defineClass(name, bytes, 0, bytes.length);
+                }
+                return clazz;
+            }
+        }
+
+        private static byte[] readClass(String name) throws ClassNotFoundException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = ClassReflectionIndexTestCase.class.getClassLoader().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                if (in == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2019, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Reproduces the way EE integration processors use a {@link DeploymentReflectionIndex} during the INSTALL phase:
+ * several threads looking up the same classes and one method of each.
+ * <p>
+ * {@code lookup} uses an index where every class is already known, so it only measures contention between readers.
+ * {@code indexAndLookup} starts every invocation with an empty index of its own, so it measures the cost of indexing
+ * the classes, which only includes the members that are actually looked up.
+ * <p>
+ * This is not run as part of the test suite; run {@link #main(String[])} against the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DeploymentReflectionIndexBenchmark {
+
+    // Classes of the benchmark itself rather than of the JDK, whose members can't be made accessible
+    private static final Class<?>[] CLASSES = {
+            Sample0.class, Sample1.class, Sample2.class, Sample3.class,
+            Sample4.class, Sample5.class, Sample6.class, Sample7.class,
+    };
+
+    private DeploymentReflectionIndex index;
+    private Method[] lookups;
+
+    @Setup
+    public void setup() {
+        final List<Method> lookups = new ArrayList<>();
+        for (Class<?> clazz : CLASSES) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.isSynthetic()) {
+                    lookups.add(method);
+                    break;
+                }
+            }
+        }
+        this.lookups = lookups.toArray(new Method[lookups.size()]);
+        index = DeploymentReflectionIndex.create();
+        for (Class<?> clazz : CLASSES) {
+            index.getClassIndex(clazz).getMethods();
+        }
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (Method method : lookups) {
+            blackhole.consume(index.getClassIndex(method.getDeclaringClass()).getMethod(method));
+        }
+    }
+
+    @Benchmark
+    public void indexAndLookup(EmptyIndex empty, Blackhole blackhole) {
+        for (Method method : lookups) {
+            blackhole.consume(empty.index.getClassIndex(method.getDeclaringClass()).getMethod(method));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyIndex {
+        DeploymentReflectionIndex index;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            index = DeploymentReflectionIndex.create();
+        }
+    }
+
+    static class Sample0 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample1 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample2 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample3 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample4 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample5 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample6 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    static class Sample7 {
+        private int count;
+
+        int increment(int delta) {
+            return count += delta;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DeploymentReflectionIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}